@@ -0,0 +1,3 @@
+echo "[ .. ] Executando simulação em lote..."
+cd build/
+java Core/BatchRunner "$@"
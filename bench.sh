@@ -0,0 +1,3 @@
+echo "[ .. ] Executando benchmarks JMH..."
+cd bench/
+mvn -B -q package && java -jar target/benchmarks.jar -prof gc "$@"
\ No newline at end of file
@@ -0,0 +1,222 @@
+package Benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Actors.Actor;
+import Actors.Fox;
+import Actors.Hunter;
+import Actors.Rabbit;
+import Core.Simulator;
+import Utils.RandomService;
+import Utils.Species;
+
+/**
+ * Benchmarks das ações de cada espécie: Fox.hunt, Rabbit.run e Hunter.act.
+ * Cada invocação executa a ação de todos os atores da espécie uma vez,
+ * como em um passo do SequentialEngine.
+ *
+ * O mundo é criado uma única vez por execução e continua avançando: cada
+ * invocação é a parte de um passo real feita pela espécie medida, e o
+ * restante do passo, com os demais atores, é executado depois dela pelo
+ * SplitStepEngine, fora da medida. Assim a medida não inclui a criação
+ * do mundo e acompanha a população da simulação, em vez de um único
+ * passo do estado inicial. A densidade é a inicial; quando a simulação
+ * deixa de ser viável ou a espécie medida é extinta, o mundo volta ao
+ * estado inicial, também fora da medida.
+ *
+ * A preparação e a conclusão de cada passo usam Level.Invocation, o que
+ * é adequado aqui porque cada invocação percorre centenas ou milhares de
+ * atores, muito mais que o custo de medir o tempo de uma invocação.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ActorBenchmark {
+
+    /**
+     * Executa Fox.hunt para todas as raposas.
+     *
+     * @param world Mundo com as raposas do passo já selecionadas.
+     * @return int Quantidade de nascidos, para que o resultado seja usado.
+     */
+    @Benchmark
+    public int foxHunt(FoxWorld world) {
+
+        for (Actor actor : world.selected) {
+
+            ((Fox) actor).hunt(world.engine.getUpdatedField(), world.births);
+
+        }
+
+        return world.births.size();
+
+    }
+
+    /**
+     * Executa Rabbit.run para todos os coelhos.
+     *
+     * @param world Mundo com os coelhos do passo já selecionados.
+     * @return int Quantidade de nascidos, para que o resultado seja usado.
+     */
+    @Benchmark
+    public int rabbitRun(RabbitWorld world) {
+
+        for (Actor actor : world.selected) {
+
+            ((Rabbit) actor).run(world.engine.getUpdatedField(), world.births);
+
+        }
+
+        return world.births.size();
+
+    }
+
+    /**
+     * Executa Hunter.act para todos os caçadores.
+     *
+     * @param world Mundo com os caçadores do passo já selecionados.
+     * @return int Quantidade de nascidos, para que o resultado seja usado.
+     */
+    @Benchmark
+    public int hunterAct(HunterWorld world) {
+
+        for (Actor actor : world.selected) {
+
+            ((Hunter) actor).act(world.engine.getField(), world.engine.getUpdatedField(), world.births, world.engine.getActors());
+
+        }
+
+        return world.births.size();
+
+    }
+
+    /**
+     * Mundo que continua avançando entre as invocações, com os atores de
+     * uma espécie selecionados antes de cada invocação.
+     */
+    @State(Scope.Thread)
+    public abstract static class World {
+
+        /**
+         * Passos executados antes da medida.
+         */
+        private static final int WARM_STEPS = 10;
+
+        /**
+         * Profundidade e largura do campo.
+         */
+        @Param({ "100", "400" })
+        public int size;
+
+        /**
+         * Fração aproximada das células ocupadas no início.
+         */
+        @Param({ "0.1", "0.3", "0.6" })
+        public double density;
+
+        /**
+         * Simulação medida e o seu serviço de randomização.
+         */
+        private Simulator simulator;
+        private RandomService random;
+
+        /**
+         * Motor que separa a ação medida do restante do passo.
+         */
+        SplitStepEngine engine;
+
+        /**
+         * Atores da espécie medida no passo em andamento e nascidos
+         * durante a ação medida.
+         */
+        final List<Actor> selected = new ArrayList<Actor>();
+        final List<Actor> births = new ArrayList<Actor>();
+
+        /**
+         * Retorna a espécie medida.
+         *
+         * @return int O código da espécie.
+         */
+        abstract int species();
+
+        /**
+         * Cria o mundo e executa os passos iniciais.
+         */
+        @Setup(Level.Trial)
+        public void create() {
+
+            random = new RandomService(Worlds.SEED);
+            engine = new SplitStepEngine();
+            simulator = Worlds.create(size, density, random);
+            simulator.setEngine(engine);
+            Worlds.advance(simulator, WARM_STEPS);
+
+        }
+
+        /**
+         * Seleciona os atores da espécie para o próximo passo.
+         */
+        @Setup(Level.Invocation)
+        public void prepare() { engine.prepare(species(), random, simulator.getStep(), selected, births); }
+
+        /**
+         * Conclui o passo em andamento com os demais atores e recomeça o
+         * mundo se ele deixou de ser representativo.
+         */
+        @TearDown(Level.Invocation)
+        public void finish() {
+
+            if (!simulator.runStep() || !Worlds.isAlive(simulator, species())) {
+
+                engine.cancel();
+                Worlds.restart(simulator, WARM_STEPS);
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Mundo em que as raposas são medidas.
+     */
+    public static class FoxWorld extends World {
+        int species() { return Species.FOX; }
+    }
+
+    /**
+     * Mundo em que os coelhos são medidos.
+     */
+    public static class RabbitWorld extends World {
+        int species() { return Species.RABBIT; }
+    }
+
+    /**
+     * Mundo em que os caçadores são medidos.
+     */
+    public static class HunterWorld extends World {
+        int species() { return Species.HUNTER; }
+    }
+
+}
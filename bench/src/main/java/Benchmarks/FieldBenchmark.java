@@ -0,0 +1,187 @@
+package Benchmarks;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import Actors.Actor;
+import Controllers.Field;
+import Utils.Location;
+import Utils.RandomService;
+import Utils.RandomSource;
+
+/**
+ * Benchmarks das consultas de vizinhança e da limpeza do Field, em campos
+ * de vários tamanhos e densidades. As consultas percorrem um conjunto fixo
+ * de posições sorteadas, para que o resultado não dependa de uma única
+ * célula. As consultas que sorteiam a ordem dos vizinhos usam um fluxo
+ * associado à thread do benchmark durante toda a medida.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class FieldBenchmark {
+
+    /**
+     * Quantidade de posições consultadas, potência de dois.
+     */
+    private static final int QUERIES = 4096;
+
+    /**
+     * Profundidade e largura do campo.
+     */
+    @Param({ "100", "400", "1000" })
+    public int size;
+
+    /**
+     * Fração aproximada das células ocupadas.
+     */
+    @Param({ "0.1", "0.3", "0.6" })
+    public double density;
+
+    /**
+     * Campo populado da simulação.
+     */
+    private Field field;
+
+    /**
+     * Posições consultadas, em ordem aleatória.
+     */
+    private Location[] locations;
+
+    /**
+     * Próxima posição a ser consultada.
+     */
+    private int next;
+
+    /**
+     * Cria o campo, sorteia as posições consultadas e associa à thread o
+     * gerador das consultas.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+
+        field = Worlds.create(size, density).getField();
+        locations = new Location[QUERIES];
+        RandomService random = new RandomService(Worlds.SEED);
+        RandomSource rand = random.stream(1);
+        RandomService.bind(random.stream(2));
+
+        for (int i = 0; i < QUERIES; i++) {
+
+            locations[i] = new Location(rand.nextInt(size), rand.nextInt(size));
+
+        }
+
+    }
+
+    /**
+     * Desassocia o gerador das consultas ao final da medida.
+     */
+    @TearDown(Level.Trial)
+    public void release() { RandomService.unbind(); }
+
+    /**
+     * Retorna a próxima posição a ser consultada.
+     *
+     * @return Location A posição.
+     */
+    private Location nextLocation() { return locations[next++ & (QUERIES - 1)]; }
+
+    /**
+     * Percorre o iterador de posições vizinhas de uma célula.
+     *
+     * @param blackhole Consumidor das posições.
+     */
+    @Benchmark
+    public void adjacentLocations(Blackhole blackhole) {
+
+        Iterator<Location> adjacent = field.adjacentLocations(nextLocation());
+
+        while (adjacent.hasNext()) {
+
+            blackhole.consume(adjacent.next());
+
+        }
+
+    }
+
+    /**
+     * Procura uma posição livre ao redor de uma célula.
+     *
+     * @return Location A posição encontrada.
+     */
+    @Benchmark
+    public Location freeAdjacentLocation() { return field.freeAdjacentLocation(nextLocation()); }
+
+    /**
+     * Lista as posições livres ao redor de uma célula.
+     *
+     * @return List As posições encontradas.
+     */
+    @Benchmark
+    public List<Location> getFreeAdjacentLocation() { return field.getFreeAdjacentLocation(nextLocation()); }
+
+    /**
+     * Limpa o campo inteiro depois de recolocar todos os atores. Como a
+     * preparação é feita a cada invocação, em campos pequenos o tempo
+     * medido inclui parte do custo de preparação do JMH.
+     *
+     * @param state Campo recolocado antes da invocação.
+     */
+    @Benchmark
+    public void clear(ClearState state) { state.field.clear(); }
+
+    /**
+     * Campo que é populado novamente antes de cada invocação de clear.
+     * Fica separado do estado das consultas para que a preparação por
+     * invocação não afete as outras medidas.
+     */
+    @State(Scope.Thread)
+    public static class ClearState {
+
+        @Param({ "100", "400", "1000" })
+        public int size;
+
+        @Param({ "0.1", "0.3", "0.6" })
+        public double density;
+
+        private Field field;
+        private List<Actor> actors;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            field = Worlds.create(size, density).getField();
+            actors = Worlds.actors(field, Actor.class);
+        }
+
+        @Setup(Level.Invocation)
+        public void refill() {
+            for (Actor actor : actors) {
+                field.place(actor, actor.getRow(), actor.getCol());
+            }
+        }
+    }
+
+}
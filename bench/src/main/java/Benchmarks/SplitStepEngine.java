@@ -0,0 +1,163 @@
+package Benchmarks;
+
+import java.util.Iterator;
+import java.util.List;
+
+import Actors.Actor;
+import Controllers.Field;
+import Engine.StepEngine;
+import Utils.RandomService;
+import Utils.Species;
+
+/**
+ * Motor sequencial que permite executar a ação de uma espécie fora do
+ * passo, para que ela seja medida sozinha sobre um mundo que continua
+ * avançando. A ação medida é executada entre dois passos sobre os campos
+ * do próximo passo, que o motor conhece pelos campos recebidos no passo
+ * anterior, pois o Simulator apenas os troca ao final de cada passo. No
+ * passo seguinte, executado pelo próprio Simulator, o motor executa os
+ * demais atores, na ordem da lista como o SequentialEngine, e entrega os
+ * nascidos durante a ação medida.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class SplitStepEngine implements StepEngine {
+
+    /**
+     * Campos e lista de atores recebidos no último passo.
+     */
+    private Field field, updatedField;
+    private List<Actor> actors;
+
+    /**
+     * Espécie que já agiu no passo em andamento, ou Species.EMPTY.
+     */
+    private int skipped = Species.EMPTY;
+
+    /**
+     * Atores nascidos durante a ação medida.
+     */
+    private List<Actor> births;
+
+    /**
+     * Executa um passo da simulação, exceto os atores da espécie que já
+     * agiu por prepare.
+     *
+     * @param actors Atores presentes na simulação, atualizada pelo motor.
+     * @param newActors Lista que recebe os atores nascidos no passo.
+     * @param field Campo de simulação atual.
+     * @param updatedField Campo que recebe o próximo estado da simulação.
+     * @param random Serviço de randomização, já posicionado no passo atual.
+     */
+    public void step(List<Actor> actors, List<Actor> newActors, Field field, Field updatedField, RandomService random) {
+
+        RandomService.bind(random.stream(0));
+
+        try {
+
+            for (Iterator<Actor> iter = actors.iterator(); iter.hasNext();) {
+
+                Actor actor = iter.next();
+
+                if (!actor.isActive()) {
+
+                    iter.remove();
+
+                } else if (actor.getSpecies() != skipped) {
+
+                    actor.act(field, updatedField, newActors, actors);
+
+                }
+
+            }
+
+        } finally {
+
+            RandomService.unbind();
+
+        }
+
+        if (births != null) {
+
+            newActors.addAll(births);
+
+        }
+
+        skipped = Species.EMPTY;
+        births = null;
+        this.actors = actors;
+
+        // O Simulator troca os campos ao final do passo.
+        this.field = updatedField;
+        this.updatedField = field;
+
+    }
+
+    /**
+     * Prepara a ação de uma espécie no próximo passo: liga o fluxo de
+     * randomização e lista os atores ativos da espécie. Deve ser chamado
+     * depois de pelo menos um passo executado com este motor. O fluxo
+     * fica associado à thread até o passo seguinte ou cancel.
+     *
+     * @param species Código da espécie que vai agir.
+     * @param random Serviço de randomização da simulação.
+     * @param step Passo atual da simulação.
+     * @param selected Lista que recebe os atores da espécie.
+     * @param births Lista que recebe os nascidos da ação.
+     */
+    public void prepare(int species, RandomService random, int step, List<Actor> selected, List<Actor> births) {
+
+        random.setStep(step + 1);
+        RandomService.bind(random.stream(1));
+        selected.clear();
+        births.clear();
+
+        for (Actor actor : actors) {
+
+            if (actor.isActive() && actor.getSpecies() == species) {
+
+                selected.add(actor);
+
+            }
+
+        }
+
+        this.skipped = species;
+        this.births = births;
+
+    }
+
+    /**
+     * Descarta a ação preparada, quando o passo seguinte não é executado.
+     */
+    public void cancel() {
+
+        RandomService.unbind();
+        skipped = Species.EMPTY;
+        births = null;
+
+    }
+
+    /**
+     * Método acessador do campo atual do próximo passo.
+     *
+     * @return Field O campo.
+     */
+    public Field getField() { return field; }
+
+    /**
+     * Método acessador do campo que recebe o próximo passo.
+     *
+     * @return Field O campo.
+     */
+    public Field getUpdatedField() { return updatedField; }
+
+    /**
+     * Método acessador da lista de atores da simulação.
+     *
+     * @return List Os atores.
+     */
+    public List<Actor> getActors() { return actors; }
+
+}
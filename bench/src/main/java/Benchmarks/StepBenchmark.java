@@ -0,0 +1,124 @@
+package Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Core.Simulator;
+import Engine.StepEngine;
+import Utils.Species;
+
+/**
+ * Benchmark de um passo completo da simulação, por Simulator.runStep, que
+ * executa o simulateOneStep depois de atualizar a estação: ação de todos
+ * os atores pelo motor, consolidação dos contadores, troca e limpeza dos
+ * campos.
+ *
+ * O mundo é criado uma única vez por execução, avançado alguns passos
+ * para sair do estado inicial, e cada invocação executa o próximo passo
+ * do mesmo mundo, de forma que a medida não inclui a criação do mundo. A
+ * densidade é a inicial; a população segue a dinâmica da simulação. Os
+ * passos variam de custo com a população, por isso a distribuição dos
+ * tempos é medida (SampleTime). Quando a simulação deixa de ser viável,
+ * ela volta ao estado inicial antes da próxima invocação, fora da medida;
+ * a verificação usa Level.Invocation, cujo custo é pequeno perto de um
+ * passo.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class StepBenchmark {
+
+    /**
+     * Passos executados antes da medida.
+     */
+    private static final int WARM_STEPS = 10;
+
+    /**
+     * Profundidade e largura do campo.
+     */
+    @Param({ "100", "400", "1000" })
+    public int size;
+
+    /**
+     * Fração aproximada das células ocupadas no início.
+     */
+    @Param({ "0.1", "0.3", "0.6" })
+    public double density;
+
+    /**
+     * Motor do passo, como em StepEngine.forName.
+     */
+    @Param({ "sequential" })
+    public String engine;
+
+    /**
+     * Motor do passo, criado uma única vez.
+     */
+    private StepEngine stepEngine;
+
+    /**
+     * Simulação que continua avançando entre as invocações.
+     */
+    private Simulator simulator;
+
+    /**
+     * Cria o motor e o mundo e executa os passos iniciais.
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+
+        stepEngine = StepEngine.forName(engine, Runtime.getRuntime().availableProcessors());
+        simulator = Worlds.create(size, density);
+        simulator.setEngine(stepEngine);
+        Worlds.advance(simulator, WARM_STEPS);
+
+    }
+
+    /**
+     * Recomeça o mundo se a simulação deixou de ser viável.
+     */
+    @Setup(Level.Invocation)
+    public void keepAlive() {
+
+        if (!Worlds.isAlive(simulator, Species.EMPTY)) {
+
+            Worlds.restart(simulator, WARM_STEPS);
+
+        }
+
+    }
+
+    /**
+     * Encerra as threads do motor ao final da execução.
+     */
+    @TearDown(Level.Trial)
+    public void close() { stepEngine.close(); }
+
+    /**
+     * Executa um passo da simulação.
+     *
+     * @return boolean Se o passo foi executado.
+     */
+    @Benchmark
+    public boolean simulateOneStep() { return simulator.runStep(); }
+
+}
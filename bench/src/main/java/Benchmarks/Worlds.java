@@ -0,0 +1,163 @@
+package Benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import Actors.Actor;
+import Actors.SpeciesProfile;
+import Controllers.Field;
+import Core.Simulator;
+import Utils.RandomService;
+import Utils.Species;
+import View.HeadlessView;
+
+/**
+ * Cria os mundos usados pelos benchmarks. O mundo é criado pelo próprio
+ * Simulator, com as probabilidades de criação do perfil ajustadas para a
+ * densidade pedida, de forma que a disposição dos atores é a mesma de uma
+ * simulação real e a mesma semente gera sempre o mesmo mundo.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public final class Worlds {
+
+    /**
+     * Semente de todos os mundos dos benchmarks.
+     */
+    public static final long SEED = 42;
+
+    /**
+     * Fração dos animais criados que são raposas, como na proporção entre
+     * FOX_CREATION_PROBABILITY e RABBIT_CREATION_PROBABILITY.
+     */
+    private static final double FOX_SHARE = 0.2;
+
+    /**
+     * Classe apenas com funções, não deve ser instanciada.
+     */
+    private Worlds() {}
+
+    /**
+     * Cria uma simulação quadrada sem interface com uma densidade de atores.
+     *
+     * @param size Profundidade e largura do campo.
+     * @param density Fração aproximada das células ocupadas, menor que 1.
+     * @return Simulator A simulação no passo zero.
+     */
+    public static Simulator create(int size, double density) { return create(size, density, new RandomService(SEED)); }
+
+    /**
+     * Cria uma simulação quadrada sem interface com uma densidade de
+     * atores e um serviço de randomização informado.
+     *
+     * @param size Profundidade e largura do campo.
+     * @param density Fração aproximada das células ocupadas, menor que 1.
+     * @param random Serviço de randomização da simulação.
+     * @return Simulator A simulação no passo zero.
+     */
+    public static Simulator create(int size, double density, RandomService random) {
+
+        double fox = FOX_SHARE * density;
+        double rabbit = (1 - FOX_SHARE) * density / (1 - fox);
+        SpeciesProfile profile = SpeciesProfile.DEFAULT
+            .with("fox.creationProbability", fox)
+            .with("rabbit.creationProbability", rabbit);
+
+        return new Simulator(size, size, new HeadlessView(), random, profile);
+
+    }
+
+    /**
+     * Avança uma simulação alguns passos, para sair do estado inicial.
+     *
+     * @param simulator Simulação.
+     * @param steps Quantidade de passos.
+     */
+    public static void advance(Simulator simulator, int steps) {
+
+        for (int step = 0; step < steps; step++) {
+
+            if (!simulator.runStep()) {
+
+                return;
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Verifica se a simulação continua representativa para os
+     * benchmarks: se ainda é viável, com pelo menos duas espécies, e se a
+     * espécie medida ainda tem atores no campo.
+     *
+     * @param simulator Simulação.
+     * @param species Código da espécie medida, ou Species.EMPTY.
+     * @return true Se a simulação pode continuar avançando.
+     */
+    public static boolean isAlive(Simulator simulator, int species) {
+
+        int alive = 0;
+
+        for (int s = 1; s < Species.COUNT; s++) {
+
+            if (simulator.getStats().getPopulation(s) > 0) {
+
+                alive++;
+
+            }
+
+        }
+
+        return alive > 1 && (species == Species.EMPTY || simulator.getStats().getPopulation(species) > 0);
+
+    }
+
+    /**
+     * Volta a simulação ao estado inicial, que é sempre o mesmo para a
+     * mesma semente, e a avança alguns passos.
+     *
+     * @param simulator Simulação.
+     * @param steps Quantidade de passos.
+     */
+    public static void restart(Simulator simulator, int steps) {
+
+        simulator.reset();
+        advance(simulator, steps);
+
+    }
+
+    /**
+     * Lista os atores de um campo, linha após linha.
+     *
+     * @param field Campo da simulação.
+     * @param type Classe dos atores procurados.
+     * @return List Os atores da classe no campo.
+     */
+    public static <T extends Actor> List<T> actors(Field field, Class<T> type) {
+
+        List<T> actors = new ArrayList<T>();
+
+        for (int row = 0; row < field.getDepth(); row++) {
+
+            for (int col = 0; col < field.getWidth(); col++) {
+
+                Object object = field.getObjectAt(row, col);
+
+                if (type.isInstance(object)) {
+
+                    actors.add(type.cast(object));
+
+                }
+
+            }
+
+        }
+
+        return actors;
+
+    }
+
+}
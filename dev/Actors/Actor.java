@@ -3,6 +3,7 @@ package Actors;
 import java.util.List;
 
 import Controllers.Field;
+import Utils.Location;
 
 /**
  * Implementa uma interface pai ator
@@ -36,5 +37,47 @@ public interface Actor {
      * @param alive Condição de existencia.
      */
     public void setActive(boolean alive);
+
+    /**
+     * Informa que o ator ocupou uma posição no campo, para que seja
+     * contado na população do passo. Chamado pelo campo.
+     */
+    public void placed();
+
+    /**
+     * Retorna a localização atual do ator no campo de simulação.
+     * 
+     * @return Location Coordenadas do ator.
+     */
+    public Location getLocation();
+
+    /**
+     * Retorna a linha atual do ator, sem criar um objeto Location.
+     * 
+     * @return int A linha, coordenada X.
+     */
+    public int getRow();
+
+    /**
+     * Retorna a coluna atual do ator, sem criar um objeto Location.
+     * 
+     * @return int A coluna, coordenada Y.
+     */
+    public int getCol();
+
+    /**
+     * Retorna a linha e a coluna atuais do ator compactadas em um long,
+     * como em Location.pack.
+     * 
+     * @return long A posição compactada.
+     */
+    public long getPosition();
+
+    /**
+     * Retorna o código da espécie do ator, como definido em Utils.Species.
+     * 
+     * @return int O código da espécie.
+     */
+    public int getSpecies();
     
 }
@@ -0,0 +1,148 @@
+package Actors;
+
+import java.nio.ByteBuffer;
+
+import Controllers.Field;
+import Utils.Species;
+
+/**
+ * Converte o estado de um ator em um registro binário de tamanho fixo e
+ * recria o ator a partir dele. Usado na gravação e na retomada de uma
+ * simulação, por isso guarda tudo o que influencia os próximos passos:
+ * espécie, se está ativo, posição, idade, nível de comida, o nível de
+ * cenoura dos coelhos e a qual dos dois campos da simulação o ator está
+ * ligado, já que raposas e caçadores consultam o campo recebido na criação.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public final class ActorCodec {
+
+    /**
+     * Tamanho de um registro em bytes: espécie, indicadores, linha,
+     * coluna, idade, comida e o valor extra da espécie.
+     */
+    public static final int RECORD_BYTES = 2 + 5 * Integer.BYTES;
+
+    /**
+     * Indicador de ator ativo.
+     */
+    private static final int ACTIVE = 1;
+
+    /**
+     * Indicador de ator ligado ao campo atual, e não ao campo atualizado.
+     */
+    private static final int CURRENT_FIELD = 2;
+
+    /**
+     * Classe apenas com funções, não deve ser instanciada.
+     */
+    private ActorCodec() {}
+
+    /**
+     * Escreve o registro de um ator.
+     *
+     * @param actor Ator gravado.
+     * @param current Campo atual da simulação.
+     * @param out Destino do registro.
+     * @throws IllegalArgumentException Se o ator não for de uma espécie conhecida.
+     */
+    public static void write(Actor actor, Field current, ByteBuffer out) {
+
+        int age, food, extra = 0;
+        Field bound;
+
+        if (actor instanceof Fox) {
+
+            Fox fox = (Fox) actor;
+            age = fox.getAge();
+            food = fox.getFoodLevel();
+            bound = fox.getCurrentField();
+
+        } else if (actor instanceof Rabbit) {
+
+            Rabbit rabbit = (Rabbit) actor;
+            age = rabbit.getAge();
+            food = rabbit.getFoodLevel();
+            extra = rabbit.getCarrotFoodLevel();
+            bound = rabbit.getCurrentField();
+
+        } else if (actor instanceof Hunter) {
+
+            Hunter hunter = (Hunter) actor;
+            age = hunter.getAge();
+            food = hunter.getFoodLevel();
+            bound = hunter.getField();
+
+        } else {
+
+            throw new IllegalArgumentException("Ator desconhecido: " + actor.getClass().getName());
+
+        }
+
+        out.put((byte) actor.getSpecies());
+        out.put((byte) ((actor.isActive() ? ACTIVE : 0) | (bound == current ? CURRENT_FIELD : 0)));
+        out.putInt(actor.getRow());
+        out.putInt(actor.getCol());
+        out.putInt(age);
+        out.putInt(food);
+        out.putInt(extra);
+
+    }
+
+    /**
+     * Recria um ator a partir do seu registro. O ator é criado como um
+     * filhote, o que o registra nos contadores de população sem consumir
+     * sorteios, e em seguida recebe o estado gravado. Atores inativos são
+     * desativados, o que também é informado aos contadores. O ator não é
+     * colocado em nenhum campo.
+     *
+     * @param in Origem do registro.
+     * @param current Campo atual da simulação.
+     * @param updated Campo atualizado da simulação.
+     * @return Actor O ator recriado.
+     * @throws IllegalArgumentException Se a espécie do registro for desconhecida.
+     */
+    public static Actor read(ByteBuffer in, Field current, Field updated) {
+
+        int species = in.get(), flags = in.get();
+        int row = in.getInt(), col = in.getInt(), age = in.getInt(), food = in.getInt(), extra = in.getInt();
+        Field bound = (flags & CURRENT_FIELD) != 0 ? current : updated;
+        boolean active = (flags & ACTIVE) != 0;
+
+        switch (species) {
+
+            case Species.FOX:
+
+                Fox fox = new Fox(false, bound, row, col);
+                fox.setAge(age);
+                fox.setFoodLevel(food);
+                fox.setActive(active);
+                return fox;
+
+            case Species.RABBIT:
+
+                Rabbit rabbit = new Rabbit(false, bound, row, col);
+                rabbit.setAge(age);
+                rabbit.setFoodLevel(food);
+                rabbit.setCarrotFoodLevel(extra);
+                rabbit.setActive(active);
+                return rabbit;
+
+            case Species.HUNTER:
+
+                Hunter hunter = new Hunter(false, bound, row, col);
+                hunter.setAge(age);
+                hunter.setFoodLevel(food);
+                hunter.setActive(active);
+                return hunter;
+
+            default:
+
+                throw new IllegalArgumentException("Espécie desconhecida no registro: " + species);
+
+        }
+
+    }
+
+}
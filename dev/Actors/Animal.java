@@ -1,9 +1,13 @@
 package Actors;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.List;
 
 import Controllers.Field;
+import Controllers.FieldStats;
 import Utils.Location;
+import Utils.Neighbourhood;
 
 /**
  * Classe responsável pela implementação da entidade
@@ -13,12 +17,39 @@ import Utils.Location;
  * @version 1.0 SNAPSHOT
  */
 public abstract class Animal implements Actor {
+
+    /**
+     * Estado de um animal inativo.
+     */
+    private static final int INACTIVE = -1;
+
+    /**
+     * Acesso atômico ao atributo state, usado quando um predador
+     * precisa garantir que apenas ele abateu o animal, e para que a
+     * colocação no campo e a morte sejam contadas uma única vez.
+     */
+    private static final VarHandle STATE;
+
+    static {
+
+        try {
+
+            STATE = MethodHandles.lookup().findVarHandle(Animal.class, "state", int.class);
+
+        } catch (ReflectiveOperationException e) {
+
+            throw new ExceptionInInitializerError(e);
+
+        }
+
+    }
     
     /**
-     * Representa se o animal está na condição
-     * ativo.
+     * Representa se o animal está na condição ativo: INACTIVE, ou a
+     * geração de FieldStats em que o animal foi colocado no campo pela
+     * última vez, 0 se nunca foi colocado.
      */
-    protected boolean active;
+    private volatile int state;
 
     /**
      * Representa a idade do animal.
@@ -26,16 +57,21 @@ public abstract class Animal implements Actor {
     protected int age;
 
     /**
-     * Representa o objeto de coordenadas
+     * Representa as coordenadas
      * do animal no campo da simulação.
      */
-    protected Location location;
+    protected int row, col;
 
     /**
      * Representa a quantidade de comida.
      */
     protected int foodLevel;
 
+    /**
+     * Estatisticas de população que recebem o nascimento e a morte do animal.
+     */
+    private FieldStats stats;
+
     /**
      * Construtor do objeto animal.
      * Define os parametros aos atributos.
@@ -46,10 +82,25 @@ public abstract class Animal implements Actor {
      */
     public Animal(int age, boolean alive, Location location) {
 
+        this(age, alive, location.getRow(), location.getCol());
+
+    }
+
+    /**
+     * Construtor do objeto animal a partir da linha e da coluna.
+     * 
+     * @param age Inteiro que representa a idade.
+     * @param alive Booleano que representa condição de ativo ou não ativo.
+     * @param row Linha no campo da simulação.
+     * @param col Coluna no campo da simulação.
+     */
+    public Animal(int age, boolean alive, int row, int col) {
+
         super();
         this.age = age;
-        this.active = alive;
-        this.location = location;
+        this.state = alive ? 0 : INACTIVE;
+        this.row = row;
+        this.col = col;
 
     }
 
@@ -58,14 +109,96 @@ public abstract class Animal implements Actor {
      * 
      * @param alive Flag booleana para ativo ou não ativo.
      */
-    public void setActive(boolean alive) { this.active = alive; }
+    public void setActive(boolean alive) {
+
+        if (alive) {
+
+            STATE.compareAndSet(this, INACTIVE, 0);
+
+        } else {
+
+            deactivate();
+
+        }
+
+    }
 
     /**
-     * Método acessador do atributo active.
+     * Método acessador da condição ativo.
      * 
      * @return true Se o animal encontra-se na condição ativo na simulação.
      */
-    public boolean isActive() { return this.active; }
+    public boolean isActive() { return this.state != INACTIVE; }
+
+    /**
+     * Torna o animal inativo de forma atômica. Quando dois predadores
+     * tentam abater o mesmo animal ao mesmo tempo, apenas um deles
+     * recebe true. A morte é informada às estatisticas apenas se o
+     * animal já foi contado no passo em andamento.
+     * 
+     * @return true Se o animal estava ativo e foi desativado por esta chamada.
+     */
+    protected boolean deactivate() {
+
+        int previous = (int) STATE.getAndSet(this, INACTIVE);
+
+        if (previous == INACTIVE) {
+
+            return false;
+
+        }
+
+        if (stats != null && previous == stats.getGeneration()) {
+
+            stats.actorRemoved(getSpecies());
+
+        }
+
+        return true;
+
+    }
+
+    /**
+     * Conta o animal nas estatisticas ao ser colocado no campo, uma única
+     * vez por passo e apenas se ainda estiver ativo.
+     */
+    public void placed() {
+
+        if (stats == null) {
+
+            return;
+
+        }
+
+        int generation = stats.getGeneration();
+        int current = this.state;
+
+        while (current != INACTIVE && current != generation) {
+
+            if (STATE.compareAndSet(this, current, generation)) {
+
+                stats.actorPlaced(getSpecies());
+                return;
+
+            }
+
+            current = this.state;
+
+        }
+
+    }
+
+    /**
+     * Associa o animal às estatisticas de população do campo. O animal só
+     * é contado quando é colocado no campo.
+     * 
+     * @param field Campo de simulação a que o animal pertence.
+     */
+    protected void register(Field field) {
+
+        this.stats = field.getStats();
+
+    }
 
     /**
      * Método acessador do atributo idade.
@@ -86,14 +219,60 @@ public abstract class Animal implements Actor {
      * 
      * @return Location Uma instancia do objeto location com as coordenadas de localização do animal.
      */
-    protected Location getLocation() { return this.location; }
+    public Location getLocation() { return new Location(row, col); }
+
+    /**
+     * Método acessador da linha do animal.
+     * 
+     * @return int A linha, coordenada X.
+     */
+    public int getRow() { return this.row; }
+
+    /**
+     * Método acessador da coluna do animal.
+     * 
+     * @return int A coluna, coordenada Y.
+     */
+    public int getCol() { return this.col; }
+
+    /**
+     * Método acessador da posição do animal compactada em um long.
+     * 
+     * @return long A posição, como em Location.pack.
+     */
+    public long getPosition() { return Location.pack(row, col); }
     
     /**
      * Método modificador do atributo location.
      * 
      * @param location Objeto location com as coordenadas de localização do animal no campo de simulação.
      */
-    protected void setLocation(Location location) { this.location = location; }
+    protected void setLocation(Location location) { setLocation(location.getRow(), location.getCol()); }
+
+    /**
+     * Método modificador da localização sem criar um objeto Location.
+     * 
+     * @param row Linha, representa coordenada X.
+     * @param col Coluna, representa coordenada Y.
+     */
+    public void setLocation(int row, int col) {
+
+        this.row = row;
+        this.col = col;
+
+    }
+
+    /**
+     * Move o animal uma posição na direção dada.
+     * 
+     * @param direction Direção de Utils.Neighbourhood, de 0 a 7, ou STAY.
+     */
+    protected void move(int direction) {
+
+        this.row += Neighbourhood.rowOffset(direction);
+        this.col += Neighbourhood.colOffset(direction);
+
+    }
 
     /**
      * Método acessador do atributo foodLevel.
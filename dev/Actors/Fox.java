@@ -2,10 +2,12 @@ package Actors;
 
 import java.util.List;
 import java.io.File;
-import java.util.Iterator;
-import java.util.Random;
 
 import Utils.Location;
+import Utils.Neighbourhood;
+import Utils.RandomService;
+import Utils.RandomSource;
+import Utils.Species;
 import Controllers.Field;
 
 /**
@@ -20,37 +22,39 @@ public class Fox extends Animal {
     /**
      * Representa a idade em que a raposa começa a se reproduzir.
      */
-    private static final int BREEDING_AGE = 10;
+    public static final int BREEDING_AGE = 10;
     
     /**
      * Representa o tempo máximo do ciclo de vida da raposa.
      */
-    private static final int MAX_AGE = 150;
+    public static final int MAX_AGE = 150;
     
     /**
      * Probabilidade de reprodução da raposa.
      */
-    private static final double BREEDING_PROBABILITY = 0.09;
+    public static final double BREEDING_PROBABILITY = 0.09;
     
     /**
      * Número máximo de processos de reprodução.
      */
-    private static final int MAX_LITTER_SIZE = 3;
+    public static final int MAX_LITTER_SIZE = 3;
     
     /**
      * Representa a necessidade de alimentação da raposa.
      */
-    private static final int RABBIT_FOOD_VALUE = 4;
+    public static final int RABBIT_FOOD_VALUE = 4;
     
     /**
-     * Objeto de randomização do java para diferentes tarefas na classe.
+     * Campo de simulação atual
      */
-    private static final Random rand = new Random();
+    private Field currentField;
 
     /**
-     * Campo de simulação atual
+     * Parâmetros da espécie nesta simulação, lidos pelos métodos de
+     * consulta no final da classe. No perfil DEFAULT, esses métodos usam
+     * as constantes da classe, que o compilador JIT incorpora ao código.
      */
-    private Field currentField;
+    private final SpeciesProfile profile;
 
     /**
      * Construtor da raposa. Define atributos com base em parametros.
@@ -61,17 +65,34 @@ public class Fox extends Animal {
      */
     public Fox(boolean randomAge, Field field, Location location) {
 
-        super(0, true, location);
+        this(randomAge, field, location.getRow(), location.getCol());
+
+    }
+
+    /**
+     * Construtor da raposa a partir da linha e da coluna.
+     * 
+     * @param randomAge Se verdadeiro, define atributos aleatorios.
+     * @param field Campo de simulação
+     * @param row Linha no campo de simulação.
+     * @param col Coluna no campo de simulação.
+     */
+    public Fox(boolean randomAge, Field field, int row, int col) {
+
+        super(0, true, row, col);
         this.currentField = field;
+        this.profile = field.getContext().getActorProfile();
+        register(field);
 
         if (randomAge) {
 
-            setAge(rand.nextInt(MAX_AGE));
-            setFoodLevel(rand.nextInt(RABBIT_FOOD_VALUE));
+            RandomSource rand = RandomService.current();
+            setAge(rand.nextInt(maxAge()));
+            setFoodLevel(rand.nextInt(rabbitFoodValue()));
 
         } else {
             // leave age at 0
-            setFoodLevel(RABBIT_FOOD_VALUE);
+            setFoodLevel(rabbitFoodValue());
         }
     }
 
@@ -92,13 +113,15 @@ public class Fox extends Animal {
             giveBirth(newFoxes);
            
             // Movendo raposa para localização da comida
-            Location newLocation = findFood(currentField, location);
-            if (newLocation == null) { // sem comida, move randomicamente
-                newLocation = updatedField.freeAdjacentLocation(location);
+            int direction = findFood(currentField);
+            if (direction == Neighbourhood.NONE) { // sem comida, move randomicamente
+                direction = updatedField.freeAdjacentDirection(row, col);
             }
-            if (newLocation != null) {
-                setLocation(newLocation);
-                updatedField.place(this, newLocation);
+            if (direction != Neighbourhood.NONE) {
+                direction = updatedField.claim(this, row, col, direction);
+            }
+            if (direction != Neighbourhood.NONE) {
+                move(direction);
             } else {
                 // Não pode se mover pois não há posições livres nem pode continuar no local
                 setActive(false);
@@ -113,15 +136,50 @@ public class Fox extends Animal {
      */
     private void giveBirth(List<Actor> newFoxes) {
 
-        List<Location> free = currentField.getFreeAdjacentLocation(location);
         int births = breed();
-        for(int b = 0; b < births && free.size() > 0; b++){
-            Location loc = free.remove(0);
-            Fox newFox = new Fox(false, currentField, loc);
+        if (births > 0) {
+            births = Math.min(births, birthPlaces());
+        }
+        for(int b = 0; b < births; b++){
+            // Como em getFreeAdjacentLocation, os filhotes ficam na posição da mãe.
+            Fox newFox = new Fox(false, currentField, row, col);
             newFoxes.add(newFox);
         }
     }
 
+    /**
+     * Conta as posições vizinhas que têm uma posição livre ao redor ou
+     * estão livres, o mesmo que o tamanho da lista de
+     * Field.getFreeAdjacentLocation, sem criar a lista.
+     * 
+     * @return int Quantidade máxima de filhotes.
+     */
+    private int birthPlaces() {
+
+        int valid = currentField.adjacentMask(row, col);
+        int places = 0;
+
+        for (int dir = 0; dir < Neighbourhood.DIRECTIONS; dir++) {
+
+            if ((valid & (1 << dir)) != 0) {
+
+                int nextRow = row + Neighbourhood.rowOffset(dir);
+                int nextCol = col + Neighbourhood.colOffset(dir);
+
+                if (currentField.freeMask(nextRow, nextCol) != 0 || currentField.getSpeciesAt(nextRow, nextCol) == Species.EMPTY) {
+
+                    places++;
+
+                }
+
+            }
+
+        }
+
+        return places;
+
+    }
+
     /**
      * Incrementa a idade, se atingir idade limite,
      * resulta em sua morte.
@@ -131,7 +189,7 @@ public class Fox extends Animal {
 
         setAge(getAge()+1);
 
-        if (getAge() > MAX_AGE) {
+        if (getAge() > maxAge()) {
             setActive(false);
         }
 
@@ -150,29 +208,35 @@ public class Fox extends Animal {
 
     /**
      * Implementa a ação de procura por comida, observando posições adjacentes
-     * para caçar.
+     * para caçar. Os códigos de espécie apenas pré-selecionam as posições:
+     * em um motor paralelo, a posição pode estar sendo ocupada por outro
+     * ator entre a troca do objeto e a do código, e por isso a decisão é
+     * tomada pelo objeto lido.
      * 
      * @param field Campo da simulação
-     * @param location Objeto de localização com as coordenadas de campo.
-     * @return Location A localização da comida dispoinvel.
-     */
-    private Location findFood(Field field, Location location) {
-
-        Iterator adjacentLocations = field.adjacentLocations(location);
-
-        while (adjacentLocations.hasNext()) {
-            Location where = (Location) adjacentLocations.next();
-            Object animal = field.getObjectAt(where);
-            if (animal instanceof Rabbit) {
-                Rabbit rabbit = (Rabbit) animal;
-                if (rabbit.isActive()) {
-                    rabbit.setEaten();
-                    setFoodLevel(RABBIT_FOOD_VALUE);
-                    return where;
+     * @return int A direção da comida disponível, ou Neighbourhood.NONE.
+     */
+    private int findFood(Field field) {
+
+        int rabbits = field.speciesMask(row, col, Species.RABBIT);
+
+        if (rabbits == 0) {
+            return Neighbourhood.NONE;
+        }
+
+        int order = Neighbourhood.randomOrder(RandomService.current());
+
+        for (int i = 0; i < Neighbourhood.DIRECTIONS; i++) {
+            int direction = Neighbourhood.direction(order, i);
+            if ((rabbits & (1 << direction)) != 0) {
+                Object prey = field.getObjectAt(row + Neighbourhood.rowOffset(direction), col + Neighbourhood.colOffset(direction));
+                if (prey instanceof Rabbit rabbit && rabbit.setEaten()) {
+                    setFoodLevel(rabbitFoodValue());
+                    return direction;
                 }
             }
         }
-        return null;
+        return Neighbourhood.NONE;
     }
 
     /**
@@ -183,26 +247,15 @@ public class Fox extends Animal {
      * @return int Número de filhos.
      */
     private int breed() {
+        RandomSource rand = RandomService.current();
         int births = 0;
-        if (canBreed() && rand.nextDouble() <= BREEDING_PROBABILITY) {
-            births = rand.nextInt(MAX_LITTER_SIZE) + 1;
+        if (canBreed() && rand.nextDouble() <= breedingProbability()) {
+            births = rand.nextInt(maxLitterSize()) + 1;
         }
         return births;
     }
 
 
-    /**
-     * Modifica a localização do animal.
-     * 
-     * @param row Linha, representa coordenada X.
-     * @param col Coluna, representa coordenada Y.
-     */
-    public void setLocation(int row, int col) {
-
-        this.location = new Location(row, col);
-
-    }
-
     /**
      * Implementa o método action de Animal.
      * 
@@ -223,7 +276,7 @@ public class Fox extends Animal {
      */
     @Override
     protected boolean canBreed() {
-        return getAge() >= BREEDING_AGE;
+        return getAge() >= breedingAge();
     }
 
     /**
@@ -232,9 +285,24 @@ public class Fox extends Animal {
     @Override
     public int getBreedingAge() {
         // TODO Auto-generated method stub
-        return this.BREEDING_AGE;
+        return breedingAge();
     }
     
+    /**
+     * Método acessador do campo em que o animal procura comida e coloca
+     * os filhotes, usado ao gravar a simulação.
+     * 
+     * @return Field O campo recebido na criação.
+     */
+    Field getCurrentField() { return currentField; }
+
+    /**
+     * Retorna o código de espécie da raposa.
+     * 
+     * @return int Species.FOX.
+     */
+    public int getSpecies() { return Species.FOX; }
+
     /**
      * Método sobrescrito de reprentação textual do objeto.
      * 
@@ -246,4 +314,39 @@ public class Fox extends Animal {
         return "Raposa";
     }
 
+    /**
+     * Idade em que a raposa começa a se reproduzir.
+     * 
+     * @return int O valor do perfil, ou BREEDING_AGE no perfil DEFAULT.
+     */
+    private int breedingAge() { return profile == SpeciesProfile.DEFAULT ? BREEDING_AGE : profile.getFoxBreedingAge(); }
+
+    /**
+     * Idade máxima da raposa.
+     * 
+     * @return int O valor do perfil, ou MAX_AGE no perfil DEFAULT.
+     */
+    private int maxAge() { return profile == SpeciesProfile.DEFAULT ? MAX_AGE : profile.getFoxMaxAge(); }
+
+    /**
+     * Probabilidade de reprodução da raposa.
+     * 
+     * @return double O valor do perfil, ou BREEDING_PROBABILITY no perfil DEFAULT.
+     */
+    private double breedingProbability() { return profile == SpeciesProfile.DEFAULT ? BREEDING_PROBABILITY : profile.getFoxBreedingProbability(); }
+
+    /**
+     * Tamanho máximo da ninhada da raposa.
+     * 
+     * @return int O valor do perfil, ou MAX_LITTER_SIZE no perfil DEFAULT.
+     */
+    private int maxLitterSize() { return profile == SpeciesProfile.DEFAULT ? MAX_LITTER_SIZE : profile.getFoxMaxLitterSize(); }
+
+    /**
+     * Comida obtida ao comer um coelho.
+     * 
+     * @return int O valor do perfil, ou RABBIT_FOOD_VALUE no perfil DEFAULT.
+     */
+    private int rabbitFoodValue() { return profile == SpeciesProfile.DEFAULT ? RABBIT_FOOD_VALUE : profile.getRabbitFoodValue(); }
+
 }
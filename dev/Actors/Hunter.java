@@ -2,12 +2,15 @@ package Actors;
 
 import View.Drawable;
 import Controllers.Field;
-import Controllers.SeasonsController;
 import Utils.Location;
+import Utils.Neighbourhood;
+import Utils.RandomService;
+import Utils.RandomSource;
+import Utils.Species;
 
-import java.util.Iterator;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.List;
-import java.util.Random;
 
 /**
  * Class que representa a entidade Caçador que implementa
@@ -21,55 +24,87 @@ public class Hunter implements Actor, Drawable {
     /**
      * Representa a idade maxima.
      */
-    private static final int MAX_AGE = 350;
+    public static final int MAX_AGE = 350;
 
     /**
      * Representa a probabilidade de reprodução.
      */
-    private static final double BREEDING_PROBABILITY = 0.05;
+    public static final double BREEDING_PROBABILITY = 0.05;
 
     /**
      * Representa a idade em que começa a reproduzir.
      */
-    private static final int BREEDING_AGE = 20;
+    public static final int BREEDING_AGE = 20;
     
     /**
      * Representa a quantidade máxima de filhos
      */
-    private static final int MAX_LITTER_SIZE = 2;
+    public static final int MAX_LITTER_SIZE = 2;
 
     /**
      * Representa a quantidade de comida.
      */
-    private static final int ANIMAL_FOOD_VALUE = 6;
+    public static final int ANIMAL_FOOD_VALUE = 6;
 
     /**
-     * Representa um objeto de randomização de valores do Java
-     * para ser usado por diversas tarefas na classe.
+     * Chance, em porcentagem, do caçador morrer ao tentar caçar uma raposa.
      */
-    private static final Random rand = new Random();
+    public static final int FOX_KILL_CHANCE = 10;
 
     /**
-     * Representa se o ator está ativo
-     * na simulação.
+     * Estado de um caçador inativo.
      */
-    private boolean active;
+    private static final int INACTIVE = -1;
+
+    /**
+     * Acesso atômico ao atributo state, para que a colocação no campo e
+     * a morte sejam contadas uma única vez, como em Animal.
+     */
+    private static final VarHandle STATE;
+
+    static {
+
+        try {
+
+            STATE = MethodHandles.lookup().findVarHandle(Hunter.class, "state", int.class);
+
+        } catch (ReflectiveOperationException e) {
+
+            throw new ExceptionInInitializerError(e);
+
+        }
+
+    }
+
+    /**
+     * Representa se o ator está ativo na simulação: INACTIVE, ou a
+     * geração de FieldStats em que foi colocado no campo pela última
+     * vez, 0 se nunca foi colocado.
+     */
+    private volatile int state;
 
     /**
      * Representa a localização em
      * coordenadas no campo.
      */
-    private Location location;
+    private int row, col;
 
     /**
      * Representa o campo de simulação.
      */
     private Field field;
 
+    /**
+     * Parâmetros da espécie nesta simulação, lidos pelos métodos de
+     * consulta no final da classe. No perfil DEFAULT, esses métodos usam
+     * as constantes da classe, que o compilador JIT incorpora ao código.
+     */
+    private final SpeciesProfile profile;
+
     /**
      * Representa a idade no ciclo de vida do ator.
      */
-    private Integer age;
+    private int age;
 
     /**
      * Representa a quantidade de comida.
@@ -85,19 +120,35 @@ public class Hunter implements Actor, Drawable {
      */
     public Hunter(boolean randomAge, Field field, Location location) {
 
-        this.setLocation(location);
+        this(randomAge, field, location.getRow(), location.getCol());
+
+    }
+
+    /**
+     * Construtor do caçador a partir da linha e da coluna.
+     * 
+     * @param randomAge Se gerará atributos randomicos ou não,
+     * @param field Campo de simulação
+     * @param row Linha no campo de simulação.
+     * @param col Coluna no campo de simulação.
+     */
+    public Hunter(boolean randomAge, Field field, int row, int col) {
+
+        this.setLocation(row, col);
         this.setField(field);
-        this.setActive(true);
+        this.profile = field.getContext().getActorProfile();
+        this.state = 0;
 
         if (randomAge) {
 
-            setAge(rand.nextInt(MAX_AGE));
-            setFoodLevel(rand.nextInt(ANIMAL_FOOD_VALUE));
+            RandomSource rand = RandomService.current();
+            setAge(rand.nextInt(maxAge()));
+            setFoodLevel(rand.nextInt(animalFoodValue()));
             
         } else {
 
             this.age = 0;
-            setFoodLevel(ANIMAL_FOOD_VALUE);
+            setFoodLevel(animalFoodValue());
 
         }
     }
@@ -117,13 +168,15 @@ public class Hunter implements Actor, Drawable {
             // novos animais nas localizações adjacentes.
             giveBirth(newAnimals, updatedField);
             // move para a nova localização.
-            Location newLocation = goHunt(getField(), location);
-            if (newLocation == null) { // Não tem comida, move randomicamente.
-                newLocation = updatedField.freeAdjacentLocation(location);
+            int direction = goHunt(getField());
+            if (direction == Neighbourhood.NONE) { // Não tem comida, move randomicamente.
+                direction = updatedField.freeAdjacentDirection(row, col);
             }
-            if (newLocation != null) {
-                setLocation(newLocation);
-                updatedField.place(this, newLocation);
+            if (direction != Neighbourhood.NONE) {
+                direction = updatedField.claim(this, row, col, direction);
+            }
+            if (direction != Neighbourhood.NONE) {
+                setLocation(row + Neighbourhood.rowOffset(direction), col + Neighbourhood.colOffset(direction));
             } else {
                 setActive(false);
             }
@@ -132,62 +185,69 @@ public class Hunter implements Actor, Drawable {
 
     /**
      * Representa o ato de caçar, procurando alvos nas posições adjacentes
-     * ocupadas por atores.
+     * ocupadas por atores. Os códigos de espécie apenas pré-selecionam as
+     * posições, pois o código e o objeto de uma posição não são trocados
+     * juntos; a raposa ou o coelho é escolhido pelo tipo do objeto lido.
      * 
      * @param field Campo de simulação
-     * @param location Localização atual do ator no campo de simulação.
-     * @return Location Localização do caçador.
+     * @return int Direção da presa, ou Neighbourhood.NONE.
      */
-    private Location goHunt(Field field, Location location) {
+    private int goHunt(Field field) {
+
+        int prey = field.speciesMask(row, col, Species.RABBIT) | field.speciesMask(row, col, Species.FOX);
+
+        if (prey == 0) {
+            return Neighbourhood.NONE;
+        }
 
-        Iterator adjacentLocations = field.adjacentLocations(location);
+        int order = Neighbourhood.randomOrder(RandomService.current());
         
-        while (adjacentLocations.hasNext()) {
-            Location where = (Location) adjacentLocations.next();
-            Object animal = field.getObjectAt(where);
+        for (int i = 0; i < Neighbourhood.DIRECTIONS; i++) {
+            int where = Neighbourhood.direction(order, i);
         
-            if (animal instanceof Animal) {
+            if ((prey & (1 << where)) != 0) {
+
+                int preyRow = row + Neighbourhood.rowOffset(where);
+                int preyCol = col + Neighbourhood.colOffset(where);
+                Object animal = field.getObjectAt(preyRow, preyCol);
         
-                if(animal instanceof Fox){
+                if (animal instanceof Fox fox) {
                     //10% de chance do caçador morrer pra raposa
         
-                    if(rand.nextInt(100) < 10){
+                    if(RandomService.current().nextInt(100) < foxKillChance()){
                         //Tentou caçar a raposa, e morreu
                         setActive(false);
         
                     } else {
                         //era uma raposa, comeu a raposa
-                        return eatAnimal(animal, where); 
+                        return eatAnimal(fox, where); 
                     }
 
-                } else {
+                } else if (animal instanceof Rabbit rabbit) {
                     //era um coelho, comeu o coelho
-                    return eatAnimal(animal, where);
+                    return eatAnimal(rabbit, where);
                 }
 
             }
 
         }
 
-        return null;
+        return Neighbourhood.NONE;
     }
     
     /**
      * Representa o ato de se alimentar de outro animal na
      * posição adjacente localizada.
      * 
-     * @param animal Animal alvo.
-     * @param where Localização em coordenadas no campo de simulação.
-     * @return Location Nova localização no campo de simulação.
+     * @param presa Animal alvo.
+     * @param where Direção do animal alvo.
+     * @return int Direção da nova localização no campo de simulação.
      */
-    private Location eatAnimal(Object animal, Location where) {
-
-        Animal presa = (Animal) animal;
+    private int eatAnimal(Animal presa, int where) {
 
-        if (presa.isActive()) {
+        if (presa.deactivate()) {
 
-            presa.setActive(false);
-            setFoodLevel(ANIMAL_FOOD_VALUE);
+            setFoodLevel(animalFoodValue());
             return where;
 
         }
@@ -206,8 +266,8 @@ public class Hunter implements Actor, Drawable {
     private void giveBirth(List<Actor> newHunters, Field updatedField) {
         int births = breed();
         for(int b = 0; b < births; b++){
-            Location loc = updatedField.randomAdjacentLocation(location);
-            Hunter newHunter = new Hunter(false, this.field, loc);
+            int direction = updatedField.randomAdjacentDirection(row, col);
+            Hunter newHunter = new Hunter(false, this.field, row + Neighbourhood.rowOffset(direction), col + Neighbourhood.colOffset(direction));
             newHunters.add(newHunter);
         }
     }
@@ -219,10 +279,11 @@ public class Hunter implements Actor, Drawable {
      */
     private int breed() {
 
+        RandomSource rand = RandomService.current();
         int births = 0;
 
-        if (canBreed() && rand.nextDouble() <= BREEDING_PROBABILITY) {
-            births = rand.nextInt(MAX_LITTER_SIZE * (SeasonsController.getCurrentSeason().getBreedingAdjust() + 1));
+        if (canBreed() && rand.nextDouble() <= breedingProbability()) {
+            births = rand.nextInt(maxLitterSize() * (field.getContext().getSeasons().getCurrentSeason().getBreedingAdjust() + 1));
         }
 
         return births;
@@ -234,7 +295,7 @@ public class Hunter implements Actor, Drawable {
      * 
      * @return true Se caçador está na idade em seu ciclo de vida para se reproduzir.
      */
-    protected boolean canBreed() { return getAge() >= BREEDING_AGE; }
+    protected boolean canBreed() { return getAge() >= breedingAge(); }
 
     /**
      * Método para incrementar a idade do caçador em seu
@@ -242,7 +303,7 @@ public class Hunter implements Actor, Drawable {
      */
     private void incrementAge() {
         setAge(getAge()+1);
-        if (getAge() > MAX_AGE) {
+        if (getAge() > maxAge()) {
             setActive(false);
         }
     }
@@ -265,7 +326,7 @@ public class Hunter implements Actor, Drawable {
      * Método de incremento da necessidade de se alimentar.
      */
     private void incrementHunger() {
-        setFoodLevel(getFoodLevel() -1 - SeasonsController.getCurrentSeason().getHungerAdjust());
+        setFoodLevel(getFoodLevel() -1 - field.getContext().getSeasons().getCurrentSeason().getHungerAdjust());
         if (getFoodLevel() <= 0) {
             setActive(false);
         }
@@ -283,14 +344,14 @@ public class Hunter implements Actor, Drawable {
      * 
      * @return int Valor da idade no ciclo de vida.
      */
-    public Integer getAge(){ return this.age; }
+    public int getAge(){ return this.age; }
 
     /**
      * Método modificador da idade.
      * 
      * @param age Valor da idade no ciclo de vida.
      */
-    public void setAge(Integer age){ this.age = age; }
+    public void setAge(int age){ this.age = age; }
 
     /**
      * Método acessador do atributo campo de simulalção.
@@ -304,28 +365,152 @@ public class Hunter implements Actor, Drawable {
      * 
      * @param location Localização por coordenada X e Y.
      */
-    public void setLocation(Location location) { this.location = location; }
+    public void setLocation(Location location) { setLocation(location.getRow(), location.getCol()); }
+
+    /**
+     * Método modificador da localização sem criar um objeto Location.
+     * 
+     * @param row Linha, coordenada X.
+     * @param col Coluna, coordenada Y.
+     */
+    public void setLocation(int row, int col) {
+
+        this.row = row;
+        this.col = col;
+
+    }
 
     /**
      * Método acessador do atributo Localiazção.
      * @return Location Objeto com coordenadas de localização.
      */
-    public Location getLocation() { return this.location; }
+    public Location getLocation() { return new Location(row, col); }
+
+    /**
+     * Método acessador da posição do caçador compactada em um long.
+     * 
+     * @return long A posição, como em Location.pack.
+     */
+    public long getPosition() { return Location.pack(row, col); }
+
+    /**
+     * Método acessador da linha do caçador.
+     * 
+     * @return int A linha, coordenada X.
+     */
+    public int getRow() { return this.row; }
+
+    /**
+     * Método acessador da coluna do caçador.
+     * 
+     * @return int A coluna, coordenada Y.
+     */
+    public int getCol() { return this.col; }
 
     /**
      * Avalia se o ator ainda está ativo na simulação.
      * 
      * @return true se o ator estiver ativo na simulação.
      */
-    public boolean isActive() { return this.active; }
+    public boolean isActive() { return this.state != INACTIVE; }
 
     /**
      * Método modificador do atributo ativo.
      * 
      * @param active Booleando se o ator estiver ativo na simulação.
      */
-    public void setActive(boolean active) { this.active = active; }
+    public void setActive(boolean active) {
+
+        if (active) {
+
+            STATE.compareAndSet(this, INACTIVE, 0);
+            return;
+
+        }
+
+        int previous = (int) STATE.getAndSet(this, INACTIVE);
+
+        if (previous != INACTIVE && previous == field.getStats().getGeneration()) {
+
+            field.getStats().actorRemoved(Species.HUNTER);
+
+        }
+
+    }
+
+    /**
+     * Conta o caçador nas estatisticas ao ser colocado no campo, uma
+     * única vez por passo e apenas se ainda estiver ativo.
+     */
+    public void placed() {
+
+        int generation = field.getStats().getGeneration();
+        int current = this.state;
+
+        while (current != INACTIVE && current != generation) {
+
+            if (STATE.compareAndSet(this, current, generation)) {
+
+                field.getStats().actorPlaced(Species.HUNTER);
+                return;
+
+            }
+
+            current = this.state;
+
+        }
+
+    }
+
+    /**
+     * Retorna o código de espécie do caçador.
+     * 
+     * @return int Species.HUNTER.
+     */
+    public int getSpecies() { return Species.HUNTER; }
 
     public void draw() {}
 
+    /**
+     * Idade em que o caçador começa a se reproduzir.
+     * 
+     * @return int O valor do perfil, ou BREEDING_AGE no perfil DEFAULT.
+     */
+    private int breedingAge() { return profile == SpeciesProfile.DEFAULT ? BREEDING_AGE : profile.getHunterBreedingAge(); }
+
+    /**
+     * Idade máxima do caçador.
+     * 
+     * @return int O valor do perfil, ou MAX_AGE no perfil DEFAULT.
+     */
+    private int maxAge() { return profile == SpeciesProfile.DEFAULT ? MAX_AGE : profile.getHunterMaxAge(); }
+
+    /**
+     * Probabilidade de reprodução do caçador.
+     * 
+     * @return double O valor do perfil, ou BREEDING_PROBABILITY no perfil DEFAULT.
+     */
+    private double breedingProbability() { return profile == SpeciesProfile.DEFAULT ? BREEDING_PROBABILITY : profile.getHunterBreedingProbability(); }
+
+    /**
+     * Tamanho máximo da ninhada do caçador.
+     * 
+     * @return int O valor do perfil, ou MAX_LITTER_SIZE no perfil DEFAULT.
+     */
+    private int maxLitterSize() { return profile == SpeciesProfile.DEFAULT ? MAX_LITTER_SIZE : profile.getHunterMaxLitterSize(); }
+
+    /**
+     * Comida obtida ao abater um animal.
+     * 
+     * @return int O valor do perfil, ou ANIMAL_FOOD_VALUE no perfil DEFAULT.
+     */
+    private int animalFoodValue() { return profile == SpeciesProfile.DEFAULT ? ANIMAL_FOOD_VALUE : profile.getAnimalFoodValue(); }
+
+    /**
+     * Chance, em porcentagem, de o caçador ser abatido pela raposa.
+     * 
+     * @return int O valor do perfil, ou FOX_KILL_CHANCE no perfil DEFAULT.
+     */
+    private int foxKillChance() { return profile == SpeciesProfile.DEFAULT ? FOX_KILL_CHANCE : profile.getFoxKillChance(); }
+
 }
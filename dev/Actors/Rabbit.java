@@ -1,11 +1,14 @@
 package Actors;
 
 import java.util.List;
-import java.util.Random;
 
 import Utils.Location;
+import Utils.Neighbourhood;
+import Utils.RandomService;
+import Utils.RandomSource;
+import Utils.Species;
 import Controllers.Field;
-import Core.Simulator;
+import Controllers.SimulationContext;
 
 /**
  * Um modelo simples de um coelho, que determina suas açoes como comer, reproduzir e morrer
@@ -18,36 +21,43 @@ public class Rabbit extends Animal {
     /**
      * Idade para começar a se reproduzir
      */
-    private static final int BREEDING_AGE = 5;
+    public static final int BREEDING_AGE = 5;
 
     /**
      * Idade maxima de vida
      */
-    private static final int MAX_AGE = 50;
+    public static final int MAX_AGE = 50;
     
     /**
      * Chance de se reproduzir
      */
-    private static final double BREEDING_PROBABILITY = 0.15;
+    public static final double BREEDING_PROBABILITY = 0.15;
 
     /**
      * Numero maximo de reproduções
      */
-    private static final int MAX_LITTER_SIZE = 5;
+    public static final int MAX_LITTER_SIZE = 5;
 
     /**
-     * Dias que um coelho pode passar sem comer
+     * Nível de comida inicial de um coelho.
      */
-    private int CARROT_FOOD_LEVEL = 3;
+    public static final int INITIAL_CARROT_FOOD_LEVEL = 3;
 
     /**
-     * Variavel pra criar deciçoes aleatórias
+     * Dias que um coelho pode passar sem comer
      */
-    private static final Random rand = new Random();
+    private int CARROT_FOOD_LEVEL = INITIAL_CARROT_FOOD_LEVEL;
 
     
     private Field currentField;
 
+    /**
+     * Parâmetros da espécie nesta simulação, lidos pelos métodos de
+     * consulta no final da classe. No perfil DEFAULT, esses métodos usam
+     * as constantes da classe, que o compilador JIT incorpora ao código.
+     */
+    private final SpeciesProfile profile;
+
     /**
      * Cria um novo coelho. O coelho pode nascer com idade 0 ou uma idade aleatória
      * 
@@ -56,10 +66,24 @@ public class Rabbit extends Animal {
      * @param location  A atual localização do coelho
      */
     public Rabbit(boolean randomAge, Field field, Location location) {
-        super(0, true, location);
+        this(randomAge, field, location.getRow(), location.getCol());
+    }
+
+    /**
+     * Cria um novo coelho a partir da linha e da coluna.
+     * 
+     * @param randomAge Se verdadeiro, o coelho nasce com idade aleatória.
+     * @param field O tabuleiro
+     * @param row Linha da localização do coelho.
+     * @param col Coluna da localização do coelho.
+     */
+    public Rabbit(boolean randomAge, Field field, int row, int col) {
+        super(0, true, row, col);
         this.currentField = field;
+        this.profile = field.getContext().getActorProfile();
+        register(field);
         if (randomAge) {
-            setAge(rand.nextInt(MAX_AGE));
+            setAge(RandomService.current().nextInt(maxAge()));
         }
     }
 
@@ -76,11 +100,13 @@ public class Rabbit extends Animal {
         if (isActive()) {
             giveBirth(newRabbits, updatedField);
 
-            Location newLocation = updatedField.freeAdjacentLocation(location);
+            int direction = updatedField.freeAdjacentDirection(row, col);
             
-            if (newLocation != null) {
-                setLocation(newLocation);
-                updatedField.place(this, newLocation);
+            if (direction != Neighbourhood.NONE) {
+                direction = updatedField.claim(this, row, col, direction);
+            }
+            if (direction != Neighbourhood.NONE) {
+                move(direction);
             } else {
             
                 setActive(false);
@@ -95,11 +121,14 @@ public class Rabbit extends Animal {
 
         if (isActive()) {
 
-            int globalFoodLevel = Simulator.getCondition("RABBIT_FOOD_LEVEL");
+            // O nível lido é o do início do passo, para que a decisão não dependa
+            // da ordem em que os coelhos são executados.
+            SimulationContext context = currentField.getContext();
+            int globalFoodLevel = context.getStepCondition("RABBIT_FOOD_LEVEL");
 
             if ((globalFoodLevel) >= 1 && CARROT_FOOD_LEVEL <= 3) {
-                if(rand.nextInt(globalFoodLevel) > globalFoodLevel/20){
-                    Simulator.updateConditions("RABBIT_FOOD_LEVEL", globalFoodLevel - 1);
+                if(RandomService.current().nextInt(globalFoodLevel) > globalFoodLevel/20){
+                    context.addToCondition("RABBIT_FOOD_LEVEL", -1);
                 }else{
                     CARROT_FOOD_LEVEL ++;
                 }
@@ -122,8 +151,8 @@ public class Rabbit extends Animal {
     private void giveBirth(List<Actor> newRabbits, Field updatedField) {
         int births = breed();
         for(int b = 0; b < births; b++){
-            Location loc = updatedField.randomAdjacentLocation(location);
-            Rabbit newRabbit = new Rabbit(false, currentField, loc);
+            int direction = updatedField.randomAdjacentDirection(row, col);
+            Rabbit newRabbit = new Rabbit(false, currentField, row + Neighbourhood.rowOffset(direction), col + Neighbourhood.colOffset(direction));
             newRabbits.add(newRabbit);
         }
     }
@@ -134,7 +163,7 @@ public class Rabbit extends Animal {
     @Override
     public void incrementAge() {
         setAge(getAge()+1);
-        if (getAge() > MAX_AGE) {
+        if (getAge() > maxAge()) {
             setActive(false);
         }
     }
@@ -146,9 +175,10 @@ public class Rabbit extends Animal {
      * @return O numero de filhotes, pode ser zero inclusive.
      */
     private int breed() {
+        RandomSource rand = RandomService.current();
         int births = 0;
-        if (canBreed() && rand.nextDouble() <= BREEDING_PROBABILITY) {
-            births = rand.nextInt(MAX_LITTER_SIZE) + 1;
+        if (canBreed() && rand.nextDouble() <= breedingProbability()) {
+            births = rand.nextInt(maxLitterSize()) + 1;
         }
         return births;
     }
@@ -159,25 +189,18 @@ public class Rabbit extends Animal {
      * @return true Se o coelho pode reproduzir.
      */
     @Override
-    protected boolean canBreed() { return getAge() >= BREEDING_AGE; }
+    protected boolean canBreed() { return getAge() >= breedingAge(); }
 
     /**
      * Método modificador do atributo active, caso o coelho esteja
      * ativo na simulação.
      * 
+     * @return true Se o coelho estava ativo e foi comido por quem chamou.
      */
-    public void setEaten() {
-        setActive(false);
+    public boolean setEaten() {
+        return deactivate();
     }
 
-    /**
-     * Método modificador do atributo localização do animal.
-     * 
-     * @param row Linha, a posição em coordenada X.
-     * @param col Coluna, a posição em coordenada Y.
-     */
-    public void setLocation(int row, int col) { this.location = new Location(row, col); }
-
     /**
      * Sobrescrita do método action para implementar ação do animal.
      * 
@@ -190,6 +213,37 @@ public class Rabbit extends Animal {
         run(updatedField, newAnimals);
     }
 
+    /**
+     * Método acessador do nível de cenoura do coelho, usado ao gravar a
+     * simulação.
+     * 
+     * @return int Dias que o coelho ainda pode passar sem comer.
+     */
+    int getCarrotFoodLevel() { return CARROT_FOOD_LEVEL; }
+
+    /**
+     * Método modificador do nível de cenoura do coelho, usado ao retomar
+     * a simulação.
+     * 
+     * @param level Dias que o coelho ainda pode passar sem comer.
+     */
+    void setCarrotFoodLevel(int level) { CARROT_FOOD_LEVEL = level; }
+
+    /**
+     * Método acessador do campo em que o animal procura comida e coloca
+     * os filhotes, usado ao gravar a simulação.
+     * 
+     * @return Field O campo recebido na criação.
+     */
+    Field getCurrentField() { return currentField; }
+
+    /**
+     * Retorna o código de espécie do coelho.
+     * 
+     * @return int Species.RABBIT.
+     */
+    public int getSpecies() { return Species.RABBIT; }
+
     /**
      * Representa textualmente o objeto em questão.
      * 
@@ -207,7 +261,34 @@ public class Rabbit extends Animal {
      * @param int Valor da idade de reprodução do coelho.
      */
     @Override
-    public int getBreedingAge() { return this.BREEDING_AGE; }
+    public int getBreedingAge() { return breedingAge(); }
+
+    /**
+     * Idade em que o coelho começa a se reproduzir.
+     * 
+     * @return int O valor do perfil, ou BREEDING_AGE no perfil DEFAULT.
+     */
+    private int breedingAge() { return profile == SpeciesProfile.DEFAULT ? BREEDING_AGE : profile.getRabbitBreedingAge(); }
+
+    /**
+     * Idade máxima do coelho.
+     * 
+     * @return int O valor do perfil, ou MAX_AGE no perfil DEFAULT.
+     */
+    private int maxAge() { return profile == SpeciesProfile.DEFAULT ? MAX_AGE : profile.getRabbitMaxAge(); }
+
+    /**
+     * Probabilidade de reprodução do coelho.
+     * 
+     * @return double O valor do perfil, ou BREEDING_PROBABILITY no perfil DEFAULT.
+     */
+    private double breedingProbability() { return profile == SpeciesProfile.DEFAULT ? BREEDING_PROBABILITY : profile.getRabbitBreedingProbability(); }
 
+    /**
+     * Tamanho máximo da ninhada do coelho.
+     * 
+     * @return int O valor do perfil, ou MAX_LITTER_SIZE no perfil DEFAULT.
+     */
+    private int maxLitterSize() { return profile == SpeciesProfile.DEFAULT ? MAX_LITTER_SIZE : profile.getRabbitMaxLitterSize(); }
 
 }
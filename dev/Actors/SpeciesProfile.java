@@ -0,0 +1,485 @@
+package Actors;
+
+import java.util.Arrays;
+
+import Core.Simulator;
+import Utils.Species;
+
+/**
+ * Conjunto imutável dos parâmetros das espécies: idades, probabilidades
+ * de reprodução, tamanhos de ninhada, valores de comida e probabilidades
+ * de criação na população inicial. Cada simulação recebe um perfil no seu
+ * SimulationContext, e os atores o guardam em um atributo final ao serem
+ * criados, de forma que cada consulta é a leitura de um campo de um
+ * objeto que não muda. Quando os parâmetros lidos pelos atores são os
+ * do perfil DEFAULT, os atores guardam o próprio DEFAULT (forActors) e
+ * usam diretamente as suas constantes, como antes dos perfis.
+ *
+ * O perfil DEFAULT usa as constantes das classes Fox, Rabbit, Hunter e
+ * Simulator. Outros perfis são obtidos com with, que retorna uma cópia
+ * com um parâmetro alterado; os nomes aceitos estão em PARAMETERS. Todo
+ * perfil é validado ao ser criado: idades, ninhadas e valores de comida
+ * são pelo menos 1, probabilidades ficam entre 0 e 1 e a chance de abate
+ * de raposas, em porcentagem, entre 0 e 100.
+ *
+ * A população inicial é criada, por padrão, com um sorteio por posição
+ * do campo e as probabilidades de criação. Com initial.density ou
+ * initial.count, apenas um dos dois, as posições ocupadas são sorteadas
+ * diretamente por CellSampler, com a densidade ou a quantidade de atores
+ * informada, e a espécie de cada uma com initialSpecies, nas mesmas
+ * proporções do sorteio por posição.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public final class SpeciesProfile {
+
+    /**
+     * Nomes dos parâmetros, na ordem do vetor de valores.
+     */
+    private static final String[] PARAMETERS = {
+        "fox.breedingAge", "fox.maxAge", "fox.breedingProbability", "fox.maxLitterSize", "fox.rabbitFoodValue",
+        "rabbit.breedingAge", "rabbit.maxAge", "rabbit.breedingProbability", "rabbit.maxLitterSize",
+        "hunter.breedingAge", "hunter.maxAge", "hunter.breedingProbability", "hunter.maxLitterSize",
+        "hunter.animalFoodValue", "hunter.foxKillChance",
+        "fox.creationProbability", "rabbit.creationProbability", "hunter.creationProbability",
+        "initial.density", "initial.count"
+    };
+
+    /**
+     * Quantidade de parâmetros lidos pelos atores, os primeiros de PARAMETERS.
+     */
+    private static final int ACTOR_PARAMETERS = 15;
+
+    /**
+     * Menor e maior valor aceitos de cada parâmetro, na ordem de PARAMETERS.
+     */
+    private static final double[] MIN = {
+        1, 1, 0, 1, 1,
+        1, 1, 0, 1,
+        1, 1, 0, 1,
+        1, 0,
+        0, 0, 0,
+        0, 0
+    };
+    private static final double[] MAX = {
+        Integer.MAX_VALUE, Integer.MAX_VALUE, 1, Integer.MAX_VALUE, Integer.MAX_VALUE,
+        Integer.MAX_VALUE, Integer.MAX_VALUE, 1, Integer.MAX_VALUE,
+        Integer.MAX_VALUE, Integer.MAX_VALUE, 1, Integer.MAX_VALUE,
+        Integer.MAX_VALUE, 100,
+        1, 1, 1,
+        1, Integer.MAX_VALUE
+    };
+
+    /**
+     * Perfil com os valores originais das constantes das espécies.
+     */
+    public static final SpeciesProfile DEFAULT = new SpeciesProfile(new double[] {
+        Fox.BREEDING_AGE, Fox.MAX_AGE, Fox.BREEDING_PROBABILITY, Fox.MAX_LITTER_SIZE, Fox.RABBIT_FOOD_VALUE,
+        Rabbit.BREEDING_AGE, Rabbit.MAX_AGE, Rabbit.BREEDING_PROBABILITY, Rabbit.MAX_LITTER_SIZE,
+        Hunter.BREEDING_AGE, Hunter.MAX_AGE, Hunter.BREEDING_PROBABILITY, Hunter.MAX_LITTER_SIZE,
+        Hunter.ANIMAL_FOOD_VALUE, Hunter.FOX_KILL_CHANCE,
+        Simulator.FOX_CREATION_PROBABILITY, Simulator.RABBIT_CREATION_PROBABILITY, Simulator.HUNTER_CREATION_PROBABILITY,
+        0, 0
+    });
+
+    /**
+     * Valores de todos os parâmetros, usados para criar cópias.
+     */
+    private final double[] values;
+
+    /**
+     * Parâmetros da raposa.
+     */
+    private final int foxBreedingAge, foxMaxAge, foxMaxLitterSize, rabbitFoodValue;
+    private final double foxBreedingProbability;
+
+    /**
+     * Parâmetros do coelho.
+     */
+    private final int rabbitBreedingAge, rabbitMaxAge, rabbitMaxLitterSize;
+    private final double rabbitBreedingProbability;
+
+    /**
+     * Parâmetros do caçador.
+     */
+    private final int hunterBreedingAge, hunterMaxAge, hunterMaxLitterSize, animalFoodValue, foxKillChance;
+    private final double hunterBreedingProbability;
+
+    /**
+     * Probabilidades de criação na população inicial.
+     */
+    private final double foxCreationProbability, rabbitCreationProbability, hunterCreationProbability;
+
+    /**
+     * Densidade e quantidade de atores da população inicial sorteada
+     * diretamente, ou 0 para o sorteio por posição.
+     */
+    private final double initialDensity;
+    private final int initialCount;
+
+    /**
+     * Chance de cada espécie em uma posição ocupada da população inicial,
+     * acumuladas: raposa, raposa ou coelho.
+     */
+    private final double foxShare, foxOrRabbitShare;
+
+    /**
+     * Construtor a partir dos valores na ordem de PARAMETERS. Parâmetros
+     * inteiros são arredondados.
+     *
+     * @param values Valores dos parâmetros.
+     * @throws IllegalArgumentException Se algum valor estiver fora da faixa
+     *         aceita, ou se a população inicial sorteada diretamente não
+     *         puder ter nenhuma espécie ou tiver densidade e quantidade.
+     */
+    private SpeciesProfile(double[] values) {
+
+        for (int i = 0; i < PARAMETERS.length; i++) {
+
+            double value = isInteger(PARAMETERS[i]) ? Math.round(values[i]) : values[i];
+
+            if (!(value >= MIN[i] && value <= MAX[i])) {
+
+                throw new IllegalArgumentException("Valor inválido para " + PARAMETERS[i] + ": " + values[i]
+                    + ", aceito de " + format(MIN[i]) + " a " + format(MAX[i]) + ".");
+
+            }
+
+        }
+
+        this.values = values;
+        foxBreedingAge = (int) Math.round(values[0]);
+        foxMaxAge = (int) Math.round(values[1]);
+        foxBreedingProbability = values[2];
+        foxMaxLitterSize = (int) Math.round(values[3]);
+        rabbitFoodValue = (int) Math.round(values[4]);
+        rabbitBreedingAge = (int) Math.round(values[5]);
+        rabbitMaxAge = (int) Math.round(values[6]);
+        rabbitBreedingProbability = values[7];
+        rabbitMaxLitterSize = (int) Math.round(values[8]);
+        hunterBreedingAge = (int) Math.round(values[9]);
+        hunterMaxAge = (int) Math.round(values[10]);
+        hunterBreedingProbability = values[11];
+        hunterMaxLitterSize = (int) Math.round(values[12]);
+        animalFoodValue = (int) Math.round(values[13]);
+        foxKillChance = (int) Math.round(values[14]);
+        foxCreationProbability = values[15];
+        rabbitCreationProbability = values[16];
+        hunterCreationProbability = values[17];
+        initialDensity = values[18];
+        initialCount = (int) Math.round(values[19]);
+
+        // Probabilidade de cada espécie no sorteio por posição.
+        double fox = foxCreationProbability;
+        double rabbit = (1 - fox) * rabbitCreationProbability;
+        double hunter = (1 - fox) * (1 - rabbitCreationProbability) * (1 - hunterCreationProbability);
+        double occupied = fox + rabbit + hunter;
+        foxShare = occupied > 0 ? fox / occupied : 0;
+        foxOrRabbitShare = occupied > 0 ? (fox + rabbit) / occupied : 0;
+
+        if (initialDensity > 0 && initialCount > 0) {
+
+            throw new IllegalArgumentException("Informe apenas um de initial.density e initial.count.");
+
+        }
+
+        if ((initialDensity > 0 || initialCount > 0) && occupied <= 0) {
+
+            throw new IllegalArgumentException("As probabilidades de criação não permitem nenhuma espécie na população inicial.");
+
+        }
+
+    }
+
+    /**
+     * Retorna uma cópia do perfil com um parâmetro alterado.
+     *
+     * @param parameter Nome do parâmetro, um dos nomes de getParameterNames.
+     * @param value Novo valor, arredondado se o parâmetro for inteiro.
+     * @return SpeciesProfile O novo perfil.
+     * @throws IllegalArgumentException Se o parâmetro for desconhecido ou o valor estiver fora da faixa aceita.
+     */
+    public SpeciesProfile with(String parameter, double value) {
+
+        double[] copy = values.clone();
+        copy[indexOf(parameter)] = value;
+        return new SpeciesProfile(copy);
+
+    }
+
+    /**
+     * Retorna o perfil que os atores devem guardar: DEFAULT, se os
+     * parâmetros lidos pelos atores forem iguais aos dele, ou o próprio
+     * perfil. As probabilidades de criação e a população inicial não são
+     * lidas pelos atores, e por isso não são comparadas.
+     *
+     * @return SpeciesProfile DEFAULT ou este perfil.
+     */
+    public SpeciesProfile forActors() {
+
+        for (int i = 0; i < ACTOR_PARAMETERS; i++) {
+
+            if (rounded(i) != DEFAULT.rounded(i)) {
+
+                return this;
+
+            }
+
+        }
+
+        return DEFAULT;
+
+    }
+
+    /**
+     * Retorna o valor de um parâmetro como é usado, arredondado se o
+     * parâmetro for inteiro.
+     *
+     * @param i Posição do parâmetro em PARAMETERS.
+     * @return double O valor usado.
+     */
+    private double rounded(int i) { return isInteger(PARAMETERS[i]) ? Math.round(values[i]) : values[i]; }
+
+    /**
+     * Retorna o valor de um parâmetro pelo nome.
+     *
+     * @param parameter Nome do parâmetro.
+     * @return double O valor do parâmetro.
+     */
+    public double get(String parameter) { return values[indexOf(parameter)]; }
+
+    /**
+     * Verifica se um parâmetro tem valores inteiros.
+     *
+     * @param parameter Nome do parâmetro.
+     * @return true Se o parâmetro é arredondado para inteiro.
+     */
+    public static boolean isInteger(String parameter) { return !parameter.endsWith("Probability") && !parameter.equals("initial.density"); }
+
+    /**
+     * Escreve um limite de faixa sem casas decimais quando for inteiro.
+     *
+     * @param limit O limite.
+     * @return String O texto do limite.
+     */
+    private static String format(double limit) { return limit == Math.rint(limit) ? String.valueOf((long) limit) : String.valueOf(limit); }
+
+    /**
+     * Retorna os nomes de todos os parâmetros.
+     *
+     * @return String[] Cópia da lista de nomes.
+     */
+    public static String[] getParameterNames() { return PARAMETERS.clone(); }
+
+    /**
+     * Retorna a posição de um parâmetro no vetor de valores.
+     *
+     * @param parameter Nome do parâmetro.
+     * @return int A posição.
+     */
+    private static int indexOf(String parameter) {
+
+        for (int i = 0; i < PARAMETERS.length; i++) {
+
+            if (PARAMETERS[i].equals(parameter)) {
+
+                return i;
+
+            }
+
+        }
+
+        throw new IllegalArgumentException("Parâmetro desconhecido: " + parameter + ". Válidos: " + Arrays.toString(PARAMETERS));
+
+    }
+
+    /**
+     * Método acessador do parâmetro fox.breedingAge.
+     *
+     * @return int O valor do parâmetro.
+     */
+    public int getFoxBreedingAge() { return foxBreedingAge; }
+
+    /**
+     * Método acessador do parâmetro fox.maxAge.
+     *
+     * @return int O valor do parâmetro.
+     */
+    public int getFoxMaxAge() { return foxMaxAge; }
+
+    /**
+     * Método acessador do parâmetro fox.breedingProbability.
+     *
+     * @return double O valor do parâmetro.
+     */
+    public double getFoxBreedingProbability() { return foxBreedingProbability; }
+
+    /**
+     * Método acessador do parâmetro fox.maxLitterSize.
+     *
+     * @return int O valor do parâmetro.
+     */
+    public int getFoxMaxLitterSize() { return foxMaxLitterSize; }
+
+    /**
+     * Método acessador do parâmetro fox.rabbitFoodValue.
+     *
+     * @return int O valor do parâmetro.
+     */
+    public int getRabbitFoodValue() { return rabbitFoodValue; }
+
+    /**
+     * Método acessador do parâmetro rabbit.breedingAge.
+     *
+     * @return int O valor do parâmetro.
+     */
+    public int getRabbitBreedingAge() { return rabbitBreedingAge; }
+
+    /**
+     * Método acessador do parâmetro rabbit.maxAge.
+     *
+     * @return int O valor do parâmetro.
+     */
+    public int getRabbitMaxAge() { return rabbitMaxAge; }
+
+    /**
+     * Método acessador do parâmetro rabbit.breedingProbability.
+     *
+     * @return double O valor do parâmetro.
+     */
+    public double getRabbitBreedingProbability() { return rabbitBreedingProbability; }
+
+    /**
+     * Método acessador do parâmetro rabbit.maxLitterSize.
+     *
+     * @return int O valor do parâmetro.
+     */
+    public int getRabbitMaxLitterSize() { return rabbitMaxLitterSize; }
+
+    /**
+     * Método acessador do parâmetro hunter.breedingAge.
+     *
+     * @return int O valor do parâmetro.
+     */
+    public int getHunterBreedingAge() { return hunterBreedingAge; }
+
+    /**
+     * Método acessador do parâmetro hunter.maxAge.
+     *
+     * @return int O valor do parâmetro.
+     */
+    public int getHunterMaxAge() { return hunterMaxAge; }
+
+    /**
+     * Método acessador do parâmetro hunter.breedingProbability.
+     *
+     * @return double O valor do parâmetro.
+     */
+    public double getHunterBreedingProbability() { return hunterBreedingProbability; }
+
+    /**
+     * Método acessador do parâmetro hunter.maxLitterSize.
+     *
+     * @return int O valor do parâmetro.
+     */
+    public int getHunterMaxLitterSize() { return hunterMaxLitterSize; }
+
+    /**
+     * Método acessador do parâmetro hunter.animalFoodValue.
+     *
+     * @return int O valor do parâmetro.
+     */
+    public int getAnimalFoodValue() { return animalFoodValue; }
+
+    /**
+     * Método acessador do parâmetro hunter.foxKillChance.
+     *
+     * @return int O valor do parâmetro.
+     */
+    public int getFoxKillChance() { return foxKillChance; }
+
+    /**
+     * Método acessador do parâmetro fox.creationProbability.
+     *
+     * @return double O valor do parâmetro.
+     */
+    public double getFoxCreationProbability() { return foxCreationProbability; }
+
+    /**
+     * Método acessador do parâmetro rabbit.creationProbability.
+     *
+     * @return double O valor do parâmetro.
+     */
+    public double getRabbitCreationProbability() { return rabbitCreationProbability; }
+
+    /**
+     * Como em Simulator.HUNTER_CREATION_PROBABILITY, um caçador é criado
+     * quando o sorteio da posição é maior que este valor.
+     *
+     * @return double O limite do sorteio.
+     */
+    public double getHunterCreationProbability() { return hunterCreationProbability; }
+
+    /**
+     * Método acessador do parâmetro initial.density.
+     *
+     * @return double A fração das posições ocupadas, ou 0 se não for usada.
+     */
+    public double getInitialDensity() { return initialDensity; }
+
+    /**
+     * Método acessador do parâmetro initial.count.
+     *
+     * @return int A quantidade de atores, ou 0 se não for usada.
+     */
+    public int getInitialCount() { return initialCount; }
+
+    /**
+     * Verifica se as posições da população inicial são sorteadas
+     * diretamente, por densidade ou quantidade.
+     *
+     * @return true Se initial.density ou initial.count foi informado.
+     */
+    public boolean isSampledPopulation() { return initialDensity > 0 || initialCount > 0; }
+
+    /**
+     * Escolhe a espécie de uma posição ocupada da população inicial, nas
+     * mesmas proporções do sorteio por posição.
+     *
+     * @param draw Valor sorteado entre 0.0 (inclusive) e 1.0 (exclusivo).
+     * @return int O código da espécie.
+     */
+    public int initialSpecies(double draw) {
+
+        if (draw < foxShare) {
+
+            return Species.FOX;
+
+        }
+
+        return draw < foxOrRabbitShare ? Species.RABBIT : Species.HUNTER;
+
+    }
+
+    /**
+     * Representação textual com todos os parâmetros.
+     *
+     * @return String Pares nome=valor.
+     */
+    @Override
+    public String toString() {
+
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < PARAMETERS.length; i++) {
+
+            builder.append(i == 0 ? "" : " ").append(PARAMETERS[i]).append('=').append(values[i]);
+
+        }
+
+        return builder.toString();
+
+    }
+
+}
@@ -1,28 +1,74 @@
 package Controllers;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 import Actors.Actor;
 import Utils.Location;
+import Utils.Neighbourhood;
+import Utils.RandomService;
+import Utils.RandomSource;
+import Utils.Species;
 
 /**
 
  * Representa uma grade retangular de posições do campo. Cada posição é capaz de
  * armazenar um único animal.
  * 
+ * As posições são guardadas em vetores planos, linha após linha: um vetor
+ * com o ator de cada posição e um vetor de inteiros com o código da sua
+ * espécie (Utils.Species). Consultas de tipo devem usar getSpeciesAt, que
+ * compara inteiros; getObjectAt continua disponível para obter o ator.
+ * 
+ * As consultas de vizinhança por linha e coluna retornam máscaras de 8 bits
+ * e direções de Utils.Neighbourhood, e não criam objetos. As versões que
+ * recebem e retornam Location são mantidas como adaptadores.
+ * 
+ * O campo é dividido em blocos de BLOCK_SIZE x BLOCK_SIZE posições, e cada
+ * bloco em que um animal é colocado é marcado como sujo. clear apaga apenas
+ * os blocos sujos, e contagens e desenhos podem percorrer apenas esses
+ * blocos, de forma que o custo acompanha a população e não a área do campo.
+ * 
+ * Os vetores planos ocupam memória proporcional à área. Para campos muito
+ * grandes e quase vazios, SparseField guarda apenas os blocos ocupados;
+ * create escolhe a organização a partir do nome, como na linha de comando.
+ * 
  * @author David J. Barnes and Michael Kolling
  * @version 2002-04-09
  */
 public class Field {
 
     /**
-     * Objeto para randomização de valores utlizado pela classe.
+     * Acesso atômico às posições do campo, usado para
+     * ocupar posições com compareAndSet quando vários atores se movem
+     * ao mesmo tempo.
      */
-    private static final Random rand = new Random();
+    private static final VarHandle CELL = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    /**
+     * Acesso atômico às marcas de bloco sujo, para que um bloco entre uma
+     * única vez na lista mesmo quando várias threads o marcam.
+     */
+    private static final VarHandle DIRTY = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * Lado de um bloco de posições, em células.
+     */
+    public static final int BLOCK_SIZE = 16;
+
+    /**
+     * Nomes das organizações do campo aceitas por create.
+     */
+    public static final String DENSE = "dense", SPARSE = "sparse", AUTO = "auto";
+
+    /**
+     * Maior quantidade de posições de um campo denso escolhido por AUTO.
+     */
+    public static final long MAX_DENSE_CELLS = 1L << 26;
 
     /**
      * A profundidade e largura de um campo
@@ -30,9 +76,55 @@ public class Field {
     private int depth, width;
 
     /**
-     * Compartimento para animais.
+     * Compartimento para animais, indexado por linha * largura + coluna.
+     */
+    private Object[] cells;
+
+    /**
+     * Código da espécie do animal de cada posição, com o mesmo índice de cells.
+     */
+    private int[] codes;
+
+    /**
+     * Bits de borda (Neighbourhood.TOP e BOTTOM) de cada linha.
+     */
+    private int[] rowEdges;
+
+    /**
+     * Bits de borda (Neighbourhood.LEFT e RIGHT) de cada coluna.
+     */
+    private int[] colEdges;
+
+    /**
+     * Diferença de índice no vetor de cada direção vizinha.
+     */
+    private int[] deltas;
+
+    /**
+     * Quantidade de blocos na horizontal.
+     */
+    private int blockCols;
+
+    /**
+     * Marca de cada bloco, 1 se algum animal foi colocado nele desde o último clear.
+     */
+    private int[] dirty;
+
+    /**
+     * Índices dos blocos sujos, na ordem em que foram marcados.
+     */
+    private int[] dirtyBlocks;
+
+    /**
+     * Quantidade de blocos sujos.
+     */
+    private AtomicInteger dirtyCount;
+
+    /**
+     * Estado da simulação a que o campo pertence, compartilhado pelos
+     * campos da mesma simulação: condições, estação e população.
      */
-    private Object[][] field;
+    private SimulationContext context;
 
     /**
      * Representa um campo com as dimenções dadas.
@@ -42,9 +134,102 @@ public class Field {
      */
     public Field(int depth, int width) {
 
+        this(depth, width, new SimulationContext());
+
+    }
+
+    /**
+     * Representa um campo com as dimenções dadas, pertencente a uma simulação.
+     * 
+     * @param depth A profundidade do campo.
+     * @param width A largura do campo.
+     * @param context Estado da simulação, compartilhado com os outros campos dela.
+     */
+    public Field(int depth, int width, SimulationContext context) {
+
+        this(depth, width, context, true);
+
+    }
+
+    /**
+     * Construtor usado pelas subclasses que guardam as posições de outra
+     * forma e não precisam dos vetores planos.
+     * 
+     * @param depth A profundidade do campo.
+     * @param width A largura do campo.
+     * @param context Estado da simulação, compartilhado com os outros campos dela.
+     * @param dense Se os vetores planos de posições e blocos devem ser criados.
+     */
+    protected Field(int depth, int width, SimulationContext context, boolean dense) {
+
+        if (dense && (long) depth * width > Integer.MAX_VALUE) {
+
+            throw new IllegalArgumentException("Campo denso de " + depth + "x" + width + " excede o tamanho máximo de um vetor, use SparseField.");
+
+        }
+
         this.depth = depth;
+        this.context = context;
         this.width = width;
-        field = new Object[depth][width];
+        rowEdges = new int[depth];
+        colEdges = new int[width];
+        deltas = new int[Neighbourhood.DIRECTIONS];
+        blockCols = (width + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        if (dense) {
+
+            cells = new Object[depth * width];
+            codes = new int[depth * width];
+            dirty = new int[((depth + BLOCK_SIZE - 1) / BLOCK_SIZE) * blockCols];
+            dirtyBlocks = new int[dirty.length];
+            dirtyCount = new AtomicInteger();
+
+        }
+
+        for (int row = 0; row < depth; row++) {
+
+            rowEdges[row] = (row == 0 ? Neighbourhood.TOP : 0) | (row == depth - 1 ? Neighbourhood.BOTTOM : 0);
+
+        }
+
+        for (int col = 0; col < width; col++) {
+
+            colEdges[col] = (col == 0 ? Neighbourhood.LEFT : 0) | (col == width - 1 ? Neighbourhood.RIGHT : 0);
+
+        }
+
+        for (int dir = 0; dir < Neighbourhood.DIRECTIONS; dir++) {
+
+            deltas[dir] = Neighbourhood.rowOffset(dir) * width + Neighbourhood.colOffset(dir);
+
+        }
+
+    }
+
+    /**
+     * Cria um campo com a organização pedida.
+     * 
+     * @param layout DENSE, SPARSE, ou AUTO para usar o campo esparso apenas
+     *        acima de MAX_DENSE_CELLS posições.
+     * @param depth A profundidade do campo.
+     * @param width A largura do campo.
+     * @param context Estado da simulação, compartilhado com os outros campos dela.
+     * @return Field O campo criado.
+     * @throws IllegalArgumentException Se o nome não corresponder a nenhuma organização.
+     */
+    public static Field create(String layout, int depth, int width, SimulationContext context) {
+
+        if (layout.equals(AUTO)) {
+
+            layout = (long) depth * width > MAX_DENSE_CELLS ? SPARSE : DENSE;
+
+        }
+
+        switch (layout) {
+            case DENSE: return new Field(depth, width, context);
+            case SPARSE: return new SparseField(depth, width, context);
+            default: throw new IllegalArgumentException("Organização de campo desconhecida: " + layout);
+        }
 
     }
 
@@ -53,17 +238,52 @@ public class Field {
      */
     public void clear() {
 
-        for (int row = 0; row < depth; row++) {
-            for (int col = 0; col < width; col++) {
-                field[row][col] = null;
+        int count = dirtyCount.get();
+
+        for (int i = 0; i < count; i++) {
+
+            int block = dirtyBlocks[i];
+            int firstRow = getBlockFirstRow(block);
+            int lastRow = Math.min(firstRow + BLOCK_SIZE, depth);
+            int firstCol = getBlockFirstCol(block);
+            int lastCol = Math.min(firstCol + BLOCK_SIZE, width);
+
+            for (int row = firstRow; row < lastRow; row++) {
+
+                Arrays.fill(cells, row * width + firstCol, row * width + lastCol, null);
+                Arrays.fill(codes, row * width + firstCol, row * width + lastCol, Species.EMPTY);
+
             }
+
+            dirty[block] = 0;
+
+        }
+
+        dirtyCount.set(0);
+
+    }
+
+    /**
+     * Marca como sujo o bloco de uma posição.
+     * 
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     */
+    private void markDirty(int row, int col) {
+
+        int block = (row / BLOCK_SIZE) * blockCols + col / BLOCK_SIZE;
+
+        if ((int) DIRTY.getVolatile(dirty, block) == 0 && DIRTY.compareAndSet(dirty, block, 0, 1)) {
+
+            dirtyBlocks[dirtyCount.getAndIncrement()] = block;
+
         }
 
     }
 
     /**
      * Coloca um animal em um determinado local. Se já haver um animal no local ele
-     * será perdido.
+     * será perdido. Um ator colocado é contado na população do passo.
      * 
      * @param animal O animal a ser colocado.
      * @param row    Coordenada da linha da local.
@@ -71,7 +291,16 @@ public class Field {
      */
     public void place(Object animal, int row, int col) {
 
-        place(animal, new Location(row, col));
+        int index = row * width + col;
+        cells[index] = animal;
+        codes[index] = speciesOf(animal);
+        markDirty(row, col);
+
+        if (animal instanceof Actor) {
+
+            ((Actor) animal).placed();
+
+        }
 
     }
 
@@ -84,7 +313,129 @@ public class Field {
      */
     public void place(Object animal, Location location) {
 
-        field[location.getRow()][location.getCol()] = animal;
+        place(animal, location.getRow(), location.getCol());
+
+    }
+
+    /**
+     * Coloca um animal em uma posição compactada, sem criar um objeto Location.
+     * 
+     * @param animal   O animal a ser colocado.
+     * @param position Linha e coluna compactadas por Location.pack.
+     */
+    public void place(Object animal, long position) {
+
+        place(animal, Location.rowOf(position), Location.colOf(position));
+
+    }
+
+    /**
+     * Ocupa uma posição para um ator de forma atômica. Diferente de place,
+     * nunca sobrescreve um ator ativo: se a posição desejada já estiver
+     * ocupada, tenta as posições adjacentes à origem e, por fim, a própria
+     * origem. Posições ocupadas por atores inativos são consideradas livres.
+     * 
+     * @param actor O ator que vai ocupar a posição.
+     * @param origin Localização atual do ator.
+     * @param preferred Posição desejada, adjacente à origem ou a própria origem.
+     * @return Location A posição ocupada, ou nulo se não houver posição livre.
+     */
+    public Location claim(Actor actor, Location origin, Location preferred) {
+
+        int row = origin.getRow();
+        int col = origin.getCol();
+        int direction = Neighbourhood.directionOf(preferred.getRow() - row, preferred.getCol() - col);
+        int claimed = claim(actor, row, col, direction);
+
+        if (claimed == Neighbourhood.NONE) {
+
+            return null;
+
+        }
+
+        return claimed == direction ? preferred : new Location(row + Neighbourhood.rowOffset(claimed), col + Neighbourhood.colOffset(claimed));
+
+    }
+
+    /**
+     * Versão sem alocação de claim, com a posição desejada dada como
+     * direção a partir da origem.
+     * 
+     * @param actor O ator que vai ocupar a posição.
+     * @param row Linha atual do ator.
+     * @param col Coluna atual do ator.
+     * @param direction Direção desejada, de 0 a 7, ou Neighbourhood.STAY.
+     * @return int A direção ocupada, Neighbourhood.STAY se for a origem, ou
+     *         Neighbourhood.NONE se não houver posição livre.
+     */
+    public int claim(Actor actor, int row, int col, int direction) {
+
+        int index = row * width + col;
+
+        if (tryClaim(actor, direction == Neighbourhood.STAY ? index : index + deltas[direction])) {
+
+            return direction;
+
+        }
+
+        int valid = adjacentMask(row, col);
+        int order = Neighbourhood.randomOrder(RandomService.current());
+
+        for (int i = 0; i < Neighbourhood.DIRECTIONS; i++) {
+
+            int next = Neighbourhood.direction(order, i);
+
+            if ((valid & (1 << next)) != 0 && tryClaim(actor, index + deltas[next])) {
+
+                return next;
+
+            }
+
+        }
+
+        return tryClaim(actor, index) ? Neighbourhood.STAY : Neighbourhood.NONE;
+
+    }
+
+    /**
+     * Tenta ocupar uma posição com compareAndSet.
+     * 
+     * @param actor O ator que vai ocupar a posição.
+     * @param index Índice da posição no vetor.
+     * @return true Se a posição foi ocupada pelo ator.
+     */
+    private boolean tryClaim(Actor actor, int index) {
+
+        Object current = CELL.getVolatile(cells, index);
+
+        while (current == null || current == actor || !((Actor) current).isActive()) {
+
+            if (CELL.compareAndSet(cells, index, current, actor)) {
+
+                codes[index] = actor.getSpecies();
+                markDirty(index / width, index % width);
+                actor.placed();
+                return true;
+
+            }
+
+            current = CELL.getVolatile(cells, index);
+
+        }
+
+        return false;
+
+    }
+
+    /**
+     * Retorna o código da espécie de um objeto colocado no campo.
+     * 
+     * @param animal O objeto, pode ser nulo.
+     * @return int O código da espécie, ou Species.EMPTY.
+     */
+    protected static int speciesOf(Object animal) {
+
+        return (animal instanceof Actor) ? ((Actor) animal).getSpecies() : Species.EMPTY;
 
     }
 
@@ -107,7 +458,40 @@ public class Field {
      * @param col A coluna desejada.
      * @return O animal em uma localidade, ou nulo se não existir.
      */
-    public Object getObjectAt(int row, int col) { return field[row][col]; }
+    public Object getObjectAt(int row, int col) { return cells[row * width + col]; }
+
+    /**
+     * Retorna o animal de uma posição compactada, sem criar um objeto Location.
+     * 
+     * @param position Linha e coluna compactadas por Location.pack.
+     * @return O animal em uma localidade, ou nulo se não existir.
+     */
+    public Object getObjectAt(long position) { return getObjectAt(Location.rowOf(position), Location.colOf(position)); }
+
+    /**
+     * Retorna o código da espécie do animal em uma localidade.
+     * 
+     * @param location Localidade no campo.
+     * @return int O código da espécie, ou Species.EMPTY se não houver animal.
+     */
+    public int getSpeciesAt(Location location) { return getSpeciesAt(location.getRow(), location.getCol()); }
+
+    /**
+     * Retorna o código da espécie do animal em uma localidade.
+     * 
+     * @param row A linha desejada.
+     * @param col A coluna desejada.
+     * @return int O código da espécie, ou Species.EMPTY se não houver animal.
+     */
+    public int getSpeciesAt(int row, int col) { return codes[row * width + col]; }
+
+    /**
+     * Retorna o código da espécie de uma posição compactada.
+     * 
+     * @param position Linha e coluna compactadas por Location.pack.
+     * @return int O código da espécie, ou Species.EMPTY se não houver animal.
+     */
+    public int getSpeciesAt(long position) { return getSpeciesAt(Location.rowOf(position), Location.colOf(position)); }
 
     /**
      * Gera um local aleatório que é adjacente a um dado local, ou a mesma local. O
@@ -118,28 +502,41 @@ public class Field {
      *         local passado.
      */
     public Location randomAdjacentLocation(Location location) {
-        
-        int row = location.getRow();
-        int col = location.getCol();
-        // Gera um offset de -1, 0 ou +1 para ambos linha e coluna atuais.
-        int nextRow = row + rand.nextInt(3) - 1;
-        int nextCol = col + rand.nextInt(3) - 1;
-        // Checagem para verificar se o local está fora dos limites.
 
-        if (nextRow < 0 || nextRow >= depth || nextCol < 0 || nextCol >= width) {
+        int direction = randomAdjacentDirection(location.getRow(), location.getCol());
+
+        if (direction == Neighbourhood.STAY) {
 
             return location;
 
-        } else if (nextRow != row || nextCol != col) {
+        }
 
-            return new Location(nextRow, nextCol);
+        return new Location(location.getRow() + Neighbourhood.rowOffset(direction), location.getCol() + Neighbourhood.colOffset(direction));
 
-        } else {
+    }
 
-            return location;
+    /**
+     * Versão sem alocação de randomAdjacentLocation.
+     * 
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     * @return int Uma direção válida, ou Neighbourhood.STAY.
+     */
+    public int randomAdjacentDirection(int row, int col) {
+
+        RandomSource rand = RandomService.current();
+        // Gera um offset de -1, 0 ou +1 para ambos linha e coluna atuais.
+        int direction = Neighbourhood.directionOf(rand.nextInt(3) - 1, rand.nextInt(3) - 1);
+        // Direções fora dos limites mantêm a posição atual.
+
+        if (direction == Neighbourhood.STAY || (adjacentMask(row, col) & (1 << direction)) == 0) {
+
+            return Neighbourhood.STAY;
 
         }
 
+        return direction;
+
     }
 
     /**
@@ -153,19 +550,99 @@ public class Field {
      *         as locais estiverem preenchidas.
      */
     public Location freeAdjacentLocation(Location location) {
-        Iterator<Location> adjacent = adjacentLocations(location);
-        while (adjacent.hasNext()) {
-            Location next = adjacent.next();
-            if (field[next.getRow()][next.getCol()] == null) {
-                return next;
-            }
+
+        int direction = freeAdjacentDirection(location.getRow(), location.getCol());
+
+        if (direction == Neighbourhood.NONE) {
+
+            return null;
+
+        } else if (direction == Neighbourhood.STAY) {
+
+            return location;
+
+        }
+
+        return new Location(location.getRow() + Neighbourhood.rowOffset(direction), location.getCol() + Neighbourhood.colOffset(direction));
+
+    }
+
+    /**
+     * Versão sem alocação de freeAdjacentLocation: sorteia uma direção
+     * entre as posições vizinhas livres.
+     * 
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     * @return int Uma direção livre, Neighbourhood.STAY se apenas a própria
+     *         posição estiver livre, ou Neighbourhood.NONE.
+     */
+    public int freeAdjacentDirection(int row, int col) {
+
+        int free = freeMask(row, col);
+
+        if (free != 0) {
+
+            return Neighbourhood.randomDirection(free, RandomService.current());
+
         }
         // Verifica se o local atual está livre.
-        if (field[location.getRow()][location.getCol()] == null) {
-            return location;
-        } else {
-            return null;
+        return getSpeciesAt(row, col) == Species.EMPTY ? Neighbourhood.STAY : Neighbourhood.NONE;
+
+    }
+
+    /**
+     * Retorna a máscara das direções vizinhas que ficam dentro do campo.
+     * 
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     * @return int Máscara de 8 bits das direções válidas.
+     */
+    public int adjacentMask(int row, int col) { return Neighbourhood.edgeMask(rowEdges[row] | colEdges[col]); }
+
+    /**
+     * Retorna a máscara das posições vizinhas vazias.
+     * 
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     * @return int Máscara de 8 bits das direções livres.
+     */
+    public int freeMask(int row, int col) { return speciesMask(row, col, Species.EMPTY); }
+
+    /**
+     * Retorna a máscara das posições vizinhas ocupadas por um ator.
+     * 
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     * @return int Máscara de 8 bits das direções ocupadas.
+     */
+    public int occupiedMask(int row, int col) { return adjacentMask(row, col) & ~freeMask(row, col); }
+
+    /**
+     * Retorna a máscara das posições vizinhas com animais de uma espécie.
+     * 
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     * @param species Código da espécie, ou Species.EMPTY para posições vazias.
+     * @return int Máscara de 8 bits das direções com a espécie.
+     */
+    public int speciesMask(int row, int col, int species) {
+
+        int valid = adjacentMask(row, col);
+        int index = row * width + col;
+        int mask = 0;
+
+        for (int dir = 0; dir < Neighbourhood.DIRECTIONS; dir++) {
+
+            if ((valid & (1 << dir)) != 0 && codes[index + deltas[dir]] == species) {
+
+                mask |= 1 << dir;
+
+            }
+
         }
+
+        return mask;
+
     }
 
     /**
@@ -179,28 +656,21 @@ public class Field {
 
         int row = location.getRow();
         int col = location.getCol();
-        LinkedList<Location> locations = new LinkedList<Location>();
-
-        for (int roffset = -1; roffset <= 1; roffset++) {
-
-            int nextRow = row + roffset;
-
-            if (nextRow >= 0 && nextRow < depth) {
+        int valid = adjacentMask(row, col);
+        int order = Neighbourhood.randomOrder(RandomService.current());
+        List<Location> locations = new ArrayList<Location>(8);
 
-                for (int coffset = -1; coffset <= 1; coffset++) {
+        for (int i = 0; i < Neighbourhood.DIRECTIONS; i++) {
 
-                    int nextCol = col + coffset;
-                    // Exclui locais inválidos de um dado local.
-                    if (nextCol >= 0 && nextCol < width && (roffset != 0 || coffset != 0)) {
+            int dir = Neighbourhood.direction(order, i);
+            // Exclui locais inválidos de um dado local.
+            if ((valid & (1 << dir)) != 0) {
 
-                        locations.add(new Location(nextRow, nextCol));
+                locations.add(new Location(row + Neighbourhood.rowOffset(dir), col + Neighbourhood.colOffset(dir)));
 
-                    }
-                }
             }
         }
 
-        Collections.shuffle(locations, rand);
         return locations.iterator();
 
     }
@@ -232,6 +702,98 @@ public class Field {
 
     }
 
+    /**
+     * Soma a quantidade de animais de cada espécie, percorrendo apenas os
+     * blocos sujos.
+     * 
+     * @param counts Vetor indexado pelo código da espécie, que recebe as somas.
+     */
+    public void countSpecies(int[] counts) {
+
+        int count = dirtyCount.get();
+
+        for (int i = 0; i < count; i++) {
+
+            int block = dirtyBlocks[i];
+            int firstRow = getBlockFirstRow(block);
+            int lastRow = Math.min(firstRow + BLOCK_SIZE, depth);
+            int firstCol = getBlockFirstCol(block);
+            int lastCol = Math.min(firstCol + BLOCK_SIZE, width);
+
+            for (int row = firstRow; row < lastRow; row++) {
+
+                for (int index = row * width + firstCol; index < row * width + lastCol; index++) {
+
+                    counts[codes[index]]++;
+
+                }
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Retorna a quantidade de blocos do campo.
+     * 
+     * @return int Quantidade de blocos.
+     */
+    public int getBlockCount() { return dirty.length; }
+
+    /**
+     * Retorna a quantidade de blocos sujos desde o último clear.
+     * 
+     * @return int Quantidade de blocos sujos.
+     */
+    public int getDirtyBlockCount() { return dirtyCount.get(); }
+
+    /**
+     * Retorna o índice de um bloco sujo.
+     * 
+     * @param i Posição na lista de blocos sujos, menor que getDirtyBlockCount.
+     * @return int O índice do bloco.
+     */
+    public int getDirtyBlock(int i) { return dirtyBlocks[i]; }
+
+    /**
+     * Verifica se um bloco está sujo.
+     * 
+     * @param block Índice do bloco.
+     * @return true Se algum animal foi colocado no bloco desde o último clear.
+     */
+    public boolean isDirtyBlock(int block) { return dirty[block] != 0; }
+
+    /**
+     * Retorna a primeira linha de um bloco.
+     * 
+     * @param block Índice do bloco.
+     * @return int A linha.
+     */
+    public int getBlockFirstRow(int block) { return (block / blockCols) * BLOCK_SIZE; }
+
+    /**
+     * Retorna a primeira coluna de um bloco.
+     * 
+     * @param block Índice do bloco.
+     * @return int A coluna.
+     */
+    public int getBlockFirstCol(int block) { return (block % blockCols) * BLOCK_SIZE; }
+
+    /**
+     * Método acessador das estatisticas de população da simulação.
+     * 
+     * @return FieldStats As estatisticas compartilhadas pelos campos da simulação.
+     */
+    public FieldStats getStats() { return context.getStats(); }
+
+    /**
+     * Método acessador do estado da simulação a que o campo pertence.
+     * 
+     * @return SimulationContext O contexto compartilhado pelos campos da simulação.
+     */
+    public SimulationContext getContext() { return context; }
+
     /**
      * Método acessador para o estado do atributo depth.
      * 
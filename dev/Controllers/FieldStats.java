@@ -1,141 +1,168 @@
 package Controllers;
 
-import java.awt.Color;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
 
-import Utils.Counter;
+import Actors.Actor;
+
+import Utils.Species;
 
 /**
  * Essa classe coleta e provém alguns dados estatisticos a cerca do estado
  * do campo utilizado na simulação. Responsável pela criação e manutenção
  * de um contador para outras instancias no processo de simulação.
  * 
+ * A população de cada espécie é mantida de forma incremental e conta
+ * apenas os atores ativos colocados no campo: um ator é contado quando é
+ * colocado no campo que recebe o próximo passo (actorPlaced), e deixa de
+ * ser contado quando se torna inativo depois disso (actorRemoved). Os
+ * filhotes só são contados no passo em que ocupam uma posição. Como o
+ * campo é reconstruído a cada passo, as contagens pertencem a uma geração,
+ * avançada em commit ao final do passo, e os atores usam a geração para
+ * saber se já foram contados no passo atual.
+ * 
+ * As contagens do passo em andamento ficam em um LongAdder por espécie,
+ * pois os atores podem ser executados por várias threads. A contagem que
+ * percorre o campo, countField, é usada apenas para verificá-las, como
+ * em BatchRunner --verify-stats.
+ * 
  * @author David J. Barnes and Michael Kolling
  * @version 2002-04-23
  */
 public class FieldStats {
     
     /**
-     * Responsável por armazenas contadores das mais diversas instancias
-     * presentes na simulação como Fox, rabbit, etc. 
+     * População de cada espécie no final do último passo, indexada pelo código da espécie.
+     */
+    private int[] population;
+
+    /**
+     * Atores colocados no passo em andamento, por código da espécie.
      */
-    private HashMap counters;
+    private LongAdder[] placed;
 
     /**
-     * Denota se o contador está em um estado válido e atualizado.
+     * Geração do passo em andamento, avançada em commit. Começa em 1,
+     * pois 0 indica um ator que nunca foi colocado.
      */
-    private boolean countsValid;
+    private volatile int generation = 1;
 
     /**
      * Construtor do objeto FieldStats
      */
     public FieldStats() {
 
-        // Instancia um hashmap para armazenar os contadores para cada tipo de aninmal.
-        counters = new HashMap();
-        countsValid = true;
+        population = new int[Species.COUNT];
+        placed = new LongAdder[Species.COUNT];
+
+        for (int species = 0; species < Species.COUNT; species++) {
+
+            placed[species] = new LongAdder();
+
+        }
     }
 
     /**
-     * Método responsável pelo acesso a informação sobre
-     * quais animais estão presentes no campo da simulação.
+     * Método acessador da geração do passo em andamento.
      * 
-     * @param field Campo de simulação.
-     * @return Uma string contendo informações sobre quais animais estão no campo.
+     * @return int A geração, sempre positiva.
      */
-    public String getPopulationDetails(Field field) {
+    public int getGeneration() { return generation; }
 
-        StringBuffer buffer = new StringBuffer();
+    /**
+     * Informa que um ator ativo foi colocado no campo do passo em
+     * andamento. Cada ator deve ser informado uma única vez por geração.
+     * 
+     * @param species Código da espécie.
+     */
+    public void actorPlaced(int species) { placed[species].increment(); }
+
+    /**
+     * Informa que um ator colocado no campo do passo em andamento deixou
+     * de estar ativo.
+     * 
+     * @param species Código da espécie.
+     */
+    public void actorRemoved(int species) { placed[species].decrement(); }
+
+    /**
+     * Confirma as contagens do passo em andamento como a população e
+     * avança a geração. Deve ser chamado quando nenhum ator está sendo
+     * executado, ao final de cada passo, depois que todos os atores
+     * ativos ocuparam as suas posições.
+     */
+    public void commit() {
 
-        if (!countsValid) {
+        for (int species = 0; species < Species.COUNT; species++) {
 
-            generateCounts(field);
+            population[species] = (int) placed[species].sumThenReset();
 
         }
 
-        Iterator keys = counters.keySet().iterator();
-        
-        while (keys.hasNext()) {
-        
-            Counter info = (Counter) counters.get(keys.next());
-            buffer.append(info.getName());
-            buffer.append(": ");
-            buffer.append(info.getCount());
-            buffer.append(' ');
-        
-        }
-        
-        return buffer.toString();
+        generation++;
 
     }
 
     /**
-     * Reseta todos os contadores para zero, invalidando o conjunto
-     * de estatisticas.
+     * Zera a população e as contagens pendentes, usado ao reiniciar a
+     * simulação. A geração avança, de forma que nenhum ator anterior é
+     * considerado colocado.
      */
-    public void reset() {
-
-        countsValid = false;
-        Iterator keys = counters.keySet().iterator();
+    public void clearPopulation() {
 
-        while (keys.hasNext()) {
-
-            Counter cnt = (Counter) counters.get(keys.next());
-            cnt.reset();
-
-        }
+        commit();
+        Arrays.fill(population, 0);
 
     }
 
     /**
-     * Incrementa o contador de cada animal, um por um.
-     *
-     * @param animalClass Uma classe de animal presente na simulação.
+     * Retorna a população de uma espécie no final do último passo.
+     * 
+     * @param species Código da espécie.
+     * @return int Quantidade de atores ativos da espécie colocados no campo.
+     */
+    public int getPopulation(int species) { return population[species]; }
+
+    /**
+     * Método responsável pelo acesso a informação sobre
+     * quais animais estão presentes no campo da simulação,
+     * lida dos contadores incrementais.
+     * 
+     * @param field Campo de simulação, não percorrido.
+     * @return Uma string contendo informações sobre quais animais estão no campo.
      */
-    public void incrementCount(Class animalClass) {
+    public String getPopulationDetails(Field field) {
 
-        Counter cnt = (Counter) counters.get(animalClass);
+        StringBuilder buffer = new StringBuilder();
 
-        if (cnt == null) {
+        for (int species = 1; species < Species.COUNT; species++) {
 
-            cnt = new Counter(animalClass.getName());
-            counters.put(animalClass, cnt);
+            buffer.append(Species.getName(species));
+            buffer.append(": ");
+            buffer.append(population[species]);
+            buffer.append(' ');
 
         }
 
-        cnt.increment();
+        return buffer.toString();
 
     }
 
     /**
-     * Indica que uma contagem foi finalizada.
-     */
-    public void countFinished() { countsValid = true; }
-
-    /**
-     * Determina se a simulação ainda é viavel prosseguir.
+     * Determina se a simulação ainda é viavel prosseguir, pelos
+     * contadores incrementais.
      * 
-     * @param field Campo de simulação.
+     * @param field Campo de simulação, não percorrido.
      * @return true Se ainda há mais de uma espécie de ator presente na simualação em estado vivo.
      */
     public boolean isViable(Field field) {
 
         // quantos contadores são diferentes de zero
         int nonZero = 0;
-        if (!countsValid) {
-
-            generateCounts(field);
-
-        }
 
-        Iterator keys = counters.keySet().iterator();
+        for (int species = 1; species < Species.COUNT; species++) {
 
-        while (keys.hasNext()) {
-            
-            Counter info = (Counter) counters.get(keys.next());
-
-            if (info.getCount() > 0) {
+            if (population[species] > 0) {
 
                 nonZero++;
 
@@ -148,21 +175,33 @@ public class FieldStats {
     }
 
     /**
-     * Gera contagens do número de raposas e coelhos. Estes não são mantidos atualizados,
-     * apenas quando é feito uma solicitação para tal ação.
+     * Conta os atores ativos de cada espécie percorrendo o campo, sem
+     * usar os contadores incrementais. Usado para verificá-los.
+     * 
+     * @param field Campo de simulação.
+     * @param counts Vetor indexado pelo código da espécie, que recebe as somas.
      */
-    private void generateCounts(Field field) {
+    public static void countField(Field field, int[] counts) {
+
+        for (int i = 0; i < field.getDirtyBlockCount(); i++) {
 
-        reset();
+            int block = field.getDirtyBlock(i);
+            int firstRow = field.getBlockFirstRow(block);
+            int lastRow = Math.min(firstRow + Field.BLOCK_SIZE, field.getDepth());
+            int firstCol = field.getBlockFirstCol(block);
+            int lastCol = Math.min(firstCol + Field.BLOCK_SIZE, field.getWidth());
 
-        for (int row = 0; row < field.getDepth(); row++) {
+            for (int row = firstRow; row < lastRow; row++) {
 
-            for (int col = 0; col < field.getWidth(); col++) {
+                for (int col = firstCol; col < lastCol; col++) {
 
-                Object animal = field.getObjectAt(row, col);
-                if (animal != null) {
+                    Object animal = field.getObjectAt(row, col);
 
-                    incrementCount(animal.getClass());
+                    if (animal instanceof Actor && ((Actor) animal).isActive()) {
+
+                        counts[((Actor) animal).getSpecies()]++;
+
+                    }
 
                 }
 
@@ -170,7 +209,5 @@ public class FieldStats {
 
         }
 
-        countsValid = true;
-
     }
 }
@@ -7,6 +7,9 @@ import Utils.Season;
  * o processo de smiulação, estação do ano. Responśavel
  * pelas defniições de estação atual na simuação.
  * 
+ * Cada simulação tem o seu próprio controlador, de forma que várias
+ * simulações podem ser executadas na mesma JVM, cada uma na sua estação.
+ * 
  * @author Igor Otávio
  * @version 1.0 SNAPSHOT
  */
@@ -15,29 +18,42 @@ public class SeasonsController {
     /**
      * Define condição da estação verão.
      */
-    private static Boolean verao;
+    private boolean verao;
 
     /**
      * Define condição da estação outono.
      */
-    private static Boolean outono;
+    private boolean outono;
 
     /**
      * Define condição da estação inverno.
      */
-    private static Boolean inverno;
+    private boolean inverno;
 
     /**
      * Define condição da estação primavera.
      */
-    private static Boolean primavera;
+    private boolean primavera;
+
+    /**
+     * Instancias de cada estação, criadas uma única vez por controlador.
+     */
+    private final Season summer = new Season("Verão", 2, 0);
+    private final Season autumn = new Season("Outuno", 1, 1);
+    private final Season winter = new Season("Inverno", 2, 1);
+    private final Season spring = new Season("Primavera", 1, 0);
+
+    /**
+     * Construtor do controlador, que começa na primavera.
+     */
+    public SeasonsController() { definirPrimavera(); }
 
     /**
      * Define o estado das estações pré definidas
      * pelos atributos nessa classe perante a condição
      * da estação atual ser o verão.
      */
-    public static void definirVerao() {
+    public void definirVerao() {
 
         verao = true;
         outono = false;
@@ -51,7 +67,7 @@ public class SeasonsController {
      * pelos atributos nessa classe perante a condição
      * da estação atual ser o outono.
      */
-    public static void definirOutono() {
+    public void definirOutono() {
 
         verao = false;
         outono = true;
@@ -65,7 +81,7 @@ public class SeasonsController {
      * pelos atributos nessa classe perante a condição
      * da estação atual ser o inverno.
      */
-    public static void definirInverno() {
+    public void definirInverno() {
 
         verao = false;
         outono = false;
@@ -79,7 +95,7 @@ public class SeasonsController {
      * pelos atributos nessa classe perante a condição
      * da estação atual ser o primavera.
      */
-    public static void definirPrimavera() {
+    public void definirPrimavera() {
 
         verao = false;
         outono = false;
@@ -88,25 +104,60 @@ public class SeasonsController {
 
     }
 
+    /**
+     * Define a estação atual a partir do seu nome, usado ao retomar uma
+     * simulação gravada.
+     * 
+     * @param seasonName Nome de uma das estações deste controlador.
+     * @return true Se o nome corresponde a uma estação.
+     */
+    public boolean definirPorNome(String seasonName) {
+
+        if (summer.getSeasonName().equals(seasonName)) {
+
+            definirVerao();
+
+        } else if (autumn.getSeasonName().equals(seasonName)) {
+
+            definirOutono();
+
+        } else if (winter.getSeasonName().equals(seasonName)) {
+
+            definirInverno();
+
+        } else if (spring.getSeasonName().equals(seasonName)) {
+
+            definirPrimavera();
+
+        } else {
+
+            return false;
+
+        }
+
+        return true;
+
+    }
+
     /**
      * Método responśavel por retornar a instancia da
      * estação definida como atual.
      * 
      * @return Season Uma instancia da estação atual.
      */
-    public static Season getCurrentSeason() {
+    public Season getCurrentSeason() {
 
         if(verao)
-            return new Season("Verão", 2, 0);
+            return summer;
 
         if(outono)
-            return new Season("Outuno", 1, 1);
+            return autumn;
 
         if(inverno)
-            return new Season("Inverno", 2, 1);
+            return winter;
 
         if(primavera)
-            return new Season("Primavera", 1, 0);
+            return spring;
 
         else 
             return null;
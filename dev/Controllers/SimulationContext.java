@@ -0,0 +1,225 @@
+package Controllers;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import Actors.SpeciesProfile;
+
+/**
+ * Reúne o estado que pertence a uma única simulação e que os atores
+ * precisam consultar: as condições do ambiente, a estação atual, os
+ * contadores de população e o perfil de parâmetros das espécies. Os dois
+ * campos de uma simulação compartilham o mesmo contexto, e os atores o
+ * alcançam por Field.getContext.
+ *
+ * Como nada aqui é estático, várias simulações podem ser executadas ao
+ * mesmo tempo na mesma JVM sem interferir umas nas outras.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class SimulationContext {
+
+    /**
+     * Contadores de população da simulação.
+     */
+    private final FieldStats stats;
+
+    /**
+     * Controlador da estação atual da simulação.
+     */
+    private final SeasonsController seasons;
+
+    /**
+     * Armazena condições que podem ser definidas como fatores variavéis
+     * da simulação. Os valores são atômicos para que os atores possam
+     * atualizá-los durante um passo executado em paralelo.
+     */
+    private final Map<String, AtomicInteger> conditions;
+
+    /**
+     * Valores das condições no início do passo atual. Os atores tomam
+     * decisões a partir destes valores, para que o resultado não dependa
+     * da ordem de execução dos atores.
+     */
+    private Map<String, Integer> stepConditions;
+
+    /**
+     * Parâmetros das espécies usados nesta simulação.
+     */
+    private final SpeciesProfile profile;
+
+    /**
+     * Perfil guardado pelos atores, obtido de profile com forActors.
+     */
+    private final SpeciesProfile actorProfile;
+
+    /**
+     * Construtor de um contexto vazio, sem condições definidas, com os
+     * parâmetros originais das espécies.
+     */
+    public SimulationContext() { this(SpeciesProfile.DEFAULT); }
+
+    /**
+     * Construtor de um contexto vazio com um perfil de parâmetros.
+     *
+     * @param profile Parâmetros das espécies.
+     */
+    public SimulationContext(SpeciesProfile profile) {
+
+        this.profile = profile;
+        this.actorProfile = profile.forActors();
+        stats = new FieldStats();
+        seasons = new SeasonsController();
+        conditions = new HashMap<String, AtomicInteger>();
+        stepConditions = new HashMap<String, Integer>();
+
+    }
+
+    /**
+     * Define o valor inicial de uma condição, criando-a se não existir.
+     *
+     * @param condition Uma string que representa a chave da condição.
+     * @param value Valor inicial.
+     */
+    public void defineCondition(String condition, int value) {
+
+        conditions.put(condition, new AtomicInteger(value));
+
+    }
+
+    /**
+     * Atualiza o valor de uma condição existente.
+     *
+     * @param condition Uma string que representa a chave da condição.
+     * @param value Um valor para tal condição.
+     */
+    public void updateCondition(String condition, int value) {
+
+        AtomicInteger current = conditions.get(condition);
+
+        if (current != null) {
+
+            current.set(value);
+
+        }
+
+    }
+
+    /**
+     * Soma atomicamente um valor a uma condição.
+     *
+     * @param condition Uma string que representa a chave da condição.
+     * @param delta Valor a ser somado à condição.
+     */
+    public void addToCondition(String condition, int delta) {
+
+        AtomicInteger current = conditions.get(condition);
+
+        if (current != null) {
+
+            current.addAndGet(delta);
+
+        }
+
+    }
+
+    /**
+     * Retorna o valor atual de uma condição.
+     *
+     * @param condition Uma string representando a chave da condição.
+     * @return int O valor da condição.
+     */
+    public int getCondition(String condition) { return conditions.get(condition).get(); }
+
+    /**
+     * Retorna o valor de uma condição no início do passo atual.
+     *
+     * @param condition Uma string representando a chave da condição.
+     * @return int O valor da condição quando o passo começou.
+     */
+    public int getStepCondition(String condition) { return stepConditions.get(condition); }
+
+    /**
+     * Guarda os valores das condições no início do passo.
+     */
+    public void captureStepConditions() {
+
+        Map<String, Integer> captured = new HashMap<String, Integer>();
+
+        for (Map.Entry<String, AtomicInteger> entry : conditions.entrySet()) {
+
+            captured.put(entry.getKey(), entry.getValue().get());
+
+        }
+
+        stepConditions = captured;
+
+    }
+
+    /**
+     * Retorna uma cópia dos valores atuais de todas as condições, usada
+     * para gravar o estado da simulação.
+     *
+     * @return Map As condições e seus valores.
+     */
+    public Map<String, Integer> getConditions() {
+
+        Map<String, Integer> copy = new HashMap<String, Integer>();
+
+        for (Map.Entry<String, AtomicInteger> entry : conditions.entrySet()) {
+
+            copy.put(entry.getKey(), entry.getValue().get());
+
+        }
+
+        return copy;
+
+    }
+
+    /**
+     * Retorna uma cópia dos valores das condições no início do passo atual.
+     *
+     * @return Map As condições e seus valores no início do passo.
+     */
+    public Map<String, Integer> getStepConditions() { return new HashMap<String, Integer>(stepConditions); }
+
+    /**
+     * Substitui os valores das condições no início do passo, usado ao
+     * retomar uma simulação gravada.
+     *
+     * @param values As condições e seus valores no início do passo.
+     */
+    public void restoreStepConditions(Map<String, Integer> values) { stepConditions = new HashMap<String, Integer>(values); }
+
+    /**
+     * Método acessador dos contadores de população.
+     *
+     * @return FieldStats Os contadores da simulação.
+     */
+    public FieldStats getStats() { return stats; }
+
+    /**
+     * Método acessador do controlador de estações.
+     *
+     * @return SeasonsController O controlador da simulação.
+     */
+    public SeasonsController getSeasons() { return seasons; }
+
+    /**
+     * Método acessador do perfil de parâmetros das espécies.
+     *
+     * @return SpeciesProfile Os parâmetros desta simulação.
+     */
+    public SpeciesProfile getProfile() { return profile; }
+
+    /**
+     * Método acessador do perfil que os atores guardam, igual a DEFAULT
+     * sempre que os parâmetros das espécies forem os originais.
+     *
+     * @return SpeciesProfile Os parâmetros das espécies para os atores.
+     */
+    public SpeciesProfile getActorProfile() { return actorProfile; }
+
+}
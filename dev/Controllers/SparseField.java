@@ -0,0 +1,565 @@
+package Controllers;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+import Actors.Actor;
+import Utils.Neighbourhood;
+import Utils.RandomService;
+import Utils.Species;
+
+/**
+ * Campo esparso para mundos muito grandes e quase vazios. As posições são
+ * guardadas em pedaços de BLOCK_SIZE x BLOCK_SIZE, os mesmos blocos que o
+ * Field usa para marcar regiões sujas. Um pedaço só é criado quando um
+ * animal é colocado nele, e é liberado por clear, de forma que a memória
+ * acompanha a área ocupada e clear, contagens e desenhos acompanham a
+ * população.
+ *
+ * Os pedaços são encontrados por um diretório de dois níveis: páginas de
+ * PAGE_SIZE x PAGE_SIZE pedaços, também criadas sob demanda. Consultas de
+ * vizinhança de posições no interior de um pedaço leem apenas aquele
+ * pedaço; apenas as posições da borda consultam os pedaços vizinhos.
+ *
+ * Pedaços liberados são guardados para reuso, até a quantidade que estava
+ * em uso no último clear, para que a troca de campos a cada passo não
+ * gere lixo. A criação de pedaços é sincronizada; a ocupação de posições
+ * continua usando compareAndSet, como no Field.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class SparseField extends Field {
+
+    /**
+     * Acesso atômico às posições de um pedaço.
+     */
+    private static final VarHandle CELL = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    /**
+     * Acesso às páginas do diretório e aos pedaços de uma página, para que
+     * um pedaço criado por uma thread seja visto completo pelas outras.
+     */
+    private static final VarHandle PAGE = MethodHandles.arrayElementVarHandle(Chunk[][].class);
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Chunk[].class);
+
+    /**
+     * Bits de BLOCK_SIZE, e máscara da posição dentro de um pedaço.
+     */
+    private static final int SHIFT = Integer.numberOfTrailingZeros(BLOCK_SIZE), MASK = BLOCK_SIZE - 1;
+
+    /**
+     * Lado de uma página do diretório, em pedaços.
+     */
+    public static final int PAGE_SIZE = 32;
+
+    /**
+     * Bits de PAGE_SIZE, e máscara do pedaço dentro de uma página.
+     */
+    private static final int PAGE_SHIFT = Integer.numberOfTrailingZeros(PAGE_SIZE), PAGE_MASK = PAGE_SIZE - 1;
+
+    /**
+     * Diferença de índice dentro de um pedaço de cada direção vizinha.
+     */
+    private static final int[] LOCAL_DELTAS = new int[Neighbourhood.DIRECTIONS];
+
+    static {
+
+        for (int dir = 0; dir < Neighbourhood.DIRECTIONS; dir++) {
+
+            LOCAL_DELTAS[dir] = Neighbourhood.rowOffset(dir) * BLOCK_SIZE + Neighbourhood.colOffset(dir);
+
+        }
+
+    }
+
+    /**
+     * Quantidade de blocos na vertical e na horizontal.
+     */
+    private final int blockRows, blockColumns;
+
+    /**
+     * Quantidade de páginas na horizontal.
+     */
+    private final int pageCols;
+
+    /**
+     * Páginas do diretório, nulas enquanto não houver pedaço nelas.
+     */
+    private final Chunk[][] pages;
+
+    /**
+     * Quantidade de pedaços em uso em cada página.
+     */
+    private final int[] pageChunks;
+
+    /**
+     * Pedaços em uso, na ordem em que foram criados.
+     */
+    private Chunk[] active;
+
+    /**
+     * Quantidade de pedaços em uso.
+     */
+    private volatile int activeCount;
+
+    /**
+     * Pedaços liberados, prontos para reuso.
+     */
+    private Chunk[] pool;
+
+    /**
+     * Quantidade de pedaços liberados.
+     */
+    private int poolCount;
+
+    /**
+     * Representa um campo esparso com as dimenções dadas.
+     *
+     * @param depth A profundidade do campo.
+     * @param width A largura do campo.
+     * @param context Estado da simulação, compartilhado com os outros campos dela.
+     */
+    public SparseField(int depth, int width, SimulationContext context) {
+
+        super(depth, width, context, false);
+
+        if ((long) ((depth + BLOCK_SIZE - 1) / BLOCK_SIZE) * ((width + BLOCK_SIZE - 1) / BLOCK_SIZE) > Integer.MAX_VALUE) {
+
+            throw new IllegalArgumentException("Campo de " + depth + "x" + width + " tem mais blocos que o índice de bloco comporta.");
+
+        }
+
+        blockRows = (depth + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        blockColumns = (width + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        pageCols = (blockColumns + PAGE_SIZE - 1) / PAGE_SIZE;
+        pages = new Chunk[((blockRows + PAGE_SIZE - 1) / PAGE_SIZE) * pageCols][];
+        pageChunks = new int[pages.length];
+        active = new Chunk[16];
+        pool = new Chunk[16];
+
+    }
+
+    /**
+     * Retorna a página do diretório de uma posição.
+     *
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     * @return int O índice da página.
+     */
+    private int pageOf(int row, int col) { return (row >> (SHIFT + PAGE_SHIFT)) * pageCols + (col >> (SHIFT + PAGE_SHIFT)); }
+
+    /**
+     * Retorna a posição do pedaço de uma posição dentro da sua página.
+     *
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     * @return int O índice na página.
+     */
+    private static int slotOf(int row, int col) { return (((row >> SHIFT) & PAGE_MASK) << PAGE_SHIFT) | ((col >> SHIFT) & PAGE_MASK); }
+
+    /**
+     * Retorna o índice de uma posição dentro do seu pedaço.
+     *
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     * @return int O índice no pedaço.
+     */
+    private static int localOf(int row, int col) { return ((row & MASK) << SHIFT) | (col & MASK); }
+
+    /**
+     * Retorna o pedaço de uma posição, sem criá-lo.
+     *
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     * @return Chunk O pedaço, ou nulo se nenhum animal foi colocado nele.
+     */
+    private Chunk chunkAt(int row, int col) {
+
+        Chunk[] page = (Chunk[]) PAGE.getAcquire(pages, pageOf(row, col));
+        return page == null ? null : (Chunk) SLOT.getAcquire(page, slotOf(row, col));
+
+    }
+
+    /**
+     * Retorna o pedaço de uma posição, criando-o se necessário.
+     *
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     * @return Chunk O pedaço.
+     */
+    private Chunk chunkFor(int row, int col) {
+
+        Chunk chunk = chunkAt(row, col);
+        return chunk != null ? chunk : allocate(row, col);
+
+    }
+
+    /**
+     * Cria o pedaço de uma posição, e a sua página, se outra thread ainda
+     * não o tiver criado.
+     *
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     * @return Chunk O pedaço da posição.
+     */
+    private synchronized Chunk allocate(int row, int col) {
+
+        int pageIndex = pageOf(row, col);
+        int slot = slotOf(row, col);
+        Chunk[] page = (Chunk[]) PAGE.getAcquire(pages, pageIndex);
+
+        if (page == null) {
+
+            page = new Chunk[PAGE_SIZE * PAGE_SIZE];
+            PAGE.setRelease(pages, pageIndex, page);
+
+        }
+
+        Chunk chunk = (Chunk) SLOT.getAcquire(page, slot);
+
+        if (chunk == null) {
+
+            chunk = poolCount > 0 ? pool[--poolCount] : new Chunk();
+            pool[poolCount] = null;
+            chunk.block = (row >> SHIFT) * blockColumns + (col >> SHIFT);
+            pageChunks[pageIndex]++;
+
+            if (activeCount == active.length) {
+
+                active = Arrays.copyOf(active, active.length * 2);
+
+            }
+
+            active[activeCount] = chunk;
+            SLOT.setRelease(page, slot, chunk);
+            activeCount = activeCount + 1;
+
+        }
+
+        return chunk;
+
+    }
+
+    /**
+     * Esvazia o campo, liberando todos os pedaços e as páginas.
+     */
+    @Override
+    public synchronized void clear() {
+
+        int count = activeCount;
+
+        for (int i = 0; i < count; i++) {
+
+            Chunk chunk = active[i];
+            int row = getBlockFirstRow(chunk.block);
+            int col = getBlockFirstCol(chunk.block);
+            int pageIndex = pageOf(row, col);
+
+            Arrays.fill(chunk.cells, null);
+            Arrays.fill(chunk.codes, Species.EMPTY);
+            SLOT.setRelease(pages[pageIndex], slotOf(row, col), null);
+
+            if (--pageChunks[pageIndex] == 0) {
+
+                PAGE.setRelease(pages, pageIndex, null);
+
+            }
+
+            if (poolCount == pool.length) {
+
+                pool = Arrays.copyOf(pool, pool.length * 2);
+
+            }
+
+            pool[poolCount++] = chunk;
+            active[i] = null;
+
+        }
+
+        // Mantém para reuso no máximo os pedaços que estavam em uso.
+        while (poolCount > count) {
+
+            pool[--poolCount] = null;
+
+        }
+
+        activeCount = 0;
+
+    }
+
+    /**
+     * Coloca um animal em um determinado local. Se já haver um animal no local ele
+     * será perdido. Um ator colocado é contado na população do passo.
+     *
+     * @param animal O animal a ser colocado.
+     * @param row    Coordenada da linha da local.
+     * @param col    Coordenada da coluna da local.
+     */
+    @Override
+    public void place(Object animal, int row, int col) {
+
+        Chunk chunk = animal == null ? chunkAt(row, col) : chunkFor(row, col);
+
+        if (chunk != null) {
+
+            int index = localOf(row, col);
+            chunk.cells[index] = animal;
+            chunk.codes[index] = speciesOf(animal);
+
+            if (animal instanceof Actor) {
+
+                ((Actor) animal).placed();
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Versão sem alocação de claim, com a mesma ordem de tentativas e de
+     * sorteios do Field, de forma que os dois campos produzem a mesma
+     * simulação.
+     *
+     * @param actor O ator que vai ocupar a posição.
+     * @param row Linha atual do ator.
+     * @param col Coluna atual do ator.
+     * @param direction Direção desejada, de 0 a 7, ou Neighbourhood.STAY.
+     * @return int A direção ocupada, Neighbourhood.STAY se for a origem, ou
+     *         Neighbourhood.NONE se não houver posição livre.
+     */
+    @Override
+    public int claim(Actor actor, int row, int col, int direction) {
+
+        if (tryClaim(actor, row + Neighbourhood.rowOffset(direction), col + Neighbourhood.colOffset(direction))) {
+
+            return direction;
+
+        }
+
+        int valid = adjacentMask(row, col);
+        int order = Neighbourhood.randomOrder(RandomService.current());
+
+        for (int i = 0; i < Neighbourhood.DIRECTIONS; i++) {
+
+            int next = Neighbourhood.direction(order, i);
+
+            if ((valid & (1 << next)) != 0 && tryClaim(actor, row + Neighbourhood.rowOffset(next), col + Neighbourhood.colOffset(next))) {
+
+                return next;
+
+            }
+
+        }
+
+        return tryClaim(actor, row, col) ? Neighbourhood.STAY : Neighbourhood.NONE;
+
+    }
+
+    /**
+     * Tenta ocupar uma posição com compareAndSet.
+     *
+     * @param actor O ator que vai ocupar a posição.
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     * @return true Se a posição foi ocupada pelo ator.
+     */
+    private boolean tryClaim(Actor actor, int row, int col) {
+
+        Chunk chunk = chunkFor(row, col);
+        int index = localOf(row, col);
+        Object current = CELL.getVolatile(chunk.cells, index);
+
+        while (current == null || current == actor || !((Actor) current).isActive()) {
+
+            if (CELL.compareAndSet(chunk.cells, index, current, actor)) {
+
+                chunk.codes[index] = actor.getSpecies();
+                actor.placed();
+                return true;
+
+            }
+
+            current = CELL.getVolatile(chunk.cells, index);
+
+        }
+
+        return false;
+
+    }
+
+    /**
+     * Retorna a localidade de um animal, se tiver.
+     *
+     * @param row A linha desejada.
+     * @param col A coluna desejada.
+     * @return O animal em uma localidade, ou nulo se não existir.
+     */
+    @Override
+    public Object getObjectAt(int row, int col) {
+
+        Chunk chunk = chunkAt(row, col);
+        return chunk == null ? null : chunk.cells[localOf(row, col)];
+
+    }
+
+    /**
+     * Retorna o código da espécie do animal em uma localidade.
+     *
+     * @param row A linha desejada.
+     * @param col A coluna desejada.
+     * @return int O código da espécie, ou Species.EMPTY se não houver animal.
+     */
+    @Override
+    public int getSpeciesAt(int row, int col) {
+
+        Chunk chunk = chunkAt(row, col);
+        return chunk == null ? Species.EMPTY : chunk.codes[localOf(row, col)];
+
+    }
+
+    /**
+     * Retorna a máscara das posições vizinhas com animais de uma espécie.
+     * No interior de um pedaço lê apenas o próprio pedaço; na borda
+     * consulta cada vizinho pelo diretório.
+     *
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     * @param species Código da espécie, ou Species.EMPTY para posições vazias.
+     * @return int Máscara de 8 bits das direções com a espécie.
+     */
+    @Override
+    public int speciesMask(int row, int col, int species) {
+
+        int valid = adjacentMask(row, col);
+        int localRow = row & MASK, localCol = col & MASK;
+        int mask = 0;
+
+        if (localRow != 0 && localRow != MASK && localCol != 0 && localCol != MASK) {
+
+            Chunk chunk = chunkAt(row, col);
+
+            if (chunk == null) {
+
+                return species == Species.EMPTY ? valid : 0;
+
+            }
+
+            int index = localOf(row, col);
+
+            for (int dir = 0; dir < Neighbourhood.DIRECTIONS; dir++) {
+
+                if (chunk.codes[index + LOCAL_DELTAS[dir]] == species) {
+
+                    mask |= 1 << dir;
+
+                }
+
+            }
+
+            // Posições do pedaço fora do campo são vazias e ficam fora de valid.
+            return mask & valid;
+
+        }
+
+        for (int dir = 0; dir < Neighbourhood.DIRECTIONS; dir++) {
+
+            if ((valid & (1 << dir)) != 0 && getSpeciesAt(row + Neighbourhood.rowOffset(dir), col + Neighbourhood.colOffset(dir)) == species) {
+
+                mask |= 1 << dir;
+
+            }
+
+        }
+
+        return mask;
+
+    }
+
+    /**
+     * Soma a quantidade de animais de cada espécie, percorrendo apenas os
+     * pedaços em uso.
+     *
+     * @param counts Vetor indexado pelo código da espécie, que recebe as somas.
+     */
+    @Override
+    public void countSpecies(int[] counts) {
+
+        int count = activeCount;
+
+        for (int i = 0; i < count; i++) {
+
+            Chunk chunk = active[i];
+            int rows = Math.min(BLOCK_SIZE, getDepth() - getBlockFirstRow(chunk.block));
+            int cols = Math.min(BLOCK_SIZE, getWidth() - getBlockFirstCol(chunk.block));
+
+            for (int row = 0; row < rows; row++) {
+
+                for (int col = 0; col < cols; col++) {
+
+                    counts[chunk.codes[(row << SHIFT) | col]]++;
+
+                }
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Retorna a quantidade de blocos do campo, ocupados ou não.
+     *
+     * @return int Quantidade de blocos.
+     */
+    @Override
+    public int getBlockCount() { return blockRows * blockColumns; }
+
+    /**
+     * Retorna a quantidade de pedaços em uso, que são os blocos sujos.
+     *
+     * @return int Quantidade de blocos sujos.
+     */
+    @Override
+    public int getDirtyBlockCount() { return activeCount; }
+
+    /**
+     * Retorna o índice do bloco de um pedaço em uso.
+     *
+     * @param i Posição na lista de pedaços, menor que getDirtyBlockCount.
+     * @return int O índice do bloco.
+     */
+    @Override
+    public int getDirtyBlock(int i) { return active[i].block; }
+
+    /**
+     * Verifica se um bloco tem um pedaço em uso.
+     *
+     * @param block Índice do bloco.
+     * @return true Se algum animal foi colocado no bloco desde o último clear.
+     */
+    @Override
+    public boolean isDirtyBlock(int block) { return chunkAt(getBlockFirstRow(block), getBlockFirstCol(block)) != null; }
+
+    /**
+     * Retorna a quantidade de pedaços guardados para reuso.
+     *
+     * @return int Quantidade de pedaços livres.
+     */
+    public synchronized int getPooledChunkCount() { return poolCount; }
+
+    /**
+     * Pedaço de BLOCK_SIZE x BLOCK_SIZE posições, com o ator e o código
+     * da espécie de cada posição, linha após linha.
+     */
+    private static final class Chunk {
+
+        private final Object[] cells = new Object[BLOCK_SIZE * BLOCK_SIZE];
+        private final int[] codes = new int[BLOCK_SIZE * BLOCK_SIZE];
+        private int block;
+
+    }
+
+}
@@ -0,0 +1,661 @@
+package Core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import Actors.SpeciesProfile;
+import Controllers.Field;
+import Controllers.FieldStats;
+import Controllers.SparseField;
+import Engine.ActorStore;
+import Engine.SoaWorld;
+import Engine.StepEngine;
+import Utils.RandomService;
+import Utils.Species;
+import View.HeadlessView;
+
+/**
+ * Ponto de entrada para execuções em lote da simulação, sem interface
+ * gráfica. Executa a simulação na velocidade máxima do processador e
+ * ao final escreve um resumo de vazão e população.
+ *
+ * Uso: java Core/BatchRunner profundidade largura passos [semente]
+ *          [--engine=sequential|tiled|optimistic|soa] [--threads=N]
+ *          [--rng=splittable|xoshiro] [--field=auto|dense|sparse] [--verify-stats] [--verify-soa]
+ *          [--density=D | --population=N] [--profile=parâmetro=valor,...]
+ *          [--snapshot=arquivo] [--snapshot-every=N] [--resume=arquivo]
+ *          [--record=arquivo.csv|arquivo.bin] [--frames=arquivo] [--keyframe-every=N]
+ *
+ * Por padrão, a população inicial é criada com um sorteio por posição do
+ * campo. Com --density, cada posição é ocupada com a probabilidade D e,
+ * com --population, exatamente N posições são ocupadas; nos dois casos as
+ * posições ocupadas são sorteadas diretamente, sem percorrer o campo, o
+ * que torna a criação de mundos grandes e esparsos proporcional à
+ * população. --profile altera quaisquer parâmetros do SpeciesProfile,
+ * inclusive initial.density e initial.count, que são os parâmetros
+ * usados por --density e --population.
+ *
+ * Com --snapshot, o estado é gravado ao final da execução e, com
+ * --snapshot-every, também a cada N passos, em segundo plano. Com
+ * --resume, a simulação é retomada de uma gravação e executa mais os
+ * passos informados; profundidade, largura, semente, gerador e campo
+ * vêm da gravação e os valores informados são ignorados.
+ *
+ * Com --record, a população, o nível de comida e a estação de cada passo
+ * são gravados em segundo plano, em CSV ou, se o arquivo terminar em
+ * ".bin", no formato binário em colunas de PopulationRecorder. Com
+ * --frames, os quadros da simulação são gravados por FrameLog, com um
+ * quadro chave a cada N passos, para serem assistidos depois.
+ *
+ * Com --verify-stats, os contadores incrementais de população são
+ * comparados a cada passo com uma contagem dos atores ativos no campo, e
+ * a execução termina com código 1 na primeira divergência.
+ *
+ * Com --engine=soa e --verify-soa, a simulação sequencial com objetos de
+ * atores é executada junto com o SoaWorld, com a mesma semente, e a
+ * população e os atores-passo dos dois são comparados a cada passo; a
+ * execução termina com código 1 na primeira divergência. A memória por
+ * ator dos dois modelos na população inicial, a maior de uma execução
+ * típica, é comparada com a meta de SOA_MEMORY_TARGET vezes menos
+ * memória no SoaWorld.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class BatchRunner {
+
+    /**
+     * Quantidade de passos executada quando não informada.
+     */
+    private static final int DEFAULT_STEPS = 800;
+
+    /**
+     * Quantas vezes menos memória por ator o SoaWorld deve usar, em
+     * relação aos objetos de atores.
+     */
+    private static final double SOA_MEMORY_TARGET = 5;
+
+    /**
+     * Quantidade mínima de atores para medir a memória por ator pela
+     * diferença do heap, que tem uma imprecisão de algumas centenas de KiB.
+     */
+    private static final int MIN_MEASURED_ACTORS = 10000;
+
+    /**
+     * Método chamado pela JVM para execução em lote.
+     *
+     * @param args Profundidade, largura, passos e semente opcional.
+     */
+    public static void main(String[] args) {
+
+        System.setProperty("java.awt.headless", "true");
+
+        int depth, width, steps, threads;
+        long seed;
+        StepEngine engine;
+        List<String> positional = new ArrayList<String>();
+        String engineName = "sequential";
+        String layout = Field.AUTO;
+        String rngName = RandomService.SPLITTABLE;
+        SpeciesProfile profile = SpeciesProfile.DEFAULT;
+        RandomService random;
+        boolean verifyStats = false, verifySoa = false;
+        String snapshot = null, resume = null, record = null, frames = null;
+        int snapshotEvery = 0, keyframeEvery = FrameLog.DEFAULT_KEYFRAME_INTERVAL;
+        threads = Runtime.getRuntime().availableProcessors();
+
+        try {
+
+            for (String arg : args) {
+
+                if (arg.startsWith("--engine=")) {
+
+                    engineName = arg.substring("--engine=".length());
+
+                } else if (arg.startsWith("--rng=")) {
+
+                    rngName = arg.substring("--rng=".length());
+
+                } else if (arg.startsWith("--field=")) {
+
+                    layout = arg.substring("--field=".length());
+
+                } else if (arg.startsWith("--density=")) {
+
+                    profile = profile.with("initial.density", Double.parseDouble(arg.substring("--density=".length())));
+
+                } else if (arg.startsWith("--population=")) {
+
+                    profile = profile.with("initial.count", Long.parseLong(arg.substring("--population=".length())));
+
+                } else if (arg.startsWith("--profile=")) {
+
+                    profile = withParameters(profile, arg.substring("--profile=".length()));
+
+                } else if (arg.startsWith("--snapshot=")) {
+
+                    snapshot = arg.substring("--snapshot=".length());
+
+                } else if (arg.startsWith("--snapshot-every=")) {
+
+                    snapshotEvery = Integer.parseInt(arg.substring("--snapshot-every=".length()));
+
+                } else if (arg.startsWith("--record=")) {
+
+                    record = arg.substring("--record=".length());
+
+                } else if (arg.startsWith("--frames=")) {
+
+                    frames = arg.substring("--frames=".length());
+
+                } else if (arg.startsWith("--keyframe-every=")) {
+
+                    keyframeEvery = Integer.parseInt(arg.substring("--keyframe-every=".length()));
+
+                } else if (arg.startsWith("--resume=")) {
+
+                    resume = arg.substring("--resume=".length());
+
+                } else if (arg.equals("--verify-stats")) {
+
+                    verifyStats = true;
+
+                } else if (arg.equals("--verify-soa")) {
+
+                    verifySoa = true;
+
+                } else if (arg.startsWith("--threads=")) {
+
+                    threads = Integer.parseInt(arg.substring("--threads=".length()));
+
+                } else {
+
+                    positional.add(arg);
+
+                }
+
+            }
+
+            depth = positional.size() > 0 ? Integer.parseInt(positional.get(0)) : 100;
+            width = positional.size() > 1 ? Integer.parseInt(positional.get(1)) : 100;
+            steps = positional.size() > 2 ? Integer.parseInt(positional.get(2)) : DEFAULT_STEPS;
+            seed = positional.size() > 3 ? Long.parseLong(positional.get(3)) : System.nanoTime();
+
+            if (!layout.equals(Field.AUTO) && !layout.equals(Field.DENSE) && !layout.equals(Field.SPARSE)) {
+
+                throw new IllegalArgumentException("Organização de campo desconhecida: " + layout);
+
+            }
+
+            if (profile.getInitialCount() > (long) depth * width) {
+
+                throw new IllegalArgumentException("População inicial de " + profile.getInitialCount() + " atores maior que as "
+                    + (long) depth * width + " posições do campo.");
+
+            }
+
+            if (snapshotEvery > 0 && snapshot == null) {
+
+                throw new IllegalArgumentException("--snapshot-every precisa de --snapshot=arquivo");
+
+            }
+
+            if (resume != null && engineName.equals("soa")) {
+
+                throw new IllegalArgumentException("O motor soa não pode retomar uma gravação.");
+
+            }
+
+            if (verifySoa && !engineName.equals("soa")) {
+
+                throw new IllegalArgumentException("--verify-soa precisa de --engine=soa");
+
+            }
+
+            random = new RandomService(seed, rngName);
+
+            // Criado por último, para que nenhuma validação deixe o pool do motor aberto.
+            engine = engineName.equals("soa") ? null : StepEngine.forName(engineName, threads);
+
+        } catch (IllegalArgumentException e) {
+
+            System.out.println(e.getMessage());
+            System.out.println("Uso: BatchRunner profundidade largura passos [semente] [--engine=sequential|tiled|optimistic|soa] [--threads=N] [--rng=splittable|xoshiro] [--field=auto|dense|sparse] [--verify-stats] [--verify-soa]"
+                + " [--density=D | --population=N] [--profile=parâmetro=valor,...] [--snapshot=arquivo] [--snapshot-every=N] [--resume=arquivo] [--record=arquivo.csv|arquivo.bin]"
+                + " [--frames=arquivo] [--keyframe-every=N]");
+            return;
+
+        }
+
+        if (engine == null) {
+
+            runSoaWorld(depth, width, steps, random, profile, verifySoa ? layout : null);
+            return;
+
+        }
+
+        HeadlessView view = new HeadlessView();
+        Simulator simulator;
+
+        if (resume == null) {
+
+            simulator = new Simulator(depth, width, view, random, profile, layout);
+
+        } else {
+
+            try {
+
+                simulator = Simulator.loadSnapshot(resume, view);
+
+            } catch (IOException | IllegalArgumentException e) {
+
+                System.out.println("Não foi possível retomar " + resume + ": " + e.getMessage());
+                engine.close();
+                return;
+
+            }
+
+            System.out.println("Retomada de " + resume + " no passo " + simulator.getStep());
+
+        }
+
+        simulator.setEngine(engine);
+        PopulationRecorder recorder = null;
+
+        if (record != null) {
+
+            try {
+
+                recorder = new PopulationRecorder(record);
+                simulator.setRecorder(recorder);
+
+            } catch (IOException e) {
+
+                System.out.println("Não foi possível criar " + record + ": " + e.getMessage());
+                engine.close();
+                return;
+
+            }
+
+        }
+
+        FrameLog frameLog = null;
+
+        if (frames != null) {
+
+            try {
+
+                frameLog = new FrameLog(frames, simulator.getField().getDepth(), simulator.getField().getWidth(), keyframeEvery);
+                simulator.setFrameLog(frameLog);
+
+            } catch (IOException | IllegalArgumentException e) {
+
+                System.out.println("Não foi possível criar " + frames + ": " + e.getMessage());
+                engine.close();
+                return;
+
+            }
+
+        }
+
+        int first = simulator.getStep();
+        long actorSteps = simulator.getActorSteps();
+        Future<?> pending = null;
+        long start = System.nanoTime();
+
+        if (verifyStats) {
+
+            verifyStats(simulator);
+
+        }
+
+        for (int executed = 0; executed < steps && simulator.runStep(); executed++) {
+
+            if (verifyStats) {
+
+                verifyStats(simulator);
+
+            }
+
+            if (snapshotEvery > 0 && simulator.getStep() % snapshotEvery == 0) {
+
+                pending = simulator.saveSnapshot(snapshot);
+
+            }
+
+        }
+
+        long elapsed = System.nanoTime() - start;
+        engine.close();
+
+        if (recorder != null) {
+
+            try {
+
+                recorder.close();
+                System.out.println("Série gravada em " + record + ": " + recorder.getRecordedCount() + " passos, "
+                    + recorder.getDroppedCount() + " descartados");
+
+            } catch (IOException e) {
+
+                System.out.println("Não foi possível gravar " + record + ": " + e.getMessage());
+
+            }
+
+        }
+
+        if (frameLog != null) {
+
+            try {
+
+                frameLog.close();
+                System.out.printf("Quadros gravados em %s: %d (%d chave), %d KiB, %.1fx menor que quadros completos%n", frames,
+                    frameLog.getFrameCount(), frameLog.getKeyframeCount(), frameLog.getBytesWritten() / 1024,
+                    (double) frameLog.getFullFrameBytes() / frameLog.getBytesWritten());
+
+            } catch (IOException e) {
+
+                System.out.println("Não foi possível gravar " + frames + ": " + e.getMessage());
+
+            }
+
+        }
+
+        printSummary(simulator, view, engineName, simulator.getStep() - first, simulator.getActorSteps() - actorSteps, elapsed);
+
+        if (snapshot != null) {
+
+            if (pending == null || simulator.getStep() % snapshotEvery != 0) {
+
+                pending = simulator.saveSnapshot(snapshot);
+
+            }
+
+            try {
+
+                pending.get();
+                System.out.println("Estado gravado em " + snapshot + " no passo " + simulator.getStep());
+
+            } catch (InterruptedException | ExecutionException e) {
+
+                System.out.println("Não foi possível gravar " + snapshot + ": " + e.getCause());
+
+            }
+
+        }
+
+        if (verifyStats) {
+
+            System.out.println("Contadores conferem com o campo em todos os passos.");
+
+        }
+
+    }
+
+    /**
+     * Aplica a um perfil uma lista de parâmetros separados por vírgula,
+     * cada um no formato nome=valor.
+     *
+     * @param profile Perfil de partida.
+     * @param list Lista de parâmetros, como "fox.maxAge=200,initial.density=0.01".
+     * @return SpeciesProfile O perfil com os parâmetros alterados.
+     * @throws IllegalArgumentException Se algum item for malformado, desconhecido ou estiver fora da faixa aceita.
+     */
+    private static SpeciesProfile withParameters(SpeciesProfile profile, String list) {
+
+        for (String item : list.split(",")) {
+
+            int equals = item.indexOf('=');
+
+            if (equals <= 0) {
+
+                throw new IllegalArgumentException("Parâmetro malformado em --profile: " + item + ", esperado nome=valor.");
+
+            }
+
+            profile = profile.with(item.substring(0, equals).trim(), Double.parseDouble(item.substring(equals + 1).trim()));
+
+        }
+
+        return profile;
+
+    }
+
+    /**
+     * Executa a simulação sobre o armazém de atores em vetores, que não
+     * usa o Simulator nem objetos de atores, e escreve o seu resumo. Se
+     * houver uma organização de campo para a referência, uma simulação
+     * com objetos de atores e a mesma semente é executada com o motor
+     * sequencial junto com o SoaWorld e comparada a cada passo.
+     *
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @param steps Quantidade máxima de passos.
+     * @param random Serviço de randomização da simulação.
+     * @param profile Parâmetros das espécies e da população inicial.
+     * @param referenceLayout Organização do campo da simulação de referência, ou null para não comparar.
+     */
+    private static void runSoaWorld(int depth, int width, int steps, RandomService random, SpeciesProfile profile, String referenceLayout) {
+
+        Simulator reference = null;
+
+        if (referenceLayout != null) {
+
+            reportActorMemory(depth, width, random, profile, referenceLayout);
+            reference = new Simulator(depth, width, new HeadlessView(), new RandomService(random.getSeed(), random.getAlgorithm()),
+                profile, referenceLayout);
+
+        }
+
+        SoaWorld world = new SoaWorld(depth, width, random, profile);
+        long start = System.nanoTime(), verifying = 0;
+
+        if (reference != null) {
+
+            verifySoa(world, reference);
+
+        }
+
+        while (world.getStep() < steps && world.isViable()) {
+
+            world.step();
+
+            if (reference != null) {
+
+                long verifyStart = System.nanoTime();
+                reference.runStep();
+                verifySoa(world, reference);
+                verifying += System.nanoTime() - verifyStart;
+
+            }
+
+        }
+
+        double seconds = (System.nanoTime() - start - verifying) / 1e9;
+        ActorStore store = world.getStore();
+
+        System.out.println("Campo: " + depth + "x" + width + " motor: soa semente: " + random.getSeed());
+        System.out.println("Passos executados: " + world.getStep());
+        System.out.printf("Tempo: %.3f s%n", seconds);
+        System.out.printf("Passos/s: %.1f%n", world.getStep() / seconds);
+        System.out.printf("Atores-passo/s: %.0f%n", world.getActorSteps() / seconds);
+        System.out.println("Atores ativos: " + store.size());
+        System.out.printf("Bytes por ator: %d (armazém: %d KiB)%n", ActorStore.BYTES_PER_ACTOR, store.getAllocatedBytes() / 1024);
+        System.out.println("População: " + Species.getName(Species.RABBIT) + ": " + world.getCount(Species.RABBIT)
+            + " " + Species.getName(Species.FOX) + ": " + world.getCount(Species.FOX)
+            + " " + Species.getName(Species.HUNTER) + ": " + world.getCount(Species.HUNTER));
+
+        if (reference != null) {
+
+            System.out.println("População e atores-passo conferem com o modelo de objetos em todos os passos.");
+
+        }
+
+    }
+
+    /**
+     * Mede a memória por ator dos dois modelos na população inicial e a
+     * compara com a meta. Nos objetos, é a diferença do heap usado depois
+     * de uma coleta, antes e depois de remover os atores da lista e dos
+     * campos de uma simulação criada só para a medida; no SoaWorld, é a
+     * memória dos vetores do armazém, com a capacidade livre, dividida
+     * pela quantidade de atores.
+     *
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @param random Serviço de randomização da simulação; apenas a semente e o gerador são usados.
+     * @param profile Parâmetros das espécies e da população inicial.
+     * @param layout Organização do campo da simulação com objetos.
+     */
+    private static void reportActorMemory(int depth, int width, RandomService random, SpeciesProfile profile, String layout) {
+
+        ActorStore store = new SoaWorld(depth, width, new RandomService(random.getSeed(), random.getAlgorithm()), profile).getStore();
+        double soaBytes = (double) store.getAllocatedBytes() / Math.max(1, store.size());
+
+        Simulator simulator = new Simulator(depth, width, new HeadlessView(), new RandomService(random.getSeed(), random.getAlgorithm()),
+            profile, layout);
+        int actors = simulator.getActors().size();
+
+        if (actors < MIN_MEASURED_ACTORS) {
+
+            System.out.println("Memória por ator não medida: menos de " + MIN_MEASURED_ACTORS + " atores.");
+            return;
+
+        }
+
+        long before = usedHeapAfterGc();
+        simulator.getActors().clear();
+        simulator.getField().clear();
+        simulator.getUpdatedField().clear();
+        long after = usedHeapAfterGc();
+
+        double objectBytes = (double) Math.max(0, before - after) / actors;
+        double ratio = objectBytes / soaBytes;
+        System.out.printf("Memória por ator na população inicial (%d atores): objetos %.1f bytes, soa %.1f bytes, %.1fx menor"
+            + " (meta: %.0fx, %s)%n", actors, objectBytes, soaBytes, ratio, SOA_MEMORY_TARGET,
+            ratio >= SOA_MEMORY_TARGET ? "atingida" : "NÃO atingida");
+
+    }
+
+    /**
+     * Compara a população e os atores-passo do SoaWorld com os da
+     * simulação de referência. Em caso de divergência, escreve os dois
+     * valores e termina a execução com código 1.
+     *
+     * @param world Simulação em vetores.
+     * @param reference Simulação com objetos de atores no mesmo passo.
+     */
+    private static void verifySoa(SoaWorld world, Simulator reference) {
+
+        boolean matches = world.getStep() == reference.getStep() && world.getActorSteps() == reference.getActorSteps();
+
+        for (int species = 1; species < Species.COUNT; species++) {
+
+            matches &= world.getCount(species) == reference.getStats().getPopulation(species);
+
+        }
+
+        if (!matches) {
+
+            System.out.println("DIVERGÊNCIA entre soa e objetos no passo " + world.getStep() + " (objetos no passo " + reference.getStep() + "):");
+            System.out.println("Atores-passo: soa " + world.getActorSteps() + " objetos " + reference.getActorSteps());
+
+            for (int species = 1; species < Species.COUNT; species++) {
+
+                System.out.println(Species.getName(species) + ": soa " + world.getCount(species) + " objetos "
+                    + reference.getStats().getPopulation(species));
+
+            }
+
+            System.exit(1);
+
+        }
+
+    }
+
+    /**
+     * Executa coletas de lixo e retorna o heap usado em seguida.
+     *
+     * @return long Bytes usados no heap.
+     */
+    private static long usedHeapAfterGc() {
+
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 3; i++) {
+
+            System.gc();
+
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+
+    }
+
+    /**
+     * Compara os contadores incrementais com a contagem dos atores ativos
+     * no campo atual. Em caso de divergência, escreve as duas contagens e
+     * termina a execução com código 1.
+     *
+     * @param simulator Simulador no fim de um passo.
+     */
+    private static void verifyStats(Simulator simulator) {
+
+        FieldStats stats = simulator.getStats();
+        int[] scanned = new int[Species.COUNT];
+        FieldStats.countField(simulator.getField(), scanned);
+        boolean matches = true;
+
+        for (int species = 1; species < Species.COUNT; species++) {
+
+            matches &= stats.getPopulation(species) == scanned[species];
+
+        }
+
+        if (!matches) {
+
+            System.out.println("DIVERGÊNCIA entre contadores e campo no passo " + simulator.getStep() + ":");
+
+            for (int species = 1; species < Species.COUNT; species++) {
+
+                System.out.println(Species.getName(species) + ": contador " + stats.getPopulation(species) + " campo " + scanned[species]);
+
+            }
+
+            System.exit(1);
+
+        }
+
+    }
+
+    /**
+     * Escreve o resumo da execução na saída padrão.
+     *
+     * @param simulator Simulador executado.
+     * @param view Visão sem renderização usada na execução.
+     * @param engineName Nome do motor utilizado.
+     * @param executed Passos executados nesta execução.
+     * @param actorSteps Atores-passo processados nesta execução.
+     * @param elapsed Tempo total da execução em nanosegundos.
+     */
+    private static void printSummary(Simulator simulator, HeadlessView view, String engineName, int executed, long actorSteps, long elapsed) {
+
+        double seconds = elapsed / 1e9;
+        long seed = simulator.getRandom().getSeed();
+        Field field = simulator.getField();
+
+        System.out.println("Campo: " + field.getDepth() + "x" + field.getWidth() + " (" + (field instanceof SparseField ? Field.SPARSE : Field.DENSE)
+            + ") motor: " + engineName + " semente: " + seed);
+        System.out.println("Passos executados: " + executed);
+        System.out.printf("Tempo: %.3f s%n", seconds);
+        System.out.printf("Passos/s: %.1f%n", executed / seconds);
+        System.out.printf("Atores-passo/s: %.0f%n", actorSteps / seconds);
+        System.out.println("Atores ativos: " + simulator.getActorCount());
+        System.out.println("População: " + view.getPopulationDetails(field));
+
+    }
+
+}
@@ -0,0 +1,391 @@
+package Core;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import Controllers.FieldStats;
+import Utils.Species;
+
+/**
+ * Agrega as séries de população de várias execuções independentes da
+ * simulação. Para cada passo e espécie mantém a média e a variância
+ * entre todas as execuções, pelo método de Welford, e para cada espécie
+ * guarda o passo em que ela foi extinta.
+ *
+ * Uma execução termina antes do último passo quando deixa de ser viável,
+ * ou seja, quando restou no máximo uma espécie. Para que as médias dos
+ * passos seguintes não considerem apenas as execuções que continuaram, a
+ * série da execução é completada até o último passo com a sua população
+ * final, zero para as espécies extintas. Quando uma espécie não foi
+ * extinta até o fim de uma execução, o seu passo de extinção é censurado:
+ * sabe-se apenas que é posterior ao último passo executado, e esse passo
+ * é registrado à parte.
+ *
+ * Cada execução escreve na sua própria Series, sem sincronização, e a
+ * série é somada ao agregado uma única vez, em finish.
+ * Como as séries chegam na ordem em que as execuções terminam, as médias
+ * e variâncias podem variar nas últimas casas decimais entre execuções
+ * com a mesma semente.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class EnsembleAggregator {
+
+    /**
+     * Maior passo registrado.
+     */
+    private final int maxStep;
+
+    /**
+     * Quantidade de execuções que ainda estavam em andamento em cada passo.
+     */
+    private final int[] runningAtStep;
+
+    /**
+     * Média da população por espécie e passo.
+     */
+    private final double[][] mean;
+
+    /**
+     * Soma dos quadrados dos desvios por espécie e passo (M2 de Welford).
+     */
+    private final double[][] m2;
+
+    /**
+     * Passos de extinção registrados de cada espécie.
+     */
+    private final List<List<Integer>> extinctions;
+
+    /**
+     * Último passo executado nas execuções em que cada espécie não foi
+     * extinta, ou seja, os passos de extinção censurados.
+     */
+    private final List<List<Integer>> censored;
+
+    /**
+     * Quantidade de execuções finalizadas.
+     */
+    private int runs;
+
+    /**
+     * Construtor do agregador.
+     *
+     * @param maxStep Maior passo que as execuções podem atingir.
+     */
+    public EnsembleAggregator(int maxStep) {
+
+        this.maxStep = maxStep;
+        this.runningAtStep = new int[maxStep + 1];
+        this.mean = new double[Species.COUNT][maxStep + 1];
+        this.m2 = new double[Species.COUNT][maxStep + 1];
+        this.extinctions = new ArrayList<List<Integer>>();
+        this.censored = new ArrayList<List<Integer>>();
+
+        for (int species = 0; species < Species.COUNT; species++) {
+
+            extinctions.add(new ArrayList<Integer>());
+            censored.add(new ArrayList<Integer>());
+
+        }
+
+    }
+
+    /**
+     * Cria a série de uma nova execução.
+     *
+     * @return Series A série, que deve ser finalizada com finish.
+     */
+    public Series newSeries() { return new Series(); }
+
+    /**
+     * Soma uma série finalizada ao agregado. Os passos posteriores ao fim
+     * da execução recebem a população do último passo registrado.
+     *
+     * @param series Série de uma execução.
+     */
+    private synchronized void merge(Series series) {
+
+        int n = ++runs;
+        int last = series.length - 1;
+
+        for (int step = 0; step <= maxStep; step++) {
+
+            int recorded = Math.min(step, last);
+
+            if (step <= last) {
+
+                runningAtStep[step]++;
+
+            }
+
+            for (int species = 1; species < Species.COUNT; species++) {
+
+                double value = series.values[species][recorded];
+                double delta = value - mean[species][step];
+                mean[species][step] += delta / n;
+                m2[species][step] += delta * (value - mean[species][step]);
+
+            }
+
+        }
+
+        for (int species = 1; species < Species.COUNT; species++) {
+
+            if (series.extinction[species] >= 0) {
+
+                extinctions.get(species).add(series.extinction[species]);
+
+            } else {
+
+                censored.get(species).add(last);
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Retorna a quantidade de execuções finalizadas.
+     *
+     * @return int Quantidade de execuções.
+     */
+    public synchronized int getRuns() { return runs; }
+
+    /**
+     * Retorna a população média de uma espécie em um passo.
+     *
+     * @param species Código da espécie.
+     * @param step Passo.
+     * @return double A média entre todas as execuções.
+     */
+    public synchronized double getMean(int species, int step) { return mean[species][step]; }
+
+    /**
+     * Retorna a variância amostral da população de uma espécie em um passo.
+     *
+     * @param species Código da espécie.
+     * @param step Passo.
+     * @return double A variância, ou zero com menos de duas execuções.
+     */
+    public synchronized double getVariance(int species, int step) {
+
+        return runs > 1 ? m2[species][step] / (runs - 1) : 0;
+
+    }
+
+    /**
+     * Retorna a quantidade de execuções que ainda estavam em andamento em
+     * um passo; as demais entram nas médias com a sua população final.
+     *
+     * @param step Passo.
+     * @return int Quantidade de execuções em andamento.
+     */
+    public synchronized int getRunning(int step) { return runningAtStep[step]; }
+
+    /**
+     * Escreve a média e a variância de cada espécie a cada intervalo de
+     * passos, com a quantidade de execuções e quantas ainda estavam em
+     * andamento no passo.
+     *
+     * @param out Saída do relatório.
+     * @param every Intervalo entre os passos escritos.
+     */
+    public synchronized void printSeries(PrintStream out, int every) {
+
+        out.print("passo execuções em_andamento");
+
+        for (int species = 1; species < Species.COUNT; species++) {
+
+            out.print(" " + Species.getName(species) + "(média) " + Species.getName(species) + "(variância)");
+
+        }
+
+        out.println();
+
+        for (int step = 0; step <= maxStep && runs > 0; step += every) {
+
+            out.print(step + " " + runs + " " + runningAtStep[step]);
+
+            for (int species = 1; species < Species.COUNT; species++) {
+
+                out.printf(" %.1f %.1f", mean[species][step], getVariance(species, step));
+
+            }
+
+            out.println();
+
+        }
+
+    }
+
+    /**
+     * Escreve todos os passos em formato CSV.
+     *
+     * @param out Saída do arquivo.
+     */
+    public synchronized void writeCsv(PrintStream out) {
+
+        out.print("step,runs,running");
+
+        for (int species = 1; species < Species.COUNT; species++) {
+
+            out.print(",mean_" + Species.getName(species) + ",variance_" + Species.getName(species));
+
+        }
+
+        out.println();
+
+        for (int step = 0; step <= maxStep && runs > 0; step++) {
+
+            out.print(step + "," + runs + "," + runningAtStep[step]);
+
+            for (int species = 1; species < Species.COUNT; species++) {
+
+                out.print("," + mean[species][step] + "," + getVariance(species, step));
+
+            }
+
+            out.println();
+
+        }
+
+    }
+
+    /**
+     * Escreve a distribuição dos passos de extinção de cada espécie:
+     * quantidade, média, mínimo, quartis e máximo. Execuções em que a
+     * espécie não foi extinta não entram nessa distribuição: os seus
+     * passos de extinção são censurados e escritos à parte, com o último
+     * passo executado em cada uma delas.
+     *
+     * @param out Saída do relatório.
+     */
+    public synchronized void printExtinctions(PrintStream out) {
+
+        for (int species = 1; species < Species.COUNT; species++) {
+
+            out.print(Species.getName(species) + ": extinta em " + extinctions.get(species).size() + " de " + runs);
+            printDistribution(out, extinctions.get(species));
+            out.print("; censurada em " + censored.get(species).size() + " (não extinta até o passo)");
+            printDistribution(out, censored.get(species));
+            out.println();
+
+        }
+
+    }
+
+    /**
+     * Escreve média, mínimo, quartis e máximo de uma lista de passos, se
+     * ela não estiver vazia.
+     *
+     * @param out Saída do relatório.
+     * @param steps Passos, em qualquer ordem.
+     */
+    private static void printDistribution(PrintStream out, List<Integer> steps) {
+
+        if (steps.isEmpty()) {
+
+            return;
+
+        }
+
+        List<Integer> times = new ArrayList<Integer>(steps);
+        Collections.sort(times);
+        double sum = 0;
+
+        for (int time : times) {
+
+            sum += time;
+
+        }
+
+        out.printf(" média %.1f mín %d q1 %d mediana %d q3 %d máx %d",
+            sum / times.size(), times.get(0), quantile(times, 0.25), quantile(times, 0.5),
+            quantile(times, 0.75), times.get(times.size() - 1));
+
+    }
+
+    /**
+     * Retorna um quantil de uma lista ordenada, pelo valor mais próximo.
+     *
+     * @param sorted Lista ordenada.
+     * @param q Quantil entre 0 e 1.
+     * @return int O valor do quantil.
+     */
+    private static int quantile(List<Integer> sorted, double q) {
+
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.round(q * (sorted.size() - 1))));
+
+    }
+
+    /**
+     * Série de população de uma única execução, escrita a cada passo
+     * apenas pela thread da execução.
+     */
+    public class Series {
+
+        /**
+         * População de cada espécie em cada passo registrado.
+         */
+        private final int[][] values = new int[Species.COUNT][maxStep + 1];
+
+        /**
+         * Primeiro passo sem população de cada espécie, ou -1.
+         */
+        private final int[] extinction = new int[Species.COUNT];
+
+        /**
+         * Quantidade de passos registrados.
+         */
+        private int length;
+
+        /**
+         * Construtor de uma série vazia.
+         */
+        private Series() {
+
+            Arrays.fill(extinction, -1);
+
+        }
+
+        /**
+         * Registra a população de um passo. Os passos devem ser
+         * registrados em ordem, começando em zero.
+         *
+         * @param step Passo registrado.
+         * @param stats Contadores de população da execução.
+         */
+        public void record(int step, FieldStats stats) {
+
+            for (int species = 1; species < Species.COUNT; species++) {
+
+                int population = stats.getPopulation(species);
+                values[species][step] = population;
+
+                if (population == 0 && extinction[species] < 0) {
+
+                    extinction[species] = step;
+
+                }
+
+            }
+
+            length = step + 1;
+
+        }
+
+        /**
+         * Soma a série ao agregado, completando os passos seguintes ao
+         * último registrado com a população final. Deve ser chamado uma
+         * única vez, depois de pelo menos um passo registrado.
+         */
+        public void finish() { merge(this); }
+
+    }
+
+}
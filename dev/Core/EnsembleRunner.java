@@ -0,0 +1,187 @@
+package Core;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import Controllers.FieldStats;
+import Utils.RandomService;
+import View.HeadlessView;
+
+/**
+ * Executa várias simulações independentes ao mesmo tempo, cada uma com a
+ * sua semente, em um ForkJoinPool. Cada simulação tem o seu próprio
+ * estado e é executada inteira por uma thread do pool, com o motor
+ * sequencial; o paralelismo vem da quantidade de execuções.
+ *
+ * A população de cada passo de cada execução é enviada a um
+ * EnsembleAggregator, que ao final escreve média e variância por passo e
+ * a distribuição dos passos de extinção de cada espécie. Uma execução
+ * que deixa de ser viável antes do último passo continua nas médias dos
+ * passos seguintes com a sua população final.
+ *
+ * Uso: java Core/EnsembleRunner profundidade largura passos execuções [semente]
+ *          [--threads=N] [--every=K] [--csv=arquivo]
+ *
+ * A execução i usa a semente semente + i.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class EnsembleRunner {
+
+    /**
+     * Método chamado pela JVM para execução do conjunto de simulações.
+     *
+     * @param args Profundidade, largura, passos, execuções e semente opcional.
+     */
+    public static void main(String[] args) {
+
+        System.setProperty("java.awt.headless", "true");
+
+        int depth, width, steps, runs, threads, every;
+        long seed;
+        String csv = null;
+        List<String> positional = new ArrayList<String>();
+        threads = Runtime.getRuntime().availableProcessors();
+        every = 0;
+
+        try {
+
+            for (String arg : args) {
+
+                if (arg.startsWith("--threads=")) {
+
+                    threads = Integer.parseInt(arg.substring("--threads=".length()));
+
+                } else if (arg.startsWith("--every=")) {
+
+                    every = Integer.parseInt(arg.substring("--every=".length()));
+
+                } else if (arg.startsWith("--csv=")) {
+
+                    csv = arg.substring("--csv=".length());
+
+                } else {
+
+                    positional.add(arg);
+
+                }
+
+            }
+
+            if (positional.size() < 4) {
+
+                throw new IllegalArgumentException("Informe profundidade, largura, passos e execuções.");
+
+            }
+
+            depth = Integer.parseInt(positional.get(0));
+            width = Integer.parseInt(positional.get(1));
+            steps = Integer.parseInt(positional.get(2));
+            runs = Integer.parseInt(positional.get(3));
+            seed = positional.size() > 4 ? Long.parseLong(positional.get(4)) : System.nanoTime();
+
+        } catch (IllegalArgumentException e) {
+
+            System.out.println(e.getMessage());
+            System.out.println("Uso: EnsembleRunner profundidade largura passos execuções [semente] [--threads=N] [--every=K] [--csv=arquivo]");
+            return;
+
+        }
+
+        EnsembleAggregator aggregator = new EnsembleAggregator(steps);
+        AtomicLong actorSteps = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(runs);
+
+        for (int run = 0; run < runs; run++) {
+
+            long runSeed = seed + run;
+            tasks.add(() -> {
+                actorSteps.addAndGet(runOne(depth, width, steps, runSeed, aggregator));
+                return null;
+            });
+
+        }
+
+        long start = System.nanoTime();
+
+        try {
+
+            for (Future<Void> result : pool.invokeAll(tasks)) {
+
+                result.get();
+
+            }
+
+        } catch (InterruptedException | ExecutionException e) {
+
+            throw new IllegalStateException("Falha em uma das execuções.", e);
+
+        } finally {
+
+            pool.shutdown();
+
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("Campo: " + depth + "x" + width + " passos: " + steps + " execuções: " + runs + " threads: " + threads + " semente: " + seed);
+        System.out.printf("Tempo: %.3f s%n", seconds);
+        System.out.printf("Execuções/s: %.2f%n", runs / seconds);
+        System.out.printf("Atores-passo/s: %.0f%n", actorSteps.get() / seconds);
+        aggregator.printSeries(System.out, every > 0 ? every : Math.max(1, steps / 10));
+        aggregator.printExtinctions(System.out);
+
+        if (csv != null) {
+
+            try (PrintStream out = new PrintStream(csv)) {
+
+                aggregator.writeCsv(out);
+
+            } catch (FileNotFoundException e) {
+
+                System.out.println("Não foi possível escrever " + csv + ": " + e.getMessage());
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Executa uma simulação isolada, registrando a população de cada passo.
+     *
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @param steps Quantidade máxima de passos.
+     * @param seed Semente da execução.
+     * @param aggregator Agregador que recebe a série da execução.
+     * @return long Quantidade de atores-passo processados.
+     */
+    private static long runOne(int depth, int width, int steps, long seed, EnsembleAggregator aggregator) {
+
+        Simulator simulator = new Simulator(depth, width, new HeadlessView(), new RandomService(seed));
+        FieldStats stats = simulator.getStats();
+        EnsembleAggregator.Series series = aggregator.newSeries();
+        series.record(0, stats);
+
+        while (simulator.getStep() < steps && simulator.runStep()) {
+
+            series.record(simulator.getStep(), stats);
+
+        }
+
+        series.finish();
+        return simulator.getActorSteps();
+
+    }
+
+}
@@ -0,0 +1,739 @@
+package Core;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+import Controllers.Field;
+
+/**
+ * Grava a sequência de quadros de uma simulação, para que possa ser
+ * assistida novamente sem ser simulada outra vez. Cada célula é
+ * representada pelo código da sua espécie em 2 bits.
+ *
+ * A cada troca de campos em Simulator, apenas as células que mudaram entre
+ * o campo anterior e o novo são gravadas (quadro delta). Periodicamente, e
+ * sempre que o delta ficaria maior que o próprio quadro, o campo inteiro é
+ * gravado (quadro chave), de forma que qualquer passo pode ser reconstruído
+ * aplicando no máximo um intervalo de deltas sobre um quadro chave. Ao
+ * fechar, um índice com a posição de cada quadro é gravado no fim do
+ * arquivo; FrameLogReader usa esse índice para buscar um passo.
+ *
+ * Apenas os blocos marcados como sujos em um dos dois campos podem ter
+ * mudado, por isso a comparação percorre só esses blocos, em ordem, e as
+ * células de cada bloco linha após linha.
+ *
+ * Como nesta simulação quase todos os animais se movem a cada passo, uma
+ * parte grande das células ocupadas muda de um passo para o outro. Por
+ * isso o conteúdo de cada quadro ainda é comprimido com Deflater quando
+ * isso o torna menor.
+ *
+ * A thread da simulação apenas compara os campos e monta o quadro; a
+ * compressão e a escrita são feitas por uma thread em segundo plano. Há
+ * dois buffers de quadro, um em construção e outro sendo gravado, e a
+ * simulação só espera se a gravação estiver um quadro inteiro atrasada,
+ * pois nenhum quadro pode ser perdido.
+ *
+ * Formato, com inteiros em big-endian:
+ *
+ *   cabeçalho: "PPOOFRAM", versão, profundidade, largura, intervalo entre
+ *   quadros chave;
+ *   quadros: tipo ('K' ou 'D'), passo, tamanho do conteúdo e o conteúdo.
+ *   Nos tipos em minúsculas ('k' e 'd') o conteúdo é o seu tamanho
+ *   original seguido dele comprimido com Deflater, sem cabeçalho zlib.
+ *   O conteúdo de um quadro chave são os códigos de todas as células,
+ *   linha após linha, quatro por byte a partir dos bits menos
+ *   significativos. O de um delta é a quantidade de mudanças seguida, para
+ *   cada mudança, de um inteiro de tamanho variável (7 bits por byte) com
+ *   (distância para a mudança anterior menos um) &lt;&lt; 2 | código. A
+ *   distância é medida na ordem bloco a bloco: bloco * 256 + linha no
+ *   bloco * 16 + coluna no bloco;
+ *   índice: quantidade de quadros e, para cada um, passo, posição no
+ *   arquivo e tipo;
+ *   final: posição do índice e "PPOOFEND".
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class FrameLog implements AutoCloseable {
+
+    /**
+     * Identificação do início do arquivo.
+     */
+    static final byte[] MAGIC = { 'P', 'P', 'O', 'O', 'F', 'R', 'A', 'M' };
+
+    /**
+     * Identificação do final de um arquivo fechado corretamente.
+     */
+    static final byte[] END = { 'P', 'P', 'O', 'O', 'F', 'E', 'N', 'D' };
+
+    /**
+     * Versão do formato. Deve ser alterada sempre que o formato mudar.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * Tipos de quadro.
+     */
+    static final byte KEYFRAME = 'K', DELTA = 'D';
+
+    /**
+     * Bit do tipo que indica conteúdo comprimido.
+     */
+    static final byte COMPRESSED = 0x20;
+
+    /**
+     * Tamanho do cabeçalho e do cabeçalho de cada quadro, em bytes.
+     */
+    static final int HEADER_BYTES = 8 + 4 * Integer.BYTES, FRAME_HEADER_BYTES = 1 + 2 * Integer.BYTES;
+
+    /**
+     * Intervalo padrão entre quadros chave, em passos.
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 100;
+
+    /**
+     * Células por bloco do campo.
+     */
+    static final int BLOCK_CELLS = Field.BLOCK_SIZE * Field.BLOCK_SIZE;
+
+    /**
+     * Quantidade de buffers de quadro.
+     */
+    private static final int BUFFERS = 2;
+
+    /**
+     * Marca o fim dos quadros na fila de gravação.
+     */
+    private static final ByteBuffer CLOSE = ByteBuffer.allocate(0);
+
+    /**
+     * Arquivo de destino.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Dimensões do campo.
+     */
+    private final int depth, width;
+
+    /**
+     * Blocos por linha de blocos do campo.
+     */
+    private final int blockCols;
+
+    /**
+     * Intervalo máximo entre quadros chave.
+     */
+    private final int keyframeInterval;
+
+    /**
+     * Tamanho do conteúdo de um quadro chave.
+     */
+    private final int keyframeBytes;
+
+    /**
+     * Quadro em construção pela thread da simulação.
+     */
+    private ByteBuffer frame;
+
+    /**
+     * Buffers livres e quadros prontos para gravação.
+     */
+    private final BlockingQueue<ByteBuffer> free, pending;
+
+    /**
+     * Thread que comprime e grava os quadros.
+     */
+    private final Thread writer;
+
+    /**
+     * Quadro comprimido, reutilizado entre os quadros pela thread de
+     * gravação, dona também do compressor, do índice e da posição.
+     */
+    private final ByteBuffer compressed;
+
+    /**
+     * Compressor dos quadros.
+     */
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+
+    /**
+     * Blocos a comparar no passo, reutilizado entre os passos.
+     */
+    private int[] blocks = new int[64];
+
+    /**
+     * Índice dos quadros gravados: passo, posição e tipo.
+     */
+    private int[] steps = new int[64];
+    private long[] offsets = new long[64];
+    private byte[] types = new byte[64];
+    private int frames;
+
+    /**
+     * Posição do próximo quadro no arquivo.
+     */
+    private long position;
+
+    /**
+     * Passo do último quadro chave.
+     */
+    private int lastKeyframe;
+
+    /**
+     * Quantidade de quadros chave gravados.
+     */
+    private int keyframes;
+
+    /**
+     * Falha de escrita, se houver. Depois de uma falha os quadros
+     * seguintes são ignorados e a falha é informada em close.
+     */
+    private volatile IOException failure;
+
+    /**
+     * Construtor com o intervalo padrão entre quadros chave.
+     *
+     * @param path Caminho do arquivo.
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @throws IOException Se o arquivo não puder ser criado.
+     */
+    public FrameLog(String path, int depth, int width) throws IOException { this(path, depth, width, DEFAULT_KEYFRAME_INTERVAL); }
+
+    /**
+     * Construtor que cria o arquivo e grava o cabeçalho.
+     *
+     * @param path Caminho do arquivo.
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @param keyframeInterval Intervalo máximo entre quadros chave, em passos.
+     * @throws IOException Se o arquivo não puder ser criado.
+     * @throws IllegalArgumentException Se o intervalo não for positivo ou o campo for grande demais.
+     */
+    public FrameLog(String path, int depth, int width, int keyframeInterval) throws IOException {
+
+        if (keyframeInterval <= 0) {
+
+            throw new IllegalArgumentException("Intervalo entre quadros chave inválido: " + keyframeInterval);
+
+        }
+
+        if ((long) depth * width > Integer.MAX_VALUE) {
+
+            throw new IllegalArgumentException("Campo de " + depth + "x" + width + " é grande demais para o registro de quadros.");
+
+        }
+
+        this.depth = depth;
+        this.width = width;
+        this.blockCols = (width + Field.BLOCK_SIZE - 1) / Field.BLOCK_SIZE;
+        this.keyframeInterval = keyframeInterval;
+        this.keyframeBytes = (int) (((long) depth * width + 3) / 4);
+        this.free = new ArrayBlockingQueue<ByteBuffer>(BUFFERS);
+        this.pending = new ArrayBlockingQueue<ByteBuffer>(BUFFERS + 1);
+
+        for (int i = 0; i < BUFFERS; i++) {
+
+            free.add(ByteBuffer.allocate(FRAME_HEADER_BYTES + keyframeBytes));
+
+        }
+
+        this.compressed = ByteBuffer.allocate(FRAME_HEADER_BYTES + Integer.BYTES + keyframeBytes);
+        this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.put(MAGIC).putInt(FORMAT_VERSION).putInt(depth).putInt(width).putInt(keyframeInterval);
+        header.flip();
+        write(header);
+
+        this.writer = new Thread(this::drain, "frame-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+
+    }
+
+    /**
+     * Grava um quadro chave com o campo inteiro.
+     *
+     * @param step Passo do campo.
+     * @param field Campo gravado.
+     */
+    public void keyframe(int step, Field field) {
+
+        if (failure != null || !acquire()) {
+
+            return;
+
+        }
+
+        pack(field);
+        submit(KEYFRAME, step);
+
+    }
+
+    /**
+     * Monta o conteúdo de um quadro chave no quadro em construção.
+     *
+     * @param field Campo gravado.
+     */
+    private void pack(Field field) {
+
+        frame.clear();
+        frame.position(FRAME_HEADER_BYTES);
+        int packed = 0, count = 0;
+
+        for (int row = 0; row < depth; row++) {
+
+            for (int col = 0; col < width; col++) {
+
+                packed |= field.getSpeciesAt(row, col) << (2 * count);
+
+                if (++count == 4) {
+
+                    frame.put((byte) packed);
+                    packed = 0;
+                    count = 0;
+
+                }
+
+            }
+
+        }
+
+        if (count > 0) {
+
+            frame.put((byte) packed);
+
+        }
+
+    }
+
+    /**
+     * Grava o quadro de um passo a partir da troca de campos: um delta com
+     * as células que mudaram, ou um quadro chave se o intervalo foi
+     * atingido ou se o delta seria maior que o quadro chave.
+     *
+     * @param step Passo do novo campo.
+     * @param previous Campo do passo anterior.
+     * @param current Campo do passo.
+     */
+    public void record(int step, Field previous, Field current) {
+
+        if (failure != null || !acquire()) {
+
+            return;
+
+        }
+
+        if (step - lastKeyframe < keyframeInterval && delta(previous, current)) {
+
+            submit(DELTA, step);
+
+        } else {
+
+            pack(current);
+            submit(KEYFRAME, step);
+
+        }
+
+    }
+
+    /**
+     * Obtém um buffer livre para o próximo quadro, esperando se os dois
+     * estiverem em uso.
+     *
+     * @return boolean false se a thread foi interrompida enquanto esperava.
+     */
+    private boolean acquire() {
+
+        try {
+
+            frame = free.take();
+            return true;
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            return false;
+
+        }
+
+    }
+
+    /**
+     * Entrega o quadro em construção à thread de gravação.
+     *
+     * @param type KEYFRAME ou DELTA.
+     * @param step Passo do quadro.
+     */
+    private void submit(byte type, int step) {
+
+        frame.put(0, type).putInt(1, step);
+        pending.add(frame);
+        frame = null;
+
+        if (type == KEYFRAME) {
+
+            lastKeyframe = step;
+            keyframes++;
+
+        }
+
+    }
+
+    /**
+     * Laço da thread de gravação: grava os quadros na ordem em que foram
+     * entregues e devolve os buffers, até receber CLOSE.
+     */
+    private void drain() {
+
+        try {
+
+            for (ByteBuffer buffer = pending.take(); buffer != CLOSE; buffer = pending.take()) {
+
+                if (failure == null) {
+
+                    finish(buffer);
+
+                }
+
+                free.add(buffer);
+
+            }
+
+        } catch (InterruptedException e) {
+
+            failure = new InterruptedIOException("Gravação de quadros interrompida.");
+
+        } finally {
+
+            deflater.end();
+
+        }
+
+    }
+
+    /**
+     * Monta o conteúdo de um delta no quadro em construção.
+     *
+     * @param previous Campo do passo anterior.
+     * @param current Campo do passo.
+     * @return true Se o delta cabe no tamanho de um quadro chave.
+     */
+    private boolean delta(Field previous, Field current) {
+
+        int count = collectBlocks(previous, current);
+        int limit = keyframeBytes + FRAME_HEADER_BYTES, changes = 0;
+        long last = -1;
+
+        frame.clear();
+        frame.position(FRAME_HEADER_BYTES + Integer.BYTES);
+
+        for (int i = 0; i < count; i++) {
+
+            int block = blocks[i];
+            int firstRow = previous.getBlockFirstRow(block), firstCol = previous.getBlockFirstCol(block);
+            int lastRow = Math.min(firstRow + Field.BLOCK_SIZE, depth), lastCol = Math.min(firstCol + Field.BLOCK_SIZE, width);
+
+            for (int row = firstRow; row < lastRow; row++) {
+
+                for (int col = firstCol; col < lastCol; col++) {
+
+                    int code = current.getSpeciesAt(row, col);
+
+                    if (code == previous.getSpeciesAt(row, col)) {
+
+                        continue;
+
+                    }
+
+                    long index = (long) block * BLOCK_CELLS + (row - firstRow) * Field.BLOCK_SIZE + (col - firstCol);
+
+                    if (frame.position() + 10 > limit) {
+
+                        return false;
+
+                    }
+
+                    putVarLong(((index - last - 1) << 2) | code);
+                    last = index;
+                    changes++;
+
+                }
+
+            }
+
+        }
+
+        frame.putInt(FRAME_HEADER_BYTES, changes);
+        return true;
+
+    }
+
+    /**
+     * Junta os blocos sujos dos dois campos, em ordem e sem repetição.
+     *
+     * @param previous Campo do passo anterior.
+     * @param current Campo do passo.
+     * @return int Quantidade de blocos em blocks.
+     */
+    private int collectBlocks(Field previous, Field current) {
+
+        int total = previous.getDirtyBlockCount() + current.getDirtyBlockCount();
+
+        if (blocks.length < total) {
+
+            blocks = new int[Math.max(total, 2 * blocks.length)];
+
+        }
+
+        int count = 0;
+
+        for (int i = 0; i < previous.getDirtyBlockCount(); i++) {
+
+            blocks[count++] = previous.getDirtyBlock(i);
+
+        }
+
+        for (int i = 0; i < current.getDirtyBlockCount(); i++) {
+
+            blocks[count++] = current.getDirtyBlock(i);
+
+        }
+
+        Arrays.sort(blocks, 0, count);
+        int unique = 0;
+
+        for (int i = 0; i < count; i++) {
+
+            if (unique == 0 || blocks[unique - 1] != blocks[i]) {
+
+                blocks[unique++] = blocks[i];
+
+            }
+
+        }
+
+        return unique;
+
+    }
+
+    /**
+     * Escreve um inteiro de tamanho variável, 7 bits por byte, com o bit
+     * mais significativo indicando que há mais bytes.
+     *
+     * @param value Valor não negativo.
+     */
+    private void putVarLong(long value) {
+
+        while ((value & ~0x7FL) != 0) {
+
+            frame.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+
+        }
+
+        frame.put((byte) value);
+
+    }
+
+    /**
+     * Completa o cabeçalho de um quadro, grava o quadro, comprimido se
+     * ficar menor, e o adiciona ao índice.
+     *
+     * @param frame Quadro entregue, posicionado no fim do conteúdo.
+     */
+    private void finish(ByteBuffer frame) {
+
+        byte type = frame.get(0);
+        int step = frame.getInt(1), length = frame.position() - FRAME_HEADER_BYTES;
+        ByteBuffer out = compress(frame, length);
+
+        if (out == frame) {
+
+            frame.putInt(5, length);
+            frame.flip();
+
+        } else {
+
+            type |= COMPRESSED;
+
+        }
+
+        out.put(0, type).putInt(1, step);
+
+        if (frames == steps.length) {
+
+            steps = Arrays.copyOf(steps, 2 * frames);
+            offsets = Arrays.copyOf(offsets, 2 * frames);
+            types = Arrays.copyOf(types, 2 * frames);
+
+        }
+
+        steps[frames] = step;
+        offsets[frames] = position;
+        types[frames] = type;
+        frames++;
+
+        try {
+
+            write(out);
+
+        } catch (IOException e) {
+
+            failure = e;
+
+        }
+
+    }
+
+    /**
+     * Comprime o conteúdo de um quadro.
+     *
+     * @param frame Quadro entregue.
+     * @param length Tamanho do conteúdo.
+     * @return ByteBuffer O quadro comprimido, pronto para escrita, ou o
+     *         próprio quadro se a compressão não o reduzir.
+     */
+    private ByteBuffer compress(ByteBuffer frame, int length) {
+
+        byte[] output = compressed.array();
+        int start = FRAME_HEADER_BYTES + Integer.BYTES, limit = start + length - 1;
+
+        deflater.reset();
+        deflater.setInput(frame.array(), FRAME_HEADER_BYTES, length);
+        deflater.finish();
+
+        int size = start;
+
+        while (!deflater.finished() && size < limit) {
+
+            size += deflater.deflate(output, size, limit - size);
+
+        }
+
+        if (!deflater.finished()) {
+
+            return frame;
+
+        }
+
+        compressed.clear();
+        compressed.putInt(5, size - FRAME_HEADER_BYTES).putInt(FRAME_HEADER_BYTES, length);
+        compressed.limit(size);
+        return compressed;
+
+    }
+
+    /**
+     * Escreve um buffer inteiro no arquivo.
+     *
+     * @param buffer Conteúdo, posicionado no início.
+     * @throws IOException Se a escrita falhar.
+     */
+    private void write(ByteBuffer buffer) throws IOException {
+
+        while (buffer.hasRemaining()) {
+
+            position += channel.write(buffer);
+
+        }
+
+    }
+
+    /**
+     * Espera a gravação dos quadros pendentes, grava o índice e o final
+     * do arquivo e o fecha.
+     *
+     * @throws IOException Se houve falha de escrita.
+     */
+    @Override
+    public void close() throws IOException {
+
+        pending.add(CLOSE);
+
+        try {
+
+            writer.join();
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+
+        }
+
+        try {
+
+            if (failure == null) {
+
+                ByteBuffer index = ByteBuffer.allocate(Integer.BYTES + frames * (Integer.BYTES + Long.BYTES + 1) + Long.BYTES + END.length);
+                long indexPosition = position;
+                index.putInt(frames);
+
+                for (int i = 0; i < frames; i++) {
+
+                    index.putInt(steps[i]).putLong(offsets[i]).put(types[i]);
+
+                }
+
+                index.putLong(indexPosition).put(END);
+                index.flip();
+                write(index);
+
+            }
+
+        } finally {
+
+            channel.close();
+
+        }
+
+        if (failure != null) {
+
+            throw failure;
+
+        }
+
+    }
+
+    /**
+     * Método acessador da quantidade de quadros gravados, válido depois
+     * de close.
+     *
+     * @return int Quadros chave e deltas.
+     */
+    public int getFrameCount() { return frames; }
+
+    /**
+     * Método acessador da quantidade de quadros chave gravados.
+     *
+     * @return int Quadros chave.
+     */
+    public int getKeyframeCount() { return keyframes; }
+
+    /**
+     * Método acessador do tamanho do arquivo, válido depois de close.
+     *
+     * @return long Bytes gravados.
+     */
+    public long getBytesWritten() { return position; }
+
+    /**
+     * Retorna quanto o arquivo ocuparia se todos os quadros fossem
+     * quadros chave sem compressão, para comparação. Válido depois de
+     * close.
+     *
+     * @return long Bytes de todos os quadros completos.
+     */
+    public long getFullFrameBytes() { return HEADER_BYTES + (long) frames * (FRAME_HEADER_BYTES + keyframeBytes); }
+
+}
@@ -0,0 +1,673 @@
+package Core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import Controllers.Field;
+import Utils.Species;
+
+/**
+ * Lê um arquivo gravado por FrameLog e reconstrói o campo de qualquer
+ * passo gravado. Os quadros são mapeados em memória em trechos de até
+ * SEGMENT_BYTES, cada um com quadros inteiros, de forma que as posições
+ * no arquivo são longas e arquivos maiores que 2 GiB são aceitos; apenas
+ * o cabeçalho e o índice são lidos para o heap. A busca de um passo
+ * parte do quadro chave mais próximo, ou do passo atual quando ele está
+ * mais perto, aplicando os deltas seguintes. Assim, avançar um passo custa
+ * apenas um delta e saltar para qualquer passo custa no máximo um
+ * intervalo entre quadros chave.
+ *
+ * Se o arquivo não foi fechado corretamente, o índice é reconstruído
+ * percorrendo os quadros completos.
+ *
+ * Junto com o campo, o leitor mantém a contagem de cada espécie em cada
+ * bloco e no campo inteiro, atualizada a cada posição alterada por um
+ * delta.
+ *
+ * O estado reconstruído é do próprio leitor, que não deve ser usado por
+ * mais de uma thread ao mesmo tempo. Os trechos mapeados são liberados
+ * quando o leitor é coletado.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class FrameLogReader {
+
+    /**
+     * Maior tamanho de um trecho mapeado, o limite de um ByteBuffer.
+     */
+    private static final long SEGMENT_BYTES = Integer.MAX_VALUE;
+
+    /**
+     * Trechos mapeados do arquivo e a posição de cada um no arquivo.
+     */
+    private ByteBuffer[] segments;
+    private long[] segmentStarts;
+
+    /**
+     * Trecho que contém cada quadro.
+     */
+    private int[] frameSegments;
+
+    /**
+     * Dimensões do campo.
+     */
+    private final int depth, width;
+
+    /**
+     * Blocos por linha de blocos do campo.
+     */
+    private final int blockCols;
+
+    /**
+     * Índice dos quadros: passo, posição e tipo.
+     */
+    private int[] steps;
+    private long[] offsets;
+    private byte[] types;
+    private int frames;
+
+    /**
+     * Código da espécie de cada célula no quadro atual, linha após linha.
+     */
+    private final byte[] cells;
+
+    /**
+     * Contagem de cada espécie em cada bloco do quadro atual,
+     * Species.COUNT valores por bloco, e no campo inteiro.
+     */
+    private final int[] blockCounts;
+    private final int[] population = new int[Species.COUNT];
+
+    /**
+     * Quadro atual, ou -1 antes da primeira busca.
+     */
+    private int current = -1;
+
+    /**
+     * Descompressor dos quadros comprimidos e o conteúdo descomprimido,
+     * reutilizado entre os quadros.
+     */
+    private final Inflater inflater = new Inflater(true);
+    private byte[] inflated = new byte[0];
+
+    /**
+     * Construtor que lê o cabeçalho e o índice e mapeia os quadros.
+     *
+     * @param path Caminho do arquivo.
+     * @throws IOException Se o arquivo não puder ser lido.
+     * @throws IllegalArgumentException Se o arquivo não for um registro de quadros desta versão.
+     */
+    public FrameLogReader(String path) throws IOException {
+
+        Path file = Paths.get(path);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+            long size = channel.size();
+
+            if (size < FrameLog.HEADER_BYTES) {
+
+                throw new IllegalArgumentException(path + " não é um registro de quadros: tem apenas " + size + " bytes.");
+
+            }
+
+            ByteBuffer header = read(channel, 0, FrameLog.HEADER_BYTES);
+            byte[] magic = new byte[FrameLog.MAGIC.length];
+            header.get(0, magic);
+
+            if (!Arrays.equals(magic, FrameLog.MAGIC)) {
+
+                throw new IllegalArgumentException(path + " não é um registro de quadros.");
+
+            }
+
+            int version = header.getInt(8);
+
+            if (version != FrameLog.FORMAT_VERSION) {
+
+                throw new IllegalArgumentException("Formato " + version + " de " + path + " não é suportado, esperado " + FrameLog.FORMAT_VERSION + ".");
+
+            }
+
+            depth = header.getInt(12);
+            width = header.getInt(16);
+            blockCols = (width + Field.BLOCK_SIZE - 1) / Field.BLOCK_SIZE;
+            cells = new byte[depth * width];
+            blockCounts = new int[((depth + Field.BLOCK_SIZE - 1) / Field.BLOCK_SIZE) * blockCols * Species.COUNT];
+
+            long end = readIndex(channel, size);
+
+            if (end < 0) {
+
+                end = scanIndex(channel, size);
+
+            }
+
+            if (frames == 0) {
+
+                throw new IllegalArgumentException(path + " não tem nenhum quadro.");
+
+            }
+
+            mapSegments(channel, end, path);
+
+        }
+
+    }
+
+    /**
+     * Lê um trecho do arquivo para o heap.
+     *
+     * @param channel Arquivo aberto.
+     * @param position Posição do trecho no arquivo.
+     * @param length Tamanho do trecho.
+     * @return ByteBuffer O conteúdo, pronto para leitura.
+     * @throws IOException Se o trecho não puder ser lido inteiro.
+     */
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        while (buffer.hasRemaining()) {
+
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+
+                throw new IOException("Fim inesperado do arquivo na posição " + (position + buffer.position()) + ".");
+
+            }
+
+        }
+
+        buffer.flip();
+        return buffer;
+
+    }
+
+    /**
+     * Lê o índice gravado no final do arquivo. O índice é descartado se
+     * as posições dos quadros não forem crescentes e anteriores a ele.
+     *
+     * @param channel Arquivo aberto.
+     * @param size Tamanho do arquivo.
+     * @return long A posição do índice, onde terminam os quadros, ou -1 se o arquivo não tiver um final válido.
+     * @throws IOException Se o arquivo não puder ser lido.
+     */
+    private long readIndex(FileChannel channel, long size) throws IOException {
+
+        long end = size - FrameLog.END.length;
+
+        if (end - Long.BYTES < FrameLog.HEADER_BYTES) {
+
+            return -1;
+
+        }
+
+        ByteBuffer tail = read(channel, end - Long.BYTES, Long.BYTES + FrameLog.END.length);
+        long indexPosition = tail.getLong();
+        byte[] magic = new byte[FrameLog.END.length];
+        tail.get(magic);
+
+        if (!Arrays.equals(magic, FrameLog.END) || indexPosition < FrameLog.HEADER_BYTES || indexPosition + Integer.BYTES > end - Long.BYTES
+                || end - Long.BYTES - indexPosition > Integer.MAX_VALUE) {
+
+            return -1;
+
+        }
+
+        ByteBuffer index = read(channel, indexPosition, (int) (end - Long.BYTES - indexPosition));
+        int count = index.getInt();
+
+        if (count < 0 || (long) count * (Integer.BYTES + Long.BYTES + 1) != index.remaining()) {
+
+            return -1;
+
+        }
+
+        frames = count;
+        steps = new int[frames];
+        offsets = new long[frames];
+        types = new byte[frames];
+
+        for (int i = 0; i < frames; i++) {
+
+            steps[i] = index.getInt();
+            offsets[i] = index.getLong();
+            types[i] = index.get();
+
+            if (offsets[i] < (i == 0 ? FrameLog.HEADER_BYTES : offsets[i - 1] + FrameLog.FRAME_HEADER_BYTES)
+                    || offsets[i] + FrameLog.FRAME_HEADER_BYTES > indexPosition) {
+
+                frames = 0;
+                return -1;
+
+            }
+
+        }
+
+        return indexPosition;
+
+    }
+
+    /**
+     * Reconstrói o índice percorrendo os quadros a partir do cabeçalho,
+     * até o primeiro quadro incompleto.
+     *
+     * @param channel Arquivo aberto.
+     * @param size Tamanho do arquivo.
+     * @return long A posição onde termina o último quadro completo.
+     * @throws IOException Se o arquivo não puder ser lido.
+     */
+    private long scanIndex(FileChannel channel, long size) throws IOException {
+
+        steps = new int[64];
+        offsets = new long[64];
+        types = new byte[64];
+        frames = 0;
+        long position = FrameLog.HEADER_BYTES;
+
+        while (position + FrameLog.FRAME_HEADER_BYTES <= size) {
+
+            ByteBuffer header = read(channel, position, FrameLog.FRAME_HEADER_BYTES);
+            byte type = header.get(0);
+            int length = header.getInt(5);
+
+            int kind = type & ~FrameLog.COMPRESSED;
+
+            if ((kind != FrameLog.KEYFRAME && kind != FrameLog.DELTA) || length < 0
+                    || position + FrameLog.FRAME_HEADER_BYTES + length > size || (frames == 0 && kind != FrameLog.KEYFRAME)) {
+
+                break;
+
+            }
+
+            if (frames == steps.length) {
+
+                steps = Arrays.copyOf(steps, 2 * frames);
+                offsets = Arrays.copyOf(offsets, 2 * frames);
+                types = Arrays.copyOf(types, 2 * frames);
+
+            }
+
+            steps[frames] = header.getInt(1);
+            offsets[frames] = position;
+            types[frames] = type;
+            frames++;
+            position += FrameLog.FRAME_HEADER_BYTES + length;
+
+        }
+
+        return position;
+
+    }
+
+    /**
+     * Mapeia os quadros em trechos de até SEGMENT_BYTES. Um trecho novo
+     * começa no quadro que não cabe inteiro no trecho atual, de forma que
+     * cada quadro é lido de um único trecho.
+     *
+     * @param channel Arquivo aberto.
+     * @param end Posição onde terminam os quadros.
+     * @param path Caminho do arquivo, para as mensagens de erro.
+     * @throws IOException Se o arquivo não puder ser mapeado.
+     * @throws IllegalArgumentException Se um quadro for maior que SEGMENT_BYTES.
+     */
+    private void mapSegments(FileChannel channel, long end, String path) throws IOException {
+
+        List<ByteBuffer> mapped = new ArrayList<ByteBuffer>();
+        List<Long> starts = new ArrayList<Long>();
+        frameSegments = new int[frames];
+        long start = offsets[0];
+
+        for (int i = 0; i < frames; i++) {
+
+            long frameEnd = i + 1 < frames ? offsets[i + 1] : end;
+
+            if (frameEnd - offsets[i] > SEGMENT_BYTES) {
+
+                throw new IllegalArgumentException("O quadro do passo " + steps[i] + " de " + path + " tem " + (frameEnd - offsets[i])
+                    + " bytes, mais que o limite de " + SEGMENT_BYTES + ".");
+
+            }
+
+            if (frameEnd - start > SEGMENT_BYTES) {
+
+                starts.add(start);
+                mapped.add(channel.map(FileChannel.MapMode.READ_ONLY, start, offsets[i] - start));
+                start = offsets[i];
+
+            }
+
+            frameSegments[i] = mapped.size();
+
+        }
+
+        starts.add(start);
+        mapped.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+        segments = mapped.toArray(new ByteBuffer[0]);
+        segmentStarts = new long[starts.size()];
+
+        for (int i = 0; i < segmentStarts.length; i++) {
+
+            segmentStarts[i] = starts.get(i);
+
+        }
+
+    }
+
+    /**
+     * Reconstrói o campo do último quadro gravado até um passo.
+     *
+     * @param step Passo desejado.
+     * @return int O passo do quadro reconstruído, que pode ser anterior ao desejado.
+     */
+    public int seek(int step) {
+
+        int target = frameAt(step);
+
+        if (current < 0 || target < current || target - keyframeBefore(target) < target - current) {
+
+            current = keyframeBefore(target);
+            applyKeyframe(current);
+
+        }
+
+        while (current < target) {
+
+            current++;
+
+            if (isKeyframe(current)) {
+
+                applyKeyframe(current);
+
+            } else {
+
+                applyDelta(current);
+
+            }
+
+        }
+
+        return steps[current];
+
+    }
+
+    /**
+     * Retorna o passo do último quadro chave até um passo. Buscar este
+     * passo custa apenas um quadro chave, sem nenhum delta, o que permite
+     * percorrer o registro rapidamente exibindo apenas os quadros chave.
+     *
+     * @param step Passo desejado.
+     * @return int O passo do quadro chave.
+     */
+    public int getKeyframeStep(int step) { return steps[keyframeBefore(frameAt(step))]; }
+
+    /**
+     * Procura o último quadro com passo menor ou igual a um passo.
+     *
+     * @param step Passo desejado.
+     * @return int O índice do quadro, ou 0 se o passo for anterior ao primeiro.
+     */
+    private int frameAt(int step) {
+
+        int found = Arrays.binarySearch(steps, 0, frames, step);
+        return found >= 0 ? found : Math.max(0, -found - 2);
+
+    }
+
+    /**
+     * Procura o último quadro chave até um quadro.
+     *
+     * @param frame Índice do quadro.
+     * @return int O índice do quadro chave.
+     */
+    private int keyframeBefore(int frame) {
+
+        while (frame > 0 && !isKeyframe(frame)) {
+
+            frame--;
+
+        }
+
+        return frame;
+
+    }
+
+    /**
+     * Verifica se um quadro é um quadro chave.
+     *
+     * @param frame Índice do quadro.
+     * @return true Se o quadro contém o campo inteiro.
+     */
+    private boolean isKeyframe(int frame) { return (types[frame] & ~FrameLog.COMPRESSED) == FrameLog.KEYFRAME; }
+
+    /**
+     * Retorna o conteúdo de um quadro, descomprimido se necessário.
+     *
+     * @param frame Índice do quadro.
+     * @return ByteBuffer O conteúdo, posicionado no início.
+     * @throws IllegalStateException Se o conteúdo comprimido for inválido.
+     */
+    private ByteBuffer payload(int frame) {
+
+        int segment = frameSegments[frame];
+        int start = (int) (offsets[frame] - segmentStarts[segment]) + FrameLog.FRAME_HEADER_BYTES;
+        ByteBuffer in = segments[segment].duplicate();
+        in.position(start);
+
+        if ((types[frame] & FrameLog.COMPRESSED) == 0) {
+
+            return in;
+
+        }
+
+        int length = in.getInt();
+
+        if (inflated.length < length) {
+
+            inflated = new byte[length];
+
+        }
+
+        in.limit(start + in.getInt(start - Integer.BYTES));
+        inflater.reset();
+        inflater.setInput(in);
+
+        try {
+
+            for (int size = 0; size < length; size += inflater.inflate(inflated, size, length - size)) {
+
+                if (inflater.needsInput()) {
+
+                    throw new IllegalStateException("Quadro " + steps[frame] + " incompleto.");
+
+                }
+
+            }
+
+        } catch (DataFormatException e) {
+
+            throw new IllegalStateException("Quadro " + steps[frame] + " inválido: " + e.getMessage());
+
+        }
+
+        return ByteBuffer.wrap(inflated, 0, length);
+
+    }
+
+    /**
+     * Substitui o campo atual pelo conteúdo de um quadro chave.
+     *
+     * @param frame Índice do quadro.
+     */
+    private void applyKeyframe(int frame) {
+
+        ByteBuffer in = payload(frame);
+
+        for (int cell = 0; cell < cells.length; cell += 4) {
+
+            int packed = in.get();
+
+            for (int i = 0; i < 4 && cell + i < cells.length; i++) {
+
+                cells[cell + i] = (byte) ((packed >>> (2 * i)) & 3);
+
+            }
+
+        }
+
+        Arrays.fill(blockCounts, 0);
+        Arrays.fill(population, 0);
+
+        for (int row = 0; row < depth; row++) {
+
+            for (int col = 0; col < width; col++) {
+
+                int species = cells[row * width + col];
+                blockCounts[((row / Field.BLOCK_SIZE) * blockCols + col / Field.BLOCK_SIZE) * Species.COUNT + species]++;
+                population[species]++;
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Aplica as mudanças de um delta ao campo atual.
+     *
+     * @param frame Índice do quadro.
+     */
+    private void applyDelta(int frame) {
+
+        ByteBuffer in = payload(frame);
+        long index = -1;
+
+        for (int changes = in.getInt(); changes > 0; changes--) {
+
+            long value = getVarLong(in);
+            index += (value >>> 2) + 1;
+
+            int block = (int) (index / FrameLog.BLOCK_CELLS), inner = (int) (index % FrameLog.BLOCK_CELLS);
+            int row = (block / blockCols) * Field.BLOCK_SIZE + inner / Field.BLOCK_SIZE;
+            int col = (block % blockCols) * Field.BLOCK_SIZE + inner % Field.BLOCK_SIZE;
+            int old = cells[row * width + col], species = (int) (value & 3);
+            cells[row * width + col] = (byte) species;
+            blockCounts[block * Species.COUNT + old]--;
+            blockCounts[block * Species.COUNT + species]++;
+            population[old]--;
+            population[species]++;
+
+        }
+
+    }
+
+    /**
+     * Lê um inteiro de tamanho variável escrito por FrameLog.
+     *
+     * @param in Origem.
+     * @return long O valor lido.
+     */
+    private static long getVarLong(ByteBuffer in) {
+
+        long value = 0;
+        int shift = 0;
+        byte b;
+
+        do {
+
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+
+        } while (b < 0);
+
+        return value;
+
+    }
+
+    /**
+     * Retorna o código da espécie de uma célula no quadro atual.
+     *
+     * @param row Linha da célula.
+     * @param col Coluna da célula.
+     * @return int O código, como em Species.
+     */
+    public int getSpeciesAt(int row, int col) { return cells[row * width + col]; }
+
+    /**
+     * Método acessador dos códigos do quadro atual. O vetor é do leitor
+     * e muda a cada busca.
+     *
+     * @return byte[] Um código por célula, linha após linha.
+     */
+    public byte[] getCells() { return cells; }
+
+    /**
+     * Método acessador das contagens por bloco do quadro atual. O vetor é
+     * do leitor e muda a cada busca.
+     *
+     * @return int[] Species.COUNT contagens por bloco, na ordem dos blocos de Field.
+     */
+    public int[] getBlockCounts() { return blockCounts; }
+
+    /**
+     * Retorna a população de uma espécie no quadro atual.
+     *
+     * @param species Código da espécie.
+     * @return int A quantidade de posições com a espécie.
+     */
+    public int getPopulation(int species) { return population[species]; }
+
+    /**
+     * Método acessador da profundidade do campo.
+     *
+     * @return int A profundidade.
+     */
+    public int getDepth() { return depth; }
+
+    /**
+     * Método acessador da largura do campo.
+     *
+     * @return int A largura.
+     */
+    public int getWidth() { return width; }
+
+    /**
+     * Método acessador da quantidade de quadros.
+     *
+     * @return int Quadros chave e deltas.
+     */
+    public int getFrameCount() { return frames; }
+
+    /**
+     * Método acessador do passo do primeiro quadro.
+     *
+     * @return int O primeiro passo gravado.
+     */
+    public int getFirstStep() { return steps[0]; }
+
+    /**
+     * Método acessador do passo do último quadro.
+     *
+     * @return int O último passo gravado.
+     */
+    public int getLastStep() { return steps[frames - 1]; }
+
+    /**
+     * Método acessador do passo do quadro atual.
+     *
+     * @return int O passo, ou -1 antes da primeira busca.
+     */
+    public int getCurrentStep() { return current < 0 ? -1 : steps[current]; }
+
+}
@@ -0,0 +1,554 @@
+package Core;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import Actors.SpeciesProfile;
+import Controllers.FieldStats;
+import Utils.RandomService;
+import Utils.RandomSource;
+import Utils.Species;
+import View.HeadlessView;
+
+/**
+ * Varre o espaço de parâmetros das espécies executando simulações sem
+ * interface em paralelo. Cada ponto da varredura é um SpeciesProfile,
+ * obtido do perfil DEFAULT alterando os parâmetros informados, e cada
+ * ponto é executado várias vezes com sementes diferentes.
+ *
+ * Os pontos são gerados em grade, com níveis igualmente espaçados de cada
+ * parâmetro combinados entre si, ou por hipercubo latino, com uma amostra
+ * em cada faixa de cada parâmetro. Uma execução é interrompida assim que
+ * a condição de corte é atingida: a extinção de qualquer espécie (any) ou
+ * a perda de viabilidade do campo (viability).
+ *
+ * Uso: java Core/ParameterSweep profundidade largura passos [semente]
+ *          --param=nome:mín:máx[:níveis] ... [--mode=grid|lhs] [--samples=N]
+ *          [--replicates=R] [--threads=N] [--cutoff=any|viability] [--out=arquivo]
+ *
+ * A réplica r de todos os pontos usa a semente semente + r, de modo que
+ * os pontos são comparados sob os mesmos sorteios. O resultado é uma
+ * tabela CSV com uma linha por ponto e réplica, na ordem dos pontos.
+ *
+ * Os limites de cada faixa são validados pelo SpeciesProfile antes da
+ * varredura. Se ainda assim uma execução falhar, a falha é registrada na
+ * coluna error da sua linha e as demais execuções continuam.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class ParameterSweep {
+
+    /**
+     * Quantidade de níveis de cada parâmetro na grade, quando não informada.
+     */
+    public static final int DEFAULT_LEVELS = 3;
+
+    /**
+     * Fluxo de randomização usado para sortear o hipercubo latino.
+     */
+    private static final long SAMPLING_STREAM = 7;
+
+    /**
+     * Método chamado pela JVM para execução da varredura.
+     *
+     * @param args Profundidade, largura, passos, semente opcional e opções.
+     */
+    public static void main(String[] args) {
+
+        System.setProperty("java.awt.headless", "true");
+
+        int depth, width, steps, samples, replicates, threads;
+        long seed;
+        String mode = "grid", cutoff = "any", out = null;
+        List<Axis> axes = new ArrayList<Axis>();
+        List<String> positional = new ArrayList<String>();
+        threads = Runtime.getRuntime().availableProcessors();
+        samples = 10;
+        replicates = 1;
+
+        try {
+
+            for (String arg : args) {
+
+                if (arg.startsWith("--param=")) {
+
+                    axes.add(Axis.parse(arg.substring("--param=".length())));
+
+                } else if (arg.startsWith("--mode=")) {
+
+                    mode = arg.substring("--mode=".length());
+
+                } else if (arg.startsWith("--samples=")) {
+
+                    samples = Integer.parseInt(arg.substring("--samples=".length()));
+
+                } else if (arg.startsWith("--replicates=")) {
+
+                    replicates = Integer.parseInt(arg.substring("--replicates=".length()));
+
+                } else if (arg.startsWith("--threads=")) {
+
+                    threads = Integer.parseInt(arg.substring("--threads=".length()));
+
+                } else if (arg.startsWith("--cutoff=")) {
+
+                    cutoff = arg.substring("--cutoff=".length());
+
+                } else if (arg.startsWith("--out=")) {
+
+                    out = arg.substring("--out=".length());
+
+                } else {
+
+                    positional.add(arg);
+
+                }
+
+            }
+
+            if (positional.size() < 3) {
+
+                throw new IllegalArgumentException("Informe profundidade, largura e passos.");
+
+            }
+
+            if (axes.isEmpty()) {
+
+                throw new IllegalArgumentException("Informe ao menos um parâmetro com --param.");
+
+            }
+
+            if (!mode.equals("grid") && !mode.equals("lhs")) {
+
+                throw new IllegalArgumentException("Modo desconhecido: " + mode);
+
+            }
+
+            if (!cutoff.equals("any") && !cutoff.equals("viability")) {
+
+                throw new IllegalArgumentException("Corte desconhecido: " + cutoff);
+
+            }
+
+            depth = Integer.parseInt(positional.get(0));
+            width = Integer.parseInt(positional.get(1));
+            steps = Integer.parseInt(positional.get(2));
+            seed = positional.size() > 3 ? Long.parseLong(positional.get(3)) : System.nanoTime();
+
+        } catch (IllegalArgumentException e) {
+
+            System.out.println(e.getMessage());
+            System.out.println("Uso: ParameterSweep profundidade largura passos [semente] --param=nome:mín:máx[:níveis] ..."
+                + " [--mode=grid|lhs] [--samples=N] [--replicates=R] [--threads=N] [--cutoff=any|viability] [--out=arquivo]");
+            System.out.println("Parâmetros: " + String.join(" ", SpeciesProfile.getParameterNames()));
+            return;
+
+        }
+
+        List<double[]> points = mode.equals("grid") ? grid(axes) : latinHypercube(axes, samples, new RandomService(seed).stream(SAMPLING_STREAM));
+        Result[] results = new Result[points.size() * replicates];
+        boolean anyExtinction = cutoff.equals("any");
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(results.length);
+
+        for (int point = 0; point < points.size(); point++) {
+
+            SpeciesProfile profile = toProfile(axes, points.get(point));
+
+            for (int replicate = 0; replicate < replicates; replicate++) {
+
+                int index = point * replicates + replicate;
+                long runSeed = seed + replicate;
+                tasks.add(() -> {
+                    try {
+                        results[index] = runOne(depth, width, steps, runSeed, profile, anyExtinction);
+                    } catch (RuntimeException e) {
+                        results[index] = new Result(runSeed);
+                        results[index].error = e.toString();
+                    }
+                    return null;
+                });
+
+            }
+
+        }
+
+        long start = System.nanoTime();
+
+        try {
+
+            for (Future<Void> result : pool.invokeAll(tasks)) {
+
+                result.get();
+
+            }
+
+        } catch (InterruptedException | ExecutionException e) {
+
+            throw new IllegalStateException("Falha em uma das execuções.", e);
+
+        } finally {
+
+            pool.shutdown();
+
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long actorSteps = 0;
+        int failures = 0;
+
+        for (Result result : results) {
+
+            actorSteps += result.actorSteps;
+
+            if (result.error != null) {
+
+                failures++;
+
+            }
+
+        }
+
+        System.out.println("Campo: " + depth + "x" + width + " passos: " + steps + " modo: " + mode + " pontos: " + points.size()
+            + " réplicas: " + replicates + " threads: " + threads + " corte: " + cutoff + " semente: " + seed);
+        System.out.printf("Tempo: %.3f s%n", seconds);
+        System.out.printf("Execuções/s: %.2f%n", results.length / seconds);
+        System.out.printf("Atores-passo/s: %.0f%n", actorSteps / seconds);
+
+        if (failures > 0) {
+
+            System.out.println("Execuções com falha: " + failures + " de " + results.length + ", veja a coluna error.");
+
+        }
+
+        if (out == null) {
+
+            writeTable(System.out, axes, points, replicates, results);
+            return;
+
+        }
+
+        try (PrintStream file = new PrintStream(out)) {
+
+            writeTable(file, axes, points, replicates, results);
+
+        } catch (FileNotFoundException e) {
+
+            System.out.println("Não foi possível escrever " + out + ": " + e.getMessage());
+
+        }
+
+    }
+
+    /**
+     * Gera todas as combinações dos níveis de cada parâmetro. O último
+     * parâmetro informado é o que varia mais rápido.
+     *
+     * @param axes Parâmetros da varredura.
+     * @return List Os pontos, com um valor por parâmetro.
+     */
+    private static List<double[]> grid(List<Axis> axes) {
+
+        List<double[]> points = new ArrayList<double[]>();
+        int[] level = new int[axes.size()];
+
+        while (true) {
+
+            double[] point = new double[axes.size()];
+
+            for (int a = 0; a < axes.size(); a++) {
+
+                Axis axis = axes.get(a);
+                point[a] = axis.value(axis.levels > 1 ? (double) level[a] / (axis.levels - 1) : 0);
+
+            }
+
+            points.add(point);
+            int a = axes.size() - 1;
+
+            while (a >= 0 && ++level[a] == axes.get(a).levels) {
+
+                level[a--] = 0;
+
+            }
+
+            if (a < 0) {
+
+                return points;
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Gera uma amostra por hipercubo latino: a faixa de cada parâmetro é
+     * dividida em tantas partes quanto amostras, cada parte é usada por
+     * exatamente uma amostra, e a posição dentro da parte é sorteada.
+     *
+     * @param axes Parâmetros da varredura.
+     * @param samples Quantidade de amostras.
+     * @param rand Fonte de números aleatórios da amostragem.
+     * @return List Os pontos, com um valor por parâmetro.
+     */
+    private static List<double[]> latinHypercube(List<Axis> axes, int samples, RandomSource rand) {
+
+        List<double[]> points = new ArrayList<double[]>();
+
+        for (int s = 0; s < samples; s++) {
+
+            points.add(new double[axes.size()]);
+
+        }
+
+        for (int a = 0; a < axes.size(); a++) {
+
+            List<Integer> strata = new ArrayList<Integer>();
+
+            for (int s = 0; s < samples; s++) {
+
+                strata.add(s);
+
+            }
+
+            rand.shuffle(strata);
+
+            for (int s = 0; s < samples; s++) {
+
+                points.get(s)[a] = axes.get(a).value((strata.get(s) + rand.nextDouble()) / samples);
+
+            }
+
+        }
+
+        return points;
+
+    }
+
+    /**
+     * Cria o perfil de um ponto a partir do perfil DEFAULT.
+     *
+     * @param axes Parâmetros da varredura.
+     * @param point Valor de cada parâmetro.
+     * @return SpeciesProfile O perfil do ponto.
+     */
+    private static SpeciesProfile toProfile(List<Axis> axes, double[] point) {
+
+        SpeciesProfile profile = SpeciesProfile.DEFAULT;
+
+        for (int a = 0; a < axes.size(); a++) {
+
+            profile = profile.with(axes.get(a).name, point[a]);
+
+        }
+
+        return profile;
+
+    }
+
+    /**
+     * Executa uma simulação isolada até o último passo ou até o corte.
+     *
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @param steps Quantidade máxima de passos.
+     * @param seed Semente da execução.
+     * @param profile Parâmetros das espécies.
+     * @param anyExtinction Se a execução para na primeira extinção.
+     * @return Result O resultado da execução.
+     */
+    private static Result runOne(int depth, int width, int steps, long seed, SpeciesProfile profile, boolean anyExtinction) {
+
+        Simulator simulator = new Simulator(depth, width, new HeadlessView(), new RandomService(seed), profile);
+        FieldStats stats = simulator.getStats();
+        Result result = new Result(seed);
+        boolean running = true;
+        result.record(0, stats);
+
+        while (running && simulator.getStep() < steps) {
+
+            running = simulator.runStep();
+
+            if (running) {
+
+                running = !(result.record(simulator.getStep(), stats) && anyExtinction);
+
+            }
+
+        }
+
+        result.steps = simulator.getStep();
+        result.cut = result.steps < steps;
+        result.actorSteps = simulator.getActorSteps();
+
+        for (int species = 1; species < Species.COUNT; species++) {
+
+            result.population[species] = stats.getPopulation(species);
+
+        }
+
+        return result;
+
+    }
+
+    /**
+     * Escreve a tabela de resultados em formato CSV.
+     *
+     * @param out Saída da tabela.
+     * @param axes Parâmetros da varredura.
+     * @param points Pontos da varredura.
+     * @param replicates Quantidade de réplicas por ponto.
+     * @param results Resultados na ordem ponto, réplica.
+     */
+    private static void writeTable(PrintStream out, List<Axis> axes, List<double[]> points, int replicates, Result[] results) {
+
+        out.print("point,replicate,seed");
+
+        for (Axis axis : axes) {
+
+            out.print("," + axis.name);
+
+        }
+
+        out.print(",steps,cut");
+
+        for (int species = 1; species < Species.COUNT; species++) {
+
+            out.print(",extinction_" + Species.getName(species));
+
+        }
+
+        for (int species = 1; species < Species.COUNT; species++) {
+
+            out.print(",final_" + Species.getName(species));
+
+        }
+
+        out.println(",error");
+
+        for (int i = 0; i < results.length; i++) {
+
+            Result result = results[i];
+            double[] point = points.get(i / replicates);
+            out.print((i / replicates) + "," + (i % replicates) + "," + result.seed);
+
+            for (int a = 0; a < axes.size(); a++) {
+
+                out.print("," + (SpeciesProfile.isInteger(axes.get(a).name) ? String.valueOf(Math.round(point[a])) : String.valueOf(point[a])));
+
+            }
+
+            out.print("," + result.steps + "," + result.cut);
+
+            for (int species = 1; species < Species.COUNT; species++) {
+
+                out.print("," + result.extinction[species]);
+
+            }
+
+            for (int species = 1; species < Species.COUNT; species++) {
+
+                out.print("," + result.population[species]);
+
+            }
+
+            out.println("," + (result.error == null ? "" : "\"" + result.error.replace("\"", "\"\"") + "\""));
+
+        }
+
+    }
+
+    /**
+     * Faixa de valores de um parâmetro da varredura.
+     */
+    private static class Axis {
+
+        private final String name;
+        private final double min, max;
+        private final int levels;
+
+        private Axis(String name, double min, double max, int levels) {
+            SpeciesProfile.DEFAULT.with(name, min).with(name, max);
+            this.name = name;
+            this.min = min;
+            this.max = max;
+            this.levels = Math.max(1, levels);
+        }
+
+        /**
+         * Lê uma faixa no formato nome:mín:máx[:níveis].
+         *
+         * @param spec Texto da opção --param.
+         * @return Axis A faixa lida.
+         * @throws IllegalArgumentException Se o formato for inválido ou algum limite estiver fora da faixa do parâmetro.
+         */
+        private static Axis parse(String spec) {
+            String[] parts = spec.split(":");
+            if (parts.length < 3 || parts.length > 4) {
+                throw new IllegalArgumentException("Parâmetro inválido: " + spec + ", use nome:mín:máx[:níveis].");
+            }
+            int levels = parts.length > 3 ? Integer.parseInt(parts[3]) : DEFAULT_LEVELS;
+            return new Axis(parts[0], Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), levels);
+        }
+
+        /**
+         * Retorna o valor em uma posição relativa da faixa.
+         *
+         * @param fraction Posição entre 0 (mínimo) e 1 (máximo).
+         * @return double O valor, arredondado se o parâmetro for inteiro.
+         */
+        private double value(double fraction) {
+            double value = min + (max - min) * fraction;
+            return SpeciesProfile.isInteger(name) ? Math.round(value) : value;
+        }
+    }
+
+    /**
+     * Resultado de uma execução, escrito apenas pela thread da execução.
+     */
+    private static class Result {
+
+        private final long seed;
+        private final int[] extinction = new int[Species.COUNT];
+        private final int[] population = new int[Species.COUNT];
+        private int steps;
+        private boolean cut;
+        private long actorSteps;
+        private String error;
+
+        private Result(long seed) {
+            this.seed = seed;
+            Arrays.fill(extinction, -1);
+        }
+
+        /**
+         * Registra os passos de extinção de um passo.
+         *
+         * @param step Passo registrado.
+         * @param stats Contadores de população da execução.
+         * @return true Se alguma espécie está extinta.
+         */
+        private boolean record(int step, FieldStats stats) {
+            boolean extinct = false;
+            for (int species = 1; species < Species.COUNT; species++) {
+                if (stats.getPopulation(species) == 0) {
+                    extinct = true;
+                    if (extinction[species] < 0) {
+                        extinction[species] = step;
+                    }
+                }
+            }
+            return extinct;
+        }
+    }
+
+}
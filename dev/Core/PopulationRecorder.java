@@ -0,0 +1,427 @@
+package Core;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import Controllers.FieldStats;
+import Utils.Species;
+
+/**
+ * Grava a série temporal da população de uma simulação: a cada passo, o
+ * número do passo, a população de cada espécie, o nível de comida dos
+ * coelhos e a estação atual.
+ *
+ * A thread da simulação apenas copia os valores para uma fila circular
+ * de tamanho fixo, sem travas e sem alocar memória, e uma thread em
+ * segundo plano retira os registros em lotes e os escreve no arquivo.
+ * Há um único produtor e um único consumidor, por isso bastam dois
+ * contadores atômicos. Se a fila estiver cheia, porque o disco não
+ * acompanha a simulação, o registro é descartado e contado em
+ * getDroppedCount; a simulação nunca espera pela escrita.
+ *
+ * O arquivo pode ser um CSV, com uma linha por passo, ou um arquivo
+ * binário em colunas (FORMAT_BINARY), mais compacto e rápido de ler. No
+ * CSV, se algum registro foi descartado, a última linha é um aviso com a
+ * quantidade, começando por DROPPED_PREFIX, para que a falta dos passos
+ * seja vista também por quem lê apenas o arquivo:
+ *
+ *   "PPOOSERI", versão, quantidade de espécies e o nome de cada uma, e
+ *   então blocos marcados por um byte: 'S' define o código de uma estação
+ *   (código e nome), 'B' é um lote (quantidade n, seguida das colunas de
+ *   n passos, n populações de cada espécie, n níveis de comida e n
+ *   códigos de estação) e 'E' encerra o arquivo com a quantidade de
+ *   registros descartados.
+ *
+ * Inteiros em big-endian, textos como em DataOutputStream.writeUTF.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class PopulationRecorder implements AutoCloseable {
+
+    /**
+     * Formato CSV, com cabeçalho e uma linha por passo.
+     */
+    public static final String FORMAT_CSV = "csv";
+
+    /**
+     * Formato binário em colunas.
+     */
+    public static final String FORMAT_BINARY = "bin";
+
+    /**
+     * Versão do formato binário.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * Início da linha de aviso de registros descartados no CSV.
+     */
+    public static final String DROPPED_PREFIX = "# descartados: ";
+
+    /**
+     * Capacidade padrão da fila, em passos.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * Espera da thread de escrita quando a fila está vazia.
+     */
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Valores inteiros de cada registro: passo, uma população por espécie
+     * e o nível de comida.
+     */
+    private static final int FIELDS = Species.COUNT + 1;
+
+    /**
+     * Registros da fila, FIELDS inteiros por posição.
+     */
+    private final int[] values;
+
+    /**
+     * Estação de cada posição da fila. Os nomes são constantes das
+     * estações, de forma que guardá-los não aloca memória.
+     */
+    private final String[] seasons;
+
+    /**
+     * Capacidade da fila menos um; a capacidade é potência de dois.
+     */
+    private final int mask;
+
+    /**
+     * Quantidade de registros publicados pelo produtor.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Quantidade de registros consumidos pela thread de escrita.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Última leitura de head feita pelo produtor, que só é relida quando
+     * a fila parece cheia.
+     */
+    private long cachedHead;
+
+    /**
+     * Registros descartados porque a fila estava cheia.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Formato do arquivo.
+     */
+    private final String format;
+
+    /**
+     * Thread de escrita.
+     */
+    private final Thread writer;
+
+    /**
+     * Indica que não haverá novos registros.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Falha de escrita, se houver.
+     */
+    private volatile IOException failure;
+
+    /**
+     * Construtor com a capacidade padrão, que escolhe o formato pela
+     * extensão: ".bin" para o binário, CSV para as demais.
+     *
+     * @param path Caminho do arquivo.
+     * @throws IOException Se o arquivo não puder ser criado.
+     */
+    public PopulationRecorder(String path) throws IOException {
+
+        this(path, path.endsWith("." + FORMAT_BINARY) ? FORMAT_BINARY : FORMAT_CSV, DEFAULT_CAPACITY);
+
+    }
+
+    /**
+     * Construtor com formato e capacidade definidos. Cria o arquivo e
+     * inicia a thread de escrita.
+     *
+     * @param path Caminho do arquivo.
+     * @param format FORMAT_CSV ou FORMAT_BINARY.
+     * @param capacity Capacidade mínima da fila, em passos.
+     * @throws IOException Se o arquivo não puder ser criado.
+     * @throws IllegalArgumentException Se o formato for desconhecido ou a capacidade não for positiva.
+     */
+    public PopulationRecorder(String path, String format, int capacity) throws IOException {
+
+        if (!FORMAT_CSV.equals(format) && !FORMAT_BINARY.equals(format)) {
+
+            throw new IllegalArgumentException("Formato desconhecido: " + format);
+
+        }
+
+        if (capacity <= 0 || capacity > 1 << 30) {
+
+            throw new IllegalArgumentException("Capacidade inválida: " + capacity);
+
+        }
+
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.values = new int[size * FIELDS];
+        this.seasons = new String[size];
+        this.mask = size - 1;
+        this.format = format;
+
+        FileOutputStream out = new FileOutputStream(path);
+        this.writer = new Thread(() -> drain(out), "population-recorder");
+        this.writer.setDaemon(true);
+        this.writer.start();
+
+    }
+
+    /**
+     * Registra um passo. Chamado apenas pela thread da simulação; nunca
+     * espera e não aloca memória.
+     *
+     * @param step Passo da simulação.
+     * @param stats Contadores de população já confirmados no passo.
+     * @param foodLevel Nível de comida dos coelhos.
+     * @param season Nome da estação atual.
+     * @return true Se o registro entrou na fila, false se foi descartado.
+     */
+    public boolean record(int step, FieldStats stats, int foodLevel, String season) {
+
+        long position = tail.get();
+
+        if (position - cachedHead > mask) {
+
+            cachedHead = head.get();
+
+            if (position - cachedHead > mask) {
+
+                dropped.incrementAndGet();
+                return false;
+
+            }
+
+        }
+
+        int slot = (int) position & mask, base = slot * FIELDS;
+        values[base] = step;
+
+        for (int species = 1; species < Species.COUNT; species++) {
+
+            values[base + species] = stats.getPopulation(species);
+
+        }
+
+        values[base + Species.COUNT] = foodLevel;
+        seasons[slot] = season;
+        tail.lazySet(position + 1);
+        return true;
+
+    }
+
+    /**
+     * Encerra a gravação: espera a thread de escrita gravar os registros
+     * pendentes e fechar o arquivo.
+     *
+     * @throws IOException Se houve falha de escrita.
+     */
+    @Override
+    public void close() throws IOException {
+
+        closed = true;
+        LockSupport.unpark(writer);
+
+        try {
+
+            writer.join();
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+
+        }
+
+        if (failure != null) {
+
+            throw failure;
+
+        }
+
+    }
+
+    /**
+     * Método acessador da quantidade de registros descartados.
+     *
+     * @return long Registros que não couberam na fila.
+     */
+    public long getDroppedCount() { return dropped.get(); }
+
+    /**
+     * Método acessador da quantidade de registros aceitos na fila.
+     *
+     * @return long Registros aceitos, gravados ou pendentes.
+     */
+    public long getRecordedCount() { return tail.get(); }
+
+    /**
+     * Laço da thread de escrita: retira os registros disponíveis em um
+     * único lote, escreve o lote e espera um pouco quando a fila está vazia.
+     *
+     * @param file Arquivo de destino.
+     */
+    private void drain(FileOutputStream file) {
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+
+            Sink sink = FORMAT_BINARY.equals(format) ? new BinarySink(out) : new CsvSink(out);
+
+            while (true) {
+
+                boolean finished = closed;
+                long from = head.get(), to = tail.get();
+
+                if (from < to) {
+
+                    sink.batch(from, to);
+                    head.lazySet(to);
+
+                } else if (finished) {
+
+                    break;
+
+                } else {
+
+                    out.flush();
+                    LockSupport.parkNanos(this, IDLE_NANOS);
+
+                }
+
+            }
+
+            sink.finish();
+
+        } catch (IOException e) {
+
+            failure = e;
+
+        }
+
+    }
+
+    /**
+     * Escrita de um lote de registros em um formato.
+     */
+    private interface Sink {
+        void batch(long from, long to) throws IOException;
+        void finish() throws IOException;
+    }
+
+    /**
+     * Escrita em CSV.
+     */
+    private class CsvSink implements Sink {
+
+        private final BufferedWriter out;
+
+        private CsvSink(DataOutputStream stream) throws IOException {
+            out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+            out.write("passo");
+            for (int species = 1; species < Species.COUNT; species++) {
+                out.write(',');
+                out.write(Species.getName(species));
+            }
+            out.write(",comida,estação");
+            out.newLine();
+        }
+
+        public void batch(long from, long to) throws IOException {
+            for (long position = from; position < to; position++) {
+                int slot = (int) position & mask, base = slot * FIELDS;
+                out.write(Integer.toString(values[base]));
+                for (int i = 1; i <= Species.COUNT; i++) {
+                    out.write(',');
+                    out.write(Integer.toString(values[base + i]));
+                }
+                out.write(',');
+                out.write(seasons[slot]);
+                out.newLine();
+            }
+            out.flush();
+        }
+
+        public void finish() throws IOException {
+            long count = dropped.get();
+            if (count > 0) {
+                out.write(DROPPED_PREFIX + count + " registros, a fila estava cheia");
+                out.newLine();
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Escrita no formato binário em colunas.
+     */
+    private class BinarySink implements Sink {
+
+        private final DataOutputStream out;
+        private final List<String> seasonCodes = new ArrayList<String>();
+
+        private BinarySink(DataOutputStream out) throws IOException {
+            this.out = out;
+            out.writeBytes("PPOOSERI");
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(Species.COUNT - 1);
+            for (int species = 1; species < Species.COUNT; species++) {
+                out.writeUTF(Species.getName(species));
+            }
+        }
+
+        public void batch(long from, long to) throws IOException {
+            int n = (int) (to - from);
+            byte[] codes = new byte[n];
+            for (int i = 0; i < n; i++) {
+                String season = seasons[(int) (from + i) & mask];
+                int code = seasonCodes.indexOf(season);
+                if (code < 0) {
+                    code = seasonCodes.size();
+                    seasonCodes.add(season);
+                    out.writeByte('S');
+                    out.writeByte(code);
+                    out.writeUTF(season);
+                }
+                codes[i] = (byte) code;
+            }
+            out.writeByte('B');
+            out.writeInt(n);
+            for (int field = 0; field < FIELDS; field++) {
+                for (long position = from; position < to; position++) {
+                    out.writeInt(values[((int) position & mask) * FIELDS + field]);
+                }
+            }
+            out.write(codes);
+        }
+
+        public void finish() throws IOException {
+            out.writeByte('E');
+            out.writeLong(dropped.get());
+        }
+    }
+
+}
@@ -1,5 +1,10 @@
 package Core;
 
+import java.io.IOException;
+import java.util.Arrays;
+
+import View.ReplayView;
+
 /**
  * Classe responsável pela inicialização das rotinas de simulação.
  * Sua única serventia é ser chamado pela JVM e instanciar um Simulator
@@ -11,13 +16,54 @@ package Core;
 public class Principal {
 
   /**
-   * Método chamado pela JVM para execução do código.
+   * Método chamado pela JVM para execução do código. Com o argumento
+   * --headless a simulação é executada em lote, sem interface gráfica, e
+   * com --replay arquivo um registro de quadros é reproduzido. Na
+   * interface gráfica, --fps quadros define a taxa de quadros exibidos.
    * 
    * @param args Argumentos via cli.
    */
   public static void main(String[] args) {
 
+    if (args.length > 0 && args[0].equals("--headless")) {
+
+      BatchRunner.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+
+    }
+
+    if (args.length > 1 && args[0].equals("--replay")) {
+
+      try {
+
+        new ReplayView(args[1]);
+
+      } catch (IOException | IllegalArgumentException e) {
+
+        System.out.println("Não foi possível abrir " + args[1] + ": " + e.getMessage());
+
+      }
+
+      return;
+
+    }
+
     Simulator simulator = new Simulator();
+
+    if (args.length > 1 && args[0].equals("--fps")) {
+
+      try {
+
+        simulator.setFrameRate(Integer.parseInt(args[1]));
+
+      } catch (IllegalArgumentException e) {
+
+        System.out.println("Taxa de quadros inválida: " + args[1]);
+
+      }
+
+    }
+
     simulator.runLongSimulation();
     //simulator.simulate();
 
@@ -0,0 +1,156 @@
+package Core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decide quando a simulação entrega um quadro à visão. Entre dois
+ * quadros a simulação executa quantos passos conseguir, de forma que a
+ * velocidade visível não fica limitada pelo desenho.
+ *
+ * Os quadros seguem uma taxa alvo, em quadros por segundo. A taxa é
+ * adaptativa: o custo de entregar cada quadro é medido e, se ele passar
+ * de uma fração do intervalo entre quadros, o intervalo é aumentado para
+ * que o desenho nunca ocupe mais que essa fração do tempo da simulação.
+ * Quando o custo volta a cair, a taxa volta à taxa alvo.
+ *
+ * Usado apenas pela thread que executa os passos.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class RenderScheduler {
+
+    /**
+     * Taxa alvo padrão, em quadros por segundo.
+     */
+    public static final int DEFAULT_FRAMES_PER_SECOND = 30;
+
+    /**
+     * O intervalo entre quadros é pelo menos esta quantidade de vezes o
+     * custo médio de um quadro, ou seja, o desenho ocupa no máximo um
+     * quinto do tempo.
+     */
+    private static final int COST_FACTOR = 5;
+
+    /**
+     * Intervalo entre quadros na taxa alvo, em nanossegundos.
+     */
+    private long targetInterval;
+
+    /**
+     * Custo médio de entregar um quadro, em nanossegundos.
+     */
+    private long averageCost;
+
+    /**
+     * Instante a partir do qual o próximo quadro é devido.
+     */
+    private long nextFrame;
+
+    /**
+     * Passo do último quadro entregue, ou -1 antes do primeiro.
+     */
+    private int renderedStep = -1;
+
+    /**
+     * Quadros entregues e o instante do primeiro, para a taxa obtida.
+     */
+    private long frames, firstFrame;
+
+    /**
+     * Construtor com uma taxa alvo.
+     *
+     * @param framesPerSecond Quadros por segundo desejados.
+     * @throws IllegalArgumentException Se a taxa não for positiva.
+     */
+    public RenderScheduler(int framesPerSecond) {
+
+        setFramesPerSecond(framesPerSecond);
+
+    }
+
+    /**
+     * Método modificador da taxa alvo.
+     *
+     * @param framesPerSecond Quadros por segundo desejados.
+     * @throws IllegalArgumentException Se a taxa não for positiva.
+     */
+    public void setFramesPerSecond(int framesPerSecond) {
+
+        if (framesPerSecond <= 0) {
+
+            throw new IllegalArgumentException("Taxa de quadros inválida: " + framesPerSecond);
+
+        }
+
+        targetInterval = TimeUnit.SECONDS.toNanos(1) / framesPerSecond;
+
+    }
+
+    /**
+     * Verifica se um novo quadro é devido.
+     *
+     * @param now Instante atual, de System.nanoTime.
+     * @return true Se o intervalo desde o último quadro já passou.
+     */
+    public boolean isFrameDue(long now) { return renderedStep < 0 || now - nextFrame >= 0; }
+
+    /**
+     * Verifica se um passo ainda não foi entregue à visão.
+     *
+     * @param step Passo atual da simulação.
+     * @return true Se o último quadro entregue é de outro passo.
+     */
+    public boolean isPending(int step) { return step != renderedStep; }
+
+    /**
+     * Registra a entrega de um quadro e agenda o próximo.
+     *
+     * @param step Passo entregue.
+     * @param started Instante do início da entrega.
+     * @param finished Instante do fim da entrega.
+     */
+    public void rendered(int step, long started, long finished) {
+
+        long cost = finished - started;
+        averageCost = frames == 0 ? cost : (3 * averageCost + cost) / 4;
+
+        if (frames++ == 0) {
+
+            firstFrame = started;
+
+        }
+
+        renderedStep = step;
+        nextFrame = started + getFrameInterval();
+
+    }
+
+    /**
+     * Método acessador do intervalo atual entre quadros, já ajustado ao
+     * custo dos quadros.
+     *
+     * @return long O intervalo, em nanossegundos.
+     */
+    public long getFrameInterval() { return Math.max(targetInterval, COST_FACTOR * averageCost); }
+
+    /**
+     * Método acessador da taxa de quadros obtida desde o primeiro quadro.
+     *
+     * @return double Quadros por segundo, ou 0 antes do segundo quadro.
+     */
+    public double getAchievedFramesPerSecond() {
+
+        long elapsed = System.nanoTime() - firstFrame;
+        return frames < 2 || elapsed <= 0 ? 0 : (frames - 1) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+
+    }
+
+    /**
+     * Método acessador do custo médio de um quadro.
+     *
+     * @return long O custo, em nanossegundos.
+     */
+    public long getAverageCost() { return averageCost; }
+
+}
@@ -0,0 +1,415 @@
+package Core;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultados de uma execução do ScalingSuite, gravados em um arquivo de
+ * texto versionado e comparados com os de outra execução.
+ *
+ * O arquivo começa com a versão do formato e os dados da execução
+ * (rótulo da versão medida, motor, passos, semente, repetições e JVM),
+ * seguidos de uma linha por caso: tamanho do campo, threads, mediana de
+ * passos por segundo, mediana de nanossegundos por ator-passo, pico de
+ * heap em bytes, mediana do tempo de coleta de lixo em milissegundos e a
+ * dispersão relativa das duas vazões entre as repetições. Casos que não
+ * couberam na memória têm a vazão zero.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class ScalingBaseline {
+
+    /**
+     * Versão do formato do arquivo. Deve ser alterada sempre que o
+     * formato ou o significado de uma medida mudar.
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    /**
+     * Diferença absoluta de tempo de coleta, em milissegundos, abaixo da
+     * qual uma variação não é considerada regressão, pois tempos pequenos
+     * variam muito entre execuções.
+     */
+    public static final long GC_SLACK_MILLIS = 50;
+
+    /**
+     * Quantidade de erros padrão da diferença entre as medianas das duas
+     * execuções abaixo da qual uma piora de vazão não é considerada
+     * regressão.
+     */
+    public static final double NOISE_SIGMAS = 3;
+
+    /**
+     * Fator que converte o desvio absoluto mediano em uma estimativa do
+     * desvio padrão, para medidas com distribuição normal.
+     */
+    private static final double MAD_TO_SIGMA = 1.4826;
+
+    /**
+     * Razão entre o erro padrão da mediana e o da média de uma amostra
+     * com distribuição normal.
+     */
+    private static final double MEDIAN_EFFICIENCY = 1.2533;
+
+    /**
+     * Rótulo da versão medida, como o commit ou a tag.
+     */
+    private final String label;
+
+    /**
+     * Nome do motor, passos medidos por caso e semente.
+     */
+    private final String engine;
+    private final int steps;
+    private final long seed;
+
+    /**
+     * Repetições de cada caso.
+     */
+    private final int repeats;
+
+    /**
+     * Versão da JVM da execução.
+     */
+    private final String jvm;
+
+    /**
+     * Casos medidos, na ordem de execução.
+     */
+    private final List<Entry> entries;
+
+    /**
+     * Construtor de um conjunto de resultados vazio.
+     *
+     * @param label Rótulo da versão medida.
+     * @param engine Nome do motor.
+     * @param steps Passos medidos por caso.
+     * @param seed Semente das simulações.
+     * @param repeats Repetições de cada caso.
+     * @param jvm Versão da JVM.
+     */
+    public ScalingBaseline(String label, String engine, int steps, long seed, int repeats, String jvm) {
+
+        this.label = label;
+        this.engine = engine;
+        this.steps = steps;
+        this.seed = seed;
+        this.repeats = repeats;
+        this.jvm = jvm;
+        this.entries = new ArrayList<Entry>();
+
+    }
+
+    /**
+     * Adiciona o resultado de um caso.
+     *
+     * @param size Profundidade e largura do campo.
+     * @param threads Threads do motor.
+     * @param stepsPerSecond Mediana de passos por segundo, zero se o caso falhou.
+     * @param nsPerActorStep Mediana de nanossegundos por ator-passo.
+     * @param peakHeap Pico de uso do heap, em bytes.
+     * @param gcMillis Mediana do tempo de coleta de lixo, em milissegundos.
+     * @param stepsSpread Dispersão relativa de passos por segundo.
+     * @param nsSpread Dispersão relativa de nanossegundos por ator-passo.
+     */
+    public void add(int size, int threads, double stepsPerSecond, double nsPerActorStep, long peakHeap, long gcMillis,
+        double stepsSpread, double nsSpread) {
+
+        entries.add(new Entry(size, threads, stepsPerSecond, nsPerActorStep, peakHeap, gcMillis, stepsSpread, nsSpread));
+
+    }
+
+    /**
+     * Escreve os resultados no formato do arquivo.
+     *
+     * @param out Saída do arquivo.
+     */
+    public void write(PrintStream out) {
+
+        out.println("# ScalingSuite");
+        out.println("format=" + FORMAT_VERSION);
+        out.println("label=" + label);
+        out.println("engine=" + engine);
+        out.println("steps=" + steps);
+        out.println("seed=" + seed);
+        out.println("repeats=" + repeats);
+        out.println("jvm=" + jvm);
+        out.println("# tamanho threads passos/s ns/ator-passo pico-heap-bytes gc-ms dispersão-passos/s dispersão-ns/ator-passo");
+
+        for (Entry entry : entries) {
+
+            out.println(entry.size + " " + entry.threads + " " + entry.stepsPerSecond + " " + entry.nsPerActorStep
+                + " " + entry.peakHeap + " " + entry.gcMillis + " " + entry.stepsSpread + " " + entry.nsSpread);
+
+        }
+
+    }
+
+    /**
+     * Lê um arquivo gravado por write.
+     *
+     * @param path Caminho do arquivo.
+     * @return ScalingBaseline Os resultados lidos.
+     * @throws IOException Se o arquivo não puder ser lido.
+     * @throws IllegalArgumentException Se o formato for de outra versão ou inválido.
+     */
+    public static ScalingBaseline read(String path) throws IOException {
+
+        String label = "", engine = "", jvm = "";
+        int steps = 0, repeats = 0, format = 0;
+        long seed = 0;
+        List<String[]> rows = new ArrayList<String[]>();
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+
+                line = line.trim();
+
+                if (line.isEmpty() || line.startsWith("#")) {
+
+                    continue;
+
+                }
+
+                int equals = line.indexOf('=');
+
+                if (equals < 0) {
+
+                    rows.add(line.split("\\s+"));
+                    continue;
+
+                }
+
+                String key = line.substring(0, equals), value = line.substring(equals + 1);
+
+                switch (key) {
+                    case "format": format = Integer.parseInt(value); break;
+                    case "label": label = value; break;
+                    case "engine": engine = value; break;
+                    case "steps": steps = Integer.parseInt(value); break;
+                    case "seed": seed = Long.parseLong(value); break;
+                    case "repeats": repeats = Integer.parseInt(value); break;
+                    case "jvm": jvm = value; break;
+                    default: break;
+                }
+
+            }
+
+        }
+
+        if (format != FORMAT_VERSION) {
+
+            throw new IllegalArgumentException("Formato " + format + " de " + path + " não é suportado, esperado " + FORMAT_VERSION + ".");
+
+        }
+
+        ScalingBaseline baseline = new ScalingBaseline(label, engine, steps, seed, repeats, jvm);
+
+        for (String[] row : rows) {
+
+            if (row.length != 8) {
+
+                throw new IllegalArgumentException("Linha inválida em " + path + ": " + String.join(" ", row));
+
+            }
+
+            baseline.add(Integer.parseInt(row[0]), Integer.parseInt(row[1]), Double.parseDouble(row[2]),
+                Double.parseDouble(row[3]), Long.parseLong(row[4]), Long.parseLong(row[5]),
+                Double.parseDouble(row[6]), Double.parseDouble(row[7]));
+
+        }
+
+        return baseline;
+
+    }
+
+    /**
+     * Compara estes resultados com uma referência e escreve a variação de
+     * cada medida. Uma medida é regressão quando piora mais que o seu
+     * limite: vazão menor, tempo por ator-passo, pico de heap ou tempo de
+     * coleta maiores. O limite das duas vazões é a tolerância ou, se for
+     * maior, NOISE_SIGMAS vezes o erro padrão relativo da diferença entre
+     * as medianas, estimado a partir da dispersão e das repetições das
+     * duas execuções; o das demais medidas é a tolerância. Casos ausentes da referência são apenas listados.
+     *
+     * @param baseline Resultados de referência.
+     * @param tolerance Piora relativa tolerada, como 0.1 para 10%.
+     * @param out Saída do relatório.
+     * @return int Quantidade de regressões encontradas.
+     * @throws IllegalArgumentException Se a referência não for comparável, como em requireComparable.
+     */
+    public int compare(ScalingBaseline baseline, double tolerance, PrintStream out) {
+
+        requireComparable(baseline);
+        int regressions = 0;
+
+        out.println("Referência: " + baseline.label + " (" + baseline.engine + ", " + baseline.steps + " passos, "
+            + baseline.repeats + " repetições, " + baseline.jvm + ")");
+        out.println("Atual: " + label + " (" + engine + ", " + steps + " passos, " + repeats + " repetições, " + jvm + ")");
+        out.printf("Tolerância: %.1f%%%n", tolerance * 100);
+
+        for (Entry entry : entries) {
+
+            Entry reference = baseline.find(entry.size, entry.threads);
+            String name = entry.size + "x" + entry.size + " threads " + entry.threads;
+
+            if (reference == null) {
+
+                out.println(name + ": sem referência");
+                continue;
+
+            }
+
+            if (reference.stepsPerSecond > 0 && entry.stepsPerSecond == 0) {
+
+                out.println(name + ": REGRESSÃO memória insuficiente");
+                regressions++;
+                continue;
+
+            }
+
+            List<String> worse = new ArrayList<String>();
+            double stepsLimit = limit(tolerance, entry.stepsSpread, repeats, reference.stepsSpread, baseline.repeats);
+            double nsLimit = limit(tolerance, entry.nsSpread, repeats, reference.nsSpread, baseline.repeats);
+
+            if (entry.stepsPerSecond < reference.stepsPerSecond * (1 - stepsLimit)) {
+
+                worse.add("passos/s");
+
+            }
+
+            if (entry.nsPerActorStep > reference.nsPerActorStep * (1 + nsLimit)) {
+
+                worse.add("ns/ator-passo");
+
+            }
+
+            if (entry.peakHeap > reference.peakHeap * (1 + tolerance)) {
+
+                worse.add("pico de heap");
+
+            }
+
+            if (entry.gcMillis > reference.gcMillis * (1 + tolerance) + GC_SLACK_MILLIS) {
+
+                worse.add("tempo de gc");
+
+            }
+
+            out.printf("%s: passos/s %+.1f%% (limite %.1f%%) ns/ator-passo %+.1f%% (limite %.1f%%) heap %+.1f%% gc %d -> %d ms%s%n", name,
+                change(entry.stepsPerSecond, reference.stepsPerSecond), stepsLimit * 100,
+                change(entry.nsPerActorStep, reference.nsPerActorStep), nsLimit * 100,
+                change(entry.peakHeap, reference.peakHeap), reference.gcMillis, entry.gcMillis,
+                worse.isEmpty() ? "" : " REGRESSÃO " + String.join(", ", worse));
+            regressions += worse.isEmpty() ? 0 : 1;
+
+        }
+
+        return regressions;
+
+    }
+
+    /**
+     * Verifica se uma referência mediu o mesmo trabalho que esta
+     * execução: mesmo motor, mesma quantidade de passos e mesma semente.
+     * Com outra semente ou outros passos a população é outra, e a
+     * variação de vazão não indica regressão.
+     *
+     * @param baseline Resultados de referência.
+     * @throws IllegalArgumentException Se a referência não for comparável.
+     */
+    public void requireComparable(ScalingBaseline baseline) {
+
+        if (!engine.equals(baseline.engine) || steps != baseline.steps || seed != baseline.seed) {
+
+            throw new IllegalArgumentException("referência não comparável: motor " + baseline.engine + ", " + baseline.steps
+                + " passos, semente " + baseline.seed + "; atual: motor " + engine + ", " + steps + " passos, semente " + seed + ".");
+
+        }
+
+    }
+
+    /**
+     * Procura o caso de um tamanho e quantidade de threads.
+     *
+     * @param size Profundidade e largura do campo.
+     * @param threads Threads do motor.
+     * @return Entry O caso, ou null se não foi medido.
+     */
+    private Entry find(int size, int threads) {
+
+        for (Entry entry : entries) {
+
+            if (entry.size == size && entry.threads == threads) {
+
+                return entry;
+
+            }
+
+        }
+
+        return null;
+
+    }
+
+    /**
+     * Retorna a piora relativa tolerada de uma vazão: a tolerância ou o
+     * ruído das duas execuções, o que for maior. A dispersão de cada
+     * execução é convertida no erro padrão relativo da sua mediana, e os
+     * dois erros são combinados como medidas independentes.
+     *
+     * @param tolerance Piora relativa tolerada.
+     * @param spread Dispersão relativa da execução atual.
+     * @param repeats Repetições da execução atual.
+     * @param referenceSpread Dispersão relativa da referência.
+     * @param referenceRepeats Repetições da referência.
+     * @return double O limite relativo.
+     */
+    private static double limit(double tolerance, double spread, int repeats, double referenceSpread, int referenceRepeats) {
+
+        double error = MEDIAN_EFFICIENCY * MAD_TO_SIGMA * spread / Math.sqrt(Math.max(1, repeats));
+        double referenceError = MEDIAN_EFFICIENCY * MAD_TO_SIGMA * referenceSpread / Math.sqrt(Math.max(1, referenceRepeats));
+
+        return Math.max(tolerance, NOISE_SIGMAS * Math.hypot(error, referenceError));
+
+    }
+
+    /**
+     * Retorna a variação percentual de um valor em relação à referência.
+     *
+     * @param value Valor atual.
+     * @param reference Valor de referência.
+     * @return double A variação em porcentagem.
+     */
+    private static double change(double value, double reference) { return reference == 0 ? 0 : (value / reference - 1) * 100; }
+
+    /**
+     * Resultado de um caso.
+     */
+    private static class Entry {
+
+        private final int size, threads;
+        private final double stepsPerSecond, nsPerActorStep;
+        private final long peakHeap, gcMillis;
+        private final double stepsSpread, nsSpread;
+
+        private Entry(int size, int threads, double stepsPerSecond, double nsPerActorStep, long peakHeap, long gcMillis,
+            double stepsSpread, double nsSpread) {
+            this.size = size;
+            this.threads = threads;
+            this.stepsPerSecond = stepsPerSecond;
+            this.nsPerActorStep = nsPerActorStep;
+            this.peakHeap = peakHeap;
+            this.gcMillis = gcMillis;
+            this.stepsSpread = stepsSpread;
+            this.nsSpread = nsSpread;
+        }
+    }
+
+}
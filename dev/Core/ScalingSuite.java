@@ -0,0 +1,667 @@
+package Core;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import Engine.StepEngine;
+import Utils.RandomService;
+import View.HeadlessView;
+
+/**
+ * Mede a escalabilidade da simulação completa, sem interface, em vários
+ * tamanhos de campo e quantidades de threads. Para cada caso cria um
+ * Simulator, executa alguns passos de aquecimento e mede os passos
+ * seguintes, registrando passos por segundo, nanossegundos por ator-passo,
+ * pico de uso do heap e tempo de coleta de lixo.
+ *
+ * Todos os casos são repetidos algumas vezes, cada repetição em uma JVM
+ * nova com as mesmas opções da JVM atual, pois a compilação e a
+ * disposição da memória mudam de uma JVM para outra e variam a vazão
+ * mais que os passos de uma mesma JVM. São registradas a mediana das
+ * repetições de passos por segundo e de nanossegundos por ator-passo,
+ * com a sua dispersão relativa (desvio absoluto mediano dividido pela
+ * mediana), o maior pico de uso do heap e a mediana do tempo de coleta.
+ *
+ * Os resultados podem ser gravados em um arquivo de referência com
+ * --record, e comparados com uma referência gravada antes com --compare.
+ * Na comparação, o programa termina com código 1 se alguma medida piorar
+ * mais que o limite, a tolerância ou o ruído estimado pela dispersão das
+ * duas execuções, o que for maior, para que possa ser usado como critério
+ * de liberação de uma versão. Uma referência de outro motor, outra
+ * quantidade de passos ou outra semente não é comparável, e o programa
+ * termina com código 2.
+ *
+ * Uso: java Core/ScalingSuite [--sizes=100,1000,10000] [--threads=1,2,4]
+ *          [--steps=N] [--warmup=N] [--repeats=N] [--engine=tiled] [--seed=N]
+ *          [--label=versão] [--record=arquivo] [--compare=arquivo] [--tolerance=0.1]
+ *
+ * Campos de 10000x10000 precisam de alguns GiB de heap (-Xmx); casos que
+ * não cabem na memória são registrados com vazão zero e a execução segue.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class ScalingSuite {
+
+    /**
+     * Tamanhos de campo medidos quando não informados.
+     */
+    private static final String DEFAULT_SIZES = "100,300,1000,3000,10000";
+
+    /**
+     * Passos medidos por caso quando não informado.
+     */
+    private static final int DEFAULT_STEPS = 20;
+
+    /**
+     * Passos de aquecimento por caso quando não informado.
+     */
+    private static final int DEFAULT_WARMUP = 10;
+
+    /**
+     * Repetições de cada caso quando não informado.
+     */
+    private static final int DEFAULT_REPEATS = 5;
+
+    /**
+     * Opção que executa uma única repetição na JVM atual, usada pelas
+     * JVMs criadas para as repetições, e o início das linhas com as suas
+     * medidas.
+     */
+    private static final String FORK_OPTION = "--fork";
+    private static final String SAMPLE_PREFIX = "amostra ";
+
+    /**
+     * Método chamado pela JVM para execução do conjunto de medidas.
+     *
+     * @param args Opções da execução.
+     */
+    public static void main(String[] args) {
+
+        System.setProperty("java.awt.headless", "true");
+
+        int steps = DEFAULT_STEPS, warmup = DEFAULT_WARMUP, repeats = DEFAULT_REPEATS;
+        long seed = 42;
+        double tolerance = 0.1;
+        String engine = "tiled", label = "local", record = null, compare = null;
+        int[] sizes, threads;
+        boolean fork = false;
+
+        try {
+
+            String sizeList = DEFAULT_SIZES, threadList = defaultThreads();
+
+            for (String arg : args) {
+
+                if (arg.startsWith("--sizes=")) {
+
+                    sizeList = arg.substring("--sizes=".length());
+
+                } else if (arg.startsWith("--threads=")) {
+
+                    threadList = arg.substring("--threads=".length());
+
+                } else if (arg.startsWith("--steps=")) {
+
+                    steps = Integer.parseInt(arg.substring("--steps=".length()));
+
+                } else if (arg.startsWith("--warmup=")) {
+
+                    warmup = Integer.parseInt(arg.substring("--warmup=".length()));
+
+                } else if (arg.startsWith("--repeats=")) {
+
+                    repeats = Integer.parseInt(arg.substring("--repeats=".length()));
+
+                } else if (arg.startsWith("--engine=")) {
+
+                    engine = arg.substring("--engine=".length());
+
+                } else if (arg.startsWith("--seed=")) {
+
+                    seed = Long.parseLong(arg.substring("--seed=".length()));
+
+                } else if (arg.startsWith("--label=")) {
+
+                    label = arg.substring("--label=".length());
+
+                } else if (arg.startsWith("--record=")) {
+
+                    record = arg.substring("--record=".length());
+
+                } else if (arg.startsWith("--compare=")) {
+
+                    compare = arg.substring("--compare=".length());
+
+                } else if (arg.startsWith("--tolerance=")) {
+
+                    tolerance = Double.parseDouble(arg.substring("--tolerance=".length()));
+
+                } else if (arg.equals(FORK_OPTION)) {
+
+                    fork = true;
+
+                } else {
+
+                    throw new IllegalArgumentException("Opção desconhecida: " + arg);
+
+                }
+
+            }
+
+            sizes = parseList(sizeList);
+            threads = parseList(threadList);
+            StepEngine.forName(engine, 1).close();
+
+            if (repeats < 1) {
+
+                throw new IllegalArgumentException("--repeats precisa ser pelo menos 1");
+
+            }
+
+        } catch (IllegalArgumentException e) {
+
+            System.out.println(e.getMessage());
+            System.out.println("Uso: ScalingSuite [--sizes=100,1000,10000] [--threads=1,2,4] [--steps=N] [--warmup=N] [--repeats=N] [--engine=tiled]"
+                + " [--seed=N] [--label=versão] [--record=arquivo] [--compare=arquivo] [--tolerance=0.1]");
+            return;
+
+        }
+
+        if (fork) {
+
+            runFork(sizes, threads, engine, steps, warmup, seed);
+            return;
+
+        }
+
+        ScalingBaseline results = new ScalingBaseline(label, engine, steps, seed, repeats, System.getProperty("java.version"));
+        ScalingBaseline baseline = null;
+
+        if (compare != null) {
+
+            try {
+
+                baseline = ScalingBaseline.read(compare);
+                results.requireComparable(baseline);
+
+            } catch (IOException e) {
+
+                System.out.println("Não foi possível ler " + compare + ": " + e.getMessage());
+                System.exit(2);
+                return;
+
+            } catch (IllegalArgumentException e) {
+
+                System.out.println(compare + ": " + e.getMessage());
+                System.exit(2);
+                return;
+
+            }
+
+        }
+
+        System.out.println("Motor: " + engine + " passos: " + steps + " aquecimento: " + warmup + " repetições: " + repeats
+            + " semente: " + seed + " heap máximo: " + Runtime.getRuntime().maxMemory() / (1024 * 1024) + " MiB");
+
+        List<String> forkArgs = new ArrayList<String>(Arrays.asList("--sizes=" + join(sizes), "--threads=" + join(threads),
+            "--steps=" + steps, "--warmup=" + warmup, "--engine=" + engine, "--seed=" + seed, FORK_OPTION));
+        Sample[][] samples = new Sample[sizes.length * threads.length][repeats];
+
+        for (int repeat = 0; repeat < repeats; repeat++) {
+
+            try {
+
+                Sample[] forked = fork(forkArgs, sizes, threads);
+
+                for (int c = 0; c < forked.length; c++) {
+
+                    samples[c][repeat] = forked[c];
+
+                }
+
+            } catch (IOException e) {
+
+                System.out.println("Não foi possível executar a repetição " + (repeat + 1) + ": " + e.getMessage());
+                System.exit(2);
+                return;
+
+            }
+
+            System.out.println("Repetição " + (repeat + 1) + " de " + repeats + " concluída");
+
+        }
+
+        System.out.println("tamanho threads passos/s (dispersão) ns/ator-passo (dispersão) pico-heap-MiB gc-ms");
+
+        for (int c = 0; c < samples.length; c++) {
+
+            summarize(results, sizes[c / threads.length], threads[c % threads.length], steps, samples[c]);
+
+        }
+
+        if (record != null) {
+
+            try (PrintStream out = new PrintStream(record)) {
+
+                results.write(out);
+
+            } catch (FileNotFoundException e) {
+
+                System.out.println("Não foi possível escrever " + record + ": " + e.getMessage());
+
+            }
+
+        }
+
+        if (baseline != null) {
+
+            int regressions = results.compare(baseline, tolerance, System.out);
+
+            System.out.println(regressions == 0 ? "Nenhuma regressão." : regressions + " caso(s) com regressão.");
+
+            if (regressions > 0) {
+
+                System.exit(1);
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Executa uma repetição de todos os casos na JVM atual e escreve as
+     * medidas de cada caso em uma linha, na ordem dos tamanhos e das
+     * threads. Antes da medida, uma repetição descartada do primeiro caso
+     * compila o código do passo, para que o primeiro caso medido não seja
+     * o único medido antes da compilação.
+     *
+     * @param sizes Tamanhos de campo.
+     * @param threads Quantidades de threads.
+     * @param engine Nome do motor.
+     * @param steps Passos medidos.
+     * @param warmup Passos de aquecimento.
+     * @param seed Semente da simulação.
+     */
+    private static void runFork(int[] sizes, int[] threads, String engine, int steps, int warmup, long seed) {
+
+        measure(sizes[0], threads[0], engine, steps, warmup, seed);
+
+        for (int size : sizes) {
+
+            for (int threadCount : threads) {
+
+                Sample sample = measure(size, threadCount, engine, steps, warmup, seed);
+                System.out.println(SAMPLE_PREFIX + size + " " + threadCount + " " + sample.executed + " " + sample.stepsPerSecond
+                    + " " + sample.nsPerActorStep + " " + sample.peakHeap + " " + sample.gcMillis);
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Executa uma repetição de todos os casos em uma JVM nova, com as
+     * opções e o classpath da JVM atual, e lê as suas medidas.
+     *
+     * @param args Opções do ScalingSuite para a nova JVM.
+     * @param sizes Tamanhos de campo.
+     * @param threads Quantidades de threads.
+     * @return Sample[] As medidas de cada caso, na ordem dos tamanhos e das threads.
+     * @throws IOException Se a JVM não puder ser criada, falhar ou não medir todos os casos.
+     */
+    private static Sample[] fork(List<String> args, int[] sizes, int[] threads) throws IOException {
+
+        List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ScalingSuite.class.getName());
+        command.addAll(args);
+
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        Sample[] samples = new Sample[sizes.length * threads.length];
+        int read = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+
+                if (!line.startsWith(SAMPLE_PREFIX) || read == samples.length) {
+
+                    continue;
+
+                }
+
+                String[] fields = line.substring(SAMPLE_PREFIX.length()).split(" ");
+
+                if (fields.length != 7 || Integer.parseInt(fields[0]) != sizes[read / threads.length]
+                    || Integer.parseInt(fields[1]) != threads[read % threads.length]) {
+
+                    throw new IOException("linha inesperada da JVM da repetição: " + line);
+
+                }
+
+                samples[read++] = new Sample(Integer.parseInt(fields[2]), Double.parseDouble(fields[3]), Double.parseDouble(fields[4]),
+                    Long.parseLong(fields[5]), Long.parseLong(fields[6]));
+
+            }
+
+        } catch (NumberFormatException e) {
+
+            throw new IOException("medida inválida da JVM da repetição: " + e.getMessage());
+
+        }
+
+        try {
+
+            int exit = process.waitFor();
+
+            if (exit != 0 || read < samples.length) {
+
+                throw new IOException("a JVM da repetição terminou com código " + exit + " após " + read + " de " + samples.length + " casos");
+
+            }
+
+        } catch (InterruptedException e) {
+
+            process.destroy();
+            Thread.currentThread().interrupt();
+            throw new IOException("interrompido");
+
+        }
+
+        return samples;
+
+    }
+
+    /**
+     * Resume as repetições de um caso e adiciona o resultado. Se alguma
+     * repetição não coube na memória, o caso é registrado com vazão zero.
+     *
+     * @param results Resultados da execução.
+     * @param size Profundidade e largura do campo.
+     * @param threads Threads do motor.
+     * @param steps Passos medidos.
+     * @param samples Medidas de cada repetição.
+     */
+    private static void summarize(ScalingBaseline results, int size, int threads, int steps, Sample[] samples) {
+
+        double[] stepsPerSecond = new double[samples.length], nsPerActorStep = new double[samples.length], gc = new double[samples.length];
+        long peakHeap = 0;
+        int executed = steps;
+        boolean failed = false;
+
+        for (int repeat = 0; repeat < samples.length; repeat++) {
+
+            Sample sample = samples[repeat];
+            stepsPerSecond[repeat] = sample.stepsPerSecond;
+            nsPerActorStep[repeat] = sample.nsPerActorStep;
+            gc[repeat] = sample.gcMillis;
+            peakHeap = Math.max(peakHeap, sample.peakHeap);
+            executed = Math.min(executed, sample.executed);
+            failed |= sample.executed < 0;
+
+        }
+
+        long gcMedian = Math.round(median(gc));
+
+        if (failed) {
+
+            results.add(size, threads, 0, 0, peakHeap, gcMedian, 0, 0);
+            System.out.println(size + " " + threads + " memória insuficiente");
+            return;
+
+        }
+
+        double sps = median(stepsPerSecond), ns = median(nsPerActorStep), spsSpread = spread(stepsPerSecond), nsSpread = spread(nsPerActorStep);
+
+        results.add(size, threads, sps, ns, peakHeap, gcMedian, spsSpread, nsSpread);
+        System.out.printf("%d %d %.2f (%.1f%%) %.1f (%.1f%%) %d %d%s%n", size, threads, sps, spsSpread * 100, ns, nsSpread * 100,
+            peakHeap / (1024 * 1024), gcMedian, executed < steps ? " (simulação encerrada após " + executed + " passos)" : "");
+
+    }
+
+    /**
+     * Executa uma repetição de um caso, com um Simulator e um motor novos.
+     * O pico de heap e o tempo de coleta incluem a criação do mundo; a
+     * vazão considera apenas os passos medidos.
+     *
+     * @param size Profundidade e largura do campo.
+     * @param threads Threads do motor.
+     * @param engine Nome do motor.
+     * @param steps Passos medidos.
+     * @param warmup Passos de aquecimento.
+     * @param seed Semente da simulação.
+     * @return Sample As medidas, com passos executados negativos se faltou memória.
+     */
+    private static Sample measure(int size, int threads, String engine, int steps, int warmup, long seed) {
+
+        System.gc();
+        resetPeakHeap();
+        long gcBefore = gcMillis();
+
+        try (StepEngine stepEngine = StepEngine.forName(engine, threads)) {
+
+            Simulator simulator = new Simulator(size, size, new HeadlessView(), new RandomService(seed));
+            simulator.setEngine(stepEngine);
+
+            for (int step = 0; step < warmup && simulator.runStep(); step++);
+
+            long actorSteps = simulator.getActorSteps();
+            int executed = 0;
+            long start = System.nanoTime();
+
+            while (executed < steps && simulator.runStep()) {
+
+                executed++;
+
+            }
+
+            long elapsed = System.nanoTime() - start;
+            actorSteps = simulator.getActorSteps() - actorSteps;
+
+            return new Sample(executed, executed / (elapsed / 1e9), actorSteps == 0 ? 0 : (double) elapsed / actorSteps,
+                peakHeap(), gcMillis() - gcBefore);
+
+        } catch (OutOfMemoryError e) {
+
+            return new Sample(-1, 0, 0, peakHeap(), gcMillis() - gcBefore);
+
+        }
+
+    }
+
+    /**
+     * Retorna a mediana de um conjunto de valores.
+     *
+     * @param values Valores; não são alterados.
+     * @return double A mediana.
+     */
+    private static double median(double[] values) {
+
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+
+    }
+
+    /**
+     * Retorna a dispersão relativa de um conjunto de valores: o desvio
+     * absoluto mediano dividido pela mediana. Ao contrário do desvio
+     * padrão, não é dominada por uma repetição atípica, como uma coleta
+     * de lixo completa.
+     *
+     * @param values Valores; não são alterados.
+     * @return double A dispersão relativa, zero se a mediana for zero.
+     */
+    private static double spread(double[] values) {
+
+        double median = median(values);
+        double[] deviations = new double[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+
+            deviations[i] = Math.abs(values[i] - median);
+
+        }
+
+        return median == 0 ? 0 : median(deviations) / median;
+
+    }
+
+    /**
+     * Zera o pico de uso de todas as áreas do heap.
+     */
+    private static void resetPeakHeap() {
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+
+            if (pool.getType() == MemoryType.HEAP) {
+
+                pool.resetPeakUsage();
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Soma o pico de uso das áreas do heap desde o último resetPeakHeap.
+     *
+     * @return long O pico em bytes.
+     */
+    private static long peakHeap() {
+
+        long peak = 0;
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+
+            if (pool.getType() == MemoryType.HEAP) {
+
+                peak += pool.getPeakUsage().getUsed();
+
+            }
+
+        }
+
+        return peak;
+
+    }
+
+    /**
+     * Soma o tempo de coleta de todos os coletores desde o início da JVM.
+     *
+     * @return long O tempo em milissegundos.
+     */
+    private static long gcMillis() {
+
+        long total = 0;
+
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+
+            total += Math.max(0, collector.getCollectionTime());
+
+        }
+
+        return total;
+
+    }
+
+    /**
+     * Retorna as quantidades de threads padrão: potências de dois até o
+     * número de processadores, e o próprio número de processadores.
+     *
+     * @return String A lista separada por vírgulas.
+     */
+    private static String defaultThreads() {
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        StringBuilder list = new StringBuilder("1");
+
+        for (int threads = 2; threads < processors; threads *= 2) {
+
+            list.append(',').append(threads);
+
+        }
+
+        return processors > 1 ? list.append(',').append(processors).toString() : list.toString();
+
+    }
+
+    /**
+     * Escreve uma lista de inteiros separados por vírgulas.
+     *
+     * @param values Os valores.
+     * @return String O texto da lista.
+     */
+    private static String join(int[] values) {
+
+        StringBuilder list = new StringBuilder();
+
+        for (int value : values) {
+
+            list.append(list.length() == 0 ? "" : ",").append(value);
+
+        }
+
+        return list.toString();
+
+    }
+
+    /**
+     * Lê uma lista de inteiros separados por vírgulas.
+     *
+     * @param list Texto da lista.
+     * @return int[] Os valores.
+     */
+    private static int[] parseList(String list) {
+
+        String[] parts = list.split(",");
+        int[] values = new int[parts.length];
+
+        for (int i = 0; i < parts.length; i++) {
+
+            values[i] = Integer.parseInt(parts[i].trim());
+
+        }
+
+        return values;
+
+    }
+
+    /**
+     * Medidas de uma repetição.
+     */
+    private static final class Sample {
+        private final int executed;
+        private final double stepsPerSecond, nsPerActorStep;
+        private final long peakHeap, gcMillis;
+
+        private Sample(int executed, double stepsPerSecond, double nsPerActorStep, long peakHeap, long gcMillis) {
+            this.executed = executed;
+            this.stepsPerSecond = stepsPerSecond;
+            this.nsPerActorStep = nsPerActorStep;
+            this.peakHeap = peakHeap;
+            this.gcMillis = gcMillis;
+        }
+    }
+
+}
@@ -0,0 +1,295 @@
+package Core;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Serviço de controle de uma simulação executada por simulate. Qualquer
+ * thread, em geral a da interface gráfica, envia comandos para uma fila
+ * segura entre threads, e a thread da simulação os aplica entre dois
+ * passos, sempre na ordem em que foram enviados:
+ *
+ *   START continua a execução; PAUSE a interrompe e cancela os passos
+ *   avulsos pendentes; STEP n pausa a execução e agenda n passos avulsos,
+ *   executados nos próximos limites de passo; SPEED define o intervalo
+ *   entre passos, em nanossegundos, ou 0 sem limite; RESET volta a
+ *   simulação ao estado inicial e cancela os passos avulsos; STOP
+ *   encerra simulate.
+ *
+ * Enquanto a simulação está pausada sem passos pendentes, a thread da
+ * simulação fica bloqueada na fila, sem consumir processador, até o
+ * próximo comando. Uma espera de parkNanos, como a do ritmo de StepPacer,
+ * também é interrompida pela chegada de um comando.
+ *
+ * O estado resultante dos comandos só é lido e alterado pela thread da
+ * simulação.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class SimulationControl {
+
+    /**
+     * Resultado de next quando não há comando.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Códigos dos comandos.
+     */
+    public static final int START = 0;
+    public static final int PAUSE = 1;
+    public static final int STEP = 2;
+    public static final int SPEED = 3;
+    public static final int RESET = 4;
+    public static final int STOP = 5;
+
+    /**
+     * Comandos enviados e ainda não aplicados.
+     */
+    private final BlockingQueue<Command> commands = new LinkedBlockingQueue<Command>();
+
+    /**
+     * Indica que a execução está pausada.
+     */
+    private boolean paused = true;
+
+    /**
+     * Passos avulsos ainda não executados.
+     */
+    private long pendingSteps;
+
+    /**
+     * Intervalo entre passos, em nanossegundos, ou 0 sem limite.
+     */
+    private long stepInterval;
+
+    /**
+     * Thread bloqueada em parkNanos, acordada por submit.
+     */
+    private volatile Thread waiter;
+
+    /**
+     * Indica que simulate deve terminar.
+     */
+    private boolean stopped;
+
+    /**
+     * Envia um comando para ser aplicado no próximo limite de passo.
+     *
+     * @param type Código do comando.
+     * @param value Quantidade de passos de STEP ou intervalo de SPEED; ignorado pelos demais.
+     * @throws IllegalArgumentException Se o código for desconhecido ou o valor for negativo.
+     */
+    public void submit(int type, long value) {
+
+        if (type < START || type > STOP || value < 0) {
+
+            throw new IllegalArgumentException("Comando inválido: " + type + " " + value);
+
+        }
+
+        commands.add(new Command(type, value));
+        Thread sleeping = waiter;
+
+        if (sleeping != null) {
+
+            LockSupport.unpark(sleeping);
+
+        }
+
+    }
+
+    /**
+     * Continua a execução da simulação.
+     */
+    public void start() { submit(START, 0); }
+
+    /**
+     * Pausa a execução da simulação.
+     */
+    public void pause() { submit(PAUSE, 0); }
+
+    /**
+     * Pausa a execução e executa uma quantidade de passos avulsos.
+     *
+     * @param steps Quantidade de passos.
+     */
+    public void step(long steps) { submit(STEP, steps); }
+
+    /**
+     * Define o intervalo entre passos.
+     *
+     * @param nanos Intervalo em nanossegundos, ou 0 sem limite.
+     */
+    public void setStepInterval(long nanos) { submit(SPEED, nanos); }
+
+    /**
+     * Volta a simulação ao estado inicial.
+     */
+    public void reset() { submit(RESET, 0); }
+
+    /**
+     * Encerra simulate.
+     */
+    public void stop() { submit(STOP, 0); }
+
+    /**
+     * Retira e aplica o próximo comando. Chamado apenas pela thread da
+     * simulação, entre dois passos. RESET é aplicado apenas ao estado do
+     * controle; quem chama é responsável por reiniciar a simulação.
+     *
+     * @param block true para esperar por um comando se não houver nenhum.
+     * @return int O código do comando aplicado, ou NONE se não houver.
+     */
+    public int next(boolean block) {
+
+        Command command;
+
+        try {
+
+            command = block ? commands.take() : commands.poll();
+
+        } catch (InterruptedException e) {
+
+            Thread.currentThread().interrupt();
+            command = new Command(STOP, 0);
+
+        }
+
+        if (command == null) {
+
+            return NONE;
+
+        }
+
+        switch (command.type) {
+
+            case START:
+                paused = false;
+                break;
+
+            case PAUSE:
+                paused = true;
+                pendingSteps = 0;
+                break;
+
+            case STEP:
+                paused = true;
+                pendingSteps += command.value;
+                break;
+
+            case SPEED:
+                stepInterval = command.value;
+                break;
+
+            case RESET:
+                pendingSteps = 0;
+                break;
+
+            case STOP:
+                stopped = true;
+                break;
+
+        }
+
+        return command.type;
+
+    }
+
+    /**
+     * Verifica se há comandos ainda não aplicados.
+     *
+     * @return true Se a fila não está vazia.
+     */
+    public boolean hasCommands() { return !commands.isEmpty(); }
+
+    /**
+     * Bloqueia a thread da simulação por um tempo, ou até a chegada de um
+     * comando.
+     *
+     * @param nanos Tempo máximo de espera.
+     */
+    public void parkNanos(long nanos) {
+
+        waiter = Thread.currentThread();
+
+        if (commands.isEmpty()) {
+
+            LockSupport.parkNanos(this, nanos);
+
+        }
+
+        waiter = null;
+
+    }
+
+    /**
+     * Verifica se a simulação não tem passo a executar: pausada, sem
+     * passos avulsos e sem ter sido encerrada.
+     *
+     * @return true Se a thread da simulação pode esperar pelo próximo comando.
+     */
+    public boolean isIdle() { return !stopped && paused && pendingSteps == 0; }
+
+    /**
+     * Consome um passo avulso, se a execução estiver pausada.
+     *
+     * @return true Se o próximo passo é um passo avulso.
+     */
+    public boolean takeStep() {
+
+        if (!paused || pendingSteps == 0) {
+
+            return false;
+
+        }
+
+        pendingSteps--;
+        return true;
+
+    }
+
+    /**
+     * Verifica se a execução está pausada.
+     *
+     * @return true Se pausada.
+     */
+    public boolean isPaused() { return paused; }
+
+    /**
+     * Verifica se simulate deve terminar.
+     *
+     * @return true Se STOP foi aplicado.
+     */
+    public boolean isStopped() { return stopped; }
+
+    /**
+     * Método acessador do intervalo entre passos.
+     *
+     * @return long O intervalo em nanossegundos, ou 0 sem limite.
+     */
+    public long getStepInterval() { return stepInterval; }
+
+    /**
+     * Método acessador da quantidade de passos avulsos pendentes.
+     *
+     * @return long Os passos.
+     */
+    public long getPendingSteps() { return pendingSteps; }
+
+    /**
+     * Um comando enviado.
+     */
+    private static final class Command {
+        private final int type;
+        private final long value;
+
+        private Command(int type, long value) {
+            this.type = type;
+            this.value = value;
+        }
+    }
+
+}
@@ -1,19 +1,21 @@
 package Core;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Random;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.List;
-import java.util.Map;
 import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.Collections;
 import java.awt.Color;
-import java.net.SocketTimeoutException;
-import java.util.HashMap;
 
 import Actors.*;
 import Controllers.Field;
+import Controllers.FieldStats;
 import Controllers.SeasonsController;
+import Controllers.SimulationContext;
+import Engine.SequentialEngine;
+import Engine.StepEngine;
 import View.AnimatedView;
 import Utils.*;
 
@@ -23,6 +25,11 @@ import Utils.*;
  * software da simulação. Responsável pela instanciação da simulação
  * em si e inicio dos procedimentos e rotinas de execução.
  * 
+ * Todo o estado da simulação pertence à instância: condições, estação e
+ * população ficam em um SimulationContext próprio, e o controle de pausa
+ * e velocidade é feito por simulador. Assim, várias simulações podem ser
+ * executadas ao mesmo tempo na mesma JVM, como em EnsembleRunner.
+ * 
  * @author Grupo, David J. Barnes and Michael Kolling
  * @version 1.0 SNAPSHOT
  */
@@ -42,31 +49,27 @@ public class Simulator{
      * Valor da probabilidade de uma raposa ser criada em qualquer posição 
      * do campo de simualação.
      */
-    private static final double FOX_CREATION_PROBABILITY = 0.02;
+    public static final double FOX_CREATION_PROBABILITY = 0.02;
 
     /**
      * Valor da probabilidade do coelho ser criado em qualquer posição 
      * do campo de simulação.
      */
-    private static final double RABBIT_CREATION_PROBABILITY = 0.08;
+    public static final double RABBIT_CREATION_PROBABILITY = 0.08;
 
     // The probability that a Huntter will be created in any given grid position.
     /**
      * Valor da probabilidade do caçador ser criado em qualquer posição 
      * do campo de simulação.
      */
-    private static final double HUNTER_CREATION_PROBABILITY = 0.998;
+    public static final double HUNTER_CREATION_PROBABILITY = 0.998;
 
     /**
-     * Representa se a simulação encontra-se em um estado pausado.
-     */
-    private static boolean isSimulationPaused = true;
-
-    /**
-     * Representa a ação de avançar um passo no processo
-     * de simulação.
+     * Comandos de execução, pausa, passos avulsos, velocidade, reinício e
+     * encerramento, enviados pela interface gráfica e aplicados por
+     * simulate entre dois passos.
      */
-    public static boolean nextFlag = false;
+    private final SimulationControl control = new SimulationControl();
 
     // private static boolean canRunOneStep = false;
 
@@ -92,6 +95,22 @@ public class Simulator{
      */
     private Field updatedField;
 
+    /**
+     * Estado da simulação compartilhado pelos dois campos: condições,
+     * estação e contadores de população.
+     */
+    private SimulationContext context;
+
+    /**
+     * Contadores de população da simulação, os mesmos do contexto.
+     */
+    private FieldStats stats;
+
+    /**
+     * Motor responsável por executar os atores em cada passo.
+     */
+    private StepEngine engine;
+
     /**
      * Representa o passo atual do processo de simulação.
      */
@@ -105,23 +124,44 @@ public class Simulator{
     /**
      * Representa o limite máximo inicial de comida presente na simulção.
      */
-    private static final int FOOD_UPPER_BOUND = 5000000;
+    public static final int FOOD_UPPER_BOUND = 5000000;
 
     /**
-     * Abstrai a velocide de execução da visualização da simualção.
+     * Decide quando simulate entrega um quadro à interface gráfica.
      */
-    private static int speed;
+    private final RenderScheduler frames = new RenderScheduler(RenderScheduler.DEFAULT_FRAMES_PER_SECOND);
+
+    /**
+     * Mantém a taxa de passos por segundo de simulate.
+     */
+    private final StepPacer pacer = new StepPacer();
 
     /**
      * Representa o limite mínimo inicial de comida presente na simulação.
      */
-    private static final int FOOD_LOWER_BOUND = 10000;
+    public static final int FOOD_LOWER_BOUND = 10000;
+
+    /**
+     * Serviço de randomização da simulação, criado a partir da semente
+     * informada na construção do simulador.
+     */
+    private RandomService random;
+
+    /**
+     * Soma da quantidade de atores processados em cada passo, usada
+     * para medir a vazão das execuções em lote.
+     */
+    private long actorSteps;
 
     /**
-     * Armazena condições que podem ser definidas como fatores variavéis 
-     * da simulação.
+     * Gravador da série temporal da população, ou null se não houver.
      */
-    private static Map<String, Integer> conditions;
+    private PopulationRecorder recorder;
+
+    /**
+     * Registro de quadros para reprodução posterior, ou null se não houver.
+     */
+    private FrameLog frameLog;
 
     /**
      * Construct a simulation field with default size.
@@ -141,10 +181,11 @@ public class Simulator{
      */
     private void initConditions() {
 
-        Random rand = new Random();
+        random.setStep(0);
+        RandomSource rand = random.stream(1);
 
-        conditions = new HashMap<String, Integer>();
-        conditions.put("RABBIT_FOOD_LEVEL", rand.nextInt(FOOD_UPPER_BOUND - FOOD_LOWER_BOUND) + FOOD_LOWER_BOUND);
+        context.defineCondition("RABBIT_FOOD_LEVEL", rand.nextInt(FOOD_UPPER_BOUND - FOOD_LOWER_BOUND) + FOOD_LOWER_BOUND);
+        context.captureStepConditions();
 
     }
 
@@ -154,7 +195,73 @@ public class Simulator{
      * @param depth Profundidade do campo da simualção, deve ser maior que zero.
      * @param width Largura do campo da simualção, deve ser maior que zero.
      */
-    public Simulator(int depth, int width) {
+    public Simulator(int depth, int width) { this(depth, width, null, new Random().nextLong()); }
+
+    /**
+     * Construtor do objeto simulator com uma visão e uma semente definidas.
+     * Permite executar a simulação sem interface gráfica, bastando informar
+     * uma visão que não renderiza, como HeadlessView.
+     * 
+     * @param depth Profundidade do campo da simualção, deve ser maior que zero.
+     * @param width Largura do campo da simualção, deve ser maior que zero.
+     * @param view Visão da simulação, se nula é criada uma AnimatedView.
+     * @param seed Semente de randomização da população e das condições iniciais.
+     */
+    public Simulator(int depth, int width, SimulatorView view, long seed) { this(depth, width, view, new RandomService(seed)); }
+
+    /**
+     * Construtor do objeto simulator com uma visão e um serviço de
+     * randomização definidos. Toda a randomização da simulação, da
+     * população inicial às decisões dos atores, vem deste serviço.
+     * 
+     * @param depth Profundidade do campo da simualção, deve ser maior que zero.
+     * @param width Largura do campo da simualção, deve ser maior que zero.
+     * @param view Visão da simulação, se nula é criada uma AnimatedView.
+     * @param random Serviço de randomização com a semente da simulação.
+     */
+    public Simulator(int depth, int width, SimulatorView view, RandomService random) { this(depth, width, view, random, SpeciesProfile.DEFAULT); }
+
+    /**
+     * Construtor do objeto simulator com um perfil de parâmetros das
+     * espécies, usado para explorar valores diferentes das constantes
+     * sem recompilar, como em ParameterSweep.
+     * 
+     * @param depth Profundidade do campo da simualção, deve ser maior que zero.
+     * @param width Largura do campo da simualção, deve ser maior que zero.
+     * @param view Visão da simulação, se nula é criada uma AnimatedView.
+     * @param random Serviço de randomização com a semente da simulação.
+     * @param profile Parâmetros das espécies.
+     */
+    public Simulator(int depth, int width, SimulatorView view, RandomService random, SpeciesProfile profile) { this(depth, width, view, random, profile, Field.AUTO); }
+
+    /**
+     * Construtor do objeto simulator com a organização dos campos
+     * definida: Field.DENSE, Field.SPARSE, ou Field.AUTO para usar campos
+     * esparsos apenas em mundos muito grandes.
+     * 
+     * @param depth Profundidade do campo da simualção, deve ser maior que zero.
+     * @param width Largura do campo da simualção, deve ser maior que zero.
+     * @param view Visão da simulação, se nula é criada uma AnimatedView.
+     * @param random Serviço de randomização com a semente da simulação.
+     * @param profile Parâmetros das espécies.
+     * @param layout Organização dos dois campos da simulação.
+     */
+    public Simulator(int depth, int width, SimulatorView view, RandomService random, SpeciesProfile profile, String layout) { this(depth, width, view, random, profile, layout, true); }
+
+    /**
+     * Construtor do objeto simulator que pode deixar os campos vazios,
+     * usado por Snapshot para retomar uma simulação gravada sem o custo
+     * de criar a população inicial.
+     * 
+     * @param depth Profundidade do campo da simualção, deve ser maior que zero.
+     * @param width Largura do campo da simualção, deve ser maior que zero.
+     * @param view Visão da simulação, se nula é criada uma AnimatedView.
+     * @param random Serviço de randomização com a semente da simulação.
+     * @param profile Parâmetros das espécies.
+     * @param layout Organização dos dois campos da simulação.
+     * @param populate Se a população inicial deve ser criada.
+     */
+    Simulator(int depth, int width, SimulatorView view, RandomService random, SpeciesProfile profile, String layout, boolean populate) {
 
         if (width <= 0 || depth <= 0) {
 
@@ -165,20 +272,28 @@ public class Simulator{
 
         }
 
+        this.random = random;
+        this.context = new SimulationContext(profile);
+        this.stats = context.getStats();
         this.initConditions();
+        engine = new SequentialEngine();
         actors = new ArrayList<Actor>();
         newActors = new ArrayList<Actor>();
-        field = new Field(depth, width);
-        updatedField = new Field(depth, width);
+        field = Field.create(layout, depth, width, context);
+        updatedField = Field.create(layout, depth, width, context);
 
         // Cria uma view representando o estado da localização de cada elemento presente no processo da simulação.
-        view = new AnimatedView(depth, width);
-        view.setColor(Fox.class, Color.blue);
-        view.setColor(Rabbit.class, Color.orange);
-        view.setColor(Hunter.class, Color.red);
+        this.view = (view == null) ? new AnimatedView(depth, width, this) : view;
+        this.view.setColor(Fox.class, Color.blue);
+        this.view.setColor(Rabbit.class, Color.orange);
+        this.view.setColor(Hunter.class, Color.red);
 
         // Setup a valid starting point.
-        reset();
+        if (populate) {
+
+            reset();
+
+        }
 
     }
 
@@ -189,11 +304,17 @@ public class Simulator{
      * @param condition Uma string que representa a chave da condição.
      * @param value Um valor para tal condição.
      */
-    public static void updateConditions(String condition, int value) {
+    public void updateConditions(String condition, int value) { context.updateCondition(condition, value); }
 
-        Simulator.conditions.replace(condition, value);
-
-    }
+    /**
+     * Soma atomicamente um valor a uma condição da simulação. Deve ser
+     * usado pelos atores no lugar de getCondition seguido de updateConditions,
+     * pois o passo pode estar sendo executado por várias threads.
+     * 
+     * @param condition Uma string que representa a chave da condição.
+     * @param delta Valor a ser somado à condição.
+     */
+    public void addToCondition(String condition, int delta) { context.addToCondition(condition, delta); }
 
     /**
      * Método acessador para o estado das condições de ambiente
@@ -202,11 +323,15 @@ public class Simulator{
      * @param condition Uma string representando a chave da condição.
      * @return int O valor da condição de simulação buscada.
      */
-    public static int getCondition(String condition) {
+    public int getCondition(String condition) { return context.getCondition(condition); }
 
-        return Simulator.conditions.get(condition);
-
-    }
+    /**
+     * Método acessador do valor de uma condição no início do passo atual.
+     * 
+     * @param condition Uma string representando a chave da condição.
+     * @return int O valor da condição quando o passo começou.
+     */
+    public int getStepCondition(String condition) { return context.getStepCondition(condition); }
 
     /**
      * Executa o processo de simulação por um longo periodo pré definido como 800 passos.
@@ -218,43 +343,138 @@ public class Simulator{
      * Tal execução para depois de uma das condições de existencia ser alcançada
      * ou se o número de passos for alcançado.
      * 
+     * Os comandos de getControl são aplicados entre dois passos, e enquanto
+     * a simulação está pausada sem passos avulsos a thread fica bloqueada
+     * esperando o próximo comando. A simulação começa pausada e sem limite
+     * de passos por segundo; com setStepRate, os passos seguem a taxa
+     * definida por StepPacer.
+     * 
+     * O campo é entregue à interface na taxa de quadros de setFrameRate, e
+     * entre dois quadros são executados quantos passos couberem. Os passos
+     * avulsos e o último passo são sempre exibidos.
+     * 
      * @param numSteps Quantidade de passos.
      */
     public void simulate(int numSteps) {
 
-        for (int step = 1; step <= numSteps && view.isViable(field); step++) {
+        for (int step = 1; step <= numSteps && view.isViable(field) && applyCommands(); step++) {
 
-            if(!isSimulationPaused) {
+            boolean single = control.takeStep();
 
-                try {
+            // Um comando que chega durante a espera é aplicado antes do passo.
+            if (!single && !pacer.await(control)) {
 
-                    TimeUnit.MILLISECONDS.sleep(speed);
+                step--;
+                continue;
 
-                } catch (InterruptedException e) {
+            }
 
-                    e.printStackTrace();
+            this.defineSeason(this.step + 1);
+            simulateOneStep();
 
-                }
-                
-                this.defineSeason(step);
-                simulateOneStep();
+            if (!single) {
 
-            } else {
+                pacer.stepped();
 
-                if (Simulator.nextFlag) {
-                    
-                    Simulator.nextFlag = !Simulator.nextFlag;
-                    this.defineSeason(step);
-                    simulateOneStep();
+            }
 
-                } else {
+            if (single || frames.isFrameDue(System.nanoTime())) {
 
-                    step -= 1;
+                render();
 
-                }
+            }
+
+        }
+
+        if (frames.isPending(this.step)) {
+
+            render();
+
+        }
+    }
+
+    /**
+     * Aplica os comandos pendentes, em ordem, antes do próximo passo. Se a
+     * simulação estiver pausada sem passos avulsos, exibe o último passo
+     * executado e espera, bloqueada, pelos próximos comandos.
+     * 
+     * @return true Se há um passo a executar, false se a simulação foi encerrada.
+     */
+    private boolean applyCommands() {
+
+        while (true) {
+
+            boolean idle = control.isIdle();
+
+            // Ao pausar, o último passo executado é exibido.
+            if (idle && frames.isPending(this.step)) {
+
+                render();
+
+            }
+
+            int command = control.next(idle);
+
+            if (idle || command == SimulationControl.START) {
+
+                pacer.restart();
+
+            }
+
+            if (command == SimulationControl.SPEED) {
+
+                pacer.setInterval(control.getStepInterval());
+
+            }
+
+            if (command == SimulationControl.NONE) {
+
+                return !control.isStopped();
+
+            }
+
+            if (command == SimulationControl.RESET) {
+
+                reset();
 
             }
+
         }
+
+    }
+
+    /**
+     * Entrega o campo atual à visão e registra o custo no agendador de
+     * quadros.
+     */
+    private void render() {
+
+        long started = System.nanoTime();
+        view.showStatus(step, field);
+        frames.rendered(step, started, System.nanoTime());
+
+    }
+
+    /**
+     * Executa um único passo, se a simulação ainda for viável, sem
+     * considerar pausa nem velocidade. Usado por quem controla o ritmo
+     * da simulação por conta própria, como EnsembleRunner.
+     * 
+     * @return true Se o passo foi executado.
+     */
+    public boolean runStep() {
+
+        if (!view.isViable(field)) {
+
+            return false;
+
+        }
+
+        this.defineSeason(step + 1);
+        simulateOneStep();
+        render();
+        return true;
+
     }
 
     /**
@@ -266,27 +486,29 @@ public class Simulator{
      */
     private void defineSeason(int step) {
 
+        SeasonsController seasons = context.getSeasons();
+
         if(step <= 200 ) {
 
-            SeasonsController.definirPrimavera();
+            seasons.definirPrimavera();
             view.updateSeasonField("Primavera");
             updateConditionsByPeriod(1, 5);
             
         } else if(step > 200 && step <= 400) {
 
-            SeasonsController.definirVerao();
+            seasons.definirVerao();
             view.updateSeasonField("Verão");
             updateConditionsByPeriod(2, 4);
             
         } else if (step > 400 && step <= 600) {
 
-            SeasonsController.definirOutono();
+            seasons.definirOutono();
             view.updateSeasonField("Outono");
             updateConditionsByPeriod(6, 2);
 
         } else {
 
-            SeasonsController.definirInverno();
+            seasons.definirInverno();
             view.updateSeasonField("Inverno");
             updateConditionsByPeriod(10, 3);
 
@@ -304,22 +526,22 @@ public class Simulator{
     private void updateConditionsByPeriod(int days, int adjustValue) {
         
         
-        Simulator.updateConditions("RABBIT_FOOD_LEVEL", 
+        updateConditions("RABBIT_FOOD_LEVEL", 
         
             (step % days == 0) ? 
-                Simulator.getCondition("RABBIT_FOOD_LEVEL") + FOOD_LOWER_BOUND * adjustValue : 
-                Simulator.getCondition("RABBIT_FOOD_LEVEL") - FOOD_LOWER_BOUND * adjustValue  
+                getCondition("RABBIT_FOOD_LEVEL") + FOOD_LOWER_BOUND * adjustValue : 
+                getCondition("RABBIT_FOOD_LEVEL") - FOOD_LOWER_BOUND * adjustValue  
 
         );
 
-        // int updated = Simulator.getCondition("RABBIT_FOOD_LEVEL");
+        // int updated = getCondition("RABBIT_FOOD_LEVEL");
 
-        // if ((Simulator.getCondition("RABBIT_FOOD_LEVEL") % days) == 0) {
+        // if ((getCondition("RABBIT_FOOD_LEVEL") % days) == 0) {
         //     updated += 
         // }
-        //Simulator.updateConditions("RABBIT_FOOD_LEVEL", updated);
+        //updateConditions("RABBIT_FOOD_LEVEL", updated);
 
-        view.updateFoodLevelField(Simulator.getCondition("RABBIT_FOOD_LEVEL") <= 0 ? 0 : Simulator.getCondition("RABBIT_FOOD_LEVEL"));
+        view.updateFoodLevelField(getCondition("RABBIT_FOOD_LEVEL") <= 0 ? 0 : getCondition("RABBIT_FOOD_LEVEL"));
 
     }
 
@@ -333,28 +555,44 @@ public class Simulator{
         
         step++;
         newActors.clear();
-        
-        for (Iterator iter = actors.iterator(); iter.hasNext();) {
+        actorSteps += actors.size();
+        context.captureStepConditions();
+        random.setStep(step);
 
-            Actor actor = (Actor)iter.next();
-            
-            if(actor.isActive())
-                actor.act(field, updatedField, newActors, actors);
-            else
-                iter.remove();
-        }
+        engine.step(actors, newActors, field, updatedField, random);
+        stats.commit();
         
         // Adicionando novos animais nascidos na lista
         actors.addAll(newActors);
 
+        recordStep();
+
+        if (frameLog != null) {
+
+            frameLog.record(step, field, updatedField);
+
+        }
+
         // Trocando o campo atual por novo campo atualizado ao final do processamento do passo atual.
         Field temp = field;
         field = updatedField;
         updatedField = temp;
         updatedField.clear();
+    }
+
+    /**
+     * Entrega o estado do passo atual ao gravador da série temporal, se
+     * houver. A entrega apenas copia alguns inteiros para a fila do
+     * gravador, que escreve o arquivo em outra thread.
+     */
+    private void recordStep() {
+
+        if (recorder != null) {
+
+            recorder.record(step, stats, getCondition("RABBIT_FOOD_LEVEL"), context.getSeasons().getCurrentSeason().getSeasonName());
+
+        }
 
-        // Renderiza novo campo atualizado na interface gráfica.
-        view.showStatus(step, field);
     }
 
     /**
@@ -362,52 +600,123 @@ public class Simulator{
      */
     public void reset() {
         step = 0;
+        actorSteps = 0;
         actors.clear();
         field.clear();
         updatedField.clear();
+        stats.clearPopulation();
         populate(field);
+        stats.commit();
 
         // Renderiza o campo com estado inicial na tela.
-        view.showStatus(step, field);
+        render();
     }
 
     /**
-     * Método responsável por popular o campo com raposas e coelhos.
+     * Método responsável por popular o campo com raposas e coelhos. Os
+     * sorteios de cada linha são gerados de uma só vez, três por posição,
+     * a menos que o perfil peça a população sorteada diretamente. O
+     * fluxo 2 fica associado à thread apenas durante a criação dos atores.
      * 
      * @param field Campo de simulação atual.
      */
     private void populate(Field field) {
         
-        Random rand = new Random();
         field.clear();
 
-        for (int row = 0; row < field.getDepth(); row++) {
+        random.setStep(0);
+        RandomSource rand = random.stream(0);
+        RandomService.bind(random.stream(2));
+
+        try {
+
+            SpeciesProfile profile = context.getProfile();
+
+            if (profile.isSampledPopulation()) {
+
+                populateSampled(field, rand, profile);
+                rand.shuffle(actors);
+                return;
+
+            }
+
+            double[] draws = new double[3 * field.getWidth()];
+
+            for (int row = 0; row < field.getDepth(); row++) {
+
+                rand.nextDoubles(draws);
 
-            for (int col = 0; col < field.getWidth(); col++) {
+                for (int col = 0; col < field.getWidth(); col++) {
 
-                if (rand.nextDouble() <= FOX_CREATION_PROBABILITY) {
+                    if (draws[3 * col] <= profile.getFoxCreationProbability()) {
 
-                    Fox fox = new Fox(true, field, new Location(row, col));
-                    adicionaNoMapa(fox, row, col);
+                        Fox fox = new Fox(true, field, row, col);
+                        adicionaNoMapa(fox, row, col);
 
-                } else if (rand.nextDouble() <= RABBIT_CREATION_PROBABILITY) {
+                    } else if (draws[3 * col + 1] <= profile.getRabbitCreationProbability()) {
 
-                    Rabbit rabbit = new Rabbit(true, field, new Location(row, col));
-                    adicionaNoMapa(rabbit, row, col);
+                        Rabbit rabbit = new Rabbit(true, field, row, col);
+                        adicionaNoMapa(rabbit, row, col);
 
-                } else if (rand.nextDouble() > HUNTER_CREATION_PROBABILITY){
+                    } else if (draws[3 * col + 2] > profile.getHunterCreationProbability()){
                     
-                    Hunter hunter = new Hunter(true, field, new Location(row, col));
-                    adicionaNoMapa(hunter, row, col);
+                        Hunter hunter = new Hunter(true, field, row, col);
+                        adicionaNoMapa(hunter, row, col);
                     
+                    }
+                    // else leave the location empty.
+
                 }
-                // else leave the location empty.
 
             }
 
+            rand.shuffle(actors);
+
+        } finally {
+
+            RandomService.unbind();
+
         }
 
-        Collections.shuffle(actors);
+    }
+
+    /**
+     * Popula o campo apenas nas posições sorteadas por CellSampler, com
+     * a densidade ou a quantidade do perfil, sem percorrer as posições
+     * vazias. A espécie de cada posição é sorteada na ordem das posições.
+     * 
+     * @param field Campo de simulação atual.
+     * @param rand Gerador dos sorteios das posições e espécies.
+     * @param profile Parâmetros das espécies e da população inicial.
+     */
+    private void populateSampled(Field field, RandomSource rand, SpeciesProfile profile) {
+
+        long cells = (long) field.getDepth() * field.getWidth();
+        long[] sample = profile.getInitialCount() > 0 ? CellSampler.byCount(rand, cells, profile.getInitialCount())
+            : CellSampler.byDensity(rand, cells, profile.getInitialDensity());
+
+        for (long cell : sample) {
+
+            int row = (int) (cell / field.getWidth());
+            int col = (int) (cell % field.getWidth());
+
+            switch (profile.initialSpecies(rand.nextDouble())) {
+
+                case Species.FOX:
+                    adicionaNoMapa(new Fox(true, field, row, col), row, col);
+                    break;
+
+                case Species.RABBIT:
+                    adicionaNoMapa(new Rabbit(true, field, row, col), row, col);
+                    break;
+
+                default:
+                    adicionaNoMapa(new Hunter(true, field, row, col), row, col);
+                    break;
+
+            }
+
+        }
 
     }
 
@@ -423,22 +732,226 @@ public class Simulator{
         field.place(ator, row, col);
     }
 
+    /**
+     * Grava o estado da simulação em um arquivo binário. A cópia do
+     * estado é feita nesta chamada e a escrita é feita em segundo plano,
+     * de forma que a simulação pode continuar enquanto o arquivo é
+     * gravado. Deve ser chamado pela thread que executa os passos, entre
+     * dois passos.
+     * 
+     * @param path Caminho do arquivo.
+     * @return Future Conclusão da escrita, com a falha se houver.
+     */
+    public Future<?> saveSnapshot(String path) { return Snapshot.capture(this).writeAsync(Paths.get(path)); }
+
+    /**
+     * Retoma uma simulação gravada por saveSnapshot. Os próximos passos
+     * são idênticos aos que a simulação original executaria, com
+     * qualquer motor.
+     * 
+     * @param path Caminho do arquivo.
+     * @param view Visão da simulação, se nula é criada uma AnimatedView.
+     * @return Simulator A simulação no passo em que foi gravada.
+     * @throws IOException Se o arquivo não puder ser lido.
+     * @throws IllegalArgumentException Se o arquivo não for uma gravação válida.
+     */
+    public static Simulator loadSnapshot(String path, SimulatorView view) throws IOException { return Snapshot.read(Paths.get(path)).restore(view); }
+
+    /**
+     * Conclui a retomada de uma simulação gravada, depois que Snapshot
+     * recriou os atores e os colocou nos campos.
+     * 
+     * @param step Passo em que a simulação foi gravada.
+     * @param actorSteps Atores-passo processados até a gravação.
+     * @param season Nome da estação atual.
+     */
+    void resume(int step, long actorSteps, String season) {
+
+        this.step = step;
+        this.actorSteps = actorSteps;
+        random.setStep(step);
+        stats.commit();
+
+        if (context.getSeasons().definirPorNome(season)) {
+
+            view.updateSeasonField(season);
+
+        }
+
+        view.updateFoodLevelField(Math.max(0, getCondition("RABBIT_FOOD_LEVEL")));
+        render();
+
+    }
+
+    /**
+     * Método acessador da lista de atores, usado na gravação e na
+     * retomada da simulação.
+     * 
+     * @return List Os atores da simulação, na ordem de execução.
+     */
+    List<Actor> getActors() { return this.actors; }
+
+    /**
+     * Método acessador do campo que recebe o próximo passo.
+     * 
+     * @return Field O campo atualizado, vazio entre dois passos.
+     */
+    Field getUpdatedField() { return this.updatedField; }
+
+    /**
+     * Método acessador do serviço de randomização.
+     * 
+     * @return RandomService O serviço com a semente da simulação.
+     */
+    RandomService getRandom() { return this.random; }
+
     /**
      * Executa uma pausa na execução dos passos
      * do processo de simulção.
      */
-    public static void pauseSimulation(){ isSimulationPaused = true; }
+    public void pauseSimulation(){ control.pause(); }
 
     /**
      * Libera a execução do processo de simulação.
      */
-    public static void startSimulation(){ isSimulationPaused = false; }
+    public void startSimulation(){ control.start(); }
+
+    /**
+     * Solicita a execução de um único passo, deixando a simulação pausada.
+     */
+    public void requestNextStep(){ control.step(1); }
 
     /**
      * Método modificador do estado do atributo velocidade.
      * 
-     * @param speed Um valor inteiro para a definição da velocidade de execução da simulação.
+     * @param speed Intervalo entre passos em milissegundos, ou 0 sem limite.
+     */
+    public void setSpeed(int speed){ control.setStepInterval(TimeUnit.MILLISECONDS.toNanos(Math.max(0, speed))); }
+
+    /**
+     * Define a taxa alvo de passos por segundo de simulate. O tempo gasto
+     * em cada passo é descontado da espera, de forma que a taxa obtida
+     * não depende da carga enquanto couber no tempo disponível.
+     * 
+     * @param stepsPerSecond Passos por segundo, ou 0 para o modo sem limite.
+     */
+    public void setStepRate(double stepsPerSecond){ control.setStepInterval(stepsPerSecond <= 0 ? 0 : Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / stepsPerSecond))); }
+
+    /**
+     * Método acessador do ritmo de simulate, com a taxa alvo e a taxa
+     * obtida de passos por segundo.
+     * 
+     * @return StepPacer O ritmo da simulação.
+     */
+    public StepPacer getStepPacer() { return this.pacer; }
+
+    /**
+     * Método acessador do serviço de controle usado por simulate, para
+     * enviar comandos de qualquer thread.
+     * 
+     * @return SimulationControl O serviço de controle.
+     */
+    public SimulationControl getControl() { return this.control; }
+
+    /**
+     * Define a taxa alvo de quadros entregues à interface gráfica por
+     * simulate. Deve ser chamado pela thread que executa os passos, ou
+     * antes de simulate.
+     * 
+     * @param framesPerSecond Quadros por segundo desejados.
+     * @throws IllegalArgumentException Se a taxa não for positiva.
+     */
+    public void setFrameRate(int framesPerSecond) { frames.setFramesPerSecond(framesPerSecond); }
+
+    /**
+     * Método acessador do agendador de quadros, com a taxa obtida e o
+     * custo médio de cada quadro.
+     * 
+     * @return RenderScheduler O agendador usado por simulate.
+     */
+    public RenderScheduler getRenderScheduler() { return this.frames; }
+
+    /**
+     * Método modificador do gravador da série temporal da população. O
+     * passo atual é gravado imediatamente e os seguintes ao final de cada
+     * passo. Quem criou o gravador é responsável por fechá-lo.
+     * 
+     * @param recorder O gravador, ou null para parar de gravar.
+     */
+    public void setRecorder(PopulationRecorder recorder) {
+
+        this.recorder = recorder;
+        recordStep();
+
+    }
+
+    /**
+     * Método modificador do registro de quadros. O campo atual é gravado
+     * imediatamente como quadro chave e os seguintes a cada troca de
+     * campos. Quem criou o registro é responsável por fechá-lo.
+     * 
+     * @param frameLog O registro, com as dimensões deste campo, ou null para parar de gravar.
+     */
+    public void setFrameLog(FrameLog frameLog) {
+
+        this.frameLog = frameLog;
+
+        if (frameLog != null) {
+
+            frameLog.keyframe(step, field);
+
+        }
+
+    }
+
+    /**
+     * Método modificador do motor que executa os passos da simulação.
+     * 
+     * @param engine Um motor de execução, sequencial ou paralelo.
+     */
+    public void setEngine(StepEngine engine) { this.engine = engine; }
+
+    /**
+     * Método acessador do passo atual do processo de simulação.
+     * 
+     * @return int O passo atual.
+     */
+    public int getStep() { return this.step; }
+
+    /**
+     * Método acessador do campo de simulação atual.
+     * 
+     * @return Field O campo atual.
+     */
+    public Field getField() { return this.field; }
+
+    /**
+     * Método acessador da quantidade de atores presentes na simulação.
+     * 
+     * @return int Quantidade de atores.
+     */
+    public int getActorCount() { return this.actors.size(); }
+
+    /**
+     * Método acessador dos contadores de população da simulação.
+     * 
+     * @return FieldStats Os contadores compartilhados pelos campos.
+     */
+    public FieldStats getStats() { return this.stats; }
+
+    /**
+     * Método acessador do estado compartilhado da simulação.
+     * 
+     * @return SimulationContext Condições, estação e população desta simulação.
+     */
+    public SimulationContext getContext() { return this.context; }
+
+    /**
+     * Método acessador da soma de atores processados em todos os passos
+     * desde o último reset.
+     * 
+     * @return long Quantidade de atores-passo processados.
      */
-    public static void setSpeed(int speed){ Simulator.speed = speed; }
+    public long getActorSteps() { return this.actorSteps; }
 
 }
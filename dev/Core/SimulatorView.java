@@ -19,7 +19,7 @@ public interface SimulatorView {
      * @param cl Uma classe de ator presente na simulação.
      * @param color Uma cor.
      */
-    public void setColor(Class cl, Color color);
+    public void setColor(Class<?> cl, Color color);
 
     /**
      * Método responsável por verificar condições
@@ -0,0 +1,467 @@
+package Core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import Actors.Actor;
+import Actors.ActorCodec;
+import Actors.SpeciesProfile;
+import Controllers.Field;
+import Controllers.SimulationContext;
+import Controllers.SparseField;
+import Utils.Location;
+import Utils.RandomService;
+
+/**
+ * Gravação binária do estado completo de uma simulação entre dois passos,
+ * da qual a simulação pode ser retomada exatamente como seguiria.
+ *
+ * O estado é copiado para um buffer na thread que executa os passos, o
+ * que garante uma cópia consistente, e o arquivo é escrito em segundo
+ * plano por uma única thread, através de um FileChannel mapeado em
+ * memória. A escrita é feita em um arquivo temporário que depois substitui
+ * o destino, para que uma gravação interrompida nunca deixe um arquivo
+ * incompleto. A leitura também mapeia o arquivo em vez de copiá-lo.
+ *
+ * O estado do gerador não precisa ser copiado: como os fluxos são
+ * derivados apenas da semente, do algoritmo e do passo, gravar os três
+ * basta para que os sorteios seguintes sejam os mesmos.
+ *
+ * Formato, com inteiros em big-endian e textos com o tamanho em um short
+ * seguido dos bytes em UTF-8:
+ *
+ *   "PPOOSNAP", versão, profundidade, largura, organização do campo,
+ *   semente, algoritmo, passo, atores-passo, parâmetros das espécies
+ *   (quantidade, nome e valor), condições (quantidade, nome, valor atual
+ *   e valor no início do passo), estação, atores (quantidade, quantidade
+ *   na lista de execução e um registro de ActorCodec por ator) e células
+ *   ocupadas do campo atual (quantidade, posição e índice do ator).
+ *
+ * Os atores aparecem na ordem de execução; os que estão no campo mas já
+ * saíram da lista vêm depois deles. Como o buffer é indexado por int, a
+ * gravação é limitada a 2 GiB.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public final class Snapshot {
+
+    /**
+     * Identificação do início do arquivo.
+     */
+    private static final byte[] MAGIC = "PPOOSNAP".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Versão do formato. Deve ser alterada sempre que o formato mudar.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * Bytes de uma célula ocupada: posição e índice do ator.
+     */
+    private static final int CELL_BYTES = Long.BYTES + Integer.BYTES;
+
+    /**
+     * Thread que escreve os arquivos, um de cada vez e na ordem em que
+     * foram pedidos. Não impede o encerramento da JVM; quem precisa da
+     * escrita concluída espera o Future de writeAsync.
+     */
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(task -> {
+
+        Thread thread = new Thread(task, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+
+    });
+
+    /**
+     * Conteúdo completo da gravação, posicionado no início.
+     */
+    private final ByteBuffer data;
+
+    /**
+     * Construtor a partir do conteúdo de uma gravação.
+     *
+     * @param data Conteúdo, posicionado no início.
+     */
+    private Snapshot(ByteBuffer data) { this.data = data; }
+
+    /**
+     * Copia o estado de uma simulação. Deve ser chamado entre dois
+     * passos, pela thread que executa os passos.
+     *
+     * @param simulator Simulação gravada.
+     * @return Snapshot A cópia do estado.
+     * @throws IllegalStateException Se o estado não couber em 2 GiB.
+     */
+    static Snapshot capture(Simulator simulator) {
+
+        Field field = simulator.getField();
+        List<Actor> listed = simulator.getActors();
+        Map<Actor, Integer> index = new IdentityHashMap<Actor, Integer>();
+        List<Actor> actors = new ArrayList<Actor>(listed);
+
+        for (Actor actor : actors) {
+
+            index.put(actor, index.size());
+
+        }
+
+        long cells = 0;
+
+        for (int i = 0; i < field.getDirtyBlockCount(); i++) {
+
+            int block = field.getDirtyBlock(i);
+
+            for (int row = field.getBlockFirstRow(block); row < blockEnd(field.getBlockFirstRow(block), field.getDepth()); row++) {
+
+                for (int col = field.getBlockFirstCol(block); col < blockEnd(field.getBlockFirstCol(block), field.getWidth()); col++) {
+
+                    Object object = field.getObjectAt(row, col);
+
+                    if (object instanceof Actor) {
+
+                        cells++;
+
+                        if (!index.containsKey(object)) {
+
+                            index.put((Actor) object, index.size());
+                            actors.add((Actor) object);
+
+                        }
+
+                    }
+
+                }
+
+            }
+
+        }
+
+        ByteBuffer header = header(simulator);
+        long size = header.remaining() + 2L * Integer.BYTES + (long) actors.size() * ActorCodec.RECORD_BYTES + Long.BYTES + cells * CELL_BYTES;
+
+        if (size > Integer.MAX_VALUE) {
+
+            throw new IllegalStateException("Gravação de " + size + " bytes excede o limite de 2 GiB.");
+
+        }
+
+        ByteBuffer data = ByteBuffer.allocate((int) size);
+        data.put(header);
+        data.putInt(actors.size());
+        data.putInt(listed.size());
+
+        for (Actor actor : actors) {
+
+            ActorCodec.write(actor, field, data);
+
+        }
+
+        data.putLong(cells);
+
+        for (int i = 0; i < field.getDirtyBlockCount(); i++) {
+
+            int block = field.getDirtyBlock(i);
+
+            for (int row = field.getBlockFirstRow(block); row < blockEnd(field.getBlockFirstRow(block), field.getDepth()); row++) {
+
+                for (int col = field.getBlockFirstCol(block); col < blockEnd(field.getBlockFirstCol(block), field.getWidth()); col++) {
+
+                    Object object = field.getObjectAt(row, col);
+
+                    if (object instanceof Actor) {
+
+                        data.putLong(Location.pack(row, col));
+                        data.putInt(index.get(object));
+
+                    }
+
+                }
+
+            }
+
+        }
+
+        data.flip();
+        return new Snapshot(data);
+
+    }
+
+    /**
+     * Escreve o cabeçalho: dimensões, gerador, passo, parâmetros,
+     * condições e estação.
+     *
+     * @param simulator Simulação gravada.
+     * @return ByteBuffer O cabeçalho, pronto para leitura.
+     */
+    private static ByteBuffer header(Simulator simulator) {
+
+        Field field = simulator.getField();
+        RandomService random = simulator.getRandom();
+        SimulationContext context = simulator.getContext();
+        Map<String, Integer> conditions = new TreeMap<String, Integer>(context.getConditions());
+        Map<String, Integer> stepConditions = context.getStepConditions();
+        String[] parameters = SpeciesProfile.getParameterNames();
+        ByteBuffer header = ByteBuffer.allocate(1 << 16);
+
+        header.put(MAGIC);
+        header.putInt(FORMAT_VERSION);
+        header.putInt(field.getDepth());
+        header.putInt(field.getWidth());
+        header.put((byte) (field instanceof SparseField ? 1 : 0));
+        header.putLong(random.getSeed());
+        putString(header, random.getAlgorithm());
+        header.putInt(simulator.getStep());
+        header.putLong(simulator.getActorSteps());
+        header.putInt(parameters.length);
+
+        for (String parameter : parameters) {
+
+            putString(header, parameter);
+            header.putDouble(context.getProfile().get(parameter));
+
+        }
+
+        header.putInt(conditions.size());
+
+        for (Map.Entry<String, Integer> condition : conditions.entrySet()) {
+
+            Integer atStepStart = stepConditions.get(condition.getKey());
+            putString(header, condition.getKey());
+            header.putInt(condition.getValue());
+            header.putInt(atStepStart == null ? condition.getValue() : atStepStart);
+
+        }
+
+        putString(header, context.getSeasons().getCurrentSeason().getSeasonName());
+        header.flip();
+        return header;
+
+    }
+
+    /**
+     * Escreve a gravação em segundo plano. O conteúdo é escrito em um
+     * arquivo temporário mapeado em memória, forçado para o disco e então
+     * movido para o destino.
+     *
+     * @param path Caminho do arquivo.
+     * @return Future Conclusão da escrita, com a falha se houver.
+     */
+    Future<?> writeAsync(Path path) {
+
+        return WRITER.submit(() -> {
+
+            write(path);
+            return null;
+
+        });
+
+    }
+
+    /**
+     * Escreve a gravação na thread atual.
+     *
+     * @param path Caminho do arquivo.
+     * @throws IOException Se o arquivo não puder ser escrito.
+     */
+    void write(Path path) throws IOException {
+
+        Path target = path.toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, data.remaining());
+            map.put(data.duplicate());
+            map.force();
+
+        }
+
+        try {
+
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (IOException e) {
+
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+
+        }
+
+    }
+
+    /**
+     * Lê uma gravação, mapeando o arquivo em memória.
+     *
+     * @param path Caminho do arquivo.
+     * @return Snapshot A gravação lida.
+     * @throws IOException Se o arquivo não puder ser lido.
+     * @throws IllegalArgumentException Se o arquivo não for uma gravação desta versão.
+     */
+    static Snapshot read(Path path) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            if (channel.size() > Integer.MAX_VALUE || channel.size() < MAGIC.length + Integer.BYTES) {
+
+                throw new IllegalArgumentException(path + " não é uma gravação da simulação.");
+
+            }
+
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] magic = new byte[MAGIC.length];
+            data.get(magic);
+
+            if (!Arrays.equals(magic, MAGIC)) {
+
+                throw new IllegalArgumentException(path + " não é uma gravação da simulação.");
+
+            }
+
+            int version = data.getInt();
+
+            if (version != FORMAT_VERSION) {
+
+                throw new IllegalArgumentException("Formato " + version + " de " + path + " não é suportado, esperado " + FORMAT_VERSION + ".");
+
+            }
+
+            data.rewind();
+            return new Snapshot(data);
+
+        }
+
+    }
+
+    /**
+     * Recria a simulação gravada: campos vazios com a organização e o
+     * perfil gravados, atores com o seu estado, células ocupadas do campo
+     * atual, condições, estação, passo e contadores de população.
+     *
+     * @param view Visão da simulação, se nula é criada uma AnimatedView.
+     * @return Simulator A simulação no passo em que foi gravada.
+     * @throws IllegalArgumentException Se o conteúdo for inválido.
+     */
+    Simulator restore(SimulatorView view) {
+
+        ByteBuffer in = data.duplicate();
+        in.position(MAGIC.length + Integer.BYTES);
+
+        int depth = in.getInt(), width = in.getInt();
+        String layout = in.get() == 1 ? Field.SPARSE : Field.DENSE;
+        long seed = in.getLong();
+        RandomService random = new RandomService(seed, getString(in));
+        int step = in.getInt();
+        long actorSteps = in.getLong();
+        SpeciesProfile profile = SpeciesProfile.DEFAULT;
+
+        for (int i = in.getInt(); i > 0; i--) {
+
+            String parameter = getString(in);
+            profile = profile.with(parameter, in.getDouble());
+
+        }
+
+        Simulator simulator = new Simulator(depth, width, view, random, profile, layout, false);
+        SimulationContext context = simulator.getContext();
+        Map<String, Integer> stepConditions = new TreeMap<String, Integer>();
+
+        for (int i = in.getInt(); i > 0; i--) {
+
+            String condition = getString(in);
+            context.defineCondition(condition, in.getInt());
+            stepConditions.put(condition, in.getInt());
+
+        }
+
+        context.restoreStepConditions(stepConditions);
+        String season = getString(in);
+
+        Field field = simulator.getField();
+        Field updated = simulator.getUpdatedField();
+        int count = in.getInt(), listed = in.getInt();
+        Actor[] actors = new Actor[count];
+        context.getStats().clearPopulation();
+
+        for (int i = 0; i < count; i++) {
+
+            actors[i] = ActorCodec.read(in, field, updated);
+
+        }
+
+        List<Actor> list = simulator.getActors();
+        list.clear();
+
+        for (int i = 0; i < listed; i++) {
+
+            list.add(actors[i]);
+
+        }
+
+        for (long cells = in.getLong(); cells > 0; cells--) {
+
+            long position = in.getLong();
+            field.place(actors[in.getInt()], position);
+
+        }
+
+        simulator.resume(step, actorSteps, season);
+        return simulator;
+
+    }
+
+    /**
+     * Retorna o fim exclusivo de um bloco em uma dimensão do campo.
+     *
+     * @param first Primeira linha ou coluna do bloco.
+     * @param size Profundidade ou largura do campo.
+     * @return int A linha ou coluna seguinte à última do bloco.
+     */
+    private static int blockEnd(int first, int size) { return Math.min(first + Field.BLOCK_SIZE, size); }
+
+    /**
+     * Escreve um texto com o tamanho em um short.
+     *
+     * @param out Destino.
+     * @param text Texto escrito.
+     */
+    private static void putString(ByteBuffer out, String text) {
+
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+
+    }
+
+    /**
+     * Lê um texto escrito por putString.
+     *
+     * @param in Origem.
+     * @return String O texto lido.
+     */
+    private static String getString(ByteBuffer in) {
+
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+
+    }
+
+}
@@ -0,0 +1,164 @@
+package Core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ritmo da simulação em tempo real: mantém uma taxa alvo de passos por
+ * segundo, ou nenhuma, no modo sem limite.
+ *
+ * Cada passo tem um prazo absoluto, o prazo do passo anterior mais o
+ * intervalo, e a thread da simulação espera com LockSupport.parkNanos
+ * apenas o que falta até o prazo. Assim o tempo gasto calculando e
+ * desenhando o passo é descontado da espera, e a taxa obtida não se
+ * afasta da taxa alvo com a carga. Se a simulação ficar atrasada em mais
+ * de MAX_LAG, por um passo lento ou uma pausa, os prazos recomeçam do
+ * instante atual em vez de executar os passos atrasados de uma vez.
+ *
+ * A taxa obtida é medida em janelas de um segundo e pode ser lida por
+ * qualquer thread; os demais métodos são usados apenas pela thread da
+ * simulação.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class StepPacer {
+
+    /**
+     * Atraso a partir do qual os prazos recomeçam do instante atual.
+     */
+    private static final long MAX_LAG = TimeUnit.MILLISECONDS.toNanos(250);
+
+    /**
+     * Duração da janela de medição da taxa obtida.
+     */
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Intervalo entre passos, em nanossegundos, ou 0 sem limite.
+     */
+    private volatile long interval;
+
+    /**
+     * Prazo do próximo passo.
+     */
+    private long deadline;
+
+    /**
+     * Indica que os prazos devem recomeçar no próximo passo.
+     */
+    private boolean restart = true;
+
+    /**
+     * Início e passos da janela de medição atual.
+     */
+    private long windowStart, windowSteps;
+
+    /**
+     * Taxa obtida na última janela completa, em passos por segundo.
+     */
+    private volatile double achieved;
+
+    /**
+     * Define o intervalo entre passos e recomeça os prazos e a medição.
+     *
+     * @param nanos Intervalo em nanossegundos, ou 0 para o modo sem limite.
+     */
+    public void setInterval(long nanos) {
+
+        interval = Math.max(0, nanos);
+        restart();
+
+    }
+
+    /**
+     * Recomeça os prazos e a medição, depois de uma pausa.
+     */
+    public void restart() { restart = true; }
+
+    /**
+     * Espera até o prazo do próximo passo, ou até a chegada de um comando.
+     *
+     * @param control Controle cujos comandos interrompem a espera.
+     * @return true Se o prazo chegou, false se um comando chegou antes.
+     */
+    public boolean await(SimulationControl control) {
+
+        long now = System.nanoTime();
+
+        if (restart) {
+
+            restart = false;
+            deadline = now;
+            windowStart = now;
+            windowSteps = 0;
+
+        }
+
+        if (interval == 0) {
+
+            return true;
+
+        }
+
+        if (now - deadline > MAX_LAG) {
+
+            deadline = now;
+
+        }
+
+        for (long remaining = deadline - now; remaining > 0; remaining = deadline - System.nanoTime()) {
+
+            if (control.hasCommands()) {
+
+                return false;
+
+            }
+
+            control.parkNanos(remaining);
+
+        }
+
+        return true;
+
+    }
+
+    /**
+     * Registra um passo executado: agenda o prazo do próximo e atualiza
+     * a medição.
+     */
+    public void stepped() {
+
+        long now = System.nanoTime();
+        deadline += interval;
+        windowSteps++;
+
+        if (now - windowStart >= WINDOW) {
+
+            achieved = windowSteps * (double) TimeUnit.SECONDS.toNanos(1) / (now - windowStart);
+            windowStart = now;
+            windowSteps = 0;
+
+        }
+
+    }
+
+    /**
+     * Método acessador da taxa alvo.
+     *
+     * @return double Passos por segundo, ou 0 no modo sem limite.
+     */
+    public double getTargetStepsPerSecond() {
+
+        long current = interval;
+        return current == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / (double) current;
+
+    }
+
+    /**
+     * Método acessador da taxa obtida na última janela de um segundo.
+     *
+     * @return double Passos por segundo, ou 0 antes da primeira janela.
+     */
+    public double getAchievedStepsPerSecond() { return achieved; }
+
+}
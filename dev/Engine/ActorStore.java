@@ -0,0 +1,194 @@
+package Engine;
+
+import java.util.Arrays;
+
+/**
+ * Armazena os atores como estrutura de vetores (structure of arrays):
+ * cada atributo de todos os atores fica em um vetor primitivo próprio,
+ * e um ator é apenas um índice nesses vetores. Não há um objeto por ator,
+ * nem objetos Location, e os laços sobre os atores percorrem memória
+ * contígua.
+ *
+ * Os vetores são de acesso de pacote para que SoaWorld possa percorrê-los
+ * diretamente. Como add pode trocar os vetores por outros maiores, eles
+ * não devem ser guardados em variáveis locais enquanto atores são criados.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class ActorStore {
+
+    /**
+     * Quantidade de bytes ocupada por um ator nos vetores.
+     */
+    public static final int BYTES_PER_ACTOR = 1 + 4 + 2 + 1 + 1 + 1;
+
+    /**
+     * Capacidade inicial dos vetores.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Código da espécie de cada ator (Utils.Species).
+     */
+    byte[] species;
+
+    /**
+     * Posição de cada ator, como índice linha * largura + coluna.
+     */
+    int[] cell;
+
+    /**
+     * Idade de cada ator.
+     */
+    short[] age;
+
+    /**
+     * Nível de comida de cada ator.
+     */
+    byte[] food;
+
+    /**
+     * Condição de ativo de cada ator, 1 se ativo.
+     */
+    byte[] alive;
+
+    /**
+     * Nível de cenoura dos coelhos, sem uso nas demais espécies.
+     */
+    byte[] carrot;
+
+    /**
+     * Quantidade de atores armazenados.
+     */
+    int size;
+
+    /**
+     * Construtor de um armazém vazio.
+     */
+    public ActorStore() {
+
+        species = new byte[INITIAL_CAPACITY];
+        cell = new int[INITIAL_CAPACITY];
+        age = new short[INITIAL_CAPACITY];
+        food = new byte[INITIAL_CAPACITY];
+        alive = new byte[INITIAL_CAPACITY];
+        carrot = new byte[INITIAL_CAPACITY];
+
+    }
+
+    /**
+     * Adiciona um ator ativo ao final dos vetores.
+     *
+     * @param species Código da espécie.
+     * @param cell Posição do ator.
+     * @param age Idade inicial.
+     * @param food Nível de comida inicial.
+     * @param carrot Nível de cenoura inicial.
+     * @return int O índice do novo ator.
+     */
+    public int add(int species, int cell, int age, int food, int carrot) {
+
+        if (size == this.species.length) {
+
+            grow();
+
+        }
+
+        int index = size++;
+        this.species[index] = (byte) species;
+        this.cell[index] = cell;
+        this.age[index] = (short) age;
+        this.food[index] = (byte) food;
+        this.alive[index] = 1;
+        this.carrot[index] = (byte) carrot;
+        return index;
+
+    }
+
+    /**
+     * Copia os atributos de um ator para outro índice.
+     *
+     * @param from Índice de origem.
+     * @param to Índice de destino.
+     */
+    void move(int from, int to) {
+
+        species[to] = species[from];
+        cell[to] = cell[from];
+        age[to] = age[from];
+        food[to] = food[from];
+        alive[to] = alive[from];
+        carrot[to] = carrot[from];
+
+    }
+
+    /**
+     * Troca os atributos de dois atores.
+     *
+     * @param i Índice do primeiro ator.
+     * @param j Índice do segundo ator.
+     */
+    void swap(int i, int j) {
+
+        byte b = species[i]; species[i] = species[j]; species[j] = b;
+        int c = cell[i]; cell[i] = cell[j]; cell[j] = c;
+        short a = age[i]; age[i] = age[j]; age[j] = a;
+        b = food[i]; food[i] = food[j]; food[j] = b;
+        b = alive[i]; alive[i] = alive[j]; alive[j] = b;
+        b = carrot[i]; carrot[i] = carrot[j]; carrot[j] = b;
+
+    }
+
+    /**
+     * Aumenta a capacidade dos vetores em metade, o que limita a
+     * capacidade livre a um terço da memória do armazém.
+     */
+    private void grow() { resize(species.length + species.length / 2); }
+
+    /**
+     * Reduz a capacidade dos vetores quando mais da metade está livre,
+     * depois que atores inativos foram removidos, para que a memória
+     * acompanhe a população quando ela diminui.
+     */
+    void trim() {
+
+        if (species.length > INITIAL_CAPACITY && size < species.length / 2) {
+
+            resize(Math.max(INITIAL_CAPACITY, size + size / 2));
+
+        }
+
+    }
+
+    /**
+     * Troca os vetores por outros com a capacidade dada.
+     *
+     * @param capacity Nova capacidade, não menor que a quantidade de atores.
+     */
+    private void resize(int capacity) {
+
+        species = Arrays.copyOf(species, capacity);
+        cell = Arrays.copyOf(cell, capacity);
+        age = Arrays.copyOf(age, capacity);
+        food = Arrays.copyOf(food, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        carrot = Arrays.copyOf(carrot, capacity);
+
+    }
+
+    /**
+     * Método acessador da quantidade de atores.
+     *
+     * @return int Quantidade de atores armazenados.
+     */
+    public int size() { return this.size; }
+
+    /**
+     * Retorna a memória ocupada pelos vetores, incluindo a capacidade livre.
+     *
+     * @return long Quantidade de bytes.
+     */
+    public long getAllocatedBytes() { return (long) species.length * BYTES_PER_ACTOR; }
+
+}
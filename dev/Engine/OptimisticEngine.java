@@ -0,0 +1,200 @@
+package Engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import Actors.Actor;
+import Controllers.Field;
+import Utils.RandomService;
+
+/**
+ * Motor paralelo otimista: divide a lista de atores em pedaços de tamanho
+ * fixo e os executa em um ForkJoinPool, sem qualquer divisão espacial.
+ * Os conflitos são resolvidos pelo próprio campo, pois os atores ocupam
+ * posições com Field.claim, que usa compareAndSet: o ator que perde a
+ * disputa por uma posição tenta a próxima posição livre da sua vizinhança,
+ * e nenhum ator ativo é sobrescrito.
+ *
+ * Os atores percorrem o mesmo campo em que outros pedaços estão ocupando
+ * posições. Como Field.claim considera livre uma posição com um ator
+ * inativo, uma posição pode conter por um instante o objeto do novo ator
+ * com o código da espécie anterior, entre o compareAndSet do objeto e a
+ * escrita do código. Por isso os atores usam os códigos apenas para
+ * pré-selecionar vizinhos e decidem sempre pelo objeto lido da posição.
+ *
+ * Como a divisão é feita pela quantidade de atores, e não pela área, o
+ * motor mantém a carga equilibrada mesmo com populações concentradas,
+ * onde a divisão em blocos deixa a maior parte das threads ociosas.
+ *
+ * Cada pedaço usa um fluxo de randomização próprio, mas o resultado das
+ * disputas por posições depende da ordem real de execução das threads,
+ * portanto este motor não é reprodutível entre execuções.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class OptimisticEngine implements StepEngine {
+
+    /**
+     * Quantidade de atores em cada pedaço.
+     */
+    public static final int CHUNK_SIZE = 512;
+
+    /**
+     * Pool de threads que executa os pedaços.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Atores nascidos em cada pedaço no passo atual.
+     */
+    private final List<List<Actor>> births;
+
+    /**
+     * Construtor do motor otimista.
+     *
+     * @param threads Quantidade de threads do pool.
+     */
+    public OptimisticEngine(int threads) {
+
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+        this.births = new ArrayList<List<Actor>>();
+
+    }
+
+    /**
+     * Executa o passo dividindo os atores em pedaços processados em paralelo.
+     *
+     * @param actors Atores presentes na simulação.
+     * @param newActors Lista que recebe os atores nascidos no passo.
+     * @param field Campo de simulação atual.
+     * @param updatedField Campo que recebe o próximo estado da simulação.
+     * @param random Serviço de randomização, já posicionado no passo atual.
+     */
+    public void step(List<Actor> actors, List<Actor> newActors, Field field, Field updatedField, RandomService random) {
+
+        Actor[] snapshot = actors.toArray(new Actor[0]);
+        int chunks = (snapshot.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        while (births.size() < chunks) {
+
+            births.add(new ArrayList<Actor>());
+
+        }
+
+        if (chunks > 0) {
+
+            pool.invoke(new ChunkTask(snapshot, field, updatedField, random, 0, chunks));
+
+        }
+
+        actors.clear();
+
+        for (Actor actor : snapshot) {
+
+            if (actor != null) {
+
+                actors.add(actor);
+
+            }
+
+        }
+
+        for (int chunk = 0; chunk < chunks; chunk++) {
+
+            newActors.addAll(births.get(chunk));
+            births.get(chunk).clear();
+
+        }
+
+    }
+
+    /**
+     * Executa os atores de um pedaço. Atores inativos são removidos do
+     * retrato da lista, trocando-os por nulo.
+     *
+     * @param snapshot Retrato da lista de atores no início do passo.
+     * @param chunk Índice do pedaço.
+     * @param field Campo de simulação atual.
+     * @param updatedField Campo que recebe o próximo estado da simulação.
+     * @param random Serviço de randomização, cada pedaço usa o seu próprio fluxo.
+     */
+    private void runChunk(Actor[] snapshot, int chunk, Field field, Field updatedField, RandomService random) {
+
+        RandomService.bind(random.stream(chunk));
+        List<Actor> born = births.get(chunk);
+        List<Actor> animals = Arrays.asList(snapshot);
+        int end = Math.min(snapshot.length, (chunk + 1) * CHUNK_SIZE);
+
+        try {
+
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+
+                Actor actor = snapshot[i];
+
+                if (actor.isActive()) {
+
+                    actor.act(field, updatedField, born, animals);
+
+                } else {
+
+                    snapshot[i] = null;
+
+                }
+
+            }
+
+        } finally {
+
+            RandomService.unbind();
+
+        }
+
+    }
+
+    /**
+     * Encerra o pool de threads do motor. As threads terminam assim que
+     * ficam ociosas; o motor não deve ser usado depois.
+     */
+    @Override
+    public void close() { pool.shutdown(); }
+
+    /**
+     * Tarefa que executa, dividindo recursivamente, um intervalo de pedaços.
+     */
+    private class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Actor[] snapshot;
+        private final Field field, updatedField;
+        private final RandomService random;
+        private final int from, to;
+
+        ChunkTask(Actor[] snapshot, Field field, Field updatedField, RandomService random, int from, int to) {
+            this.snapshot = snapshot;
+            this.field = field;
+            this.updatedField = updatedField;
+            this.random = random;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                for (int chunk = from; chunk < to; chunk++) {
+                    runChunk(snapshot, chunk, field, updatedField, random);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(snapshot, field, updatedField, random, from, middle),
+                          new ChunkTask(snapshot, field, updatedField, random, middle, to));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package Engine;
+
+import java.util.Iterator;
+import java.util.List;
+
+import Actors.Actor;
+import Controllers.Field;
+import Utils.RandomService;
+
+/**
+ * Motor original da simulação: percorre a lista de atores em uma única
+ * thread, na ordem da lista, removendo os atores inativos.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class SequentialEngine implements StepEngine {
+
+    /**
+     * Executa o passo percorrendo todos os atores em ordem.
+     *
+     * @param actors Atores presentes na simulação.
+     * @param newActors Lista que recebe os atores nascidos no passo.
+     * @param field Campo de simulação atual.
+     * @param updatedField Campo que recebe o próximo estado da simulação.
+     * @param random Serviço de randomização, já posicionado no passo atual.
+     */
+    public void step(List<Actor> actors, List<Actor> newActors, Field field, Field updatedField, RandomService random) {
+
+        RandomService.bind(random.stream(0));
+
+        try {
+
+            for (Iterator<Actor> iter = actors.iterator(); iter.hasNext();) {
+
+                Actor actor = iter.next();
+
+                if(actor.isActive())
+                    actor.act(field, updatedField, newActors, actors);
+                else
+                    iter.remove();
+            }
+
+        } finally {
+
+            RandomService.unbind();
+
+        }
+
+    }
+
+}
@@ -0,0 +1,968 @@
+package Engine;
+
+import java.util.Arrays;
+
+import Actors.Rabbit;
+import Actors.SpeciesProfile;
+import Controllers.SeasonsController;
+import Core.Simulator;
+import Utils.CellSampler;
+import Utils.Neighbourhood;
+import Utils.RandomService;
+import Utils.RandomSource;
+import Utils.Season;
+import Utils.Species;
+
+/**
+ * Simulação completa sobre um ActorStore. As regras de Fox, Rabbit e
+ * Hunter são reescritas como laços sobre os vetores do armazém, e cada
+ * campo é um vetor de inteiros com o índice do ator mais um em cada
+ * posição (zero para posição vazia), acompanhado do código da espécie
+ * de cada posição, como em Field. Usa o mesmo SpeciesProfile das classes
+ * de atores e do Simulator, a mesma derivação de fluxos de randomização
+ * e os mesmos sorteios, na mesma ordem, que as classes de atores
+ * executadas pelo SequentialEngine, de modo que a mesma semente gera a
+ * mesma população em todos os passos.
+ *
+ * Como no Simulator, há dois campos, trocados ao final de cada passo: o
+ * atual e o próximo, onde os atores ocupam posições. Os atores do modelo
+ * de objetos procuram presas e vagas para filhotes no campo recebido ao
+ * serem criados, que é sempre o campo inicial, atual nos passos ímpares
+ * e próximo nos passos pares; aqui a procura usa o mesmo campo. Como em
+ * Field, uma posição ocupada por um ator morto continua com o código da
+ * sua espécie até ser ocupada por outro ator ou até o campo ser limpo.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class SoaWorld {
+
+    /**
+     * Dimensões do campo.
+     */
+    private final int depth, width;
+
+    /**
+     * Atores da simulação.
+     */
+    private final ActorStore store;
+
+    /**
+     * Campo atual e próximo campo, com o índice do ator mais um.
+     */
+    private int[] grid, nextGrid;
+
+    /**
+     * Código da espécie de cada posição do campo atual e do próximo.
+     */
+    private byte[] codes, nextCodes;
+
+    /**
+     * Bordas do campo de cada linha e coluna e deslocamento de cada
+     * direção no vetor do campo, como em Field.
+     */
+    private final int[] rowEdges, colEdges, deltas;
+
+    /**
+     * Serviço de randomização da simulação.
+     */
+    private final RandomService random;
+
+    /**
+     * Gerador do passo atual.
+     */
+    private RandomSource rand;
+
+    /**
+     * Passo atual da simulação.
+     */
+    private int step;
+
+    /**
+     * Nível de comida dos coelhos, e o seu valor no início do passo.
+     */
+    private int foodLevel, stepFoodLevel;
+
+    /**
+     * Ajustes de reprodução e fome da estação atual.
+     */
+    private int breedingAdjust, hungerAdjust;
+
+    /**
+     * Controlador de estações próprio desta simulação.
+     */
+    private final SeasonsController seasons;
+
+    /**
+     * Quantidade de atores colocados no campo e ativos de cada espécie ao
+     * final do passo, como nos contadores de FieldStats.
+     */
+    private final int[] counts;
+
+    /**
+     * Soma da quantidade de atores processados em cada passo.
+     */
+    private long actorSteps;
+
+    /**
+     * Tamanho que a lista de atores do Simulator teria no início do
+     * próximo passo: o SequentialEngine só remove um ator inativo quando
+     * chega a ele, e a quantidade de atores-passo conta os demais.
+     */
+    private int listed;
+
+    /**
+     * Parâmetros das espécies usados nesta simulação.
+     */
+    private final SpeciesProfile profile;
+
+    /**
+     * Construtor do mundo, que já cria a população inicial.
+     *
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @param random Serviço de randomização com a semente da simulação.
+     */
+    public SoaWorld(int depth, int width, RandomService random) { this(depth, width, random, SpeciesProfile.DEFAULT); }
+
+    /**
+     * Construtor do mundo com um perfil de parâmetros das espécies.
+     *
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     * @param random Serviço de randomização com a semente da simulação.
+     * @param profile Parâmetros das espécies.
+     * @throws IllegalArgumentException Se os valores de comida ou as idades do perfil não couberem nos vetores do armazém.
+     */
+    public SoaWorld(int depth, int width, RandomService random, SpeciesProfile profile) {
+
+        checkLimit("fox.rabbitFoodValue", profile.getRabbitFoodValue(), Byte.MAX_VALUE);
+        checkLimit("hunter.animalFoodValue", profile.getAnimalFoodValue(), Byte.MAX_VALUE);
+        checkLimit("fox.maxAge", profile.getFoxMaxAge(), Short.MAX_VALUE - 1);
+        checkLimit("rabbit.maxAge", profile.getRabbitMaxAge(), Short.MAX_VALUE - 1);
+        checkLimit("hunter.maxAge", profile.getHunterMaxAge(), Short.MAX_VALUE - 1);
+        this.profile = profile;
+        this.depth = depth;
+        this.width = width;
+        this.random = random;
+        this.store = new ActorStore();
+        this.grid = new int[depth * width];
+        this.nextGrid = new int[depth * width];
+        this.codes = new byte[depth * width];
+        this.nextCodes = new byte[depth * width];
+        this.counts = new int[Species.COUNT];
+        this.seasons = new SeasonsController();
+        this.rowEdges = new int[depth];
+        this.colEdges = new int[width];
+        this.deltas = new int[Neighbourhood.DIRECTIONS + 1];
+
+        for (int row = 0; row < depth; row++) {
+
+            rowEdges[row] = (row == 0 ? Neighbourhood.TOP : 0) | (row == depth - 1 ? Neighbourhood.BOTTOM : 0);
+
+        }
+
+        for (int col = 0; col < width; col++) {
+
+            colEdges[col] = (col == 0 ? Neighbourhood.LEFT : 0) | (col == width - 1 ? Neighbourhood.RIGHT : 0);
+
+        }
+
+        // A última posição é Neighbourhood.STAY, com deslocamento zero.
+        for (int dir = 0; dir < Neighbourhood.DIRECTIONS; dir++) {
+
+            deltas[dir] = Neighbourhood.rowOffset(dir) * width + Neighbourhood.colOffset(dir);
+
+        }
+
+        random.setStep(0);
+        RandomSource conditions = random.stream(1);
+        foodLevel = conditions.nextInt(Simulator.FOOD_UPPER_BOUND - Simulator.FOOD_LOWER_BOUND) + Simulator.FOOD_LOWER_BOUND;
+
+        populate();
+        count(store.size);
+        listed = store.size;
+
+    }
+
+    /**
+     * Rejeita um parâmetro maior que o armazém consegue guardar: a comida
+     * é guardada em um byte e a idade em um short, que passa do limite
+     * ao envelhecer.
+     *
+     * @param parameter Nome do parâmetro.
+     * @param value Valor do perfil.
+     * @param limit Maior valor aceito.
+     * @throws IllegalArgumentException Se o valor passar do limite.
+     */
+    private static void checkLimit(String parameter, int value, int limit) {
+
+        if (value > limit) {
+
+            throw new IllegalArgumentException("O motor soa aceita " + parameter + " até " + limit + ", recebeu " + value + ".");
+
+        }
+
+    }
+
+    /**
+     * Cria a população inicial nas posições sorteadas por CellSampler,
+     * com os mesmos sorteios do Simulator.populateSampled.
+     *
+     * @param placement Gerador dos sorteios das posições e espécies.
+     */
+    private void populateSampled(RandomSource placement) {
+
+        long[] sample = profile.getInitialCount() > 0 ? CellSampler.byCount(placement, grid.length, profile.getInitialCount())
+            : CellSampler.byDensity(placement, grid.length, profile.getInitialDensity());
+
+        for (long cell : sample) {
+
+            switch (profile.initialSpecies(placement.nextDouble())) {
+
+                case Species.FOX:
+                    int age = rand.nextInt(profile.getFoxMaxAge());
+                    store.add(Species.FOX, (int) cell, age, rand.nextInt(profile.getRabbitFoodValue()), 0);
+                    break;
+
+                case Species.RABBIT:
+                    store.add(Species.RABBIT, (int) cell, rand.nextInt(profile.getRabbitMaxAge()), 0, Rabbit.INITIAL_CARROT_FOOD_LEVEL);
+                    break;
+
+                default:
+                    int hunterAge = rand.nextInt(profile.getHunterMaxAge());
+                    store.add(Species.HUNTER, (int) cell, hunterAge, rand.nextInt(profile.getAnimalFoodValue()), 0);
+                    break;
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Cria a população inicial com um sorteio por posição, três valores
+     * por posição gerados de uma só vez para cada linha, como no
+     * Simulator.populate.
+     *
+     * @param placement Gerador dos sorteios das posições.
+     */
+    private void populateCells(RandomSource placement) {
+
+        double[] draws = new double[3 * width];
+
+        for (int row = 0; row < depth; row++) {
+
+            placement.nextDoubles(draws);
+
+            for (int col = 0; col < width; col++) {
+
+                int cell = row * width + col;
+
+                if (draws[3 * col] <= profile.getFoxCreationProbability()) {
+
+                    int age = rand.nextInt(profile.getFoxMaxAge());
+                    store.add(Species.FOX, cell, age, rand.nextInt(profile.getRabbitFoodValue()), 0);
+
+                } else if (draws[3 * col + 1] <= profile.getRabbitCreationProbability()) {
+
+                    store.add(Species.RABBIT, cell, rand.nextInt(profile.getRabbitMaxAge()), 0, Rabbit.INITIAL_CARROT_FOOD_LEVEL);
+
+                } else if (draws[3 * col + 2] > profile.getHunterCreationProbability()) {
+
+                    int age = rand.nextInt(profile.getHunterMaxAge());
+                    store.add(Species.HUNTER, cell, age, rand.nextInt(profile.getAnimalFoodValue()), 0);
+
+                }
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Cria a população inicial com as mesmas probabilidades e sorteios
+     * do Simulator.populate.
+     */
+    private void populate() {
+
+        RandomSource placement = random.stream(0);
+        rand = random.stream(2);
+
+        if (profile.isSampledPopulation()) {
+
+            populateSampled(placement);
+
+        } else {
+
+            populateCells(placement);
+
+        }
+
+        for (int i = store.size - 1; i > 0; i--) {
+
+            store.swap(i, placement.nextInt(i + 1));
+
+        }
+
+        for (int i = 0; i < store.size; i++) {
+
+            grid[store.cell[i]] = i + 1;
+            codes[store.cell[i]] = store.species[i];
+
+        }
+
+    }
+
+    /**
+     * Executa um passo da simulação.
+     */
+    public void step() {
+
+        defineSeason(step + 1);
+        step++;
+        random.setStep(step);
+        rand = random.stream(0);
+        stepFoodLevel = foodLevel;
+        actorSteps += listed;
+
+        compact();
+
+        int n = store.size, skipped = 0;
+
+        for (int i = 0; i < n; i++) {
+
+            if (store.alive[i] == 0) {
+
+                skipped++;
+                continue;
+
+            }
+
+            switch (store.species[i]) {
+
+                case Species.RABBIT:
+                    runRabbit(i);
+                    break;
+
+                case Species.FOX:
+                    runFox(i);
+                    break;
+
+                case Species.HUNTER:
+                    runHunter(i);
+                    break;
+
+            }
+
+        }
+
+        // Os nascidos só são colocados no campo, e contados, no próximo passo.
+        count(n);
+        listed = store.size - skipped;
+
+        int[] temp = grid;
+        grid = nextGrid;
+        nextGrid = temp;
+        byte[] tempCodes = codes;
+        codes = nextCodes;
+        nextCodes = tempCodes;
+        Arrays.fill(nextGrid, 0);
+        Arrays.fill(nextCodes, (byte) Species.EMPTY);
+
+    }
+
+    /**
+     * Define a estação e atualiza o nível de comida, com os mesmos
+     * períodos e ajustes de Simulator.defineSeason, que usa o passo já
+     * executado para escolher entre somar e subtrair.
+     *
+     * @param next Passo que vai ser executado.
+     */
+    private void defineSeason(int next) {
+
+        int days, adjust;
+
+        if (next <= 200) {
+
+            seasons.definirPrimavera();
+            days = 1;
+            adjust = 5;
+
+        } else if (next <= 400) {
+
+            seasons.definirVerao();
+            days = 2;
+            adjust = 4;
+
+        } else if (next <= 600) {
+
+            seasons.definirOutono();
+            days = 6;
+            adjust = 2;
+
+        } else {
+
+            seasons.definirInverno();
+            days = 10;
+            adjust = 3;
+
+        }
+
+        Season season = seasons.getCurrentSeason();
+        breedingAdjust = season.getBreedingAdjust();
+        hungerAdjust = season.getHungerAdjust();
+        foodLevel += (step % days == 0 ? 1 : -1) * Simulator.FOOD_LOWER_BOUND * adjust;
+
+    }
+
+    /**
+     * Remove os atores inativos, mantendo a ordem dos demais, e corrige os
+     * índices guardados no campo atual. A posição de um ator removido fica
+     * sem índice, mas mantém o código da espécie, como a de um ator morto
+     * em Field.
+     */
+    private void compact() {
+
+        int kept = 0;
+
+        for (int i = 0; i < store.size; i++) {
+
+            int cell = store.cell[i];
+            boolean placed = grid[cell] == i + 1;
+
+            if (store.alive[i] != 0) {
+
+                store.move(i, kept);
+
+                if (placed) {
+
+                    grid[cell] = kept + 1;
+
+                }
+
+                kept++;
+
+            } else if (placed) {
+
+                grid[cell] = 0;
+
+            }
+
+        }
+
+        store.size = kept;
+        store.trim();
+
+    }
+
+    /**
+     * Retorna o índice do ator colocado em uma posição do campo em que os
+     * atores procuram presas, ou -1 se não houver ou se ele foi removido.
+     *
+     * @param cell Posição.
+     * @return int O índice do ator.
+     */
+    private int lookAt(int cell) { return (step % 2 == 1 ? grid : nextGrid)[cell] - 1; }
+
+    /**
+     * Retorna os códigos de espécie do campo em que os atores procuram
+     * presas e vagas para filhotes: o campo inicial do Simulator, atual
+     * nos passos ímpares e próximo nos pares.
+     *
+     * @return byte[] Os códigos.
+     */
+    private byte[] lookCodes() { return step % 2 == 1 ? codes : nextCodes; }
+
+    /**
+     * Regras do coelho, como Rabbit.run: envelhece, se alimenta, se
+     * reproduz e se move.
+     *
+     * @param i Índice do coelho.
+     */
+    private void runRabbit(int i) {
+
+        if (++store.age[i] > profile.getRabbitMaxAge()) {
+
+            store.alive[i] = 0;
+            return;
+
+        }
+
+        if (stepFoodLevel >= 1 && store.carrot[i] <= Rabbit.INITIAL_CARROT_FOOD_LEVEL) {
+
+            if (rand.nextInt(stepFoodLevel) > stepFoodLevel / 20) {
+
+                foodLevel--;
+
+            } else {
+
+                store.carrot[i]++;
+
+            }
+
+        } else {
+
+            store.alive[i] = 0;
+            return;
+
+        }
+
+        int cell = store.cell[i];
+
+        if (store.age[i] >= profile.getRabbitBreedingAge() && rand.nextDouble() <= profile.getRabbitBreedingProbability()) {
+
+            int births = rand.nextInt(profile.getRabbitMaxLitterSize()) + 1;
+
+            for (int b = 0; b < births; b++) {
+
+                store.add(Species.RABBIT, randomAdjacent(cell), 0, 0, Rabbit.INITIAL_CARROT_FOOD_LEVEL);
+
+            }
+
+        }
+
+        move(i, cell, freeAdjacentDirection(cell));
+
+    }
+
+    /**
+     * Regras da raposa, como Fox.hunt: envelhece, sente fome, se
+     * reproduz, caça e se move.
+     *
+     * @param i Índice da raposa.
+     */
+    private void runFox(int i) {
+
+        if (++store.age[i] > profile.getFoxMaxAge() || --store.food[i] <= 0) {
+
+            store.alive[i] = 0;
+            return;
+
+        }
+
+        int cell = store.cell[i];
+
+        if (store.age[i] >= profile.getFoxBreedingAge() && rand.nextDouble() <= profile.getFoxBreedingProbability()) {
+
+            // Como em Fox.giveBirth, os filhotes nascem na posição da mãe,
+            // limitados pelas posições vizinhas que têm vaga.
+            int births = Math.min(rand.nextInt(profile.getFoxMaxLitterSize()) + 1, birthPlaces(cell));
+
+            for (int b = 0; b < births; b++) {
+
+                store.add(Species.FOX, cell, 0, profile.getRabbitFoodValue(), 0);
+
+            }
+
+        }
+
+        int direction = Neighbourhood.NONE;
+        int rabbits = speciesMask(lookCodes(), cell, Species.RABBIT);
+
+        if (rabbits != 0) {
+
+            int order = Neighbourhood.randomOrder(rand);
+
+            for (int k = 0; k < Neighbourhood.DIRECTIONS && direction == Neighbourhood.NONE; k++) {
+
+                int dir = Neighbourhood.direction(order, k);
+                int prey = (rabbits & (1 << dir)) != 0 ? lookAt(cell + deltas[dir]) : -1;
+
+                if (prey >= 0 && store.alive[prey] != 0) {
+
+                    store.alive[prey] = 0;
+                    store.food[i] = (byte) profile.getRabbitFoodValue();
+                    direction = dir;
+
+                }
+
+            }
+
+        }
+
+        move(i, cell, direction == Neighbourhood.NONE ? freeAdjacentDirection(cell) : direction);
+
+    }
+
+    /**
+     * Conta as posições vizinhas que estão vazias ou têm uma posição
+     * vizinha vazia, como Fox.birthPlaces.
+     *
+     * @param cell Posição da raposa.
+     * @return int Quantidade máxima de filhotes.
+     */
+    private int birthPlaces(int cell) {
+
+        byte[] look = lookCodes();
+        int valid = adjacentMask(cell);
+        int places = 0;
+
+        for (int dir = 0; dir < Neighbourhood.DIRECTIONS; dir++) {
+
+            int next = cell + deltas[dir];
+
+            if ((valid & (1 << dir)) != 0 && (speciesMask(look, next, Species.EMPTY) != 0 || look[next] == Species.EMPTY)) {
+
+                places++;
+
+            }
+
+        }
+
+        return places;
+
+    }
+
+    /**
+     * Regras do caçador, como Hunter.act: envelhece, sente fome, se
+     * reproduz, caça e se move.
+     *
+     * @param i Índice do caçador.
+     */
+    private void runHunter(int i) {
+
+        if (++store.age[i] > profile.getHunterMaxAge()) {
+
+            store.alive[i] = 0;
+            return;
+
+        }
+
+        store.food[i] -= 1 + hungerAdjust;
+
+        if (store.food[i] <= 0) {
+
+            store.alive[i] = 0;
+            return;
+
+        }
+
+        int cell = store.cell[i];
+
+        if (store.age[i] >= profile.getHunterBreedingAge() && rand.nextDouble() <= profile.getHunterBreedingProbability()) {
+
+            int births = rand.nextInt(profile.getHunterMaxLitterSize() * (breedingAdjust + 1));
+
+            for (int b = 0; b < births; b++) {
+
+                store.add(Species.HUNTER, randomAdjacent(cell), 0, profile.getAnimalFoodValue(), 0);
+
+            }
+
+        }
+
+        int direction = hunt(i, cell);
+        move(i, cell, direction == Neighbourhood.NONE ? freeAdjacentDirection(cell) : direction);
+
+    }
+
+    /**
+     * Procura uma presa vizinha, como Hunter.goHunt. Ao tentar caçar uma
+     * raposa o caçador pode morrer e continua procurando; a primeira presa
+     * que não o mata é abatida, se ainda estiver viva, e a sua posição é
+     * o destino do caçador, mesmo que a presa já estivesse morta.
+     *
+     * @param i Índice do caçador.
+     * @param cell Posição do caçador.
+     * @return int A direção da presa, ou Neighbourhood.NONE.
+     */
+    private int hunt(int i, int cell) {
+
+        byte[] look = lookCodes();
+        int prey = speciesMask(look, cell, Species.RABBIT) | speciesMask(look, cell, Species.FOX);
+
+        if (prey == 0) {
+
+            return Neighbourhood.NONE;
+
+        }
+
+        int order = Neighbourhood.randomOrder(rand);
+
+        for (int k = 0; k < Neighbourhood.DIRECTIONS; k++) {
+
+            int dir = Neighbourhood.direction(order, k);
+
+            if ((prey & (1 << dir)) == 0) {
+
+                continue;
+
+            }
+
+            int target = cell + deltas[dir];
+
+            if (look[target] == Species.FOX && rand.nextInt(100) < profile.getFoxKillChance()) {
+
+                store.alive[i] = 0;
+                continue;
+
+            }
+
+            int animal = lookAt(target);
+
+            if (animal >= 0 && store.alive[animal] != 0) {
+
+                store.alive[animal] = 0;
+                store.food[i] = (byte) profile.getAnimalFoodValue();
+
+            }
+
+            return dir;
+
+        }
+
+        return Neighbourhood.NONE;
+
+    }
+
+    /**
+     * Ocupa a posição na direção escolhida no próximo campo, ou outra
+     * posição livre da vizinhança, como Field.claim, e move o ator. Sem
+     * direção ou sem posição livre o ator morre. Como no modelo de
+     * objetos, um caçador morto ao caçar ainda ocupa a posição.
+     *
+     * @param i Índice do ator.
+     * @param cell Posição atual do ator.
+     * @param direction Direção desejada, Neighbourhood.STAY ou Neighbourhood.NONE.
+     */
+    private void move(int i, int cell, int direction) {
+
+        if (direction != Neighbourhood.NONE) {
+
+            direction = claim(i, cell, direction);
+
+        }
+
+        if (direction != Neighbourhood.NONE) {
+
+            store.cell[i] = cell + deltas[direction];
+
+        } else {
+
+            store.alive[i] = 0;
+
+        }
+
+    }
+
+    /**
+     * Ocupa uma posição do próximo campo, como Field.claim: a posição
+     * desejada, as vizinhas em ordem aleatória e, por fim, a origem.
+     *
+     * @param i Índice do ator.
+     * @param cell Posição atual do ator.
+     * @param direction Direção desejada, ou Neighbourhood.STAY.
+     * @return int A direção ocupada, ou Neighbourhood.NONE.
+     */
+    private int claim(int i, int cell, int direction) {
+
+        if (tryClaim(i, cell + deltas[direction])) {
+
+            return direction;
+
+        }
+
+        int valid = adjacentMask(cell);
+        int order = Neighbourhood.randomOrder(rand);
+
+        for (int k = 0; k < Neighbourhood.DIRECTIONS; k++) {
+
+            int next = Neighbourhood.direction(order, k);
+
+            if ((valid & (1 << next)) != 0 && tryClaim(i, cell + deltas[next])) {
+
+                return next;
+
+            }
+
+        }
+
+        return tryClaim(i, cell) ? Neighbourhood.STAY : Neighbourhood.NONE;
+
+    }
+
+    /**
+     * Ocupa uma posição do próximo campo se ela estiver vazia, ocupada
+     * pelo próprio ator ou por um ator inativo.
+     *
+     * @param i Índice do ator.
+     * @param cell Posição desejada.
+     * @return true Se a posição foi ocupada.
+     */
+    private boolean tryClaim(int i, int cell) {
+
+        int occupant = nextGrid[cell];
+
+        if (occupant != 0 && occupant != i + 1 && store.alive[occupant - 1] != 0) {
+
+            return false;
+
+        }
+
+        nextGrid[cell] = i + 1;
+        nextCodes[cell] = store.species[i];
+        return true;
+
+    }
+
+    /**
+     * Sorteia uma direção entre as posições vizinhas vazias do próximo
+     * campo, como Field.freeAdjacentDirection.
+     *
+     * @param cell Posição de origem.
+     * @return int A direção, Neighbourhood.STAY se apenas a origem estiver vazia, ou Neighbourhood.NONE.
+     */
+    private int freeAdjacentDirection(int cell) {
+
+        int free = speciesMask(nextCodes, cell, Species.EMPTY);
+
+        if (free != 0) {
+
+            return Neighbourhood.randomDirection(free, rand);
+
+        }
+
+        return nextCodes[cell] == Species.EMPTY ? Neighbourhood.STAY : Neighbourhood.NONE;
+
+    }
+
+    /**
+     * Sorteia uma posição adjacente ou a própria posição, como
+     * Field.randomAdjacentDirection.
+     *
+     * @param cell Posição de origem.
+     * @return int A posição sorteada.
+     */
+    private int randomAdjacent(int cell) {
+
+        int direction = Neighbourhood.directionOf(rand.nextInt(3) - 1, rand.nextInt(3) - 1);
+
+        if (direction == Neighbourhood.STAY || (adjacentMask(cell) & (1 << direction)) == 0) {
+
+            return cell;
+
+        }
+
+        return cell + deltas[direction];
+
+    }
+
+    /**
+     * Retorna a máscara das direções vizinhas que ficam dentro do campo.
+     *
+     * @param cell Posição de origem.
+     * @return int Máscara de 8 bits das direções válidas.
+     */
+    private int adjacentMask(int cell) { return Neighbourhood.edgeMask(rowEdges[cell / width] | colEdges[cell % width]); }
+
+    /**
+     * Retorna a máscara das posições vizinhas com um código de espécie.
+     *
+     * @param cells Códigos de espécie do campo consultado.
+     * @param cell Posição de origem.
+     * @param species Código da espécie, ou Species.EMPTY para posições vazias.
+     * @return int Máscara de 8 bits das direções com a espécie.
+     */
+    private int speciesMask(byte[] cells, int cell, int species) {
+
+        int valid = adjacentMask(cell);
+        int mask = 0;
+
+        for (int dir = 0; dir < Neighbourhood.DIRECTIONS; dir++) {
+
+            if ((valid & (1 << dir)) != 0 && cells[cell + deltas[dir]] == species) {
+
+                mask |= 1 << dir;
+
+            }
+
+        }
+
+        return mask;
+
+    }
+
+    /**
+     * Conta os atores ativos de cada espécie entre os que já estavam no
+     * armazém no início do passo, os únicos colocados no campo.
+     *
+     * @param limit Quantidade de atores considerados.
+     */
+    private void count(int limit) {
+
+        Arrays.fill(counts, 0);
+
+        for (int i = 0; i < limit; i++) {
+
+            if (store.alive[i] != 0) {
+
+                counts[store.species[i]]++;
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Verifica, como FieldStats.isViable, se há mais de uma espécie viva.
+     *
+     * @return true Se a simulação deve prosseguir.
+     */
+    public boolean isViable() {
+
+        int nonZero = 0;
+
+        for (int species = 1; species < Species.COUNT; species++) {
+
+            if (counts[species] > 0) {
+
+                nonZero++;
+
+            }
+
+        }
+
+        return nonZero > 1;
+
+    }
+
+    /**
+     * Retorna a quantidade de atores ativos de uma espécie.
+     *
+     * @param species Código da espécie.
+     * @return int A quantidade de atores ativos.
+     */
+    public int getCount(int species) { return counts[species]; }
+
+    /**
+     * Método acessador do passo atual.
+     *
+     * @return int O passo atual.
+     */
+    public int getStep() { return this.step; }
+
+    /**
+     * Método acessador do armazém de atores.
+     *
+     * @return ActorStore O armazém.
+     */
+    public ActorStore getStore() { return this.store; }
+
+    /**
+     * Método acessador da soma de atores processados em todos os passos.
+     *
+     * @return long Quantidade de atores-passo processados.
+     */
+    public long getActorSteps() { return this.actorSteps; }
+
+    /**
+     * Método acessador do nível de comida dos coelhos.
+     *
+     * @return int O nível de comida.
+     */
+    public int getFoodLevel() { return this.foodLevel; }
+
+}
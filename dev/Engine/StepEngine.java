@@ -0,0 +1,74 @@
+package Engine;
+
+import java.util.List;
+
+import Actors.Actor;
+import Controllers.Field;
+import Utils.RandomService;
+
+/**
+ * Interface para as estratégias de execução de um passo da simulação.
+ * Cada implementação decide como percorrer os atores (em uma única
+ * thread, em blocos do campo, etc.), mas todas devem respeitar o mesmo
+ * contrato: ao final, a lista de atores contém apenas os atores que
+ * estavam ativos quando foram processados e a lista de novos atores
+ * contém os nascimentos do passo. Os atores devem ser executados com
+ * geradores obtidos do serviço de randomização, associados à thread
+ * com RandomService.bind e desassociados com RandomService.unbind em um
+ * bloco finally.
+ *
+ * Motores paralelos mantêm um pool de threads, liberado por close quando
+ * o motor não for mais usado. Quem cria o motor é responsável por fechá-lo.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public interface StepEngine extends AutoCloseable {
+
+    /**
+     * Executa um passo da simulação.
+     *
+     * @param actors Atores presentes na simulação, atualizada pelo motor.
+     * @param newActors Lista que recebe os atores nascidos no passo.
+     * @param field Campo de simulação atual.
+     * @param updatedField Campo que recebe o próximo estado da simulação.
+     * @param random Serviço de randomização, já posicionado no passo atual.
+     */
+    public void step(List<Actor> actors, List<Actor> newActors, Field field, Field updatedField, RandomService random);
+
+    /**
+     * Libera as threads do motor. Por padrão não faz nada, pois o motor
+     * sequencial não tem threads próprias.
+     */
+    @Override
+    public default void close() {}
+
+    /**
+     * Cria um motor a partir do seu nome, como informado na linha de comando.
+     *
+     * @param name Nome do motor: "sequential", "tiled" ou "optimistic".
+     * @param threads Quantidade de threads dos motores paralelos.
+     * @return StepEngine O motor criado.
+     * @throws IllegalArgumentException Se o nome não corresponder a nenhum motor.
+     */
+    public static StepEngine forName(String name, int threads) {
+
+        switch (name) {
+
+            case "sequential":
+                return new SequentialEngine();
+
+            case "tiled":
+                return new TiledEngine(threads, TiledEngine.DEFAULT_TILE_SIZE);
+
+            case "optimistic":
+                return new OptimisticEngine(threads);
+
+            default:
+                throw new IllegalArgumentException("Motor desconhecido: " + name);
+
+        }
+
+    }
+
+}
@@ -0,0 +1,307 @@
+package Engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import Actors.Actor;
+import Controllers.Field;
+import Utils.RandomService;
+
+/**
+ * Motor paralelo que divide o campo em blocos quadrados (tiles) e os
+ * executa em quatro fases, como um tabuleiro de xadrez de quatro cores.
+ * Em cada fase apenas blocos da mesma cor são executados, em paralelo,
+ * em um ForkJoinPool.
+ *
+ * Um ator só lê e escreve posições a uma distância de no máximo uma
+ * célula da sua localização. Como dois blocos da mesma cor estão sempre
+ * separados por um bloco inteiro de outra cor, e o bloco tem pelo menos
+ * MIN_TILE_SIZE células de lado, as áreas alcançadas por blocos que
+ * executam ao mesmo tempo nunca se sobrepõem.
+ *
+ * Regras de conflito:
+ * - Field.claim em uma posição de borda pode ocupar uma posição do bloco
+ *   vizinho. Disputas concorrentes pela mesma posição não acontecem;
+ *   disputas entre fases seguem a ordem das fases, e o ator da fase
+ *   posterior ocupa outra posição livre da sua vizinhança.
+ * - Nascimentos são guardados em uma lista própria de cada bloco e
+ *   anexados à lista de atores na ordem dos blocos ao final do passo.
+ *   Um filhote que nasce na borda pertence, no passo seguinte, ao bloco
+ *   da sua localização.
+ *
+ * Cada bloco usa um fluxo de randomização próprio, derivado do passo e
+ * do índice do bloco. Como blocos da mesma fase não interagem, a mesma
+ * semente gera o mesmo resultado com qualquer quantidade de threads.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class TiledEngine implements StepEngine {
+
+    /**
+     * Lado padrão de um bloco, em células.
+     */
+    public static final int DEFAULT_TILE_SIZE = 32;
+
+    /**
+     * Menor lado de bloco que mantém blocos da mesma cor independentes.
+     */
+    public static final int MIN_TILE_SIZE = 3;
+
+    /**
+     * Pool de threads que executa os blocos de cada fase.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Lado de um bloco, em células.
+     */
+    private final int tileSize;
+
+    /**
+     * Dimensões do campo para o qual os blocos foram preparados.
+     */
+    private int depth, width;
+
+    /**
+     * Quantidade de blocos na vertical e na horizontal.
+     */
+    private int tileRows, tileCols;
+
+    /**
+     * Atores de cada bloco no passo atual.
+     */
+    private List<List<Actor>> buckets;
+
+    /**
+     * Atores nascidos em cada bloco no passo atual.
+     */
+    private List<List<Actor>> births;
+
+    /**
+     * Índices dos blocos de cada uma das quatro cores.
+     */
+    private int[][] colourTiles;
+
+    /**
+     * Construtor do motor por blocos.
+     *
+     * @param threads Quantidade de threads do pool.
+     * @param tileSize Lado de um bloco, deve ser pelo menos MIN_TILE_SIZE.
+     */
+    public TiledEngine(int threads, int tileSize) {
+
+        if (tileSize < MIN_TILE_SIZE) {
+
+            throw new IllegalArgumentException("O bloco deve ter pelo menos " + MIN_TILE_SIZE + " células de lado.");
+
+        }
+
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+        this.tileSize = tileSize;
+
+    }
+
+    /**
+     * Executa o passo distribuindo os atores nos blocos e executando as
+     * quatro fases de cores em sequência.
+     *
+     * @param actors Atores presentes na simulação.
+     * @param newActors Lista que recebe os atores nascidos no passo.
+     * @param field Campo de simulação atual.
+     * @param updatedField Campo que recebe o próximo estado da simulação.
+     * @param random Serviço de randomização, já posicionado no passo atual.
+     */
+    public void step(List<Actor> actors, List<Actor> newActors, Field field, Field updatedField, RandomService random) {
+
+        prepare(field);
+
+        for (Actor actor : actors) {
+
+            if (actor.isActive()) {
+
+                buckets.get(tileOf(actor.getRow(), actor.getCol())).add(actor);
+
+            }
+
+        }
+
+        actors.clear();
+
+        for (int colour = 0; colour < colourTiles.length; colour++) {
+
+            int[] tiles = colourTiles[colour];
+
+            if (tiles.length > 0) {
+
+                pool.invoke(new TileTask(field, updatedField, random, tiles, 0, tiles.length));
+
+            }
+
+        }
+
+        for (int tile = 0; tile < buckets.size(); tile++) {
+
+            actors.addAll(buckets.get(tile));
+            newActors.addAll(births.get(tile));
+            buckets.get(tile).clear();
+            births.get(tile).clear();
+
+        }
+
+    }
+
+    /**
+     * Recalcula os blocos caso as dimensões do campo tenham mudado.
+     *
+     * @param field Campo de simulação.
+     */
+    private void prepare(Field field) {
+
+        if (buckets != null && field.getDepth() == depth && field.getWidth() == width) {
+
+            return;
+
+        }
+
+        depth = field.getDepth();
+        width = field.getWidth();
+        tileRows = (depth + tileSize - 1) / tileSize;
+        tileCols = (width + tileSize - 1) / tileSize;
+
+        int tiles = tileRows * tileCols;
+        buckets = new ArrayList<List<Actor>>(tiles);
+        births = new ArrayList<List<Actor>>(tiles);
+
+        int[] perColour = new int[4];
+
+        for (int tile = 0; tile < tiles; tile++) {
+
+            buckets.add(new ArrayList<Actor>());
+            births.add(new ArrayList<Actor>());
+            perColour[colourOf(tile)]++;
+
+        }
+
+        colourTiles = new int[4][];
+
+        for (int colour = 0; colour < 4; colour++) {
+
+            colourTiles[colour] = new int[perColour[colour]];
+            perColour[colour] = 0;
+
+        }
+
+        for (int tile = 0; tile < tiles; tile++) {
+
+            int colour = colourOf(tile);
+            colourTiles[colour][perColour[colour]++] = tile;
+
+        }
+
+    }
+
+    /**
+     * Retorna o índice do bloco que contém uma posição.
+     *
+     * @param row Linha da posição.
+     * @param col Coluna da posição.
+     * @return int Índice do bloco.
+     */
+    private int tileOf(int row, int col) { return (row / tileSize) * tileCols + col / tileSize; }
+
+    /**
+     * Retorna a cor de um bloco, de acordo com a paridade da sua linha e coluna.
+     *
+     * @param tile Índice do bloco.
+     * @return int Cor do bloco, de 0 a 3.
+     */
+    private int colourOf(int tile) { return ((tile / tileCols) & 1) * 2 + ((tile % tileCols) & 1); }
+
+    /**
+     * Executa os atores de um bloco, na ordem em que foram distribuídos,
+     * mantendo na lista do bloco apenas os atores que estavam ativos.
+     *
+     * @param tile Índice do bloco.
+     * @param field Campo de simulação atual.
+     * @param updatedField Campo que recebe o próximo estado da simulação.
+     * @param random Serviço de randomização, cada bloco usa o seu próprio fluxo.
+     */
+    private void runTile(int tile, Field field, Field updatedField, RandomService random) {
+
+        RandomService.bind(random.stream(tile));
+        List<Actor> bucket = buckets.get(tile);
+        List<Actor> born = births.get(tile);
+        int kept = 0;
+
+        try {
+
+            for (int i = 0; i < bucket.size(); i++) {
+
+                Actor actor = bucket.get(i);
+
+                if (actor.isActive()) {
+
+                    actor.act(field, updatedField, born, bucket);
+                    bucket.set(kept++, actor);
+
+                }
+
+            }
+
+        } finally {
+
+            RandomService.unbind();
+
+        }
+
+        bucket.subList(kept, bucket.size()).clear();
+
+    }
+
+    /**
+     * Encerra o pool de threads do motor. As threads terminam assim que
+     * ficam ociosas; o motor não deve ser usado depois.
+     */
+    @Override
+    public void close() { pool.shutdown(); }
+
+    /**
+     * Tarefa que executa, dividindo recursivamente, um intervalo
+     * dos blocos de uma mesma cor.
+     */
+    private class TileTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Field field, updatedField;
+        private final RandomService random;
+        private final int[] tiles;
+        private final int from, to;
+
+        TileTask(Field field, Field updatedField, RandomService random, int[] tiles, int from, int to) {
+            this.field = field;
+            this.updatedField = updatedField;
+            this.random = random;
+            this.tiles = tiles;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                for (int i = from; i < to; i++) {
+                    runTile(tiles[i], field, updatedField, random);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TileTask(field, updatedField, random, tiles, from, middle),
+                          new TileTask(field, updatedField, random, tiles, middle, to));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,210 @@
+package Utils;
+
+import java.util.Arrays;
+
+/**
+ * Sorteio das posições ocupadas da população inicial sem percorrer o
+ * campo, para mundos grandes e quase vazios, em que um sorteio por
+ * posição custa muito mais que a própria população.
+ *
+ * Por densidade, cada posição é ocupada com a probabilidade informada,
+ * como no sorteio por posição, mas a distância até a próxima posição
+ * ocupada é sorteada diretamente, com a distribuição geométrica. Por
+ * quantidade, exatamente a quantidade informada de posições distintas é
+ * sorteada com o algoritmo de Floyd. Nos dois casos o custo é
+ * proporcional à quantidade de posições sorteadas, e as posições são
+ * devolvidas em ordem crescente de índice, linha após linha.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public final class CellSampler {
+
+    /**
+     * Maior capacidade inicial do vetor de posições sorteadas por
+     * densidade, que depois cresce conforme a necessidade.
+     */
+    private static final int INITIAL_CAPACITY = 1 << 20;
+
+    /**
+     * Maior quantidade de posições sorteadas por quantidade.
+     */
+    public static final int MAX_COUNT = 1 << 28;
+
+    /**
+     * Classe apenas com métodos estáticos.
+     */
+    private CellSampler() {}
+
+    /**
+     * Sorteia as posições ocupadas quando cada posição é ocupada, de
+     * forma independente, com uma probabilidade.
+     *
+     * @param rand Gerador usado nos sorteios.
+     * @param cells Quantidade de posições do campo.
+     * @param density Probabilidade de cada posição ser ocupada, entre 0 e 1.
+     * @return long[] Os índices das posições ocupadas, em ordem crescente.
+     * @throws IllegalArgumentException Se as posições ocupadas não couberem em um vetor.
+     */
+    public static long[] byDensity(RandomSource rand, long cells, double density) {
+
+        if (density <= 0) {
+
+            return new long[0];
+
+        }
+
+        long[] sample = new long[(int) Math.min(INITIAL_CAPACITY, Math.max(16, (long) (cells * density * 1.1)))];
+        int size = 0;
+        double logMiss = Math.log1p(-density);
+
+        for (long cell = skip(rand, logMiss); cell < cells; cell += 1 + skip(rand, logMiss)) {
+
+            if (size == sample.length) {
+
+                if (size == Integer.MAX_VALUE - 8) {
+
+                    throw new IllegalArgumentException("População inicial grande demais para a densidade " + density + ".");
+
+                }
+
+                sample = Arrays.copyOf(sample, (int) Math.min(Integer.MAX_VALUE - 8, size + (long) size / 2));
+
+            }
+
+            sample[size++] = cell;
+
+        }
+
+        return Arrays.copyOf(sample, size);
+
+    }
+
+    /**
+     * Sorteia exatamente uma quantidade de posições distintas, todas com
+     * a mesma probabilidade.
+     *
+     * @param rand Gerador usado nos sorteios.
+     * @param cells Quantidade de posições do campo.
+     * @param count Quantidade de posições a sortear.
+     * @return long[] Os índices das posições sorteadas, em ordem crescente.
+     * @throws IllegalArgumentException Se a quantidade passar das posições do campo ou de MAX_COUNT.
+     */
+    public static long[] byCount(RandomSource rand, long cells, int count) {
+
+        if (count > cells) {
+
+            throw new IllegalArgumentException("População inicial de " + count + " atores maior que as " + cells + " posições do campo.");
+
+        }
+
+        if (count > MAX_COUNT) {
+
+            throw new IllegalArgumentException("População inicial de " + count + " atores maior que o limite de " + MAX_COUNT + ".");
+
+        }
+
+        LongSet chosen = new LongSet(count);
+
+        for (long j = cells - count; j < cells; j++) {
+
+            long cell = nextLong(rand, j + 1);
+            chosen.add(chosen.contains(cell) ? j : cell);
+
+        }
+
+        long[] sample = chosen.toArray();
+        Arrays.sort(sample);
+        return sample;
+
+    }
+
+    /**
+     * Sorteia quantas posições vazias vêm antes da próxima ocupada.
+     *
+     * @param rand Gerador usado no sorteio.
+     * @param logMiss Logaritmo da probabilidade de uma posição ficar vazia.
+     * @return long A quantidade de posições vazias, saturada em Long.MAX_VALUE / 2.
+     */
+    private static long skip(RandomSource rand, double logMiss) {
+
+        if (logMiss == Double.NEGATIVE_INFINITY) {
+
+            return 0;
+
+        }
+
+        double gap = Math.floor(Math.log1p(-rand.nextDouble()) / logMiss);
+        return gap < Long.MAX_VALUE / 2 ? (long) gap : Long.MAX_VALUE / 2;
+
+    }
+
+    /**
+     * Gera um inteiro de 64 bits uniformemente distribuído entre zero
+     * (inclusive) e o limite (exclusivo), descartando os valores que
+     * tornariam a distribuição desigual.
+     *
+     * @param rand Gerador usado no sorteio.
+     * @param bound Limite superior, deve ser positivo.
+     * @return long Um valor aleatório no intervalo.
+     */
+    private static long nextLong(RandomSource rand, long bound) {
+
+        long bits, value;
+
+        do {
+
+            bits = rand.nextLong() >>> 1;
+            value = bits % bound;
+
+        } while (bits - value + (bound - 1) < 0);
+
+        return value;
+
+    }
+
+    /**
+     * Conjunto de inteiros de 64 bits com endereçamento aberto, sem
+     * objetos por elemento. O valor -1 marca uma posição livre.
+     */
+    private static final class LongSet {
+        private final long[] slots;
+        private int size;
+
+        private LongSet(int capacity) {
+            slots = new long[Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) * 2];
+            Arrays.fill(slots, -1);
+        }
+
+        private int slot(long value) {
+            int mask = slots.length - 1;
+            int i = (int) (value * 0x9E3779B97F4A7C15L >>> 33) & mask;
+            while (slots[i] != -1 && slots[i] != value) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        private boolean contains(long value) { return slots[slot(value)] == value; }
+
+        private void add(long value) {
+            int i = slot(value);
+            if (slots[i] == -1) {
+                slots[i] = value;
+                size++;
+            }
+        }
+
+        private long[] toArray() {
+            long[] values = new long[size];
+            int n = 0;
+            for (long value : slots) {
+                if (value != -1) {
+                    values[n++] = value;
+                }
+            }
+            return values;
+        }
+    }
+
+}
@@ -4,34 +4,63 @@ package Utils;
  * Representa um objeto com coordenadas em um sistema
  * retangular de grid, o campo da simulação.
  * 
+ * As coordenadas são guardadas juntas em um long, a linha nos 32 bits
+ * superiores e a coluna nos inferiores. O mesmo valor pode ser obtido sem
+ * criar objetos com pack e lido com rowOf e colOf; Field e os atores
+ * aceitam e retornam posições nessa forma, e Location fica apenas como
+ * adaptador para o código que ainda usa objetos.
+ * 
  * @author David J. Barnes and Michael Kolling
  * @version 2002-04-09
  */
 public class Location {
 
     /**
-     * Linha, repersenta uma coordenada X.
+     * Linha, repersenta uma coordenada X, e coluna, coordenada Y,
+     * compactadas por pack.
+     */
+    private final long position;
+
+    /**
+     * Construtor do objeto que repersenta
+     * as coordenadas X e Y.
+     * 
+     * @param row A linha, coordenada X.
+     * @param col A coluna, coordenada Y.
      */
-    private int row;
+    public Location(int row, int col) { this(pack(row, col)); }
 
     /**
-     * Coluna, repersenta uma coordenada Y.
+     * Construtor a partir das coordenadas compactadas.
+     * 
+     * @param position Linha e coluna compactadas por pack.
      */
-    private int col;
+    public Location(long position) { this.position = position; }
 
     /**
-     * Construtor do objeto que repersenta
-     * as coordenadas X e Y.
+     * Compacta uma linha e uma coluna em um long.
      * 
      * @param row A linha, coordenada X.
      * @param col A coluna, coordenada Y.
+     * @return long A posição compactada.
      */
-    public Location(int row, int col) {
+    public static long pack(int row, int col) { return ((long) row << 32) | (col & 0xFFFFFFFFL); }
 
-        this.row = row;
-        this.col = col;
+    /**
+     * Retorna a linha de uma posição compactada.
+     * 
+     * @param position Posição compactada por pack.
+     * @return int A linha.
+     */
+    public static int rowOf(long position) { return (int) (position >> 32); }
 
-    }
+    /**
+     * Retorna a coluna de uma posição compactada.
+     * 
+     * @param position Posição compactada por pack.
+     * @return int A coluna.
+     */
+    public static int colOf(long position) { return (int) position; }
 
     /**
      * Implementa operador de equidade de objeto.
@@ -42,7 +71,7 @@ public class Location {
 
             Location other = (Location) obj;
 
-            return row == other.getRow() && col == other.getCol();
+            return position == other.position;
 
         } else {
 
@@ -57,28 +86,38 @@ public class Location {
      * 
      * @return String Uma strnig representando as coordenadas de localização.
      */
-    public String toString() { return row + "," + col; }
+    public String toString() { return getRow() + "," + getCol(); }
 
     /**
-     * use os 16 bits superiores para o valor da linha e os inferiores para a coluna. Exceto
-     * para grades muito grandes, isso deve fornecer um código hash exclusivo para cada (linha, coluna)
+     * Espalha os 64 bits da posição por multiplicação pela constante da
+     * razão áurea e usa os 32 bits superiores, de forma que posições com
+     * qualquer quantidade de linhas e colunas não colidem de forma
+     * sistemática, como acontecia com (linha << 16) + coluna a partir de
+     * 65536 colunas.
      * 
      * @return int Um valor inteiro do calculo.
      */
-    public int hashCode() { return (row << 16) + col; }
+    public int hashCode() { return (int) ((position * 0x9E3779B97F4A7C15L) >>> 32); }
 
     /**
      * Método acessador do atributo linha, coordenada X.
      * 
      * @return A linha, coordenada X.
      */
-    public int getRow() { return row; }
+    public int getRow() { return rowOf(position); }
 
     /**
      * Método acessador do atributo coluna, coordenada Y.
      * 
      * @return A linha, coordenada Y.
      */
-    public int getCol() { return col; }
+    public int getCol() { return colOf(position); }
+
+    /**
+     * Método acessador das coordenadas compactadas.
+     * 
+     * @return long A posição compactada por pack.
+     */
+    public long getPosition() { return position; }
     
 }
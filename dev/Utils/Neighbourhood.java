@@ -0,0 +1,262 @@
+package Utils;
+
+/**
+ * Tabelas pré-calculadas para consultas de vizinhança sem alocação.
+ *
+ * As oito posições vizinhas de uma célula são numeradas de 0 a 7, linha
+ * após linha, e um conjunto de vizinhos é representado por uma máscara de
+ * 8 bits, em que o bit d indica a direção d. A escolha aleatória de um
+ * vizinho usa a tabela do n-ésimo bit ligado de cada máscara, e a ordem
+ * aleatória de visita usa uma tabela com todas as permutações das oito
+ * direções, de forma que nenhuma lista ou objeto Location é criado.
+ *
+ *     0 1 2
+ *     3 . 4
+ *     5 6 7
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public final class Neighbourhood {
+
+    /**
+     * Quantidade de direções vizinhas.
+     */
+    public static final int DIRECTIONS = 8;
+
+    /**
+     * Direção que representa a própria célula.
+     */
+    public static final int STAY = 8;
+
+    /**
+     * Valor retornado quando não há direção possível.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Máscara com todas as direções vizinhas.
+     */
+    public static final int ALL = 0xFF;
+
+    /**
+     * Bits da situação de borda de uma célula, combinados em um índice de
+     * EDGE_MASKS: primeira ou última linha, primeira ou última coluna.
+     */
+    public static final int TOP = 1, BOTTOM = 2, LEFT = 4, RIGHT = 8;
+
+    /**
+     * Deslocamento de linha de cada direção, incluindo STAY.
+     */
+    private static final int[] ROW_OFFSET = { -1, -1, -1, 0, 0, 1, 1, 1, 0 };
+
+    /**
+     * Deslocamento de coluna de cada direção, incluindo STAY.
+     */
+    private static final int[] COL_OFFSET = { -1, 0, 1, -1, 1, -1, 0, 1, 0 };
+
+    /**
+     * Direção de cada deslocamento, indexada por (linha + 1) * 3 + (coluna + 1).
+     */
+    private static final int[] DIRECTION_OF = { 0, 1, 2, 3, STAY, 4, 5, 6, 7 };
+
+    /**
+     * Máscara das direções válidas para cada combinação de bits de borda.
+     */
+    private static final int[] EDGE_MASKS = new int[16];
+
+    /**
+     * Posição do n-ésimo bit ligado de cada máscara, indexada por máscara * 8 + n.
+     */
+    private static final byte[] NTH_BIT = new byte[256 * DIRECTIONS];
+
+    /**
+     * Todas as permutações das oito direções, com três bits por direção.
+     */
+    private static final int[] PERMUTATIONS = new int[40320];
+
+    static {
+
+        for (int edges = 0; edges < EDGE_MASKS.length; edges++) {
+
+            int mask = ALL;
+
+            for (int dir = 0; dir < DIRECTIONS; dir++) {
+
+                if (((edges & TOP) != 0 && ROW_OFFSET[dir] < 0) || ((edges & BOTTOM) != 0 && ROW_OFFSET[dir] > 0)
+                        || ((edges & LEFT) != 0 && COL_OFFSET[dir] < 0) || ((edges & RIGHT) != 0 && COL_OFFSET[dir] > 0)) {
+
+                    mask &= ~(1 << dir);
+
+                }
+
+            }
+
+            EDGE_MASKS[edges] = mask;
+
+        }
+
+        for (int mask = 0; mask < 256; mask++) {
+
+            int n = 0;
+
+            for (int dir = 0; dir < DIRECTIONS; dir++) {
+
+                if ((mask & (1 << dir)) != 0) {
+
+                    NTH_BIT[mask * DIRECTIONS + n++] = (byte) dir;
+
+                }
+
+            }
+
+        }
+
+        int[] order = { 0, 1, 2, 3, 4, 5, 6, 7 };
+        int count = 0;
+
+        // Gera as permutações em ordem lexicográfica.
+        do {
+
+            int packed = 0;
+
+            for (int i = 0; i < DIRECTIONS; i++) {
+
+                packed |= order[i] << (3 * i);
+
+            }
+
+            PERMUTATIONS[count++] = packed;
+
+        } while (nextPermutation(order));
+
+    }
+
+    /**
+     * Classe apenas com tabelas e funções, não deve ser instanciada.
+     */
+    private Neighbourhood() {}
+
+    /**
+     * Avança um vetor para a próxima permutação em ordem lexicográfica.
+     *
+     * @param values O vetor a ser permutado.
+     * @return true Se havia uma próxima permutação.
+     */
+    private static boolean nextPermutation(int[] values) {
+
+        int i = values.length - 2;
+
+        while (i >= 0 && values[i] >= values[i + 1]) {
+
+            i--;
+
+        }
+
+        if (i < 0) {
+
+            return false;
+
+        }
+
+        int j = values.length - 1;
+
+        while (values[j] <= values[i]) {
+
+            j--;
+
+        }
+
+        int swap = values[i]; values[i] = values[j]; values[j] = swap;
+
+        for (int a = i + 1, b = values.length - 1; a < b; a++, b--) {
+
+            swap = values[a]; values[a] = values[b]; values[b] = swap;
+
+        }
+
+        return true;
+
+    }
+
+    /**
+     * Retorna o deslocamento de linha de uma direção.
+     *
+     * @param direction Direção de 0 a 7, ou STAY.
+     * @return int -1, 0 ou 1.
+     */
+    public static int rowOffset(int direction) { return ROW_OFFSET[direction]; }
+
+    /**
+     * Retorna o deslocamento de coluna de uma direção.
+     *
+     * @param direction Direção de 0 a 7, ou STAY.
+     * @return int -1, 0 ou 1.
+     */
+    public static int colOffset(int direction) { return COL_OFFSET[direction]; }
+
+    /**
+     * Retorna a direção correspondente a um deslocamento.
+     *
+     * @param rowOffset Deslocamento de linha, de -1 a 1.
+     * @param colOffset Deslocamento de coluna, de -1 a 1.
+     * @return int A direção, ou STAY se os dois deslocamentos forem zero.
+     */
+    public static int directionOf(int rowOffset, int colOffset) { return DIRECTION_OF[(rowOffset + 1) * 3 + colOffset + 1]; }
+
+    /**
+     * Retorna a máscara das direções que ficam dentro do campo.
+     *
+     * @param edges Combinação de TOP, BOTTOM, LEFT e RIGHT da célula.
+     * @return int A máscara das direções válidas.
+     */
+    public static int edgeMask(int edges) { return EDGE_MASKS[edges]; }
+
+    /**
+     * Retorna a direção do n-ésimo bit ligado de uma máscara.
+     *
+     * @param mask Máscara de direções.
+     * @param n Posição do bit entre os ligados, menor que Integer.bitCount(mask).
+     * @return int A direção.
+     */
+    public static int nthBit(int mask, int n) { return NTH_BIT[mask * DIRECTIONS + n]; }
+
+    /**
+     * Escolhe uma direção aleatória, com probabilidades iguais, entre as
+     * direções de uma máscara.
+     *
+     * @param mask Máscara de direções.
+     * @param rand Fonte de números aleatórios.
+     * @return int A direção escolhida, ou NONE se a máscara for vazia.
+     */
+    public static int randomDirection(int mask, RandomSource rand) {
+
+        if (mask == 0) {
+
+            return NONE;
+
+        }
+
+        return NTH_BIT[mask * DIRECTIONS + rand.nextInt(Integer.bitCount(mask))];
+
+    }
+
+    /**
+     * Sorteia uma ordem de visita das oito direções. As direções são
+     * obtidas com direction(order, i), para i de 0 a 7.
+     *
+     * @param rand Fonte de números aleatórios.
+     * @return int A permutação sorteada, com três bits por direção.
+     */
+    public static int randomOrder(RandomSource rand) { return PERMUTATIONS[rand.nextInt(PERMUTATIONS.length)]; }
+
+    /**
+     * Retorna a i-ésima direção de uma ordem de visita.
+     *
+     * @param order Permutação retornada por randomOrder.
+     * @param i Posição na ordem, de 0 a 7.
+     * @return int A direção.
+     */
+    public static int direction(int order, int i) { return (order >>> (3 * i)) & 7; }
+
+}
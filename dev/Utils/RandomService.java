@@ -0,0 +1,174 @@
+package Utils;
+
+/**
+ * Serviço central de randomização de uma simulação. É criado uma única
+ * vez, com a semente da simulação, e fornece geradores independentes
+ * para cada passo e cada fluxo (um bloco do campo, um pedaço da lista
+ * de atores, etc.). Como cada gerador é derivado apenas da semente, do
+ * passo e do número do fluxo, o resultado não depende de qual thread
+ * executa cada fluxo nem da quantidade de threads.
+ *
+ * Os atores obtêm o gerador do fluxo em execução com current(); os
+ * motores associam o gerador à thread com bind antes de executar os
+ * atores e o desassociam com unbind ao terminar. Fora desse intervalo
+ * não há gerador, para que nenhum sorteio use um gerador sem semente.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class RandomService {
+
+    /**
+     * Nome do algoritmo baseado em SplittableRandom.
+     */
+    public static final String SPLITTABLE = "splittable";
+
+    /**
+     * Nome do algoritmo xoshiro256**.
+     */
+    public static final String XOSHIRO = "xoshiro";
+
+    /**
+     * Incremento do SplitMix64, parte fracionária da razão áurea.
+     */
+    static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Gerador associado a cada thread, ou null fora da execução dos atores.
+     */
+    private static final ThreadLocal<RandomSource> CURRENT = new ThreadLocal<RandomSource>();
+
+    /**
+     * Semente da simulação.
+     */
+    private final long seed;
+
+    /**
+     * Algoritmo dos geradores criados.
+     */
+    private final String algorithm;
+
+    /**
+     * Passo da simulação usado na derivação dos fluxos.
+     */
+    private int step;
+
+    /**
+     * Construtor com o algoritmo padrão.
+     *
+     * @param seed Semente da simulação.
+     */
+    public RandomService(long seed) { this(seed, SPLITTABLE); }
+
+    /**
+     * Construtor com um algoritmo definido.
+     *
+     * @param seed Semente da simulação.
+     * @param algorithm SPLITTABLE ou XOSHIRO.
+     * @throws IllegalArgumentException Se o algoritmo não existir.
+     */
+    public RandomService(long seed, String algorithm) {
+
+        if (!SPLITTABLE.equals(algorithm) && !XOSHIRO.equals(algorithm)) {
+
+            throw new IllegalArgumentException("Gerador desconhecido: " + algorithm);
+
+        }
+
+        this.seed = seed;
+        this.algorithm = algorithm;
+
+    }
+
+    /**
+     * Define o passo atual, a partir do qual os próximos fluxos são derivados.
+     *
+     * @param step Passo da simulação.
+     */
+    public void setStep(int step) { this.step = step; }
+
+    /**
+     * Método acessador do passo atual.
+     *
+     * @return int O passo atual.
+     */
+    public int getStep() { return this.step; }
+
+    /**
+     * Método acessador da semente da simulação.
+     *
+     * @return long A semente.
+     */
+    public long getSeed() { return this.seed; }
+
+    /**
+     * Método acessador do algoritmo dos geradores.
+     *
+     * @return String O nome do algoritmo.
+     */
+    public String getAlgorithm() { return this.algorithm; }
+
+    /**
+     * Cria o gerador de um fluxo no passo atual. Chamadas com o mesmo
+     * passo e o mesmo fluxo sempre geram a mesma sequência.
+     *
+     * @param stream Número do fluxo.
+     * @return RandomSource Um gerador novo.
+     */
+    public RandomSource stream(long stream) {
+
+        long derived = mix(mix(seed + GOLDEN_GAMMA * (step + 1L)) + GOLDEN_GAMMA * (stream + 1L));
+
+        return XOSHIRO.equals(algorithm) ? new XoshiroRandomSource(derived) : new SplittableRandomSource(derived);
+
+    }
+
+    /**
+     * Associa um gerador à thread atual.
+     *
+     * @param source Gerador a ser usado pelos atores nesta thread.
+     */
+    public static void bind(RandomSource source) { CURRENT.set(source); }
+
+    /**
+     * Desassocia o gerador da thread atual. Deve ser chamado em um bloco
+     * finally, depois de bind, para que as threads dos pools não mantenham
+     * o gerador de um passo já encerrado.
+     */
+    public static void unbind() { CURRENT.remove(); }
+
+    /**
+     * Retorna o gerador associado à thread atual.
+     *
+     * @return RandomSource O gerador em uso.
+     * @throws IllegalStateException Se nenhum gerador estiver associado à thread.
+     */
+    public static RandomSource current() {
+
+        RandomSource source = CURRENT.get();
+
+        if (source == null) {
+
+            throw new IllegalStateException("Nenhum gerador associado à thread; use RandomService.bind antes de executar os atores.");
+
+        }
+
+        return source;
+
+    }
+
+    /**
+     * Função de mistura do SplitMix64.
+     *
+     * @param z Valor a ser misturado.
+     * @return long O valor misturado.
+     */
+    static long mix(long z) {
+
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+
+    }
+
+}
@@ -0,0 +1,93 @@
+package Utils;
+
+import java.util.List;
+
+/**
+ * Interface para os geradores de números aleatórios da simulação.
+ * Diferente de java.util.Random, as implementações não são sincronizadas:
+ * cada instância deve ser usada por uma única thread, e novas sequências
+ * independentes são obtidas com split.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public interface RandomSource {
+
+    /**
+     * Gera um inteiro de 64 bits uniformemente distribuído.
+     *
+     * @return long Um valor aleatório.
+     */
+    public long nextLong();
+
+    /**
+     * Gera um inteiro uniformemente distribuído entre zero (inclusive)
+     * e o limite (exclusivo).
+     *
+     * @param bound Limite superior, deve ser positivo.
+     * @return int Um valor aleatório no intervalo.
+     */
+    public int nextInt(int bound);
+
+    /**
+     * Gera um valor uniformemente distribuído entre 0.0 (inclusive) e 1.0 (exclusivo).
+     *
+     * @return double Um valor aleatório no intervalo.
+     */
+    public double nextDouble();
+
+    /**
+     * Cria um novo gerador, independente deste, a partir do estado atual.
+     *
+     * @return RandomSource Um novo gerador.
+     */
+    public RandomSource split();
+
+    /**
+     * Preenche um vetor com inteiros entre zero e o limite, de uma só vez.
+     *
+     * @param values Vetor a ser preenchido.
+     * @param bound Limite superior, deve ser positivo.
+     */
+    public default void nextInts(int[] values, int bound) {
+
+        for (int i = 0; i < values.length; i++) {
+
+            values[i] = nextInt(bound);
+
+        }
+
+    }
+
+    /**
+     * Preenche um vetor com valores entre 0.0 e 1.0, de uma só vez.
+     *
+     * @param values Vetor a ser preenchido.
+     */
+    public default void nextDoubles(double[] values) {
+
+        for (int i = 0; i < values.length; i++) {
+
+            values[i] = nextDouble();
+
+        }
+
+    }
+
+    /**
+     * Embaralha uma lista com o algoritmo de Fisher-Yates.
+     *
+     * @param list Lista a ser embaralhada.
+     */
+    public default <T> void shuffle(List<T> list) {
+
+        for (int i = list.size() - 1; i > 0; i--) {
+
+            int j = nextInt(i + 1);
+            list.set(i, list.set(j, list.get(i)));
+
+        }
+
+    }
+
+}
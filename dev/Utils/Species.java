@@ -0,0 +1,56 @@
+package Utils;
+
+/**
+ * Códigos numéricos das espécies presentes na simulação. São usados
+ * nas estruturas que guardam atores e posições como números primitivos,
+ * e cabem em dois bits.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public final class Species {
+
+    /**
+     * Código de uma posição vazia.
+     */
+    public static final int EMPTY = 0;
+
+    /**
+     * Código do coelho.
+     */
+    public static final int RABBIT = 1;
+
+    /**
+     * Código da raposa.
+     */
+    public static final int FOX = 2;
+
+    /**
+     * Código do caçador.
+     */
+    public static final int HUNTER = 3;
+
+    /**
+     * Quantidade de códigos, incluindo o de posição vazia.
+     */
+    public static final int COUNT = 4;
+
+    /**
+     * Nomes de cada código, na ordem dos códigos.
+     */
+    private static final String[] NAMES = { "Vazio", "Coelho", "Raposa", "Caçador" };
+
+    /**
+     * Classe apenas com constantes, não deve ser instanciada.
+     */
+    private Species() {}
+
+    /**
+     * Retorna o nome de uma espécie.
+     *
+     * @param species Código da espécie.
+     * @return String O nome da espécie.
+     */
+    public static String getName(int species) { return NAMES[species]; }
+
+}
@@ -0,0 +1,41 @@
+package Utils;
+
+import java.util.SplittableRandom;
+
+/**
+ * Gerador baseado em java.util.SplittableRandom (SplitMix64). É o gerador
+ * padrão da simulação: rápido, sem sincronização e com split nativo.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class SplittableRandomSource implements RandomSource {
+
+    /**
+     * Gerador do Java que implementa as operações.
+     */
+    private final SplittableRandom random;
+
+    /**
+     * Construtor a partir de uma semente.
+     *
+     * @param seed Semente do gerador.
+     */
+    public SplittableRandomSource(long seed) { this(new SplittableRandom(seed)); }
+
+    /**
+     * Construtor a partir de um gerador já existente.
+     *
+     * @param random Gerador do Java.
+     */
+    private SplittableRandomSource(SplittableRandom random) { this.random = random; }
+
+    public long nextLong() { return random.nextLong(); }
+
+    public int nextInt(int bound) { return random.nextInt(bound); }
+
+    public double nextDouble() { return random.nextDouble(); }
+
+    public RandomSource split() { return new SplittableRandomSource(random.split()); }
+
+}
@@ -0,0 +1,79 @@
+package Utils;
+
+/**
+ * Gerador xoshiro256** de Blackman e Vigna. Tem período 2^256 - 1 e
+ * estado de quatro longs, inicializado a partir da semente com SplitMix64.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class XoshiroRandomSource implements RandomSource {
+
+    /**
+     * Estado do gerador.
+     */
+    private long s0, s1, s2, s3;
+
+    /**
+     * Construtor a partir de uma semente.
+     *
+     * @param seed Semente do gerador.
+     */
+    public XoshiroRandomSource(long seed) {
+
+        long x = seed;
+        s0 = RandomService.mix(x += RandomService.GOLDEN_GAMMA);
+        s1 = RandomService.mix(x += RandomService.GOLDEN_GAMMA);
+        s2 = RandomService.mix(x += RandomService.GOLDEN_GAMMA);
+        s3 = RandomService.mix(x += RandomService.GOLDEN_GAMMA);
+
+    }
+
+    public long nextLong() {
+
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+
+        return result;
+
+    }
+
+    /**
+     * Usa o mesmo método de rejeição de java.util.Random sobre os 31
+     * bits superiores, para que o resultado não tenha viés.
+     */
+    public int nextInt(int bound) {
+
+        if (bound <= 0) {
+
+            throw new IllegalArgumentException("O limite deve ser positivo.");
+
+        }
+
+        int r = (int) (nextLong() >>> 33);
+        int m = bound - 1;
+
+        if ((bound & m) == 0) {
+
+            return (int) ((bound * (long) r) >> 31);
+
+        }
+
+        for (int u = r; u - (r = u % bound) + m < 0; u = (int) (nextLong() >>> 33));
+
+        return r;
+
+    }
+
+    public double nextDouble() { return (nextLong() >>> 11) * 0x1.0p-53; }
+
+    public RandomSource split() { return new XoshiroRandomSource(nextLong()); }
+
+}
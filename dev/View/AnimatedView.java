@@ -4,11 +4,14 @@ package View;
 import java.awt.*;
 import java.awt.event.*;
 import javax.swing.*;
+import java.util.Arrays;
 import java.util.HashMap;
 
 import Controllers.*;
 import Core.SimulatorView;
 import Core.Simulator;
+import Core.StepPacer;
+import Utils.Species;
 
 /**
  * Uma visão gráfica da grade de simulação. A vista mostra um colorido
@@ -31,6 +34,11 @@ public class AnimatedView extends JFrame implements SimulatorView {
      */
     private static final Color UNKNOWN_COLOR = Color.gray;
 
+    /**
+     * Quadros exibidos por segundo.
+     */
+    private static final int FRAMES_PER_SECOND = 60;
+
     /**
      * Prefixo textual na representação do passo atual na GUI.
      */
@@ -73,20 +81,58 @@ public class AnimatedView extends JFrame implements SimulatorView {
     private HashMap colors;
 
     /**
-     * Estatisticas para serem apresentadas.
+     * Simulação controlada pelos botões desta janela.
+     */
+    private Simulator simulator;
+
+    /**
+     * Cor RGB de cada código de espécie, escrita diretamente nos pixels
+     * de FieldView. Começa com UNKNOWN_COLOR e é preenchida na primeira
+     * vez em que a espécie aparece no campo, para que o desenho não
+     * consulte o hashmap a cada posição.
+     */
+    private int[] palette;
+
+    /**
+     * Classe do ator de cada código de espécie, usada para encontrar a
+     * cor definida por classe em setColor; null enquanto a espécie não
+     * apareceu no campo.
+     */
+    private Class<?>[] speciesClasses;
+
+    /**
+     * Quadros entregues pela simulação à interface.
+     */
+    private FrameExchange exchange;
+
+    /**
+     * Temporizador que exibe o último quadro, executado na thread da interface.
+     */
+    private Timer timer;
+
+    /**
+     * Nível de comida e estação do próximo quadro, atualizados pela
+     * thread da simulação.
      */
-    private FieldStats stats;
+    private int foodValue;
+    private String seasonName;
 
     /**
      * Construtor sobre parametros de largura e profundidade.
      * 
      * @param height Altura do campo de simulação.
      * @param width Largura do campo de simulação.
+     * @param simulator Simulação controlada pelos botões da janela.
      */
-    public AnimatedView(int height, int width) {
+    public AnimatedView(int height, int width, Simulator simulator) {
+
+        this.simulator = simulator;
 
-        stats = new FieldStats();
         colors = new HashMap();
+        palette = new int[Species.COUNT];
+        speciesClasses = new Class<?>[Species.COUNT];
+        Arrays.fill(palette, UNKNOWN_COLOR.getRGB());
+        palette[Species.EMPTY] = EMPTY_COLOR.getRGB();
 
         setTitle("Fox and Rabbit Simulation");
         startButton = new JButton("Iniciar");
@@ -94,7 +140,7 @@ public class AnimatedView extends JFrame implements SimulatorView {
         forwardButton = new JButton("Avançar");
         foodLevel = new JLabel("Comida dos Coelhos: ");
         seasonLabel = new JLabel("Estação atual: ");
-        textSpeed = new JLabel ("Digite a velocidade de simulação: ");
+        textSpeed = new JLabel ("Digite a velocidade em passos por segundo (0 sem limite): ");
         speed = new JTextArea();
         speed.setMaximumSize(new Dimension(10,5));
 
@@ -104,6 +150,8 @@ public class AnimatedView extends JFrame implements SimulatorView {
         setLocation(100, 50);
 
         fieldView = new FieldView(height, width);
+        exchange = new FrameExchange(height, width);
+        timer = new Timer(1000 / FRAMES_PER_SECOND, e -> present());
 
         Container contents = getContentPane();
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -113,6 +161,7 @@ public class AnimatedView extends JFrame implements SimulatorView {
         contents.add(population, BorderLayout.SOUTH);
         pack();
         setVisible(true);
+        timer.start();
 
     }
 
@@ -176,8 +225,12 @@ public class AnimatedView extends JFrame implements SimulatorView {
             public void keyPressed(KeyEvent e){
                 if(e.getKeyCode() == KeyEvent.VK_ENTER){
                     e.consume();
-                    Simulator.setSpeed(Integer.parseInt(speed.getText()));
-                    startButton.setEnabled(true);
+                    try {
+                        simulator.setStepRate(Double.parseDouble(speed.getText().trim()));
+                        startButton.setEnabled(true);
+                    } catch (NumberFormatException ex) {
+                        speed.setText("");
+                    }
                 }
             }
 
@@ -201,7 +254,7 @@ public class AnimatedView extends JFrame implements SimulatorView {
                 @Override
                 public void actionPerformed(ActionEvent e){
                     
-                    Simulator.startSimulation();
+                    simulator.startSimulation();
                     
                 }
             }
@@ -212,7 +265,7 @@ public class AnimatedView extends JFrame implements SimulatorView {
                 @Override
                 public void actionPerformed(ActionEvent e){
 
-                    Simulator.pauseSimulation();
+                    simulator.pauseSimulation();
 
                 }
             }
@@ -222,7 +275,7 @@ public class AnimatedView extends JFrame implements SimulatorView {
                 @Override
                 public void actionPerformed(ActionEvent e){
                     
-                    Simulator.nextFlag = true;
+                    simulator.requestNextStep();
 
                 }
             }
@@ -232,18 +285,20 @@ public class AnimatedView extends JFrame implements SimulatorView {
     }
 
     /**
-     * Atualiza a informação da quantidade de comida na simulação.
+     * Atualiza a informação da quantidade de comida na simulação. O valor
+     * é exibido junto com o próximo quadro.
      *
      * @param level Valor da quantidade de comida.
      */
-    public void updateFoodLevelField(int level) { this.foodLevel.setText("Comida para coelho: "+level );}
+    public void updateFoodLevelField(int level) { this.foodValue = level; }
 
     /**
-     * Atualiza a informação da da estação atual na simulação.
+     * Atualiza a informação da da estação atual na simulação. O valor é
+     * exibido junto com o próximo quadro.
      *
      * @param season Estação atual.
      */
-    public void updateSeasonField(String season) { this.seasonLabel.setText("Estação atual: "+season); }
+    public void updateSeasonField(String season) { this.seasonName = season; }
 
     /**
      * Define a cor para ser usada por cada animal.
@@ -251,7 +306,21 @@ public class AnimatedView extends JFrame implements SimulatorView {
      * @param animalClass Classe do animal.
      * @param color Cor a ser usada.
      */
-    public void setColor(Class animalClass, Color color) { colors.put(animalClass, color); }
+    public void setColor(Class<?> animalClass, Color color) {
+
+        colors.put(animalClass, color);
+
+        for (int species = 1; species < Species.COUNT; species++) {
+
+            if (speciesClasses[species] == animalClass) {
+
+                palette[species] = color.getRGB();
+
+            }
+
+        }
+
+    }
 
     /**
      * Acessa a cor de um animal.
@@ -272,114 +341,110 @@ public class AnimatedView extends JFrame implements SimulatorView {
     }
 
     /**
-     * Exibe as informações do campo de simulação atual.
+     * Exibe as informações do campo de simulação atual. Chamado pela
+     * thread da simulação, apenas copia o estado para um quadro e o
+     * publica; o desenho é feito na thread da interface por present, no
+     * seu próprio ritmo, sem atrasar a simulação.
      * 
      * @param step  Passo atual do processo de simulação..
      * @param field Campo de simulação atual.
      */
     public void showStatus(int step, Field field) {
 
-        if (!isVisible())
-            setVisible(true);
+        FieldStats stats = field.getStats();
+        learnSpecies(field, stats);
+        exchange.getBackFrame().capture(step, field, stats, foodValue, seasonName, palette);
+        exchange.publish();
 
-        stepLabel.setText(STEP_PREFIX + step);
+    }
 
-        stats.reset();
-        fieldView.preparePaint();
+    /**
+     * Exibe o último quadro publicado pela simulação, se houver um novo.
+     * Chamado pelo temporizador na thread da interface.
+     */
+    private void present() {
+
+        FieldFrame frame = exchange.takeLatest();
+
+        if (frame == null) {
+
+            return;
+
+        }
+
+        fieldView.setFrame(frame.getCells(), frame.getBlockCounts(), frame.getPalette());
+
+        StringBuffer details = new StringBuffer();
+
+        for (int species = 1; species < Species.COUNT; species++) {
+
+            details.append(Species.getName(species)).append(": ").append(frame.getPopulation(species)).append(' ');
+
+        }
+
+        StepPacer pacer = simulator.getStepPacer();
+        stepLabel.setText(STEP_PREFIX + frame.getStep() + (pacer.getTargetStepsPerSecond() == 0
+            ? String.format("  (%.1f passos/s, sem limite)", pacer.getAchievedStepsPerSecond())
+            : String.format("  (%.1f de %.1f passos/s)", pacer.getAchievedStepsPerSecond(), pacer.getTargetStepsPerSecond())));
+        population.setText(POPULATION_PREFIX + details);
+        foodLevel.setText("Comida para coelho: " + frame.getFoodLevel());
+
+        if (frame.getSeason() != null) {
+
+            seasonLabel.setText("Estação atual: " + frame.getSeason());
 
-        for (int row = 0; row < field.getDepth(); row++) {
-            for (int col = 0; col < field.getWidth(); col++) {
-                Object animal = field.getObjectAt(row, col);
-                if (animal != null) {
-                    stats.incrementCount(animal.getClass());
-                    fieldView.drawMark(col, row, getColor(animal.getClass()));
-                } else {
-                    fieldView.drawMark(col, row, EMPTY_COLOR);
-                }
-            }
         }
-        stats.countFinished();
 
-        population.setText(POPULATION_PREFIX + stats.getPopulationDetails(field));
         fieldView.repaint();
+
     }
 
     /**
-     * Determina se a simualação deev continuar.
+     * Associa cada código de espécie ainda desconhecido à classe e à cor
+     * de um ator dessa espécie presente no campo. Só procura as espécies
+     * que têm população e ainda não foram vistas.
      * 
-     * @return true Se a condição de existencia ainda não foi alcançada.
+     * @param field Campo de simulação atual.
+     * @param stats Contadores de população do campo.
      */
-    public boolean isViable(Field field) { return stats.isViable(field); }
+    private void learnSpecies(Field field, FieldStats stats) {
 
-    /**
-     * Fornece uma visão gráfica de um campo retangular. Esta é uma classe aninhada (um
-     * classe definida dentro de uma classe) que define um componente personalizado para o usuário
-     * interface. Este componente exibe o campo. Esta é uma GUI bastante avançada
-     * stuff - você pode ignorar isso para o seu projeto, se desejar.
-     */
-    private class FieldView extends JPanel {
-        
-        private final int GRID_VIEW_SCALING_FACTOR = 8;
-
-        private int gridWidth, gridHeight;
-        private int xScale, yScale;
-        Dimension size;
-        private Graphics g;
-        private Image fieldImage;
-
-        /**
-         * Create a new FieldView component.
-         */
-        public FieldView(int height, int width) {
-            gridHeight = height;
-            gridWidth = width;
-            size = new Dimension(0, 0);
-        }
+        for (int species = 1; species < Species.COUNT; species++) {
 
-        /**
-         * Tell the GUI manager how big we would like to be.
-         */
-        public Dimension getPreferredSize() {
-            return new Dimension(gridWidth * GRID_VIEW_SCALING_FACTOR, gridHeight * GRID_VIEW_SCALING_FACTOR);
-        }
+            if (speciesClasses[species] != null || stats.getPopulation(species) == 0) {
+                continue;
+            }
 
-        /**
-         * Prepare for a new round of painting. Since the component may be resized,
-         * compute the scaling factor again.
-         */
-        public void preparePaint() {
-            if (!size.equals(getSize())) { // if the size has changed...
-                size = getSize();
-                fieldImage = fieldView.createImage(size.width, size.height);
-                g = fieldImage.getGraphics();
-
-                xScale = size.width / gridWidth;
-                if (xScale < 1) {
-                    xScale = GRID_VIEW_SCALING_FACTOR;
-                }
-                yScale = size.height / gridHeight;
-                if (yScale < 1) {
-                    yScale = GRID_VIEW_SCALING_FACTOR;
+            for (int i = 0; i < field.getDirtyBlockCount() && speciesClasses[species] == null; i++) {
+                int block = field.getDirtyBlock(i);
+                int firstRow = field.getBlockFirstRow(block);
+                int lastRow = Math.min(firstRow + Field.BLOCK_SIZE, field.getDepth());
+                int firstCol = field.getBlockFirstCol(block);
+                int lastCol = Math.min(firstCol + Field.BLOCK_SIZE, field.getWidth());
+                for (int row = firstRow; row < lastRow && speciesClasses[species] == null; row++) {
+                    for (int col = firstCol; col < lastCol; col++) {
+                        if (field.getSpeciesAt(row, col) == species) {
+                            Class<?> animalClass = field.getObjectAt(row, col).getClass();
+                            speciesClasses[species] = animalClass;
+                            palette[species] = getColor(animalClass).getRGB();
+                            break;
+                        }
+                    }
                 }
             }
-        }
 
-        /**
-         * Paint on grid location on this field in a given color.
-         */
-        public void drawMark(int x, int y, Color color) {
-            g.setColor(color);
-            g.fillRect(x * xScale, y * yScale, xScale - 1, yScale - 1);
         }
 
-        /**
-         * The field view component needs to be redisplayed. Copy the internal image to
-         * screen.
-         */
-        public void paintComponent(Graphics g) {
-            if (fieldImage != null) {
-                g.drawImage(fieldImage, 0, 0, null);
-            }
-        }
+    }
+
+    /**
+     * Determina se a simualação deev continuar.
+     * 
+     * @return true Se a condição de existencia ainda não foi alcançada.
+     */
+    public boolean isViable(Field field) {
+
+        return field.getStats().isViable(field);
+
     }
 }
@@ -0,0 +1,227 @@
+package View;
+
+import java.util.Arrays;
+
+import Controllers.Field;
+import Controllers.FieldStats;
+import Utils.Species;
+
+/**
+ * Quadro compacto do estado de um passo da simulação, entregue pela
+ * thread da simulação à interface gráfica: o código da espécie de cada
+ * posição, a contagem de cada espécie em cada bloco do campo, a população
+ * de cada espécie, o passo, o nível de comida, a estação e as cores usadas
+ * no desenho. As contagens por bloco são atualizadas apenas nos blocos
+ * percorridos pela captura.
+ *
+ * Os quadros são reutilizados por FrameExchange. Um quadro só é escrito
+ * pela thread da simulação enquanto ela o possui, e depois de publicado
+ * não muda até voltar para ela, de forma que quem o recebe pode lê-lo
+ * sem sincronização.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class FieldFrame {
+
+    /**
+     * Dimensões do campo.
+     */
+    private final int depth, width;
+
+    /**
+     * Código da espécie de cada posição, linha após linha.
+     */
+    private final byte[] cells;
+
+    /**
+     * Contagem de cada espécie em cada bloco, Species.COUNT valores por
+     * bloco; a posição da espécie vazia não é usada.
+     */
+    private final int[] blockCounts;
+
+    /**
+     * Blocos do campo que têm posições ocupadas neste quadro, para que
+     * a próxima captura limpe apenas estes blocos.
+     */
+    private final int[] blocks;
+    private int blockCount;
+
+    /**
+     * População de cada código de espécie.
+     */
+    private final int[] population = new int[Species.COUNT];
+
+    /**
+     * Cor RGB de cada código de espécie.
+     */
+    private final int[] palette = new int[Species.COUNT];
+
+    /**
+     * Passo, nível de comida e estação do quadro.
+     */
+    private int step, foodLevel;
+    private String season;
+
+    /**
+     * Construtor de um quadro vazio.
+     *
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     */
+    public FieldFrame(int depth, int width) {
+
+        this.depth = depth;
+        this.width = width;
+        this.cells = new byte[depth * width];
+        this.blocks = new int[((depth + Field.BLOCK_SIZE - 1) / Field.BLOCK_SIZE) * ((width + Field.BLOCK_SIZE - 1) / Field.BLOCK_SIZE)];
+        this.blockCounts = new int[blocks.length * Species.COUNT];
+
+    }
+
+    /**
+     * Copia o estado de um passo para o quadro. Apenas os blocos ocupados
+     * no quadro anterior e no campo atual são percorridos.
+     *
+     * @param step Passo da simulação.
+     * @param field Campo do passo.
+     * @param stats Contadores de população já confirmados no passo.
+     * @param foodLevel Nível de comida dos coelhos.
+     * @param season Nome da estação atual.
+     * @param colors Cor RGB de cada código de espécie.
+     */
+    void capture(int step, Field field, FieldStats stats, int foodLevel, String season, int[] colors) {
+
+        for (int i = 0; i < blockCount; i++) {
+
+            fillBlock(field, blocks[i], false);
+
+        }
+
+        blockCount = field.getDirtyBlockCount();
+
+        for (int i = 0; i < blockCount; i++) {
+
+            blocks[i] = field.getDirtyBlock(i);
+            fillBlock(field, blocks[i], true);
+
+        }
+
+        for (int species = 0; species < Species.COUNT; species++) {
+
+            population[species] = stats.getPopulation(species);
+
+        }
+
+        System.arraycopy(colors, 0, palette, 0, Species.COUNT);
+        this.step = step;
+        this.foodLevel = foodLevel;
+        this.season = season;
+
+    }
+
+    /**
+     * Escreve as posições de um bloco, os códigos do campo ou vazio, e
+     * as contagens do bloco.
+     *
+     * @param field Campo do passo.
+     * @param block Índice do bloco.
+     * @param copy true para copiar os códigos do campo, false para limpar.
+     */
+    private void fillBlock(Field field, int block, boolean copy) {
+
+        int firstRow = field.getBlockFirstRow(block);
+        int lastRow = Math.min(firstRow + Field.BLOCK_SIZE, depth);
+        int firstCol = field.getBlockFirstCol(block);
+        int lastCol = Math.min(firstCol + Field.BLOCK_SIZE, width);
+        int counts = block * Species.COUNT;
+        Arrays.fill(blockCounts, counts, counts + Species.COUNT, 0);
+
+        for (int row = firstRow; row < lastRow; row++) {
+
+            int base = row * width;
+
+            if (!copy) {
+
+                Arrays.fill(cells, base + firstCol, base + lastCol, (byte) Species.EMPTY);
+                continue;
+
+            }
+
+            for (int col = firstCol; col < lastCol; col++) {
+
+                int species = field.getSpeciesAt(row, col);
+                cells[base + col] = (byte) species;
+                blockCounts[counts + species]++;
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Método acessador dos códigos de espécie do quadro.
+     *
+     * @return byte[] Um código por posição, linha após linha; não deve ser alterado.
+     */
+    public byte[] getCells() { return cells; }
+
+    /**
+     * Método acessador das contagens por bloco do quadro.
+     *
+     * @return int[] Species.COUNT contagens por bloco, na ordem dos blocos de Field; não deve ser alterado.
+     */
+    public int[] getBlockCounts() { return blockCounts; }
+
+    /**
+     * Método acessador das cores do quadro.
+     *
+     * @return int[] A cor RGB de cada código de espécie; não deve ser alterado.
+     */
+    public int[] getPalette() { return palette; }
+
+    /**
+     * Retorna a população de uma espécie no quadro.
+     *
+     * @param species Código da espécie.
+     * @return int A população.
+     */
+    public int getPopulation(int species) { return population[species]; }
+
+    /**
+     * Método acessador do passo do quadro.
+     *
+     * @return int O passo.
+     */
+    public int getStep() { return step; }
+
+    /**
+     * Método acessador do nível de comida do quadro.
+     *
+     * @return int O nível de comida dos coelhos.
+     */
+    public int getFoodLevel() { return foodLevel; }
+
+    /**
+     * Método acessador da estação do quadro.
+     *
+     * @return String O nome da estação.
+     */
+    public String getSeason() { return season; }
+
+    /**
+     * Método acessador da profundidade do campo.
+     *
+     * @return int A profundidade.
+     */
+    public int getDepth() { return depth; }
+
+    /**
+     * Método acessador da largura do campo.
+     *
+     * @return int A largura.
+     */
+    public int getWidth() { return width; }
+
+}
@@ -0,0 +1,442 @@
+package View;
+
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import javax.swing.*;
+
+import Controllers.Field;
+import Utils.Species;
+
+/**
+ * Fornece uma visão gráfica de um campo retangular, por uma janela de
+ * visualização que pode ser arrastada com o mouse e ampliada com a roda
+ * do mouse. Inicialmente, e após um clique duplo, o campo inteiro cabe no
+ * componente.
+ *
+ * A cada desenho apenas as posições visíveis são escritas diretamente no
+ * vetor de pixels de uma imagem, a partir de uma paleta indexada pelo
+ * código da espécie, e a imagem é ampliada para o componente em uma única
+ * chamada a drawImage. Quando a ampliação é pequena demais para mostrar
+ * cada posição, o campo é desenhado em níveis de detalhe: no nível L,
+ * cada pixel da imagem é um quadrado de 2^L posições de lado, com a média
+ * das cores das espécies pesada pelas contagens do quadrado, e o nível é
+ * o menor em que um quadrado ocupa pelo menos um pixel do componente.
+ * Quadrados menores que um bloco do campo são contados nas posições;
+ * os demais vêm de uma pirâmide de contagens, em que o primeiro nível são
+ * as contagens por bloco e cada nível seguinte soma quatro quadrados do
+ * anterior. Os níveis da pirâmide são montados apenas quando usados, uma
+ * vez por quadro. Assim nenhum desenho lê mais que uma unidade por pixel,
+ * e o custo de um desenho depende do tamanho do componente, e não do
+ * campo.
+ *
+ * Imagens grandes são desenhadas em faixas de linhas em paralelo, pois
+ * cada faixa escreve apenas os seus próprios pixels.
+ *
+ * Os dados exibidos são entregues por setFrame, e devem continuar válidos
+ * até a próxima chamada. Usado apenas pela thread da interface.
+ *
+ * @author Grupo, David J. Barnes and Michael Kolling
+ * @version 1.0 SNAPSHOT
+ */
+public class FieldView extends JPanel {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int GRID_VIEW_SCALING_FACTOR = 8;
+
+    /**
+     * Maior dimensão do tamanho preferido do componente.
+     */
+    private static final int MAX_PREFERRED_SIZE = 800;
+
+    /**
+     * Nível de detalhe de um bloco do campo: Field.BLOCK_SIZE é 2 elevado
+     * a este valor.
+     */
+    private static final int BLOCK_LEVEL = Integer.numberOfTrailingZeros(Field.BLOCK_SIZE);
+
+    /**
+     * Maior ampliação, em pixels por posição.
+     */
+    private static final double MAX_ZOOM = 64;
+
+    /**
+     * Fator de ampliação de cada passo da roda do mouse.
+     */
+    private static final double WHEEL_FACTOR = 1.25;
+
+    /**
+     * Pixels a partir dos quais a imagem é desenhada em paralelo.
+     */
+    private static final int PARALLEL_CELLS = 1 << 18;
+
+    /**
+     * Linhas de cada faixa desenhada em paralelo.
+     */
+    private static final int BAND_ROWS = 64;
+
+    private int gridWidth, gridHeight;
+
+    /**
+     * Blocos por linha de blocos do campo.
+     */
+    private int blockCols;
+
+    /**
+     * Códigos de espécie exibidos, linha após linha.
+     */
+    private byte[] cells;
+
+    /**
+     * Contagem de cada espécie em cada bloco, Species.COUNT valores por bloco.
+     */
+    private int[] blockCounts;
+
+    /**
+     * Cor RGB de cada código de espécie.
+     */
+    private int[] palette;
+
+    /**
+     * Pirâmide de contagens: o nível k tem Species.COUNT contagens por
+     * quadrado de 2^k blocos de lado, linha após linha; o nível 0 é
+     * blockCounts. Apenas os níveis até pyramidLevels são do quadro atual.
+     */
+    private int[][] pyramid = new int[1][];
+    private int pyramidLevels;
+
+    /**
+     * Imagem reutilizada entre os desenhos, que cresce quando necessário.
+     */
+    private BufferedImage image;
+
+    /**
+     * Pixels da imagem, linha após linha.
+     */
+    private int[] pixels;
+
+    /**
+     * Ampliação atual, em pixels por posição.
+     */
+    private double zoom;
+
+    /**
+     * Posição do campo no canto superior esquerdo do componente, com fração.
+     */
+    private double originRow, originCol;
+
+    /**
+     * Indica que o campo inteiro é mostrado, mesmo se o componente mudar
+     * de tamanho.
+     */
+    private boolean fitted = true;
+
+    /**
+     * Último ponto do arrasto do mouse.
+     */
+    private Point dragPoint;
+
+    /**
+     * Create a new FieldView component.
+     *
+     * @param height Profundidade do campo.
+     * @param width Largura do campo.
+     */
+    public FieldView(int height, int width) {
+        gridHeight = height;
+        gridWidth = width;
+        blockCols = (width + Field.BLOCK_SIZE - 1) / Field.BLOCK_SIZE;
+
+        MouseAdapter mouse = new MouseAdapter() {
+            public void mousePressed(MouseEvent e) { dragPoint = e.getPoint(); }
+            public void mouseClicked(MouseEvent e) { if (e.getClickCount() == 2) fit(); }
+            public void mouseDragged(MouseEvent e) { drag(e.getPoint()); }
+            public void mouseWheelMoved(MouseWheelEvent e) { zoomAt(e.getPoint(), Math.pow(WHEEL_FACTOR, -e.getPreciseWheelRotation())); }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    /**
+     * Tell the GUI manager how big we would like to be.
+     */
+    public Dimension getPreferredSize() {
+        double scale = Math.min(GRID_VIEW_SCALING_FACTOR, MAX_PREFERRED_SIZE / (double) Math.max(gridWidth, gridHeight));
+        return new Dimension((int) Math.ceil(gridWidth * scale), (int) Math.ceil(gridHeight * scale));
+    }
+
+    /**
+     * Define os dados exibidos no próximo desenho.
+     *
+     * @param cells Um código de espécie por posição, linha após linha.
+     * @param blockCounts Contagem de cada espécie em cada bloco, Species.COUNT valores por bloco.
+     * @param palette Cor RGB de cada código de espécie.
+     */
+    public void setFrame(byte[] cells, int[] blockCounts, int[] palette) {
+        this.cells = cells;
+        this.blockCounts = blockCounts;
+        this.palette = palette;
+        pyramid[0] = blockCounts;
+        pyramidLevels = 0;
+    }
+
+    /**
+     * Mostra o campo inteiro no componente.
+     */
+    public void fit() {
+        fitted = true;
+        repaint();
+    }
+
+    /**
+     * Ampliação que faz o campo inteiro caber no componente.
+     *
+     * @return double Pixels por posição.
+     */
+    private double fitZoom() {
+        return Math.min(getWidth() / (double) gridWidth, getHeight() / (double) gridHeight);
+    }
+
+    /**
+     * Desloca a janela de visualização acompanhando o arrasto do mouse.
+     *
+     * @param point Ponto atual do mouse.
+     */
+    private void drag(Point point) {
+        if (zoom == 0) {
+            return;
+        }
+        if (dragPoint == null) {
+            dragPoint = point;
+            return;
+        }
+        originCol -= (point.x - dragPoint.x) / zoom;
+        originRow -= (point.y - dragPoint.y) / zoom;
+        dragPoint = point;
+        fitted = false;
+        clampOrigin();
+        repaint();
+    }
+
+    /**
+     * Muda a ampliação mantendo fixa a posição do campo sob um ponto.
+     *
+     * @param point Ponto do componente.
+     * @param factor Fator aplicado à ampliação atual.
+     */
+    private void zoomAt(Point point, double factor) {
+        if (zoom == 0) {
+            return;
+        }
+        double min = fitZoom();
+        double updated = Math.max(min, Math.min(Math.max(MAX_ZOOM, min), zoom * factor));
+        originCol += point.x / zoom - point.x / updated;
+        originRow += point.y / zoom - point.y / updated;
+        zoom = updated;
+        fitted = updated <= min;
+        clampOrigin();
+        repaint();
+    }
+
+    /**
+     * Mantém o campo dentro do componente: centralizado na direção em que
+     * cabe inteiro e sem sobrar espaço vazio na outra.
+     */
+    private void clampOrigin() {
+        double visibleCols = getWidth() / zoom, visibleRows = getHeight() / zoom;
+        originCol = visibleCols >= gridWidth ? (gridWidth - visibleCols) / 2 : Math.max(0, Math.min(originCol, gridWidth - visibleCols));
+        originRow = visibleRows >= gridHeight ? (gridHeight - visibleRows) / 2 : Math.max(0, Math.min(originRow, gridHeight - visibleRows));
+    }
+
+    /**
+     * The field view component needs to be redisplayed. Draw the visible
+     * part of the field into the internal image and copy it to screen,
+     * scaled to the current zoom.
+     */
+    public void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (cells == null || getWidth() == 0 || getHeight() == 0) {
+            return;
+        }
+        if (fitted) {
+            zoom = fitZoom();
+        }
+        clampOrigin();
+
+        // Unidade da imagem: o menor quadrado de 2^level posições que ocupa pelo menos um pixel.
+        int level = 0;
+        while ((1 << level) * zoom < 1 && (1 << level) < Math.max(gridWidth, gridHeight)) {
+            level++;
+        }
+        int unit = 1 << level;
+        int[] counts = level >= BLOCK_LEVEL ? pyramidLevel(level - BLOCK_LEVEL) : null;
+        int countCols = (blockCols + (1 << Math.max(0, level - BLOCK_LEVEL)) - 1) >> Math.max(0, level - BLOCK_LEVEL);
+        int firstCol = Math.max(0, (int) Math.floor(originCol / unit));
+        int firstRow = Math.max(0, (int) Math.floor(originRow / unit));
+        int lastCol = Math.min((gridWidth + unit - 1) / unit, (int) Math.ceil((originCol + getWidth() / zoom) / unit));
+        int lastRow = Math.min((gridHeight + unit - 1) / unit, (int) Math.ceil((originRow + getHeight() / zoom) / unit));
+        int cols = lastCol - firstCol, rows = lastRow - firstRow;
+        if (cols <= 0 || rows <= 0) {
+            return;
+        }
+
+        if (image == null || image.getWidth() < cols || image.getHeight() < rows) {
+            image = new BufferedImage(Math.max(cols, image == null ? 0 : image.getWidth()),
+                Math.max(rows, image == null ? 0 : image.getHeight()), BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        }
+        int stride = image.getWidth();
+
+        forEachBand(rows, cols, (first, last) -> {
+            int[] scratch = new int[Species.COUNT];
+            for (int y = first; y < last; y++) {
+                int base = y * stride;
+                if (unit == 1) {
+                    int cell = (firstRow + y) * gridWidth + firstCol;
+                    for (int x = 0; x < cols; x++) {
+                        pixels[base + x] = palette[cells[cell + x]];
+                    }
+                } else if (counts == null) {
+                    for (int x = 0; x < cols; x++) {
+                        pixels[base + x] = squareColor(firstRow + y, firstCol + x, unit, scratch);
+                    }
+                } else {
+                    for (int x = 0; x < cols; x++) {
+                        pixels[base + x] = averageColor(counts, ((firstRow + y) * countCols + firstCol + x) * Species.COUNT,
+                            squareSize(firstRow + y, firstCol + x, unit));
+                    }
+                }
+            }
+        });
+
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2.drawImage(image,
+            (int) Math.round((firstCol * unit - originCol) * zoom), (int) Math.round((firstRow * unit - originRow) * zoom),
+            (int) Math.round((Math.min(lastCol * unit, gridWidth) - originCol) * zoom), (int) Math.round((Math.min(lastRow * unit, gridHeight) - originRow) * zoom),
+            0, 0, cols, rows, null);
+    }
+
+    /**
+     * Retorna um nível da pirâmide de contagens do quadro atual, montando
+     * os níveis que faltam a partir do último montado.
+     *
+     * @param k Nível da pirâmide, 0 para as contagens por bloco.
+     * @return int[] As contagens do nível.
+     */
+    private int[] pyramidLevel(int k) {
+        if (k >= pyramid.length) {
+            pyramid = Arrays.copyOf(pyramid, k + 1);
+        }
+        int blockRows = (gridHeight + Field.BLOCK_SIZE - 1) / Field.BLOCK_SIZE;
+        for (; pyramidLevels < k; pyramidLevels++) {
+            int[] lower = pyramid[pyramidLevels];
+            int lowerRows = (blockRows + (1 << pyramidLevels) - 1) >> pyramidLevels;
+            int lowerCols = (blockCols + (1 << pyramidLevels) - 1) >> pyramidLevels;
+            int rows = (lowerRows + 1) >> 1, cols = (lowerCols + 1) >> 1;
+            int[] upper = pyramid[pyramidLevels + 1];
+            if (upper == null || upper.length != rows * cols * Species.COUNT) {
+                upper = pyramid[pyramidLevels + 1] = new int[rows * cols * Species.COUNT];
+            }
+            Arrays.fill(upper, 0);
+            for (int row = 0; row < lowerRows; row++) {
+                for (int col = 0; col < lowerCols; col++) {
+                    int from = (row * lowerCols + col) * Species.COUNT, to = ((row >> 1) * cols + (col >> 1)) * Species.COUNT;
+                    for (int species = 1; species < Species.COUNT; species++) {
+                        upper[to + species] += lower[from + species];
+                    }
+                }
+            }
+        }
+        return pyramid[k];
+    }
+
+    /**
+     * Calcula a cor de um quadrado menor que um bloco, contando as
+     * espécies nas suas posições.
+     *
+     * @param squareRow Linha do quadrado.
+     * @param squareCol Coluna do quadrado.
+     * @param unit Lado do quadrado, em posições.
+     * @param counts Vetor de Species.COUNT contagens, reutilizado entre os quadrados.
+     * @return int A cor RGB.
+     */
+    private int squareColor(int squareRow, int squareCol, int unit, int[] counts) {
+        Arrays.fill(counts, 0);
+        int lastRow = Math.min((squareRow + 1) * unit, gridHeight), lastCol = Math.min((squareCol + 1) * unit, gridWidth);
+        for (int row = squareRow * unit; row < lastRow; row++) {
+            for (int cell = row * gridWidth + squareCol * unit, end = row * gridWidth + lastCol; cell < end; cell++) {
+                counts[cells[cell]]++;
+            }
+        }
+        return averageColor(counts, 0, squareSize(squareRow, squareCol, unit));
+    }
+
+    /**
+     * Calcula a quantidade de posições de um quadrado, menor na última
+     * linha e na última coluna do campo.
+     *
+     * @param squareRow Linha do quadrado.
+     * @param squareCol Coluna do quadrado.
+     * @param unit Lado do quadrado, em posições.
+     * @return long As posições do quadrado.
+     */
+    private long squareSize(int squareRow, int squareCol, int unit) {
+        return (long) Math.min(unit, gridHeight - squareRow * unit) * Math.min(unit, gridWidth - squareCol * unit);
+    }
+
+    /**
+     * Calcula a média das cores das posições de um quadrado, a partir das
+     * contagens de cada espécie; as posições não contadas são vazias.
+     *
+     * @param counts Vetor de contagens.
+     * @param base Posição das contagens do quadrado no vetor.
+     * @param size Quantidade de posições do quadrado.
+     * @return int A cor RGB.
+     */
+    private int averageColor(int[] counts, int base, long size) {
+        long empty = size, red = 0, green = 0, blue = 0;
+        for (int species = 1; species < Species.COUNT; species++) {
+            int count = counts[base + species];
+            int color = palette[species];
+            empty -= count;
+            red += count * (long) ((color >> 16) & 0xFF);
+            green += count * (long) ((color >> 8) & 0xFF);
+            blue += count * (long) (color & 0xFF);
+        }
+        int color = palette[Species.EMPTY];
+        red += empty * ((color >> 16) & 0xFF);
+        green += empty * ((color >> 8) & 0xFF);
+        blue += empty * (color & 0xFF);
+        return (int) ((red / size) << 16 | (green / size) << 8 | (blue / size));
+    }
+
+    /**
+     * Executa um desenho sobre as linhas da imagem, dividido em faixas
+     * paralelas se a imagem for grande.
+     *
+     * @param rows Linhas desenhadas.
+     * @param cols Colunas desenhadas.
+     * @param band Desenho de uma faixa, da primeira linha até a linha seguinte à última.
+     */
+    private void forEachBand(int rows, int cols, Band band) {
+        if ((long) rows * cols < PARALLEL_CELLS) {
+            band.draw(0, rows);
+            return;
+        }
+        IntStream.range(0, (rows + BAND_ROWS - 1) / BAND_ROWS).parallel()
+            .forEach(i -> band.draw(i * BAND_ROWS, Math.min((i + 1) * BAND_ROWS, rows)));
+    }
+
+    /**
+     * Desenho de uma faixa de linhas.
+     */
+    private interface Band {
+        void draw(int first, int last);
+    }
+}
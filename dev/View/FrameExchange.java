@@ -0,0 +1,103 @@
+package View;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Entrega de quadros da thread da simulação para a interface gráfica por
+ * um buffer triplo, sem travas. Há três quadros: o que a simulação está
+ * escrevendo, o que a interface está exibindo e o último publicado. A
+ * publicação troca o quadro escrito pelo publicado, e a interface troca o
+ * exibido pelo publicado quando há um novo, sempre com uma única operação
+ * atômica.
+ *
+ * Assim nenhum dos lados espera pelo outro: a simulação calcula o passo
+ * seguinte enquanto a interface desenha o anterior, e quadros que a
+ * interface não chegou a exibir são simplesmente substituídos.
+ *
+ * Há um único produtor e um único consumidor.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class FrameExchange {
+
+    /**
+     * Bit de estado que indica um quadro publicado ainda não recebido.
+     */
+    private static final int FRESH = 4;
+
+    /**
+     * Máscara do índice do quadro publicado no estado.
+     */
+    private static final int INDEX = 3;
+
+    /**
+     * Os três quadros.
+     */
+    private final FieldFrame[] frames = new FieldFrame[3];
+
+    /**
+     * Índice do quadro publicado e o bit FRESH.
+     */
+    private final AtomicInteger state = new AtomicInteger(1);
+
+    /**
+     * Quadro da simulação, usado apenas pelo produtor.
+     */
+    private int back = 0;
+
+    /**
+     * Quadro da interface, usado apenas pelo consumidor.
+     */
+    private int front = 2;
+
+    /**
+     * Construtor que cria os três quadros.
+     *
+     * @param depth Profundidade do campo.
+     * @param width Largura do campo.
+     */
+    public FrameExchange(int depth, int width) {
+
+        for (int i = 0; i < frames.length; i++) {
+
+            frames[i] = new FieldFrame(depth, width);
+
+        }
+
+    }
+
+    /**
+     * Retorna o quadro a ser escrito pela simulação.
+     *
+     * @return FieldFrame O quadro do produtor.
+     */
+    public FieldFrame getBackFrame() { return frames[back]; }
+
+    /**
+     * Publica o quadro escrito e passa a escrever no quadro publicado
+     * antes, que a interface não recebeu ou já trocou.
+     */
+    public void publish() { back = state.getAndSet(back | FRESH) & INDEX; }
+
+    /**
+     * Recebe o último quadro publicado, se houver um novo desde a última
+     * chamada. O quadro devolvido não muda até a próxima chamada que
+     * devolva outro quadro.
+     *
+     * @return FieldFrame O novo quadro, ou null se não houver.
+     */
+    public FieldFrame takeLatest() {
+
+        if ((state.get() & FRESH) == 0) {
+
+            return null;
+
+        }
+
+        front = state.getAndSet(front) & INDEX;
+        return frames[front];
+
+    }
+
+}
@@ -0,0 +1,93 @@
+package View;
+
+import java.awt.Color;
+
+import Controllers.Field;
+import Core.SimulatorView;
+
+/**
+ * Implementação de SimulatorView que não renderiza nada. Utilizada
+ * para execuções em lote (sem display), onde apenas as condições de
+ * existência da simulação precisam ser avaliadas a cada passo.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class HeadlessView implements SimulatorView {
+
+    /**
+     * Último passo informado pelo simulador.
+     */
+    private int lastStep;
+
+    /**
+     * Construtor da visão sem renderização.
+     */
+    public HeadlessView() {
+
+        lastStep = 0;
+
+    }
+
+    /**
+     * Sem renderização não há cores, o método é ignorado.
+     *
+     * @param cl Classe do ator.
+     * @param color Cor do ator.
+     */
+    public void setColor(Class<?> cl, Color color) {}
+
+    /**
+     * Verifica se ainda há mais de uma espécie viva no campo.
+     *
+     * @param field Campo de simulação atual.
+     * @return true Se a simulação deve prosseguir.
+     */
+    public boolean isViable(Field field) {
+
+        return field.getStats().isViable(field);
+
+    }
+
+    /**
+     * Apenas registra o passo atual, nenhum desenho é feito.
+     *
+     * @param step Passo do processo de simulação.
+     * @param field Campo atualizado da simulação.
+     */
+    public void showStatus(int step, Field field) { this.lastStep = step; }
+
+    /**
+     * Sem renderização, o método é ignorado.
+     *
+     * @param season Estação atual.
+     */
+    public void updateSeasonField(String season) {}
+
+    /**
+     * Sem renderização, o método é ignorado.
+     *
+     * @param level Quantidade de comida.
+     */
+    public void updateFoodLevelField(int level) {}
+
+    /**
+     * Método acessador do último passo informado.
+     *
+     * @return int O último passo exibido.
+     */
+    public int getLastStep() { return this.lastStep; }
+
+    /**
+     * Gera o resumo textual da população presente no campo.
+     *
+     * @param field Campo de simulação.
+     * @return String A população de cada espécie.
+     */
+    public String getPopulationDetails(Field field) {
+
+        return field.getStats().getPopulationDetails(field);
+
+    }
+
+}
@@ -0,0 +1,291 @@
+package View;
+
+import java.awt.*;
+import java.awt.event.*;
+import java.io.IOException;
+import javax.swing.*;
+
+import Core.FrameLogReader;
+import Utils.Species;
+
+/**
+ * Janela de reprodução de um registro de quadros gravado por FrameLog.
+ * Permite avançar e voltar pela barra de passos, saltar para um passo e
+ * reproduzir em várias velocidades, até 100x.
+ *
+ * O registro é lido por FrameLogReader, que mapeia o arquivo em memória,
+ * de forma que apenas o quadro exibido fica no heap. Cada quadro exibido
+ * é reconstruído a partir do quadro anterior ou do quadro chave mais
+ * próximo, e FieldView desenha apenas a parte visível. Enquanto a barra
+ * de passos é arrastada, e na reprodução a partir de KEYFRAME_SPEED
+ * passos por quadro desenhado, apenas os quadros chave são exibidos, de
+ * forma que nenhum delta é decodificado para passos que não seriam
+ * vistos. O campo pode ser arrastado e ampliado com o mouse.
+ *
+ * @author Grupo
+ * @version 1.0 SNAPSHOT
+ */
+public class ReplayView extends JFrame {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Quadros desenhados por segundo durante a reprodução.
+     */
+    private static final int FRAMES_PER_SECOND = 30;
+
+    /**
+     * Passos por segundo na velocidade 1x.
+     */
+    private static final double BASE_STEPS_PER_SECOND = 10;
+
+    /**
+     * Velocidades de reprodução oferecidas.
+     */
+    private static final String[] SPEEDS = { "0.25x", "0.5x", "1x", "2x", "5x", "10x", "25x", "50x", "100x" };
+
+    /**
+     * Passos por quadro desenhado a partir dos quais a reprodução exibe
+     * apenas os quadros chave.
+     */
+    private static final double KEYFRAME_SPEED = 10;
+
+    /**
+     * Prefixos textuais do passo e da população.
+     */
+    private final String STEP_PREFIX = "Passo: ";
+    private final String POPULATION_PREFIX = "População: ";
+
+    /**
+     * Leitor do registro reproduzido.
+     */
+    private FrameLogReader reader;
+
+    /**
+     * Visualização do campo.
+     */
+    private FieldView fieldView;
+
+    /**
+     * Cor RGB de cada código de espécie.
+     */
+    private int[] palette;
+
+    /**
+     * Labels de passo e população.
+     */
+    private JLabel stepLabel, population;
+
+    /**
+     * Barra de passos.
+     */
+    private JSlider slider;
+
+    /**
+     * Botões de reprodução e de salto.
+     */
+    private JButton playButton, backButton, forwardButton, jumpButton;
+
+    /**
+     * Seleção da velocidade de reprodução.
+     */
+    private JComboBox<String> speedBox;
+
+    /**
+     * Passo para o qual saltar.
+     */
+    private JTextField jumpField;
+
+    /**
+     * Temporizador da reprodução, executado na thread da interface.
+     */
+    private Timer timer;
+
+    /**
+     * Posição da reprodução em passos, com fração, para velocidades que
+     * avançam menos de um passo por quadro.
+     */
+    private double playhead;
+
+    /**
+     * Indica que a barra está sendo atualizada pelo próprio programa.
+     */
+    private boolean updatingSlider;
+
+    /**
+     * Construtor que abre o registro e exibe o primeiro quadro.
+     *
+     * @param path Caminho do registro de quadros.
+     * @throws IOException Se o arquivo não puder ser lido.
+     * @throws IllegalArgumentException Se o arquivo não for um registro de quadros.
+     */
+    public ReplayView(String path) throws IOException {
+
+        reader = new FrameLogReader(path);
+        palette = new int[Species.COUNT];
+        palette[Species.EMPTY] = Color.white.getRGB();
+        palette[Species.RABBIT] = Color.orange.getRGB();
+        palette[Species.FOX] = Color.blue.getRGB();
+        palette[Species.HUNTER] = Color.red.getRGB();
+
+        setTitle("Reprodução: " + path);
+        stepLabel = new JLabel(STEP_PREFIX, JLabel.CENTER);
+        population = new JLabel(POPULATION_PREFIX, JLabel.CENTER);
+        fieldView = new FieldView(reader.getDepth(), reader.getWidth());
+        timer = new Timer(1000 / FRAMES_PER_SECOND, e -> advance());
+
+        setLocation(100, 50);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+        JPanel south = new JPanel(new GridLayout(2, 1));
+        south.add(population);
+        south.add(createControls());
+
+        Container contents = getContentPane();
+        contents.add(stepLabel, BorderLayout.NORTH);
+        contents.add(fieldView, BorderLayout.CENTER);
+        contents.add(south, BorderLayout.SOUTH);
+
+        pack();
+        setVisible(true);
+        display(reader.getFirstStep());
+
+    }
+
+    /**
+     * Cria a barra de passos e os botões de controle.
+     *
+     * @return JPanel O painel de controles.
+     */
+    private JPanel createControls() {
+
+        JPanel controls = new JPanel();
+        slider = new JSlider(reader.getFirstStep(), reader.getLastStep(), reader.getFirstStep());
+        playButton = new JButton("Reproduzir");
+        backButton = new JButton("<");
+        forwardButton = new JButton(">");
+        jumpButton = new JButton("Ir");
+        jumpField = new JTextField(6);
+        speedBox = new JComboBox<String>(SPEEDS);
+        speedBox.setSelectedItem("1x");
+
+        slider.addChangeListener(e -> {
+            if (!updatingSlider) {
+                display(slider.getValueIsAdjusting() ? reader.getKeyframeStep(slider.getValue()) : slider.getValue());
+            }
+        });
+
+        playButton.addActionListener(e -> {
+            if (timer.isRunning()) {
+                pause();
+            } else {
+                if (reader.getCurrentStep() >= reader.getLastStep()) {
+                    display(reader.getFirstStep());
+                }
+                playhead = reader.getCurrentStep();
+                playButton.setText("Pausar");
+                timer.start();
+            }
+        });
+
+        backButton.addActionListener(e -> {
+            pause();
+            display(reader.getCurrentStep() - 1);
+        });
+
+        forwardButton.addActionListener(e -> {
+            pause();
+            display(reader.getCurrentStep() + 1);
+        });
+
+        ActionListener jump = e -> {
+            try {
+                pause();
+                display(Integer.parseInt(jumpField.getText().trim()));
+            } catch (NumberFormatException ex) {
+                jumpField.setText("");
+            }
+        };
+        jumpButton.addActionListener(jump);
+        jumpField.addActionListener(jump);
+
+        controls.add(backButton);
+        controls.add(playButton);
+        controls.add(forwardButton);
+        controls.add(speedBox);
+        controls.add(slider);
+        controls.add(jumpField);
+        controls.add(jumpButton);
+        return controls;
+
+    }
+
+    /**
+     * Para a reprodução.
+     */
+    private void pause() {
+
+        timer.stop();
+        playButton.setText("Reproduzir");
+
+    }
+
+    /**
+     * Avança a reprodução de acordo com a velocidade escolhida. Chamado
+     * pelo temporizador a cada quadro. Em velocidades a partir de
+     * KEYFRAME_SPEED passos por quadro, exibe o último quadro chave
+     * alcançado, se for posterior ao exibido.
+     */
+    private void advance() {
+
+        String speed = (String) speedBox.getSelectedItem();
+        double stepsPerFrame = Double.parseDouble(speed.substring(0, speed.length() - 1)) * BASE_STEPS_PER_SECOND / FRAMES_PER_SECOND;
+        playhead += stepsPerFrame;
+
+        if (playhead >= reader.getLastStep()) {
+
+            display(reader.getLastStep());
+            pause();
+            return;
+
+        }
+
+        int step = stepsPerFrame >= KEYFRAME_SPEED ? reader.getKeyframeStep((int) playhead) : (int) playhead;
+
+        if (step > reader.getCurrentStep()) {
+
+            display(step);
+
+        }
+
+    }
+
+    /**
+     * Reconstrói e desenha o quadro de um passo. Passos fora do registro
+     * são limitados ao primeiro e ao último.
+     *
+     * @param step Passo desejado.
+     */
+    private void display(int step) {
+
+        step = Math.max(reader.getFirstStep(), Math.min(step, reader.getLastStep()));
+        int shown = reader.seek(step);
+        fieldView.setFrame(reader.getCells(), reader.getBlockCounts(), palette);
+
+        stepLabel.setText(STEP_PREFIX + shown + " de " + reader.getLastStep());
+        population.setText(POPULATION_PREFIX + Species.getName(Species.RABBIT) + ": " + reader.getPopulation(Species.RABBIT)
+            + " " + Species.getName(Species.FOX) + ": " + reader.getPopulation(Species.FOX)
+            + " " + Species.getName(Species.HUNTER) + ": " + reader.getPopulation(Species.HUNTER));
+
+        if (!slider.getValueIsAdjusting()) {
+
+            updatingSlider = true;
+            slider.setValue(shown);
+            updatingSlider = false;
+
+        }
+        fieldView.repaint();
+
+    }
+
+}
@@ -0,0 +1,3 @@
+echo "[ .. ] Executando conjunto de simulações..."
+cd build/
+java Core/EnsembleRunner "$@"
\ No newline at end of file
@@ -5,5 +5,6 @@ sudo javadoc -d ../docs Core
 sudo javadoc -d ../docs Controllers
 sudo javadoc -d ../docs Utils
 sudo javadoc -d ../docs View
+sudo javadoc -d ../docs Engine
 cd ../
 echo 'Documentação gerada!'
\ No newline at end of file
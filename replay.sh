@@ -0,0 +1,3 @@
+echo "[ .. ] Reproduzindo registro de quadros..."
+cd build/
+java Core/Principal --replay "$@"
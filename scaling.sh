@@ -0,0 +1,3 @@
+echo "[ .. ] Executando medidas de escalabilidade..."
+cd build/
+java ${JAVA_OPTS:--Xmx8g} Core/ScalingSuite "$@"
\ No newline at end of file
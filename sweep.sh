@@ -0,0 +1,3 @@
+echo "[ .. ] Executando varredura de parâmetros..."
+cd build/
+java Core/ParameterSweep "$@"
\ No newline at end of file